@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+/**
+ * Writes Brotli and gzip variants of the static resources and of the webjar assets the
+ * layout links to, run by the build once the classes are compiled. The variants are
+ * written next to the resources in the output directory, as {@code .br} and {@code .gz}
+ * files, where the resource chain serves them to clients accepting those encodings,
+ * without compressing anything at runtime. Formats that are compressed already, such as
+ * images and WOFF fonts, are skipped, as is any variant that would not be smaller.
+ * <p>
+ * Usage: {@code StaticAssetCompressor <output directory>}
+ */
+public final class StaticAssetCompressor {
+
+	private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "map", "svg", "ttf", "eot", "otf", "html",
+			"json", "txt");
+
+	private static final List<String> WEBJAR_ASSETS = List.of("META-INF/resources/webjars/bootstrap/*/dist/js/**",
+			"META-INF/resources/webjars/font-awesome/*/css/**", "META-INF/resources/webjars/font-awesome/*/fonts/**");
+
+	private final Path outputDirectory;
+
+	private final Encoder.Parameters brotli = new Encoder.Parameters().setQuality(11);
+
+	private int written;
+
+	private StaticAssetCompressor(Path outputDirectory) {
+		this.outputDirectory = outputDirectory;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			throw new IllegalArgumentException("Usage: StaticAssetCompressor <output directory>");
+		}
+		Brotli4jLoader.ensureAvailability();
+		StaticAssetCompressor compressor = new StaticAssetCompressor(Path.of(args[0]));
+		compressor.compressStaticResources();
+		compressor.compressWebjarAssets();
+		System.out.println("Wrote " + compressor.written + " compressed static assets to " + args[0]);
+	}
+
+	private void compressStaticResources() throws IOException {
+		Path root = this.outputDirectory.resolve("static");
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(root)) {
+			for (Path file : files.filter(Files::isRegularFile)
+				.filter(StaticAssetCompressor::isCompressible)
+				.toList()) {
+				write(file, Files.readAllBytes(file));
+			}
+		}
+	}
+
+	private void compressWebjarAssets() throws IOException {
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(
+				StaticAssetCompressor.class.getClassLoader());
+		for (String pattern : WEBJAR_ASSETS) {
+			for (Resource resource : resolver.getResources("classpath*:" + pattern)) {
+				if (!resource.isReadable() || !isCompressible(Path.of(resource.getFilename()))) {
+					continue;
+				}
+				String url = resource.getURL().toString();
+				Path file = this.outputDirectory.resolve(url.substring(url.lastIndexOf("META-INF/resources/webjars/")));
+				try (InputStream input = resource.getInputStream()) {
+					write(file, input.readAllBytes());
+				}
+			}
+		}
+	}
+
+	private void write(Path file, byte[] content) throws IOException {
+		Files.createDirectories(file.getParent());
+		write(file.resolveSibling(file.getFileName() + ".br"), content, Encoder.compress(content, this.brotli));
+		write(file.resolveSibling(file.getFileName() + ".gz"), content, gzip(content));
+	}
+
+	private void write(Path variant, byte[] content, byte[] compressed) throws IOException {
+		if (compressed.length < content.length) {
+			Files.write(variant, compressed);
+			this.written++;
+		}
+		else {
+			Files.deleteIfExists(variant);
+		}
+	}
+
+	private static byte[] gzip(byte[] content) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(output) {
+			{
+				this.def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gzip.write(content);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return output.toByteArray();
+	}
+
+	private static boolean isCompressible(Path file) {
+		String extension = StringUtils.getFilenameExtension(file.getFileName().toString());
+		return extension != null && COMPRESSIBLE.contains(extension.toLowerCase());
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A booked appointment: the visit holding it and the vet and slot it takes.
+ *
+ * @param visitId the id of the visit
+ * @param vetId the id of the vet
+ * @param date the date of the appointment
+ * @param startTime the start time of its slot
+ */
+public record Appointment(Integer visitId, Integer vetId, LocalDate date, LocalTime startTime) {
+
+}
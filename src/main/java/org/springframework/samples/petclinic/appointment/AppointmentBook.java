@@ -0,0 +1,266 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Books appointments with vets and finds free slots, from one in-memory
+ * {@link VetCalendar} per vet. The calendars are built from the working hours and the
+ * future appointments in the database on first use, and rebuilt periodically to pick up
+ * appointments booked by other instances.
+ * <p>
+ * A slot is first reserved in the calendar, which settles concurrent requests within this
+ * instance without touching the database, and then saved as a {@link Visit}. The unique
+ * index on the vet, date and start time of visits settles requests racing on different
+ * instances: the losing insert fails and is reported as {@link SlotUnavailableException},
+ * with no table or row locks held beyond the insert.
+ */
+@Component
+public class AppointmentBook {
+
+	private static final Logger logger = LoggerFactory.getLogger(AppointmentBook.class);
+
+	private final WorkingHoursRepository workingHours;
+
+	private final AppointmentRepository appointments;
+
+	private final VisitRepository visits;
+
+	private final OwnerRepository owners;
+
+	private final VetRepository vets;
+
+	private final int horizonDays;
+
+	private volatile Map<Integer, VetCalendar> calendars;
+
+	public AppointmentBook(WorkingHoursRepository workingHours, AppointmentRepository appointments,
+			VisitRepository visits, OwnerRepository owners, VetRepository vets,
+			@Value("${appointments.horizon-days:56}") int horizonDays) {
+		this.workingHours = workingHours;
+		this.appointments = appointments;
+		this.visits = visits;
+		this.owners = owners;
+		this.vets = vets;
+		this.horizonDays = horizonDays;
+	}
+
+	/**
+	 * Find the earliest free slots of the vets with the given specialty, in order of time
+	 * and then of vet, up to the booking horizon.
+	 * @param specialty the name of the specialty, matched case-insensitively, or
+	 * {@code null} for all vets
+	 * @param from the earliest start time, moved forward to now if it is in the past
+	 * @param count the maximum number of slots to return
+	 * @return the free slots
+	 */
+	public List<FreeSlot> findFreeSlots(String specialty, LocalDateTime from, int count) {
+		LocalDateTime now = LocalDateTime.now();
+		if (from.isBefore(now)) {
+			from = now;
+		}
+		Map<Integer, VetCalendar> calendars = calendars();
+		List<Vet> vets = new ArrayList<>();
+		List<VetCalendar> vetCalendars = new ArrayList<>();
+		for (Vet vet : this.vets.findAll()) {
+			VetCalendar calendar = calendars.get(vet.getId());
+			if (calendar != null && (specialty == null || hasSpecialty(vet, specialty))) {
+				vets.add(vet);
+				vetCalendars.add(calendar);
+			}
+		}
+		List<FreeSlot> slots = new ArrayList<>(Math.min(count, 100));
+		long[][] free = new long[vets.size()][VetCalendar.WORDS_PER_DAY];
+		long[] any = new long[VetCalendar.WORDS_PER_DAY];
+		LocalDate date = from.toLocalDate();
+		LocalDate last = lastBookableDate();
+		int slot = VetCalendar.ceilSlot(from.toLocalTime());
+		while (!date.isAfter(last) && slots.size() < count) {
+			if (anyFreeSlots(vetCalendars, date, free, any)) {
+				slot = VetCalendar.nextSetBit(any, slot);
+				while (slot >= 0 && slots.size() < count) {
+					for (int i = 0; i < free.length && slots.size() < count; i++) {
+						if (VetCalendar.isSet(free[i], 0, slot)) {
+							Vet vet = vets.get(i);
+							slots.add(new FreeSlot(vet.getId(), vet.getFirstName() + " " + vet.getLastName(), date,
+									VetCalendar.startOf(slot)));
+						}
+					}
+					slot = VetCalendar.nextSetBit(any, slot + 1);
+				}
+			}
+			date = date.plusDays(1);
+			slot = 0;
+		}
+		return slots;
+	}
+
+	/**
+	 * Book an appointment for a pet with a vet, saving it as a visit of the pet.
+	 * @param ownerId the id of the owner of the pet
+	 * @param petId the id of the pet
+	 * @param vetId the id of the vet
+	 * @param date the date of the appointment
+	 * @param startTime the start time of the slot
+	 * @param description the description of the visit
+	 * @return the booked appointment
+	 * @throws IllegalArgumentException if the owner, pet or vet is not found or the slot
+	 * is not a bookable time
+	 * @throws SlotUnavailableException if the vet does not work or is already booked in
+	 * the slot
+	 */
+	public Appointment book(int ownerId, int petId, int vetId, LocalDate date, LocalTime startTime,
+			String description) {
+		int slot = VetCalendar.slotOf(startTime);
+		if (date.atTime(startTime).isBefore(LocalDateTime.now()) || date.isAfter(lastBookableDate())) {
+			throw new IllegalArgumentException(
+					"Appointments can be booked from now until " + lastBookableDate() + ": " + date + " " + startTime);
+		}
+		Owner owner = this.owners.findById(ownerId)
+			.orElseThrow(() -> new IllegalArgumentException("Owner not found with id: " + ownerId));
+		Pet pet = owner.getPet(petId);
+		if (pet == null) {
+			throw new IllegalArgumentException("Pet not found with id: " + petId + " for owner with id: " + ownerId);
+		}
+		VetCalendar calendar = calendars().get(vetId);
+		if (calendar == null) {
+			throw new IllegalArgumentException("Vet not found or without working hours with id: " + vetId);
+		}
+		if (!calendar.reserve(date, slot)) {
+			throw new SlotUnavailableException("Vet " + vetId + " is not available on " + date + " at " + startTime);
+		}
+
+		Visit visit = new Visit();
+		visit.setPet(pet);
+		visit.setVetId(vetId);
+		visit.setDate(date);
+		visit.setStartTime(startTime);
+		visit.setDescription(description);
+		try {
+			Visit saved = this.visits.addVisit(visit);
+			return new Appointment(saved.getId(), vetId, date, startTime);
+		}
+		catch (DuplicateKeyException ex) {
+			// Booked through another instance since the calendars were loaded, as the
+			// unique index of the slots tells: the slot stays reserved here, as it is
+			// taken
+			throw new SlotUnavailableException(
+					"Vet " + vetId + " was booked on " + date + " at " + startTime + " by another request");
+		}
+		catch (RuntimeException ex) {
+			calendar.release(date, slot);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Rebuild the calendars from the database. Appointments saved by this instance while
+	 * the calendars are rebuilt may briefly show as free, in which case booking them
+	 * again fails on the unique index.
+	 */
+	@Scheduled(fixedDelayString = "${appointments.reload-interval-seconds:300}",
+			initialDelayString = "${appointments.reload-interval-seconds:300}", timeUnit = TimeUnit.SECONDS)
+	public void reload() {
+		this.calendars = load();
+	}
+
+	private Map<Integer, VetCalendar> calendars() {
+		Map<Integer, VetCalendar> calendars = this.calendars;
+		if (calendars == null) {
+			synchronized (this) {
+				calendars = this.calendars;
+				if (calendars == null) {
+					calendars = load();
+					this.calendars = calendars;
+				}
+			}
+		}
+		return calendars;
+	}
+
+	private Map<Integer, VetCalendar> load() {
+		long start = System.nanoTime();
+		Map<Integer, VetCalendar> calendars = new HashMap<>();
+		for (WorkingHours hours : this.workingHours.findAll()) {
+			calendars.computeIfAbsent(hours.getVetId(), id -> new VetCalendar())
+				.addWorkingHours(hours.getDayOfWeek(), hours.getStartTime(), hours.getEndTime());
+		}
+		List<Appointment> appointments = this.appointments.findAppointmentsFrom(LocalDate.now());
+		for (Appointment appointment : appointments) {
+			VetCalendar calendar = calendars.get(appointment.vetId());
+			if (calendar != null && VetCalendar.isSlotStart(appointment.startTime())) {
+				calendar.markBooked(appointment.date(), VetCalendar.slotOf(appointment.startTime()));
+			}
+		}
+		logger.debug("Loaded calendars of {} vets with {} appointments in {} ms", calendars.size(), appointments.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return Map.copyOf(calendars);
+	}
+
+	private LocalDate lastBookableDate() {
+		return LocalDate.now().plusDays(this.horizonDays - 1);
+	}
+
+	private static boolean anyFreeSlots(List<VetCalendar> calendars, LocalDate date, long[][] free, long[] any) {
+		boolean found = false;
+		for (int i = 0; i < VetCalendar.WORDS_PER_DAY; i++) {
+			any[i] = 0;
+		}
+		for (int v = 0; v < free.length; v++) {
+			if (calendars.get(v).freeSlots(date, free[v])) {
+				found = true;
+				for (int i = 0; i < VetCalendar.WORDS_PER_DAY; i++) {
+					any[i] |= free[v][i];
+				}
+			}
+		}
+		return found;
+	}
+
+	private static boolean hasSpecialty(Vet vet, String name) {
+		for (Specialty specialty : vet.getSpecialties()) {
+			if (name.equalsIgnoreCase(specialty.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * JSON API for finding free appointment slots and booking them.
+ */
+@RestController
+class AppointmentController {
+
+	static final int MAX_SLOTS = 100;
+
+	private final AppointmentBook appointmentBook;
+
+	public AppointmentController(AppointmentBook appointmentBook) {
+		this.appointmentBook = appointmentBook;
+	}
+
+	@GetMapping("/appointments/free-slots")
+	public List<FreeSlot> findFreeSlots(@RequestParam(required = false) String specialty,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(defaultValue = "5") int count) {
+		return this.appointmentBook.findFreeSlots(specialty, (from != null) ? from : LocalDateTime.now(),
+				Math.max(1, Math.min(count, MAX_SLOTS)));
+	}
+
+	@PostMapping("/appointments")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Appointment book(@Valid @RequestBody AppointmentRequest request) {
+		return this.appointmentBook.book(request.ownerId(), request.petId(), request.vetId(), request.date(),
+				request.startTime(), request.description());
+	}
+
+	@ExceptionHandler
+	ProblemDetail handleSlotUnavailable(SlotUnavailableException ex) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+	}
+
+	@ExceptionHandler
+	ProblemDetail handleIllegalArgument(IllegalArgumentException ex) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+	}
+
+	/**
+	 * Request to book an appointment.
+	 *
+	 * @param ownerId the id of the owner of the pet
+	 * @param petId the id of the pet
+	 * @param vetId the id of the vet
+	 * @param date the date of the appointment
+	 * @param startTime the start time of the slot
+	 * @param description the description of the visit
+	 */
+	record AppointmentRequest(@NotNull Integer ownerId, @NotNull Integer petId, @NotNull Integer vetId,
+			@NotNull LocalDate date, @NotNull LocalTime startTime, @NotBlank @Size(max = 255) String description) {
+
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository class for reading the visits booked as appointments. Appointments are saved
+ * as visits through {@link org.springframework.samples.petclinic.owner.VisitRepository}.
+ */
+public interface AppointmentRepository extends Repository<Visit, Integer> {
+
+	/**
+	 * Retrieve the appointments on or after the given date.
+	 * @param from the first date to retrieve
+	 * @return the appointments
+	 */
+	@Transactional(readOnly = true)
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.appointment.Appointment(
+				visit.id, visit.vetId, visit.date, visit.startTime)
+			FROM Visit visit WHERE visit.vetId IS NOT NULL AND visit.date >= :from""")
+	List<Appointment> findAppointmentsFrom(@Param("from") LocalDate from);
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory calendar of one vet, as bitmaps of {@value #SLOT_MINUTES}-minute slots. A day
+ * is {@value #WORDS_PER_DAY} {@code long} words, one bit per slot, so the free slots of a
+ * day are the working hours of its day of week with the booked slots masked out, a
+ * handful of word operations regardless of how many appointments there are.
+ * <p>
+ * Working hours are set once while the calendar is built; bookings are guarded by the
+ * calendar's monitor, so that each slot is handed out at most once.
+ */
+final class VetCalendar {
+
+	static final int SLOT_MINUTES = 15;
+
+	static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+	static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+	private final long[] workingHours = new long[7 * WORDS_PER_DAY];
+
+	private final Map<LocalDate, long[]> booked = new HashMap<>();
+
+	/**
+	 * Add working hours on the given day of week. Slots that only partly overlap the
+	 * hours are not bookable.
+	 * @param day the day of week
+	 * @param start the start of the working hours
+	 * @param end the end of the working hours, exclusive
+	 */
+	void addWorkingHours(DayOfWeek day, LocalTime start, LocalTime end) {
+		int offset = (day.getValue() - 1) * WORDS_PER_DAY;
+		int last = end.toSecondOfDay() / 60 / SLOT_MINUTES;
+		for (int slot = ceilSlot(start); slot < last; slot++) {
+			this.workingHours[offset + slot / Long.SIZE] |= 1L << slot;
+		}
+	}
+
+	/**
+	 * Whether the vet works during the given slot of the given date, booked or not.
+	 */
+	boolean isWorking(LocalDate date, int slot) {
+		return isSet(this.workingHours, (date.getDayOfWeek().getValue() - 1) * WORDS_PER_DAY, slot);
+	}
+
+	/**
+	 * Book the given slot if the vet works then and it is not booked yet.
+	 * @return {@code true} if the slot was booked by this call
+	 */
+	synchronized boolean reserve(LocalDate date, int slot) {
+		long[] booked = this.booked.computeIfAbsent(date, d -> new long[WORDS_PER_DAY]);
+		if (!isWorking(date, slot) || isSet(booked, 0, slot)) {
+			return false;
+		}
+		booked[slot / Long.SIZE] |= 1L << slot;
+		return true;
+	}
+
+	/**
+	 * Mark the given slot as booked, whether or not the vet works then, as for an
+	 * appointment read back from the database.
+	 */
+	synchronized void markBooked(LocalDate date, int slot) {
+		this.booked.computeIfAbsent(date, d -> new long[WORDS_PER_DAY])[slot / Long.SIZE] |= 1L << slot;
+	}
+
+	/**
+	 * Free a slot booked by {@link #reserve(LocalDate, int)} whose appointment could not
+	 * be saved.
+	 */
+	synchronized void release(LocalDate date, int slot) {
+		long[] booked = this.booked.get(date);
+		if (booked != null) {
+			booked[slot / Long.SIZE] &= ~(1L << slot);
+		}
+	}
+
+	/**
+	 * Write the bitmap of the free slots of the given date to the given words.
+	 * @param date the date
+	 * @param words the {@value #WORDS_PER_DAY} words to overwrite
+	 * @return whether any slot is free
+	 */
+	synchronized boolean freeSlots(LocalDate date, long[] words) {
+		int offset = (date.getDayOfWeek().getValue() - 1) * WORDS_PER_DAY;
+		long[] booked = this.booked.get(date);
+		long any = 0;
+		for (int i = 0; i < WORDS_PER_DAY; i++) {
+			words[i] = this.workingHours[offset + i] & ((booked != null) ? ~booked[i] : -1L);
+			any |= words[i];
+		}
+		return any != 0;
+	}
+
+	/**
+	 * Return the index of the first set bit at or after the given slot, or {@code -1}.
+	 */
+	static int nextSetBit(long[] words, int fromSlot) {
+		int index = fromSlot / Long.SIZE;
+		if (index >= WORDS_PER_DAY) {
+			return -1;
+		}
+		long word = words[index] & (-1L << fromSlot);
+		while (word == 0) {
+			if (++index == WORDS_PER_DAY) {
+				return -1;
+			}
+			word = words[index];
+		}
+		return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+	}
+
+	static boolean isSet(long[] words, int offset, int slot) {
+		return (words[offset + slot / Long.SIZE] & (1L << slot)) != 0;
+	}
+
+	/**
+	 * Return the slot starting at the given time, which must be on a slot boundary.
+	 */
+	static int slotOf(LocalTime time) {
+		if (!isSlotStart(time)) {
+			throw new IllegalArgumentException(
+					"Appointments start on the hour or at a multiple of " + SLOT_MINUTES + " minutes past: " + time);
+		}
+		return time.toSecondOfDay() / 60 / SLOT_MINUTES;
+	}
+
+	/**
+	 * Return the first slot starting at or after the given time, which is
+	 * {@link #SLOTS_PER_DAY} if none is left that day.
+	 */
+	static int ceilSlot(LocalTime time) {
+		int slotSeconds = SLOT_MINUTES * 60;
+		return (int) ((time.toNanoOfDay() + slotSeconds * 1_000_000_000L - 1) / (slotSeconds * 1_000_000_000L));
+	}
+
+	static boolean isSlotStart(LocalTime time) {
+		return time.getNano() == 0 && time.toSecondOfDay() % (SLOT_MINUTES * 60) == 0;
+	}
+
+	static LocalTime startOf(int slot) {
+		return LocalTime.ofSecondOfDay(slot * SLOT_MINUTES * 60L);
+	}
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports the owners, pets and visits as CSV. Rows are read through a forward-only,
+ * read-only JDBC cursor fetching {@code export.fetch-size} rows at a time and written
+ * through a {@link CsvWriter} as they arrive, without mapping them to entities, so an
+ * export takes the same small amount of memory whatever the number of rows.
+ * <p>
+ * The export runs in a read-only transaction, which lets PostgreSQL use a cursor for the
+ * fetch size rather than reading the whole result, and routes it to the replica when one
+ * is configured. MySQL only honors the fetch size with {@code useCursorFetch=true}, which
+ * the {@code mysql} profile sets.
+ */
+@Component
+public class CsvExporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(CsvExporter.class);
+
+	private final JdbcTemplate jdbc;
+
+	private final TransactionTemplate readOnly;
+
+	private final int bufferSize;
+
+	public CsvExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+			@Value("${export.fetch-size:1000}") int fetchSize, @Value("${export.buffer-size:65536}") int bufferSize) {
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.jdbc.setFetchSize(fetchSize);
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Write a dataset as CSV, with a header record, in order of id.
+	 * @param dataset the dataset to export
+	 * @param out the stream to write to, flushed but not closed
+	 * @return the number of records written, not counting the header
+	 */
+	public long export(Dataset dataset, OutputStream out) throws IOException {
+		long start = System.nanoTime();
+		CsvWriter writer = new CsvWriter(out, this.bufferSize);
+		writer.record(dataset.header);
+		long rows;
+		try {
+			rows = this.readOnly.execute(status -> {
+				long written = 0;
+				for (Query query : dataset.queries) {
+					written += this.jdbc.query(query.sql(),
+							(ResultSetExtractor<Long>) rs -> write(rs, writer, query.extraField()));
+				}
+				return written;
+			});
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		writer.flush();
+		logger.debug("Exported {} {} in {} ms", rows, dataset.fileName(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return rows;
+	}
+
+	private static long write(ResultSet rs, CsvWriter writer, String extraField) throws SQLException {
+		int[] types = columnTypes(rs.getMetaData());
+		long rows = 0;
+		try {
+			while (rs.next()) {
+				for (int i = 0; i < types.length; i++) {
+					writeColumn(rs, i + 1, types[i], writer);
+				}
+				if (extraField != null) {
+					writer.field(extraField);
+				}
+				writer.endRecord();
+				rows++;
+			}
+		}
+		catch (IOException ex) {
+			// the client went away, or the connection is too slow: stop reading
+			throw new UncheckedIOException(ex);
+		}
+		return rows;
+	}
+
+	private static void writeColumn(ResultSet rs, int column, int type, CsvWriter writer)
+			throws SQLException, IOException {
+		switch (type) {
+			case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> {
+				long value = rs.getLong(column);
+				if (rs.wasNull()) {
+					writer.emptyField();
+				}
+				else {
+					writer.field(value);
+				}
+			}
+			case Types.DATE -> writer.field(rs.getObject(column, LocalDate.class));
+			case Types.TIME -> writer.field(rs.getObject(column, LocalTime.class));
+			default -> writer.field(rs.getString(column));
+		}
+	}
+
+	private static int[] columnTypes(ResultSetMetaData metaData) throws SQLException {
+		int[] types = new int[metaData.getColumnCount()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = metaData.getColumnType(i + 1);
+		}
+		return types;
+	}
+
+	/**
+	 * A dataset that can be exported, with its header and the queries returning its rows.
+	 */
+	public enum Dataset {
+
+		OWNERS(new String[] { "id", "first_name", "last_name", "address", "city", "telephone" },
+				new Query("SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY id", null)),
+
+		PETS(new String[] { "id", "name", "birth_date", "type", "owner_id" },
+				new Query("SELECT p.id, p.name, p.birth_date, t.name, p.owner_id FROM pets p "
+						+ "JOIN types t ON t.id = p.type_id ORDER BY p.id", null)),
+
+		/**
+		 * Visits, current ones first and then archived ones, each in order of id.
+		 */
+		VISITS(new String[] { "id", "pet_id", "vet_id", "visit_date", "start_time", "description", "archived" },
+				new Query("SELECT id, pet_id, vet_id, visit_date, start_time, description FROM visits ORDER BY id",
+						"false"),
+				new Query("SELECT id, pet_id, vet_id, visit_date, start_time, description FROM visits_archive "
+						+ "ORDER BY id", "true"));
+
+		private final String[] header;
+
+		private final List<Query> queries;
+
+		Dataset(String[] header, Query... queries) {
+			this.header = header;
+			this.queries = List.of(queries);
+		}
+
+		/**
+		 * Return the dataset with the given name, such as {@code visits}.
+		 * @throws IllegalArgumentException if there is no such dataset
+		 */
+		public static Dataset of(String name) {
+			for (Dataset dataset : values()) {
+				if (dataset.fileName().equals(name)) {
+					return dataset;
+				}
+			}
+			throw new IllegalArgumentException("No such dataset: " + name);
+		}
+
+		/**
+		 * Return the name of the dataset, without extension, as used in URLs.
+		 */
+		public String fileName() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+
+	}
+
+	/**
+	 * Query returning rows of a dataset.
+	 *
+	 * @param sql the query, with one column per header field, except the last one if
+	 * there is an extra field
+	 * @param extraField the value of the last field of every row, {@code null} if none
+	 */
+	private record Query(String sql, String extraField) {
+
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Writes RFC 4180 CSV records as UTF-8 to an output stream, through a single byte buffer
+ * that is reused for every record. Numbers, dates and times are formatted straight into
+ * the buffer and strings are encoded char by char, so writing a record allocates nothing.
+ * Fields containing a separator, a quote or a line break are quoted, with their quotes
+ * doubled, and records end with CRLF.
+ * <p>
+ * The buffer is written out whenever it is full and on {@link #flush()}; the writer does
+ * not close the stream.
+ */
+final class CsvWriter {
+
+	private static final int MAX_BYTES_PER_CHAR = 4;
+
+	private final OutputStream out;
+
+	private final byte[] buffer;
+
+	private int position;
+
+	private boolean firstField = true;
+
+	CsvWriter(OutputStream out, int bufferSize) {
+		if (bufferSize < 64) {
+			throw new IllegalArgumentException("Buffer size must be at least 64 bytes: " + bufferSize);
+		}
+		this.out = out;
+		this.buffer = new byte[bufferSize];
+	}
+
+	/**
+	 * Write a record of string fields, such as a header.
+	 */
+	void record(String... fields) throws IOException {
+		for (String field : fields) {
+			field(field);
+		}
+		endRecord();
+	}
+
+	/**
+	 * Write a string field, quoted if needed, or an empty field if {@code null}.
+	 */
+	void field(String value) throws IOException {
+		separate();
+		if (value == null) {
+			return;
+		}
+		boolean quoted = needsQuotes(value);
+		if (quoted) {
+			put((byte) '"');
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				put((byte) '"');
+				put((byte) '"');
+			}
+			else if (c < 0x80) {
+				put((byte) c);
+			}
+			else {
+				i = putNonAscii(value, i);
+			}
+		}
+		if (quoted) {
+			put((byte) '"');
+		}
+	}
+
+	void field(long value) throws IOException {
+		separate();
+		ensure(20);
+		if (value < 0) {
+			this.buffer[this.position++] = '-';
+			if (value == Long.MIN_VALUE) {
+				putDigits(-(value / 10), 1);
+				this.buffer[this.position++] = (byte) ('0' - (value % 10));
+				return;
+			}
+			value = -value;
+		}
+		putDigits(value, 1);
+	}
+
+	/**
+	 * Write a date as {@code yyyy-MM-dd}, or an empty field if {@code null}.
+	 */
+	void field(LocalDate value) throws IOException {
+		separate();
+		if (value == null) {
+			return;
+		}
+		ensure(16);
+		int year = value.getYear();
+		if (year < 0) {
+			this.buffer[this.position++] = '-';
+			year = -year;
+		}
+		putDigits(year, 4);
+		this.buffer[this.position++] = '-';
+		putDigits(value.getMonthValue(), 2);
+		this.buffer[this.position++] = '-';
+		putDigits(value.getDayOfMonth(), 2);
+	}
+
+	/**
+	 * Write a time as {@code HH:mm:ss}, or an empty field if {@code null}.
+	 */
+	void field(LocalTime value) throws IOException {
+		separate();
+		if (value == null) {
+			return;
+		}
+		ensure(8);
+		putDigits(value.getHour(), 2);
+		this.buffer[this.position++] = ':';
+		putDigits(value.getMinute(), 2);
+		this.buffer[this.position++] = ':';
+		putDigits(value.getSecond(), 2);
+	}
+
+	/**
+	 * Write an empty field.
+	 */
+	void emptyField() throws IOException {
+		separate();
+	}
+
+	void endRecord() throws IOException {
+		ensure(2);
+		this.buffer[this.position++] = '\r';
+		this.buffer[this.position++] = '\n';
+		this.firstField = true;
+	}
+
+	/**
+	 * Write out the buffered records and flush the stream.
+	 */
+	void flush() throws IOException {
+		drain();
+		this.out.flush();
+	}
+
+	private void separate() throws IOException {
+		if (this.firstField) {
+			this.firstField = false;
+		}
+		else {
+			put((byte) ',');
+		}
+	}
+
+	private static boolean needsQuotes(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Encode the non-ASCII char at the given index, and the low surrogate following it if
+	 * it is a high surrogate.
+	 * @return the index of the last char encoded
+	 */
+	private int putNonAscii(String value, int index) throws IOException {
+		ensure(MAX_BYTES_PER_CHAR);
+		char c = value.charAt(index);
+		if (c < 0x800) {
+			this.buffer[this.position++] = (byte) (0xC0 | (c >> 6));
+			this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+			return index;
+		}
+		if (Character.isHighSurrogate(c) && index + 1 < value.length()
+				&& Character.isLowSurrogate(value.charAt(index + 1))) {
+			int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+			this.buffer[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+			this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+			this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+			this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+			return index + 1;
+		}
+		if (Character.isSurrogate(c)) {
+			// unpaired surrogate, replaced as the JDK encoder does
+			this.buffer[this.position++] = '?';
+			return index;
+		}
+		this.buffer[this.position++] = (byte) (0xE0 | (c >> 12));
+		this.buffer[this.position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+		this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+		return index;
+	}
+
+	/**
+	 * Write the decimal digits of a non-negative value, left-padded with zeros to the
+	 * given width. There must be room for them in the buffer.
+	 */
+	private void putDigits(long value, int width) {
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		digits = Math.max(digits, width);
+		for (int i = this.position + digits - 1; i >= this.position; i--) {
+			this.buffer[i] = (byte) ('0' + (value % 10));
+			value /= 10;
+		}
+		this.position += digits;
+	}
+
+	private void put(byte b) throws IOException {
+		if (this.position == this.buffer.length) {
+			drain();
+		}
+		this.buffer[this.position++] = b;
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (this.position + bytes > this.buffer.length) {
+			drain();
+		}
+	}
+
+	private void drain() throws IOException {
+		if (this.position > 0) {
+			this.out.write(this.buffer, 0, this.position);
+			this.position = 0;
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Raises the async request timeout of exports to {@code export.timeout}, since streaming
+ * a large export takes far longer than the default timeout of the container, which still
+ * applies to every other async request.
+ */
+@Configuration(proxyBeanMethods = false)
+class ExportConfiguration implements WebMvcConfigurer {
+
+	/**
+	 * Request attribute holding the dataset being exported.
+	 */
+	static final String EXPORT_ATTRIBUTE = ExportConfiguration.class.getName() + ".dataset";
+
+	private final Duration timeout;
+
+	ExportConfiguration(@Value("${export.timeout:1h}") Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+
+			@Override
+			public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+				if (request instanceof AsyncWebRequest asyncRequest
+						&& request.getAttribute(EXPORT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+					asyncRequest.setTimeout(ExportConfiguration.this.timeout.toMillis());
+				}
+			}
+
+		});
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * CSV exports of the owners, pets and visits, for reporting, at
+ * {@code /api/export/owners.csv}, {@code /api/export/pets.csv} and
+ * {@code /api/export/visits.csv}. The rows are streamed to the client by
+ * {@link CsvExporter} as they are read, on an MVC async thread, with the request timeout
+ * raised to {@code export.timeout} by {@link ExportConfiguration}.
+ */
+@RestController
+class ExportController {
+
+	static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+	private final CsvExporter exporter;
+
+	ExportController(CsvExporter exporter) {
+		this.exporter = exporter;
+	}
+
+	@GetMapping("/api/export/{dataset}.csv")
+	ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset, HttpServletRequest request) {
+		CsvExporter.Dataset export = CsvExporter.Dataset.of(dataset);
+		request.setAttribute(ExportConfiguration.EXPORT_ATTRIBUTE, export);
+		return ResponseEntity.ok()
+			.contentType(TEXT_CSV)
+			.header(HttpHeaders.CONTENT_DISPOSITION,
+					ContentDisposition.attachment().filename(export.fileName() + ".csv").build().toString())
+			.cacheControl(CacheControl.noStore())
+			.body(out -> this.exporter.export(export, out));
+	}
+
+	@ExceptionHandler
+	ProblemDetail handleUnknownDataset(IllegalArgumentException ex) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.annotations.Immutable;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * A visit that {@link VisitArchiveJob} has moved to the {@code visits_archive} table.
+ * Archived visits are history: they are mapped read-only, never cached, and only read
+ * when the archive of a pet is shown, so they never mix with the {@link Visit} entities
+ * of the pet.
+ */
+@Entity
+@Immutable
+@Table(name = "visits_archive")
+public class ArchivedVisit extends BaseEntity {
+
+	@Column(name = "visit_date")
+	private LocalDate date;
+
+	private String description;
+
+	@Column(name = "pet_id")
+	private Integer petId;
+
+	@Column(name = "vet_id")
+	private Integer vetId;
+
+	@Column(name = "start_time")
+	private LocalTime startTime;
+
+	public LocalDate getDate() {
+		return this.date;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	public Integer getPetId() {
+		return this.petId;
+	}
+
+	public Integer getVetId() {
+		return this.vetId;
+	}
+
+	public LocalTime getStartTime() {
+		return this.startTime;
+	}
+
+}
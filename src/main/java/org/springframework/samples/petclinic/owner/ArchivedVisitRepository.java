@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository class for the read-only <code>ArchivedVisit</code> domain objects, moved to
+ * the archive by {@link VisitArchiveJob}.
+ */
+public interface ArchivedVisitRepository extends Repository<ArchivedVisit, Integer> {
+
+	/**
+	 * Retrieve a page of the archived visits of a {@link Pet}, newest first. They are
+	 * older than any visit of the pet that has not been archived.
+	 * @param petId the id of the pet
+	 * @param pageable the page to retrieve
+	 * @return a {@link Slice} of archived visits, which knows whether older ones exist
+	 */
+	@Transactional(readOnly = true)
+	@Query("SELECT visit FROM ArchivedVisit visit WHERE visit.petId = :petId ORDER BY visit.date DESC, visit.id DESC")
+	Slice<ArchivedVisit> findByPetIdNewestFirst(@Param("petId") Integer petId, Pageable pageable);
+
+}
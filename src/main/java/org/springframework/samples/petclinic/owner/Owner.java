@@ -16,8 +16,12 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.samples.petclinic.model.Person;
 import org.springframework.util.Assert;
@@ -30,6 +34,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.NotBlank;
 
@@ -45,6 +50,7 @@ import jakarta.validation.constraints.NotBlank;
  */
 @Entity
 @Table(name = "owners")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "owners")
 public class Owner extends Person {
 
 	@Column(name = "address")
@@ -60,11 +66,26 @@ public class Owner extends Person {
 	@Pattern(regexp = "\\d{10}", message = "{telephone.invalid}")
 	private String telephone;
 
+	/**
+	 * Version of the owner, incremented whenever the owner, its pets or their visits
+	 * change, so it tells clients and concurrent edits whether any of them did.
+	 */
+	@Version
+	@Column(name = "version")
+	private Integer version;
+
 	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
 	@JoinColumn(name = "owner_id")
 	@OrderBy("name")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "owners.pets")
 	private final List<Pet> pets = new ArrayList<>();
 
+	/**
+	 * Lazily built lookup index over {@link #pets}, discarded whenever a pet is added or
+	 * renamed. Not persisted.
+	 */
+	private transient PetIndex petIndex;
+
 	public String getAddress() {
 		return this.address;
 	}
@@ -89,6 +110,14 @@ public class Owner extends Person {
 		this.telephone = telephone;
 	}
 
+	public Integer getVersion() {
+		return this.version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	public List<Pet> getPets() {
 		return this.pets;
 	}
@@ -96,6 +125,7 @@ public class Owner extends Person {
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
 			getPets().add(pet);
+			invalidatePetIndex();
 		}
 	}
 
@@ -114,12 +144,18 @@ public class Owner extends Person {
 	 * @return the Pet with the given id, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(Integer id) {
-		for (Pet pet : getPets()) {
-			if (!pet.isNew()) {
-				Integer compId = pet.getId();
-				if (compId.equals(id)) {
-					return pet;
-				}
+		if (id == null) {
+			return null;
+		}
+		PetIndex index = getPetIndex();
+		Pet pet = index.byId.get(id);
+		if (pet != null && id.equals(pet.getId())) {
+			return pet;
+		}
+		// Pets that were new when the index was built may have been saved since
+		for (Pet unsaved : index.unsaved) {
+			if (id.equals(unsaved.getId())) {
+				return unsaved;
 			}
 		}
 		return null;
@@ -132,9 +168,12 @@ public class Owner extends Person {
 	 * @return the Pet with the given name, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(String name, boolean ignoreNew) {
-		for (Pet pet : getPets()) {
-			String compName = pet.getName();
-			if (compName != null && compName.equalsIgnoreCase(name)) {
+		if (name == null) {
+			return null;
+		}
+		List<Pet> candidates = getPetIndex().byName.get(foldCase(name));
+		if (candidates != null) {
+			for (Pet pet : candidates) {
 				if (!ignoreNew || !pet.isNew()) {
 					return pet;
 				}
@@ -143,6 +182,35 @@ public class Owner extends Person {
 		return null;
 	}
 
+	/**
+	 * Discard the pet lookup index so that it is rebuilt on the next lookup. Called when
+	 * the set of pets or the name of one of them changes.
+	 */
+	void invalidatePetIndex() {
+		this.petIndex = null;
+	}
+
+	private PetIndex getPetIndex() {
+		PetIndex index = this.petIndex;
+		if (index == null || !index.isCurrentFor(this.pets)) {
+			index = new PetIndex(this, this.pets);
+			this.petIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Fold a pet name so that two names map to the same key exactly when
+	 * {@link String#equalsIgnoreCase(String)} considers them equal.
+	 */
+	static String foldCase(String name) {
+		StringBuilder folded = new StringBuilder(name.length());
+		name.codePoints()
+			.map(codePoint -> Character.toLowerCase(Character.toUpperCase(codePoint)))
+			.forEach(folded::appendCodePoint);
+		return folded.toString();
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringCreator(this).append("id", this.getId())
@@ -172,4 +240,50 @@ public class Owner extends Person {
 		pet.addVisit(visit);
 	}
 
+	/**
+	 * Id and case-folded name index over the pets of an owner. Name buckets keep the
+	 * {@code @OrderBy("name")} list order so that lookups return the same pet as a linear
+	 * scan would.
+	 */
+	private static final class PetIndex {
+
+		private final List<Pet> pets;
+
+		private final int size;
+
+		private final Map<Integer, Pet> byId;
+
+		private final Map<String, List<Pet>> byName;
+
+		private final List<Pet> unsaved = new ArrayList<>(1);
+
+		PetIndex(Owner owner, List<Pet> pets) {
+			this.pets = pets;
+			this.size = pets.size();
+			this.byId = new HashMap<>(Math.max(16, this.size * 2));
+			this.byName = new HashMap<>(Math.max(16, this.size * 2));
+			for (Pet pet : pets) {
+				pet.setIndexingOwner(owner);
+				if (pet.isNew()) {
+					this.unsaved.add(pet);
+				}
+				else {
+					this.byId.putIfAbsent(pet.getId(), pet);
+				}
+				if (pet.getName() != null) {
+					this.byName.computeIfAbsent(foldCase(pet.getName()), key -> new ArrayList<>(1)).add(pet);
+				}
+			}
+		}
+
+		/**
+		 * Guard against the pet list being replaced (for example by Hibernate) or
+		 * modified directly through {@link Owner#getPets()}.
+		 */
+		boolean isCurrentFor(List<Pet> pets) {
+			return this.pets == pets && this.size == pets.size();
+		}
+
+	}
+
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * JSON API for reading owners, with their pets and visits. The {@code fields} parameter
+ * selects the fields to return, such as {@code id,lastName,pets.name}, see
+ * {@link OwnerFields}, and only those are read from the database.
+ * <p>
+ * Owners are listed in order of id, a page at a time, each page linking to the next one
+ * by the id of its last owner. The JSON is streamed to the response as it is read.
+ * Responses carry an ETag derived from the versions of the owners and the selected
+ * fields, see {@link OwnerJsonWriter}, so clients can revalidate them with
+ * {@code If-None-Match} and get a 304 without the body. Conditional requests are checked
+ * against the versions on the primary database before anything else is read.
+ */
+@RestController
+class OwnerApiController {
+
+	static final int DEFAULT_PAGE_SIZE = 20;
+
+	static final int MAX_PAGE_SIZE = 100;
+
+	private final OwnerJsonWriter writer;
+
+	private final OwnerRepository owners;
+
+	OwnerApiController(OwnerJsonWriter writer, OwnerRepository owners) {
+		this.writer = writer;
+		this.owners = owners;
+	}
+
+	@GetMapping("/api/owners")
+	ResponseEntity<Void> listOwners(@RequestParam(required = false) String fields,
+			@RequestParam(required = false) String lastName, @RequestParam(defaultValue = "0") int after,
+			@RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size, WebRequest request,
+			HttpServletResponse response) throws IOException {
+		OwnerFields selected = OwnerFields.parse(fields);
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		if (request.checkNotModified(this.writer.ownersETag(lastName, after, pageSize, selected))) {
+			return null;
+		}
+		this.writer.writeOwners(lastName, after, pageSize, selected,
+				last -> ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", last)
+					.build()
+					.toUriString(),
+				etag -> json(response, etag));
+		return null;
+	}
+
+	@GetMapping("/api/owners/{ownerId}")
+	ResponseEntity<Void> showOwner(@PathVariable int ownerId, @RequestParam(required = false) String fields,
+			WebRequest request, HttpServletResponse response) throws IOException {
+		OwnerFields selected = OwnerFields.parse(fields);
+		Optional<Integer> version = this.owners.findVersionById(ownerId);
+		if (version.isEmpty()) {
+			return ResponseEntity.notFound().build();
+		}
+		if (request.checkNotModified(OwnerJsonWriter.ownerETag(version.get(), selected))) {
+			return null;
+		}
+		if (!this.writer.writeOwner(ownerId, selected, etag -> json(response, etag))) {
+			return ResponseEntity.notFound().build();
+		}
+		return null;
+	}
+
+	@ExceptionHandler
+	ProblemDetail handleIllegalArgument(IllegalArgumentException ex) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+	}
+
+	/**
+	 * Start a JSON response with the given ETag, which may differ from the one checked if
+	 * the owners are read from a replica that lags behind the primary database.
+	 */
+	private static OutputStream json(HttpServletResponse response, String etag) {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+		response.setHeader(HttpHeaders.ETAG, etag);
+		try {
+			return response.getOutputStream();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -18,6 +18,8 @@ package org.springframework.samples.petclinic.owner;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +35,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.samples.petclinic.system.RateLimitInterceptor.*;
@@ -51,8 +55,18 @@ class OwnerController {
 
 	private final OwnerRepository owners;
 
-	public OwnerController(OwnerRepository owners) {
+	private final VisitRepository visits;
+
+	private final ArchivedVisitRepository archivedVisits;
+
+	private final int visitPageSize;
+
+	public OwnerController(OwnerRepository owners, VisitRepository visits, ArchivedVisitRepository archivedVisits,
+			@Value("${visits.page-size:5}") int visitPageSize) {
 		this.owners = owners;
+		this.visits = visits;
+		this.archivedVisits = archivedVisits;
+		this.visitPageSize = visitPageSize;
 	}
 
 	@InitBinder
@@ -150,8 +164,23 @@ class OwnerController {
 			return "redirect:/owners/{ownerId}/edit";
 		}
 
+		if (owner.getVersion() == null) {
+			// an empty version would make the repository persist the owner as a new one
+			result.reject("concurrentModification",
+					"This owner was changed by someone else in the meantime, reload it to edit the current version");
+			return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
+		}
+
 		owner.setId(ownerId);
-		this.owners.save(owner);
+		try {
+			this.owners.save(owner);
+		}
+		catch (OptimisticLockingFailureException ex) {
+			// the version submitted with the form is not the current one anymore
+			result.reject("concurrentModification",
+					"This owner was changed by someone else in the meantime, reload it to edit the current version");
+			return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
+		}
 		redirectAttributes.addFlashAttribute("message", "Owner Values Updated");
 		return "redirect:/owners/{ownerId}";
 	}
@@ -159,16 +188,64 @@ class OwnerController {
 	/**
 	 * Custom handler for displaying an owner.
 	 * @param ownerId the ID of the owner to display
+	 * @param request the request, whose ETag the {@link OwnerETagFilter} has computed
+	 * @param response the response
 	 * @return a ModelMap with the model attributes for the view
 	 */
 	@GetMapping("/owners/{ownerId}")
-	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
+	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId, HttpServletRequest request,
+			HttpServletResponse response) {
 		ModelAndView mav = new ModelAndView("owners/ownerDetails");
 		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
 		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
 				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
+		OwnerETagFilter.checkRenderedVersion(request, response, owner.getVersion());
 		mav.addObject(owner);
+		List<Integer> petIds = owner.getPets().stream().map(Pet::getId).toList();
+		mav.addObject("recentVisits", this.visits.findFirstPageByPetIds(petIds, this.visitPageSize));
 		return mav;
 	}
 
+	/**
+	 * Renders the next page of a pet's visit history as table rows, for the "load more"
+	 * link of the owner details page.
+	 * @param owner the owner, loaded from the path
+	 * @param petId the ID of the pet whose visits to show
+	 * @param page the 1-based page of visits, newest first
+	 * @return the visit rows fragment of the owner details view
+	 */
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits")
+	public String showVisits(Owner owner, @PathVariable("petId") int petId, @RequestParam(defaultValue = "1") int page,
+			Model model) {
+		model.addAttribute("pet", findPet(owner, petId));
+		model.addAttribute("visits",
+				this.visits.findByPetIdNewestFirst(petId, PageRequest.of(page - 1, this.visitPageSize)));
+		return "owners/ownerDetails :: visitRows";
+	}
+
+	/**
+	 * Shows a page of the visits of a pet that have been moved to the archive.
+	 * @param owner the owner, loaded from the path
+	 * @param petId the ID of the pet whose archived visits to show
+	 * @param page the 1-based page of archived visits, newest first
+	 * @return the archived visits view
+	 */
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits/archive")
+	public String showArchivedVisits(Owner owner, @PathVariable("petId") int petId,
+			@RequestParam(defaultValue = "1") int page, Model model) {
+		model.addAttribute("pet", findPet(owner, petId));
+		model.addAttribute("visits",
+				this.archivedVisits.findByPetIdNewestFirst(petId, PageRequest.of(page - 1, this.visitPageSize)));
+		return "owners/archivedVisits";
+	}
+
+	private static Pet findPet(Owner owner, int petId) {
+		Pet pet = owner.getPet(petId);
+		if (pet == null) {
+			throw new IllegalArgumentException(
+					"Pet not found with id: " + petId + " for owner with id: " + owner.getId());
+		}
+		return pet;
+	}
+
 }
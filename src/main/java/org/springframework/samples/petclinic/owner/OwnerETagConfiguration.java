@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.LocaleResolver;
+
+/**
+ * Registers the {@link OwnerETagFilter} ahead of the {@link OwnerPageCacheFilter}.
+ */
+@Configuration(proxyBeanMethods = false)
+class OwnerETagConfiguration {
+
+	@Bean
+	FilterRegistrationBean<OwnerETagFilter> ownerETagFilter(OwnerRepository owners, LocaleResolver localeResolver,
+			ObjectProvider<BuildProperties> buildProperties) {
+		// without build info, such as when run from an IDE, pages are revalidated per run
+		BuildProperties build = buildProperties.getIfAvailable();
+		long buildTime = (build != null && build.getTime() != null) ? build.getTime().toEpochMilli()
+				: System.currentTimeMillis();
+		FilterRegistrationBean<OwnerETagFilter> registration = new FilterRegistrationBean<>(
+				new OwnerETagFilter(owners, localeResolver, Long.toString(buildTime, Character.MAX_RADIX)));
+		registration.addUrlPatterns("/owners/*");
+		registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+		return registration;
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+
+/**
+ * Answers conditional requests for the owner details page, {@code GET /owners/{ownerId}},
+ * from the version of the owner. The page carries a weak ETag made of the version, the
+ * locale it is rendered in and the build of the application, whose static resources it
+ * links to, so a request with a matching {@code If-None-Match} gets a 304 after a single
+ * lookup of the version, without the owner, its pets and their visits being loaded or the
+ * page rendered. It runs before the {@link OwnerPageCacheFilter}.
+ * <p>
+ * The version is read on the primary database, while the page may be rendered from a
+ * replica that lags behind. {@link OwnerController} checks the version it rendered with
+ * {@link #checkRenderedVersion} and forbids storing a page older than its ETag, which
+ * would otherwise be revalidated as current until the next change of the owner. Both
+ * versions are kept as request attributes, so that the {@link OwnerPageCacheFilter} only
+ * serves a cached page rendered with the version of the ETag, see {@link #version} and
+ * {@link #renderedVersion}.
+ * <p>
+ * Like the page cache, requests with a query string or that may show a flash message are
+ * left alone.
+ */
+class OwnerETagFilter extends OncePerRequestFilter {
+
+	private static final Pattern OWNER_PATH = Pattern.compile("/owners/(\\d{1,9})");
+
+	private static final String VERSION_ATTRIBUTE = OwnerETagFilter.class.getName() + ".version";
+
+	private static final String RENDERED_VERSION_ATTRIBUTE = OwnerETagFilter.class.getName() + ".renderedVersion";
+
+	private final OwnerRepository owners;
+
+	private final LocaleResolver localeResolver;
+
+	private final String build;
+
+	OwnerETagFilter(OwnerRepository owners, LocaleResolver localeResolver, String build) {
+		this.owners = owners;
+		this.localeResolver = localeResolver;
+		this.build = build;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"GET".equals(request.getMethod()) || request.getQueryString() != null
+				|| !OWNER_PATH.matcher(path(request)).matches();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (OwnerPageCacheFilter.mayHaveFlashAttributes(request)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Matcher matcher = OWNER_PATH.matcher(path(request));
+		matcher.matches();
+		Optional<Integer> version = this.owners.findVersionById(Integer.parseInt(matcher.group(1)));
+		if (version.isEmpty()) {
+			chain.doFilter(request, response);
+			return;
+		}
+		String etag = "W/\"" + version.get() + "-" + this.localeResolver.resolveLocale(request).toLanguageTag() + "-"
+				+ this.build + "\"";
+		if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+			return;
+		}
+		request.setAttribute(VERSION_ATTRIBUTE, version.get());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+		chain.doFilter(request, response);
+	}
+
+	/**
+	 * Forbid storing the page if the owner it renders is older than the version of its
+	 * ETag, as read from a replica that has not caught up yet.
+	 * @param request the request for the owner details page
+	 * @param response the response, not committed yet
+	 * @param renderedVersion the version of the owner the page renders
+	 */
+	static void checkRenderedVersion(HttpServletRequest request, HttpServletResponse response,
+			Integer renderedVersion) {
+		request.setAttribute(RENDERED_VERSION_ATTRIBUTE, renderedVersion);
+		Object version = request.getAttribute(VERSION_ATTRIBUTE);
+		if (version != null && !version.equals(renderedVersion)) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+		}
+	}
+
+	/**
+	 * Return the version of the owner read on the primary database for the ETag of the
+	 * request, or {@code null} if none was.
+	 */
+	static Integer version(HttpServletRequest request) {
+		return (Integer) request.getAttribute(VERSION_ATTRIBUTE);
+	}
+
+	/**
+	 * Return the version of the owner the page of the request renders, or {@code null} if
+	 * no page was rendered.
+	 */
+	static Integer renderedVersion(HttpServletRequest request) {
+		return (Integer) request.getAttribute(RENDERED_VERSION_ATTRIBUTE);
+	}
+
+	private static String path(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+}
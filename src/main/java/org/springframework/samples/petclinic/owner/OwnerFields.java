@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Fields of the owners selected by the {@code fields} parameter of the owners API, such
+ * as {@code id,lastName,pets.name}. Fields of pets are prefixed with {@code pets.} and
+ * fields of their visits with {@code pets.visits.}; {@code pets} and {@code pets.visits}
+ * on their own select all the fields of the pets or of their visits. Without any field,
+ * every field is selected.
+ */
+final class OwnerFields {
+
+	static final OwnerFields ALL = new OwnerFields(EnumSet.allOf(Field.class));
+
+	private final Set<Field> fields;
+
+	private OwnerFields(Set<Field> fields) {
+		this.fields = Collections.unmodifiableSet(fields);
+	}
+
+	/**
+	 * Parse a comma-separated list of fields.
+	 * @param fields the fields, all fields if {@code null} or blank
+	 * @throws IllegalArgumentException if a field is unknown
+	 */
+	static OwnerFields parse(String fields) {
+		if (!StringUtils.hasText(fields)) {
+			return ALL;
+		}
+		EnumSet<Field> selected = EnumSet.noneOf(Field.class);
+		for (String path : StringUtils.commaDelimitedListToStringArray(fields)) {
+			String trimmed = path.trim();
+			if (trimmed.equals(Level.PET.path)) {
+				selected.addAll(Level.PET.fields());
+			}
+			else if (trimmed.equals(Level.VISIT.path)) {
+				selected.addAll(Level.VISIT.fields());
+			}
+			else if (!trimmed.isEmpty()) {
+				selected.add(Field.of(trimmed));
+			}
+		}
+		return selected.isEmpty() ? ALL : new OwnerFields(selected);
+	}
+
+	Set<Field> fields() {
+		return this.fields;
+	}
+
+	/**
+	 * Return whether any field of the given level, or of a level below it, is selected.
+	 */
+	boolean includes(Level level) {
+		return this.fields.stream().anyMatch(field -> field.level.compareTo(level) >= 0);
+	}
+
+	@Override
+	public String toString() {
+		return this.fields.stream().map(Field::path).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Levels of the owner representation, each nested in the one before.
+	 */
+	enum Level {
+
+		OWNER(null), PET("pets"), VISIT("pets.visits");
+
+		private final String path;
+
+		Level(String path) {
+			this.path = path;
+		}
+
+		/**
+		 * Return the name of the array holding the objects of this level in the object of
+		 * the level above.
+		 */
+		String arrayName() {
+			return this.path.substring(this.path.lastIndexOf('.') + 1);
+		}
+
+		Set<Field> fields() {
+			return Arrays.stream(Field.values())
+				.filter(field -> field.level == this)
+				.collect(Collectors.toCollection(() -> EnumSet.noneOf(Field.class)));
+		}
+
+	}
+
+	/**
+	 * Types of field values, which decide how they are read and written.
+	 */
+	enum Type {
+
+		INTEGER, STRING, DATE, TIME
+
+	}
+
+	/**
+	 * A field that can be selected, with its name in JSON and the column holding it in
+	 * the query of {@link OwnerJsonWriter}, whose tables are aliased {@code o},
+	 * {@code p}, {@code t} and {@code v}.
+	 */
+	enum Field {
+
+		ID(Level.OWNER, "id", "o.id", Type.INTEGER),
+
+		FIRST_NAME(Level.OWNER, "firstName", "o.first_name", Type.STRING),
+
+		LAST_NAME(Level.OWNER, "lastName", "o.last_name", Type.STRING),
+
+		ADDRESS(Level.OWNER, "address", "o.address", Type.STRING),
+
+		CITY(Level.OWNER, "city", "o.city", Type.STRING),
+
+		TELEPHONE(Level.OWNER, "telephone", "o.telephone", Type.STRING),
+
+		PET_ID(Level.PET, "id", "p.id", Type.INTEGER),
+
+		PET_NAME(Level.PET, "name", "p.name", Type.STRING),
+
+		PET_BIRTH_DATE(Level.PET, "birthDate", "p.birth_date", Type.DATE),
+
+		PET_TYPE(Level.PET, "type", "t.name", Type.STRING),
+
+		VISIT_ID(Level.VISIT, "id", "v.id", Type.INTEGER),
+
+		VISIT_DATE(Level.VISIT, "date", "v.visit_date", Type.DATE),
+
+		VISIT_DESCRIPTION(Level.VISIT, "description", "v.description", Type.STRING),
+
+		VISIT_VET_ID(Level.VISIT, "vetId", "v.vet_id", Type.INTEGER),
+
+		VISIT_START_TIME(Level.VISIT, "startTime", "v.start_time", Type.TIME);
+
+		private final Level level;
+
+		private final String name;
+
+		private final String column;
+
+		private final Type type;
+
+		Field(Level level, String name, String column, Type type) {
+			this.level = level;
+			this.name = name;
+			this.column = column;
+			this.type = type;
+		}
+
+		static Field of(String path) {
+			for (Field field : values()) {
+				if (field.path().equals(path)) {
+					return field;
+				}
+			}
+			throw new IllegalArgumentException("Unknown field: " + path);
+		}
+
+		String path() {
+			return (this.level.path != null) ? this.level.path + "." + this.name : this.name;
+		}
+
+		Level level() {
+			return this.level;
+		}
+
+		String jsonName() {
+			return this.name;
+		}
+
+		String column() {
+			return this.column;
+		}
+
+		Type type() {
+			return this.type;
+		}
+
+	}
+
+}
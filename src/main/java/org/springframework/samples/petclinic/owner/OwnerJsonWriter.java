@@ -0,0 +1,422 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.samples.petclinic.owner.OwnerFields.Field;
+import org.springframework.samples.petclinic.owner.OwnerFields.Level;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes owners as JSON for the owners API, straight from the rows of a projection query
+ * to a {@link JsonGenerator}, without loading entities. The query only selects the
+ * columns of the requested {@link OwnerFields}, and only joins the pets and their visits
+ * when fields of theirs are requested, so that the owners, their pets and their visits
+ * are read in one round trip ordered the way they are nested.
+ * <p>
+ * Owners are paged by id: a page is the owners with an id greater than the last one of
+ * the previous page, which the database finds through the primary key index however deep
+ * the page is.
+ * <p>
+ * The JSON is streamed to the output as it is read. Its weak ETag is derived from the ids
+ * and versions of the owners, which cover their pets and visits, read in the same
+ * transaction just before the JSON and handed to the caller to send before the body.
+ * ETags can also be read on their own, on the primary database, to answer conditional
+ * requests without reading the owners.
+ */
+@Component
+class OwnerJsonWriter {
+
+	private final JdbcTemplate jdbc;
+
+	private final TransactionTemplate readOnly;
+
+	private final TransactionTemplate primary;
+
+	private final JsonFactory jsonFactory;
+
+	OwnerJsonWriter(JdbcTemplate jdbc, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+		this.jdbc = jdbc;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		// read-write transactions always run on the primary database
+		this.primary = new TransactionTemplate(transactionManager);
+		this.jsonFactory = objectMapper.getFactory();
+	}
+
+	/**
+	 * Return the ETag of an owner.
+	 * @param version the version of the owner
+	 * @param fields the fields written
+	 */
+	static String ownerETag(int version, OwnerFields fields) {
+		return "W/\"" + version + "-" + Integer.toHexString(fields.toString().hashCode()) + "\"";
+	}
+
+	/**
+	 * Write an owner as a JSON object.
+	 * @param ownerId the id of the owner
+	 * @param fields the fields to write
+	 * @param output the stream to write to, given the ETag of the owner
+	 * @return whether the owner exists, nothing is written otherwise
+	 */
+	boolean writeOwner(int ownerId, OwnerFields fields, Function<String, OutputStream> output) throws IOException {
+		return inTransaction(this.readOnly, () -> {
+			List<Integer> versions = this.jdbc.queryForList("SELECT version FROM owners WHERE id = ?", Integer.class,
+					ownerId);
+			if (versions.isEmpty()) {
+				return false;
+			}
+			try (JsonGenerator json = generator(output.apply(ownerETag(versions.get(0), fields)))) {
+				return query(fields, "id = ?", 1, json, ownerId).owners() > 0;
+			}
+		});
+	}
+
+	/**
+	 * Return the ETag of a page of owners as read on the primary database, which is only
+	 * that of the page written by {@link #writeOwners} if neither has read stale data.
+	 */
+	String ownersETag(String lastName, int after, int size, OwnerFields fields) {
+		Page page = new Page(lastName, after);
+		return this.primary.execute(status -> page.etag(size, fields));
+	}
+
+	/**
+	 * Write a page of owners as a JSON object holding them in an {@code owners} array,
+	 * and the URL of the next page in {@code next}, {@code null} on the last page.
+	 * @param lastName the prefix of the last names of the owners, {@code null} for all
+	 * @param after the id of the last owner of the previous page, 0 for the first page
+	 * @param size the maximum number of owners
+	 * @param fields the fields to write
+	 * @param nextPage the URL of the page after the owner with the given id
+	 * @param output the stream to write to, given the ETag of the page
+	 */
+	void writeOwners(String lastName, int after, int size, OwnerFields fields, IntFunction<String> nextPage,
+			Function<String, OutputStream> output) throws IOException {
+		Page page = new Page(lastName, after);
+		inTransaction(this.readOnly, () -> {
+			try (JsonGenerator json = generator(output.apply(page.etag(size, fields)))) {
+				json.writeStartObject();
+				json.writeArrayFieldStart("owners");
+				Result result = query(fields, page.condition(), size, json, page.arguments());
+				json.writeEndArray();
+				json.writeStringField("next", result.hasMore() ? nextPage.apply(result.lastOwnerId()) : null);
+				json.writeEndObject();
+			}
+			return null;
+		});
+	}
+
+	private JsonGenerator generator(OutputStream out) throws IOException {
+		// leave the response stream open to the servlet container
+		return this.jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	private static <T> T inTransaction(TransactionTemplate transaction, IoCallback<T> callback) throws IOException {
+		try {
+			return transaction.execute(status -> {
+				try {
+					return callback.call();
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	@FunctionalInterface
+	private interface IoCallback<T> {
+
+		T call() throws IOException;
+
+	}
+
+	/**
+	 * The condition selecting the owners of a page, and the owners after it.
+	 */
+	private final class Page {
+
+		private final String lastName;
+
+		private final int after;
+
+		Page(String lastName, int after) {
+			this.lastName = lastName;
+			this.after = after;
+		}
+
+		String condition() {
+			return (this.lastName != null) ? "id > ? AND last_name LIKE ?" : "id > ?";
+		}
+
+		Object[] arguments() {
+			return (this.lastName != null) ? new Object[] { this.after, this.lastName + "%" }
+					: new Object[] { this.after };
+		}
+
+		/**
+		 * Return the ETag of the page, a digest of the ids and versions of its owners and
+		 * of the owner after them, which tells whether there is a next page.
+		 */
+		String etag(int size, OwnerFields fields) {
+			Object[] arguments = arguments();
+			Object[] parameters = Arrays.copyOf(arguments, arguments.length + 1);
+			parameters[arguments.length] = size + 1;
+			StringBuilder versions = new StringBuilder(fields.toString());
+			OwnerJsonWriter.this.jdbc.query(
+					"SELECT id, version FROM owners WHERE " + condition() + " ORDER BY id LIMIT ?",
+					(RowCallbackHandler) rs -> versions.append(',')
+						.append(rs.getInt(1))
+						.append(':')
+						.append(rs.getInt(2)),
+					parameters);
+			return "W/\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+		}
+
+	}
+
+	private Result query(OwnerFields fields, String condition, int limit, JsonGenerator json, Object... args) {
+		Projection projection = new Projection(fields);
+		Object[] parameters = new Object[args.length + 1];
+		System.arraycopy(args, 0, parameters, 0, args.length);
+		// one more owner than asked for tells whether there is a next page
+		parameters[args.length] = limit + 1;
+		return this.jdbc.query(projection.sql(condition),
+				(ResultSetExtractor<Result>) rs -> projection.write(rs, json, limit), parameters);
+	}
+
+	/**
+	 * Owners written, and whether there are more.
+	 */
+	private record Result(int owners, int lastOwnerId, boolean hasMore) {
+
+	}
+
+	/**
+	 * The query selecting some fields of the owners, and the mapping of its rows to JSON.
+	 * The first columns are the ids of the owner, of the pet and of the visit, as far as
+	 * they are selected, which tell when a row starts a new object; the columns of the
+	 * other fields follow.
+	 */
+	private static final class Projection {
+
+		private final OwnerFields fields;
+
+		private final boolean pets;
+
+		private final boolean visits;
+
+		private final List<String> columns = new ArrayList<>();
+
+		private final int[] columnIndexes = new int[Field.values().length];
+
+		Projection(OwnerFields fields) {
+			this.fields = fields;
+			this.pets = fields.includes(Level.PET);
+			this.visits = fields.includes(Level.VISIT);
+			this.columns.add(Field.ID.column());
+			if (this.pets) {
+				this.columns.add(Field.PET_ID.column());
+			}
+			if (this.visits) {
+				this.columns.add(Field.VISIT_ID.column());
+			}
+			for (Field field : fields.fields()) {
+				int index = this.columns.indexOf(field.column());
+				if (index < 0) {
+					index = this.columns.size();
+					this.columns.add(field.column());
+				}
+				this.columnIndexes[field.ordinal()] = index + 1;
+			}
+		}
+
+		String sql(String condition) {
+			StringBuilder ownerColumns = new StringBuilder("id");
+			for (Field field : this.fields.fields()) {
+				if (field.level() == Level.OWNER && field != Field.ID) {
+					ownerColumns.append(", ").append(field.column().substring("o.".length()));
+				}
+			}
+			StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", this.columns))
+				.append(" FROM (SELECT ")
+				.append(ownerColumns)
+				.append(" FROM owners WHERE ")
+				.append(condition)
+				.append(" ORDER BY id LIMIT ?) o");
+			if (this.pets) {
+				sql.append(" LEFT JOIN pets p ON p.owner_id = o.id");
+				if (this.fields.fields().contains(Field.PET_TYPE)) {
+					sql.append(" LEFT JOIN types t ON t.id = p.type_id");
+				}
+			}
+			if (this.visits) {
+				sql.append(" LEFT JOIN visits v ON v.pet_id = p.id");
+			}
+			sql.append(" ORDER BY o.id");
+			if (this.pets) {
+				sql.append(", p.name, p.id");
+			}
+			if (this.visits) {
+				sql.append(", v.visit_date, v.id");
+			}
+			return sql.toString();
+		}
+
+		Result write(ResultSet rs, JsonGenerator json, int limit) throws SQLException {
+			int owners = 0;
+			int ownerId = 0;
+			int petId = 0;
+			try {
+				while (rs.next()) {
+					int owner = rs.getInt(1);
+					if (owners == 0 || owner != ownerId) {
+						if (owners > 0) {
+							endOwner(json, petId != 0);
+						}
+						if (owners == limit) {
+							return new Result(owners, ownerId, true);
+						}
+						json.writeStartObject();
+						writeFields(rs, json, Level.OWNER);
+						if (this.pets) {
+							json.writeArrayFieldStart(Level.PET.arrayName());
+						}
+						ownerId = owner;
+						petId = 0;
+						owners++;
+					}
+					if (!this.pets) {
+						continue;
+					}
+					int pet = rs.getInt(2);
+					if (rs.wasNull()) {
+						continue;
+					}
+					if (pet != petId) {
+						if (petId != 0) {
+							endPet(json);
+						}
+						json.writeStartObject();
+						writeFields(rs, json, Level.PET);
+						if (this.visits) {
+							json.writeArrayFieldStart(Level.VISIT.arrayName());
+						}
+						petId = pet;
+					}
+					if (this.visits) {
+						rs.getInt(3);
+						if (!rs.wasNull()) {
+							json.writeStartObject();
+							writeFields(rs, json, Level.VISIT);
+							json.writeEndObject();
+						}
+					}
+				}
+				if (owners > 0) {
+					endOwner(json, petId != 0);
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			return new Result(owners, ownerId, false);
+		}
+
+		private void endOwner(JsonGenerator json, boolean inPet) throws IOException {
+			if (inPet) {
+				endPet(json);
+			}
+			if (this.pets) {
+				json.writeEndArray();
+			}
+			json.writeEndObject();
+		}
+
+		private void endPet(JsonGenerator json) throws IOException {
+			if (this.visits) {
+				json.writeEndArray();
+			}
+			json.writeEndObject();
+		}
+
+		private void writeFields(ResultSet rs, JsonGenerator json, Level level) throws SQLException, IOException {
+			for (Field field : this.fields.fields()) {
+				if (field.level() == level) {
+					json.writeFieldName(field.jsonName());
+					writeValue(rs, this.columnIndexes[field.ordinal()], field, json);
+				}
+			}
+		}
+
+		private static void writeValue(ResultSet rs, int column, Field field, JsonGenerator json)
+				throws SQLException, IOException {
+			switch (field.type()) {
+				case INTEGER -> {
+					int value = rs.getInt(column);
+					if (rs.wasNull()) {
+						json.writeNull();
+					}
+					else {
+						json.writeNumber(value);
+					}
+				}
+				case DATE -> {
+					LocalDate value = rs.getObject(column, LocalDate.class);
+					json.writeString((value != null) ? value.toString() : null);
+				}
+				case TIME -> {
+					LocalTime value = rs.getObject(column, LocalTime.class);
+					json.writeString((value != null) ? value.toString() : null);
+				}
+				case STRING -> json.writeString(rs.getString(column));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+/**
+ * Rendered owner details pages, by owner and then by locale. Pages are kept in the
+ * {@value #CACHE_NAME} cache, one entry per owner holding its page in each locale, so
+ * that evicting an owner is a single eviction, which is broadcast to the other instances
+ * like any other.
+ * <p>
+ * A page rendered from data read before an eviction must not be cached after it, or it
+ * would stay stale. Every eviction therefore advances a generation, and a page is only
+ * cached if no eviction happened since its rendering started. Evictions that do not go
+ * through this cache, such as those received from other instances, do not advance it, and
+ * some changes are only evicted after their commit. Each page therefore also records the
+ * version of the owner it renders, and is only served for that version, so that a page
+ * older than the owner is a miss whenever it was cached.
+ * <p>
+ * Lookups are counted by the {@code owner.page.cache.requests} counter, tagged with a
+ * {@code hit}, {@code miss} or {@code bypass} result, and the
+ * {@code owner.page.cache.hit.ratio} gauge. Rendering times are recorded by the
+ * {@code owner.page.render} timer, and the {@code owner.page.render.saved} counter adds
+ * up the rendering time of every page served from the cache.
+ */
+final class OwnerPageCache {
+
+	static final String CACHE_NAME = "ownerPages";
+
+	private final Cache cache;
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private final Counter bypasses;
+
+	private final Timer render;
+
+	private final AtomicLong savedNanos = new AtomicLong();
+
+	OwnerPageCache(Cache cache, MeterRegistry registry) {
+		this.cache = cache;
+		this.hits = requests(registry, "hit");
+		this.misses = requests(registry, "miss");
+		this.bypasses = requests(registry, "bypass");
+		this.render = Timer.builder("owner.page.render")
+			.description("Time taken to render owner details pages not served from the cache")
+			.register(registry);
+		FunctionCounter.builder("owner.page.render.saved", this.savedNanos, saved -> saved.get() / 1e9)
+			.description("Rendering time saved by serving owner details pages from the cache")
+			.baseUnit("seconds")
+			.register(registry);
+		Gauge.builder("owner.page.cache.hit.ratio", this, OwnerPageCache::hitRatio)
+			.description("Share of owner details page lookups served from the cache")
+			.register(registry);
+	}
+
+	private static Counter requests(MeterRegistry registry, String result) {
+		return Counter.builder("owner.page.cache.requests")
+			.description("Lookups of rendered owner details pages")
+			.tag("result", result)
+			.register(registry);
+	}
+
+	/**
+	 * Return the page of the given owner in the given locale, if cached for the given
+	 * version of the owner.
+	 * @param ownerId the id of the owner
+	 * @param locale the locale of the page
+	 * @param version the current version of the owner, or {@code null} if unknown, in
+	 * which case no page is served
+	 */
+	Page get(int ownerId, Locale locale, Integer version) {
+		Map<String, Page> pages = this.cache.get(key(ownerId), Map.class);
+		Page page = (pages != null) ? pages.get(locale.toLanguageTag()) : null;
+		if (page != null && (version == null || version != page.version())) {
+			page = null;
+		}
+		if (page != null) {
+			this.hits.increment();
+			this.savedNanos.addAndGet(page.renderNanos());
+		}
+		else {
+			this.misses.increment();
+		}
+		return page;
+	}
+
+	/**
+	 * Record that a page was rendered without looking it up, for example because the
+	 * request carries flash attributes.
+	 */
+	void bypassed() {
+		this.bypasses.increment();
+	}
+
+	/**
+	 * Return the current generation, to pass to {@link #put} once the page is rendered.
+	 */
+	long generation() {
+		return this.generation.get();
+	}
+
+	/**
+	 * Cache a rendered page, unless an eviction happened since the given generation.
+	 * @param ownerId the id of the owner
+	 * @param locale the locale the page was rendered in
+	 * @param page the page
+	 * @param generation the generation when rendering started
+	 */
+	@SuppressWarnings("unchecked")
+	void put(int ownerId, Locale locale, Page page, long generation) {
+		this.render.record(page.renderNanos(), TimeUnit.NANOSECONDS);
+		if (this.generation.get() != generation) {
+			return;
+		}
+		Map<String, Page> pages = this.cache.get(key(ownerId), ConcurrentHashMap::new);
+		pages.put(locale.toLanguageTag(), page);
+		if (this.generation.get() != generation) {
+			// evicted while adding the page: the map may be the evicted one or a new one
+			this.cache.evict(key(ownerId));
+		}
+	}
+
+	/**
+	 * Evict the pages of the given owner, in all locales.
+	 */
+	void evict(int ownerId) {
+		this.generation.incrementAndGet();
+		this.cache.evict(key(ownerId));
+	}
+
+	/**
+	 * Evict all pages.
+	 */
+	void clear() {
+		this.generation.incrementAndGet();
+		this.cache.clear();
+	}
+
+	private double hitRatio() {
+		double hits = this.hits.count();
+		double total = hits + this.misses.count();
+		return (total > 0) ? hits / total : Double.NaN;
+	}
+
+	private static String key(int ownerId) {
+		return String.valueOf(ownerId);
+	}
+
+	/**
+	 * A rendered page.
+	 *
+	 * @param body the HTML
+	 * @param contentType the content type, with its charset
+	 * @param version the version of the owner the page renders
+	 * @param renderNanos the time it took to render the page
+	 */
+	record Page(byte[] body, String contentType, int version, long renderNanos) {
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.LocaleResolver;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caches the rendered owner details pages, unless {@code cache.owner-pages.enabled} is
+ * off. See {@link OwnerPageCache}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "cache.owner-pages.enabled", matchIfMissing = true)
+class OwnerPageCacheConfiguration {
+
+	@Bean
+	OwnerPageCache ownerPageCache(CacheManager cacheManager, ObjectProvider<MeterRegistry> registry) {
+		return new OwnerPageCache(cacheManager.getCache(OwnerPageCache.CACHE_NAME),
+				registry.getIfAvailable(SimpleMeterRegistry::new));
+	}
+
+	@Bean
+	FilterRegistrationBean<OwnerPageCacheFilter> ownerPageCacheFilter(OwnerPageCache ownerPageCache,
+			LocaleResolver localeResolver) {
+		FilterRegistrationBean<OwnerPageCacheFilter> registration = new FilterRegistrationBean<>(
+				new OwnerPageCacheFilter(ownerPageCache, localeResolver));
+		registration.addUrlPatterns("/owners/*");
+		return registration;
+	}
+
+	@Bean
+	OwnerPageCacheInvalidator ownerPageCacheInvalidator(EntityManagerFactory entityManagerFactory,
+			OwnerPageCache ownerPageCache) {
+		return new OwnerPageCacheInvalidator(entityManagerFactory, ownerPageCache);
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Serves the owner details page, {@code GET /owners/{ownerId}}, from the
+ * {@link OwnerPageCache}, and caches the pages rendered by {@link OwnerController}. Only
+ * requests without a query string are cached, since parameters such as {@code lang}
+ * change more than the page.
+ * <p>
+ * Pages showing flash messages are neither served from nor put in the cache. Flash
+ * attributes are only known once the dispatcher servlet has retrieved them, so requests
+ * that may carry some, with a flash cookie or flash attributes in their session, bypass
+ * the cache altogether. Pages marked {@code no-store}, such as pages rendered from a
+ * replica behind the version of their ETag, are not cached either. A cached page is only
+ * served for the version of the owner it was rendered with, as read by the
+ * {@link OwnerETagFilter} for the request.
+ */
+class OwnerPageCacheFilter extends OncePerRequestFilter {
+
+	private static final Pattern OWNER_PATH = Pattern.compile("/owners/(\\d{1,9})");
+
+	private static final String FLASH_COOKIE = "flash";
+
+	private static final String SESSION_FLASH_MAPS = SessionFlashMapManager.class.getName() + ".FLASH_MAPS";
+
+	private final OwnerPageCache cache;
+
+	private final LocaleResolver localeResolver;
+
+	OwnerPageCacheFilter(OwnerPageCache cache, LocaleResolver localeResolver) {
+		this.cache = cache;
+		this.localeResolver = localeResolver;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"GET".equals(request.getMethod()) || request.getQueryString() != null
+				|| !OWNER_PATH.matcher(path(request)).matches();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (mayHaveFlashAttributes(request)) {
+			this.cache.bypassed();
+			chain.doFilter(request, response);
+			return;
+		}
+		Matcher matcher = OWNER_PATH.matcher(path(request));
+		matcher.matches();
+		int ownerId = Integer.parseInt(matcher.group(1));
+		Locale locale = this.localeResolver.resolveLocale(request);
+		OwnerPageCache.Page page = this.cache.get(ownerId, locale, OwnerETagFilter.version(request));
+		if (page != null) {
+			ServerHttpObservationFilter.findObservationContext(request)
+				.ifPresent(context -> context.setPathPattern("/owners/{ownerId}"));
+			response.setLocale(locale);
+			response.setContentType(page.contentType());
+			response.setContentLength(page.body().length);
+			response.getOutputStream().write(page.body());
+			return;
+		}
+		long generation = this.cache.generation();
+		long start = System.nanoTime();
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		try {
+			chain.doFilter(request, wrapper);
+			Integer version = OwnerETagFilter.renderedVersion(request);
+			if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null && version != null
+					&& RequestContextUtils.getInputFlashMap(request) == null
+					&& !wrapper.containsHeader(HttpHeaders.SET_COOKIE) && !isNoStore(wrapper)) {
+				this.cache.put(ownerId, locale, new OwnerPageCache.Page(wrapper.getContentAsByteArray(),
+						wrapper.getContentType(), version, System.nanoTime() - start), generation);
+			}
+		}
+		finally {
+			wrapper.copyBodyToResponse();
+		}
+	}
+
+	private static boolean isNoStore(HttpServletResponse response) {
+		String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+		return cacheControl != null && cacheControl.contains("no-store");
+	}
+
+	static boolean mayHaveFlashAttributes(HttpServletRequest request) {
+		if (WebUtils.getCookie(request, FLASH_COOKIE) != null) {
+			return true;
+		}
+		HttpSession session = request.getSession(false);
+		return session != null && session.getAttribute(SESSION_FLASH_MAPS) != null;
+	}
+
+	private static String path(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Evicts the pages of the {@link OwnerPageCache} once the transactions writing their
+ * owner, pets or visits commit: the owner itself, the owner of a pet, or the owner of the
+ * pet of a visit. Pets added to or removed from an owner are seen through its pets
+ * collection, as new pets do not know their owner yet.
+ * <p>
+ * Bulk and native updates are not seen here. Those incrementing the version of owners,
+ * such as the moves of {@link VisitArchiveJob}, evict the pages of the owners themselves,
+ * see {@link OwnerVersionIncrement}. The summaries recomputed by
+ * {@link VisitSummaryRepairJob} stay cached until the pages expire.
+ */
+class OwnerPageCacheInvalidator
+		implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+		PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+	private static final String PETS_ROLE = Owner.class.getName() + ".pets";
+
+	private final OwnerPageCache cache;
+
+	OwnerPageCacheInvalidator(EntityManagerFactory entityManagerFactory, OwnerPageCache cache) {
+		this.cache = cache;
+		EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.requireService(EventListenerRegistry.class);
+		listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		Class<?> type = persister.getMappedClass();
+		return type == Owner.class || type == Pet.class || type == Visit.class;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		written(event.getEntity());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		written(event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		written(event.getEntity());
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	@Override
+	public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+		petsChanged(event);
+	}
+
+	@Override
+	public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+		petsChanged(event);
+	}
+
+	@Override
+	public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+		petsChanged(event);
+	}
+
+	private void written(Object entity) {
+		if (entity instanceof Owner owner) {
+			evict(owner.getId());
+		}
+		else if (entity instanceof Pet pet) {
+			evict(pet.getOwnerId());
+		}
+		else if (entity instanceof Visit visit) {
+			Pet pet = visit.getPet();
+			if (pet == null) {
+				return;
+			}
+			if (Hibernate.isInitialized(pet)) {
+				evict(pet.getOwnerId());
+			}
+			else {
+				// the owner of a pet that was never loaded cannot be found after commit
+				this.cache.clear();
+			}
+		}
+	}
+
+	private void petsChanged(AbstractCollectionEvent event) {
+		if (!PETS_ROLE.equals(event.getCollection().getRole())
+				|| !(event.getAffectedOwnerIdOrNull() instanceof Integer ownerId)) {
+			return;
+		}
+		// collection events come at flush time, before the transaction commits
+		event.getSession().getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, session) -> {
+			if (success) {
+				this.cache.evict(ownerId);
+			}
+		});
+	}
+
+	private void evict(Integer ownerId) {
+		if (ownerId != null) {
+			this.cache.evict(ownerId);
+		}
+	}
+
+}
@@ -23,6 +23,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Owner</code> domain objects. All method names are compliant
@@ -36,7 +38,7 @@ import org.springframework.data.jpa.repository.Query;
  * @author Michael Isvy
  * @author Wick Dynex
  */
-public interface OwnerRepository extends JpaRepository<Owner, Integer> {
+public interface OwnerRepository extends JpaRepository<Owner, Integer>, OwnerVersionIncrement {
 
 	/**
 	 * Retrieve {@link Owner}s from the data store by last name, returning all owners
@@ -62,4 +64,31 @@ public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 	 */
 	Optional<Owner> findById(@Nonnull Integer id);
 
+	/**
+	 * Retrieve the version of an {@link Owner}, without loading the owner or its pets.
+	 * Read in a read-write transaction, which always runs on the primary database, so
+	 * that a conditional request is never answered from a replica that has not caught up
+	 * with the latest change yet.
+	 * @param id the id of the owner
+	 * @return the version, or an empty {@link Optional} if there is no such owner
+	 */
+	@Transactional
+	@Query("SELECT owner.version FROM Owner owner WHERE owner.id = :id")
+	Optional<Integer> findVersionById(@Param("id") Integer id);
+
+	/**
+	 * Save an {@link Owner} along with changes to its pets, incrementing the version of
+	 * the owner even if only its pets changed.
+	 * @param owner the owner to save
+	 * @return the saved owner
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if the owner has
+	 * changed since it was loaded
+	 */
+	@Transactional
+	default Owner saveWithPets(Owner owner) {
+		Owner saved = save(owner);
+		incrementOwnerVersion(saved.getId());
+		return saved;
+	}
+
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment incrementing the version of an {@link Owner} when its pets or their
+ * visits change without the owner itself changing, since the version of an owner covers
+ * all of them. Shared by {@link OwnerRepository} and {@link VisitRepository}.
+ */
+public interface OwnerVersionIncrement {
+
+	/**
+	 * Increment the version of an {@link Owner} when the current transaction commits.
+	 * @param ownerId the id of the owner, ignored if {@code null}
+	 * @throws org.springframework.dao.OptimisticLockingFailureException on commit if the
+	 * owner has changed since it was loaded in the transaction
+	 */
+	void incrementOwnerVersion(Integer ownerId);
+
+	/**
+	 * Increment the version of an {@link Owner} in the database whatever its current
+	 * version, for changes that cannot conflict with the data of the owner, such as a new
+	 * visit of one of its pets. Concurrent increments wait for each other on the row lock
+	 * rather than fail, and the owner is evicted from the second-level cache once the
+	 * transaction commits. An instance of the owner managed by the persistence context
+	 * keeps its previous version.
+	 * @param ownerId the id of the owner, ignored if {@code null}
+	 */
+	void incrementOwnerVersionUnconditionally(Integer ownerId);
+
+	/**
+	 * Increment the versions of several {@link Owner}s in one statement, like
+	 * {@link #incrementOwnerVersionUnconditionally(Integer)}.
+	 * @param ownerIds the ids of the owners
+	 */
+	void incrementOwnerVersionsUnconditionally(Collection<Integer> ownerIds);
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link OwnerVersionIncrement} locking the owner with
+ * {@link LockModeType#OPTIMISTIC_FORCE_INCREMENT}, which has Hibernate update its version
+ * before the transaction commits, or incrementing the version column with native SQL when
+ * the increment is unconditional. The native update is synchronized with a query space
+ * that no entity maps, so that Hibernate does not evict every owner from the second-level
+ * cache, and only the updated owners are evicted, after the commit. Native updates fire
+ * no Hibernate event, so the pages of the owners in the {@link OwnerPageCache} are
+ * evicted then too.
+ */
+class OwnerVersionIncrementImpl implements OwnerVersionIncrement {
+
+	/**
+	 * Query space of the unconditional increment, matching no table.
+	 */
+	private static final String QUERY_SPACE = "owners_version";
+
+	private static final String INCREMENT_VERSION = "UPDATE owners SET version = version + 1 WHERE id IN (:ids)";
+
+	private final EntityManager entityManager;
+
+	private final ObjectProvider<OwnerPageCache> pageCache;
+
+	OwnerVersionIncrementImpl(EntityManager entityManager, ObjectProvider<OwnerPageCache> pageCache) {
+		this.entityManager = entityManager;
+		this.pageCache = pageCache;
+	}
+
+	@Override
+	public void incrementOwnerVersion(Integer ownerId) {
+		Owner owner = (ownerId != null) ? this.entityManager.find(Owner.class, ownerId) : null;
+		if (owner != null) {
+			this.entityManager.lock(owner, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+		}
+	}
+
+	@Override
+	public void incrementOwnerVersionUnconditionally(Integer ownerId) {
+		if (ownerId != null) {
+			incrementOwnerVersionsUnconditionally(List.of(ownerId));
+		}
+	}
+
+	@Override
+	public void incrementOwnerVersionsUnconditionally(Collection<Integer> ownerIds) {
+		if (ownerIds.isEmpty()) {
+			return;
+		}
+		// a native query only flushes the changes to its query space
+		this.entityManager.flush();
+		this.entityManager.createNativeQuery(INCREMENT_VERSION)
+			.setParameter("ids", ownerIds)
+			.unwrap(NativeQuery.class)
+			.addSynchronizedQuerySpace(QUERY_SPACE)
+			.executeUpdate();
+		List<Integer> evicted = List.copyOf(ownerIds);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				Cache cache = OwnerVersionIncrementImpl.this.entityManager.getEntityManagerFactory().getCache();
+				evicted.forEach(ownerId -> cache.evict(Owner.class, ownerId));
+				OwnerVersionIncrementImpl.this.pageCache.ifAvailable(pages -> evicted.forEach(pages::evict));
+			}
+
+		});
+	}
+
+}
@@ -20,6 +20,8 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
@@ -43,6 +45,7 @@ import jakarta.persistence.Table;
  */
 @Entity
 @Table(name = "pets")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pets")
 public class Pet extends NamedEntity {
 
 	@Column(name = "birth_date")
@@ -53,11 +56,50 @@ public class Pet extends NamedEntity {
 	@JoinColumn(name = "type_id")
 	private PetType type;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-	@JoinColumn(name = "pet_id")
+	/**
+	 * Full visit history, loaded on first access only. Pages of recent visits are read
+	 * through {@link VisitRepository} instead.
+	 */
+	@OneToMany(mappedBy = "pet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@OrderBy("date ASC")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pets.visits")
 	private final Set<Visit> visits = new LinkedHashSet<>();
 
+	/**
+	 * Number of visits, maintained with an atomic update by
+	 * {@link VisitRepository#addVisit(Visit)} and recomputed by
+	 * {@link VisitSummaryRepairJob}. Never written from the entity, so that saving a
+	 * stale pet cannot overwrite it.
+	 */
+	@Column(name = "visit_count", insertable = false, updatable = false)
+	private int visitCount;
+
+	@Column(name = "first_visit_date", insertable = false, updatable = false)
+	private LocalDate firstVisitDate;
+
+	@Column(name = "last_visit_date", insertable = false, updatable = false)
+	private LocalDate lastVisitDate;
+
+	/**
+	 * The id of the owner, written through {@link Owner#getPets()} and read only here.
+	 * Unknown until the pet is loaded again if it was added in this session.
+	 */
+	@Column(name = "owner_id", insertable = false, updatable = false)
+	private Integer ownerId;
+
+	/**
+	 * The owner whose pet lookup index references this pet, if any. Not persisted.
+	 */
+	private transient Owner indexingOwner;
+
+	@Override
+	public void setName(String name) {
+		super.setName(name);
+		if (this.indexingOwner != null) {
+			this.indexingOwner.invalidatePetIndex();
+		}
+	}
+
 	public void setBirthDate(LocalDate birthDate) {
 		this.birthDate = birthDate;
 	}
@@ -78,8 +120,29 @@ public class Pet extends NamedEntity {
 		return this.visits;
 	}
 
+	public int getVisitCount() {
+		return this.visitCount;
+	}
+
+	public LocalDate getFirstVisitDate() {
+		return this.firstVisitDate;
+	}
+
+	public LocalDate getLastVisitDate() {
+		return this.lastVisitDate;
+	}
+
+	Integer getOwnerId() {
+		return this.ownerId;
+	}
+
 	public void addVisit(Visit visit) {
+		visit.setPet(this);
 		getVisits().add(visit);
 	}
 
+	void setIndexingOwner(Owner indexingOwner) {
+		this.indexingOwner = indexingOwner;
+	}
+
 }
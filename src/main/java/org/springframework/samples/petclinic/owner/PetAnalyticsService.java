@@ -49,9 +49,9 @@ public class PetAnalyticsService {
 		String petCategory = categorizeByType(pet.getType().getName());
 		report.append("Category: ").append(petCategory).append("\n");
 
-		// OLD WAY: Traditional null checking
-		if (pet.getVisits() != null && !pet.getVisits().isEmpty()) {
-			report.append("Total Visits: ").append(pet.getVisits().size()).append("\n");
+		// Visit summary columns are maintained on write, so no visit has to be loaded
+		if (pet.getVisitCount() > 0) {
+			report.append("Total Visits: ").append(pet.getVisitCount()).append("\n");
 			report.append("Last Visit: ").append(getLastVisitDate(pet)).append("\n");
 		} else {
 			report.append("No visits recorded\n");
@@ -93,20 +93,13 @@ public class PetAnalyticsService {
 	}
 
 	/**
-	 * OLD WAY: Manual collection processing
-	 * CAN BE UPGRADED: Sequenced Collections (Java 21+)
+	 * Reads the denormalized last visit date of the pet.
 	 */
 	private String getLastVisitDate(Pet pet) {
-		if (pet.getVisits() == null || pet.getVisits().isEmpty()) {
+		if (pet.getLastVisitDate() == null) {
 			return "No visits";
 		}
-
-		// OLD WAY: Converting to list and getting last element
-		List<Visit> visitList = new ArrayList<>(pet.getVisits());
-		visitList.sort(Comparator.comparing(Visit::getDate));
-		Visit lastVisit = visitList.get(visitList.size() - 1);
-
-		return formatDate(lastVisit.getDate());
+		return formatDate(pet.getLastVisitDate());
 	}
 
 	/**
@@ -147,7 +140,7 @@ public class PetAnalyticsService {
 	 * OLD WAY: Traditional record-like class (can use Record Patterns in Java 21+)
 	 */
 	private PetAnalysis analyzeSinglePet(Pet pet) {
-		int visitCount = pet.getVisits() != null ? pet.getVisits().size() : 0;
+		int visitCount = pet.getVisitCount();
 		String healthStatus = determineHealthStatus(visitCount);
 		int ageInYears = calculateAge(pet.getBirthDate());
 
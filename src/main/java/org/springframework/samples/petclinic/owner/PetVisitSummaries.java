@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository fragment maintaining the visit summary columns of a {@link Pet} as visits
+ * are added, evicting only that pet from the second-level cache.
+ */
+public interface PetVisitSummaries {
+
+	/**
+	 * Atomically add one visit on the given date to the summary columns of a {@link Pet},
+	 * and evict the pet from the second-level cache once the transaction commits. The
+	 * persistence context is cleared, as any pet it holds has outdated summary columns.
+	 * @param petId the id of the pet
+	 * @param date the date of the new visit
+	 * @return the number of updated pets
+	 */
+	@Transactional
+	int recordVisit(Integer petId, LocalDate date);
+
+}
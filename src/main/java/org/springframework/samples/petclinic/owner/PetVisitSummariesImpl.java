@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link PetVisitSummaries} updating the pet with native SQL. A bulk or native update
+ * synchronized with the {@code pets} table would evict every pet from the second-level
+ * cache, so the update is synchronized with a query space that no entity maps, and only
+ * the updated pet is evicted, after the commit so that no other transaction caches it
+ * again from the row as it was before.
+ */
+class PetVisitSummariesImpl implements PetVisitSummaries {
+
+	/**
+	 * Query space of the update, matching no table, so that Hibernate does not evict any
+	 * region for it.
+	 */
+	private static final String QUERY_SPACE = "pets_visit_summary";
+
+	private static final String RECORD_VISIT = """
+			UPDATE pets SET visit_count = visit_count + 1,
+				first_visit_date = CASE WHEN first_visit_date IS NULL OR first_visit_date > :date
+					THEN :date ELSE first_visit_date END,
+				last_visit_date = CASE WHEN last_visit_date IS NULL OR last_visit_date < :date
+					THEN :date ELSE last_visit_date END
+			WHERE id = :petId""";
+
+	private final EntityManager entityManager;
+
+	PetVisitSummariesImpl(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public int recordVisit(Integer petId, LocalDate date) {
+		// a native query only flushes the changes to its query space
+		this.entityManager.flush();
+		int updated = this.entityManager.createNativeQuery(RECORD_VISIT)
+			.setParameter("petId", petId)
+			.setParameter("date", date)
+			.unwrap(NativeQuery.class)
+			.addSynchronizedQuerySpace(QUERY_SPACE)
+			.executeUpdate();
+		this.entityManager.clear();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				PetVisitSummariesImpl.this.entityManager.getEntityManagerFactory().getCache().evict(Pet.class, petId);
+			}
+
+		});
+		return updated;
+	}
+
+}
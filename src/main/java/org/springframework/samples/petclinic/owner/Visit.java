@@ -16,23 +16,31 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.samples.petclinic.model.BaseEntity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 
 /**
- * Simple JavaBean domain object representing a visit.
+ * Simple JavaBean domain object representing a visit. A visit booked as an appointment
+ * also records the vet and the start time of its slot on the visit date.
  *
  * @author Ken Krebs
  * @author Dave Syer
  */
 @Entity
 @Table(name = "visits")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "visits")
 public class Visit extends BaseEntity {
 
 	@Column(name = "visit_date")
@@ -42,6 +50,16 @@ public class Visit extends BaseEntity {
 	@NotBlank
 	private String description;
 
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "pet_id")
+	private Pet pet;
+
+	@Column(name = "vet_id")
+	private Integer vetId;
+
+	@Column(name = "start_time")
+	private LocalTime startTime;
+
 	/**
 	 * Creates a new instance of Visit for the current date
 	 */
@@ -65,4 +83,28 @@ public class Visit extends BaseEntity {
 		this.description = description;
 	}
 
+	public Integer getVetId() {
+		return this.vetId;
+	}
+
+	public void setVetId(Integer vetId) {
+		this.vetId = vetId;
+	}
+
+	public LocalTime getStartTime() {
+		return this.startTime;
+	}
+
+	public void setStartTime(LocalTime startTime) {
+		this.startTime = startTime;
+	}
+
+	Pet getPet() {
+		return this.pet;
+	}
+
+	public void setPet(Pet pet) {
+		this.pet = pet;
+	}
+
 }
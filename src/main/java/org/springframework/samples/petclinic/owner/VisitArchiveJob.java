@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves visits older than the retention period from the hot {@code visits} table to the
+ * {@code visits_archive} table. Visits are moved in bounded batches, one transaction per
+ * batch, and the job pauses between batches for at least as long as the last batch took,
+ * so it never keeps more than half of a connection's time away from regular traffic.
+ */
+@Component
+public class VisitArchiveJob {
+
+	private static final Logger logger = LoggerFactory.getLogger(VisitArchiveJob.class);
+
+	private final VisitRepository visits;
+
+	private final int retentionYears;
+
+	private final int batchSize;
+
+	private final Duration batchPause;
+
+	public VisitArchiveJob(VisitRepository visits, @Value("${visits.archive.retention-years:5}") int retentionYears,
+			@Value("${visits.archive.batch-size:500}") int batchSize,
+			@Value("${visits.archive.batch-pause:200ms}") Duration batchPause) {
+		this.visits = visits;
+		this.retentionYears = retentionYears;
+		this.batchSize = batchSize;
+		this.batchPause = batchPause;
+	}
+
+	/**
+	 * Archive the visits that are older than the retention period.
+	 * @return the number of archived visits
+	 */
+	@Scheduled(cron = "${visits.archive.cron:-}")
+	public int archive() {
+		return archiveVisitsBefore(LocalDate.now().minusYears(this.retentionYears));
+	}
+
+	/**
+	 * Archive the visits dated before the given cutoff. Stops early, keeping the batches
+	 * already moved, if the thread is interrupted.
+	 * @param cutoff the date before which visits are archived
+	 * @return the number of archived visits
+	 */
+	public int archiveVisitsBefore(LocalDate cutoff) {
+		int archived = 0;
+		while (true) {
+			long start = System.nanoTime();
+			int moved = this.visits.archiveVisitsBefore(cutoff, this.batchSize);
+			archived += moved;
+			if (moved < this.batchSize || !pause(Math.max(this.batchPause.toNanos(), System.nanoTime() - start))) {
+				break;
+			}
+		}
+		logger.info("Archived {} visits dated before {}", archived, cutoff);
+		return archived;
+	}
+
+	private boolean pause(long nanos) {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
@@ -18,6 +18,8 @@ package org.springframework.samples.petclinic.owner;
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
@@ -43,13 +45,20 @@ class VisitController {
 
 	private final OwnerRepository owners;
 
-	public VisitController(OwnerRepository owners) {
+	private final VisitRepository visits;
+
+	private final int visitPageSize;
+
+	public VisitController(OwnerRepository owners, VisitRepository visits,
+			@Value("${visits.page-size:5}") int visitPageSize) {
 		this.owners = owners;
+		this.visits = visits;
+		this.visitPageSize = visitPageSize;
 	}
 
 	@InitBinder
 	public void setAllowedFields(WebDataBinder dataBinder) {
-		dataBinder.setDisallowedFields("id");
+		dataBinder.setDisallowedFields("id", "vetId", "startTime");
 	}
 
 	/**
@@ -67,11 +76,18 @@ class VisitController {
 				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
 
 		Pet pet = owner.getPet(petId);
+		if (pet == null) {
+			throw new IllegalArgumentException("Pet not found with id: " + petId + " for owner with id: " + ownerId
+					+ ". Please ensure the ID is correct ");
+		}
 		model.put("pet", pet);
 		model.put("owner", owner);
+		model.put("previousVisits",
+				this.visits.findByPetIdNewestFirst(petId, PageRequest.of(0, this.visitPageSize)).getContent());
 
+		// The visit is saved on its own so that the pet's history never has to be loaded
 		Visit visit = new Visit();
-		pet.addVisit(visit);
+		visit.setPet(pet);
 		return visit;
 	}
 
@@ -85,14 +101,12 @@ class VisitController {
 	// Spring MVC calls method loadPetWithVisit(...) before processNewVisitForm is
 	// called
 	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String processNewVisitForm(@ModelAttribute Owner owner, @PathVariable int petId, @Valid Visit visit,
-			BindingResult result, RedirectAttributes redirectAttributes) {
+	public String processNewVisitForm(@Valid Visit visit, BindingResult result, RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
 			return "pets/createOrUpdateVisitForm";
 		}
 
-		owner.addVisit(petId, visit);
-		this.owners.save(owner);
+		this.visits.addVisit(visit);
 		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
 		return "redirect:/owners/{ownerId}";
 	}
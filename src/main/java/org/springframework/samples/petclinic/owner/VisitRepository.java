@@ -0,0 +1,203 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository class for <code>Visit</code> domain objects. Visit history is read in pages
+ * so that the cost of showing a pet does not grow with the number of visits it has had.
+ * Old visits are moved to the {@code visits_archive} table by {@link VisitArchiveJob} and
+ * are only read, through {@link ArchivedVisitRepository}, when the archive of a pet is
+ * shown.
+ */
+public interface VisitRepository extends Repository<Visit, Integer>, PetVisitSummaries, OwnerVersionIncrement {
+
+	/**
+	 * Retrieve a page of the visits of a {@link Pet}, newest first.
+	 * @param petId the id of the pet
+	 * @param pageable the page to retrieve
+	 * @return a {@link Slice} of visits, which knows whether older visits exist
+	 */
+	@Transactional(readOnly = true)
+	@Query("SELECT visit FROM Visit visit WHERE visit.pet.id = :petId ORDER BY visit.date DESC, visit.id DESC")
+	Slice<Visit> findByPetIdNewestFirst(@Param("petId") Integer petId, Pageable pageable);
+
+	/**
+	 * Retrieve the first page of the visits of each of the given {@link Pet}s in one
+	 * query, rather than one query per pet.
+	 * @param petIds the ids of the pets
+	 * @param pageSize the number of visits of a page
+	 * @return the first {@link Slice} of visits of each pet, newest first, by pet id
+	 */
+	@Transactional(readOnly = true)
+	default Map<Integer, Slice<Visit>> findFirstPageByPetIds(Collection<Integer> petIds, int pageSize) {
+		Map<Integer, List<Visit>> visitsByPet = new HashMap<>();
+		if (!petIds.isEmpty()) {
+			// one more visit than a page tells whether each pet has older visits
+			for (Visit visit : findNewestByPetIds(petIds, pageSize + 1)) {
+				visitsByPet.computeIfAbsent(visit.getPet().getId(), petId -> new ArrayList<>()).add(visit);
+			}
+		}
+		Pageable firstPage = PageRequest.of(0, pageSize);
+		Map<Integer, Slice<Visit>> pages = new HashMap<>();
+		for (Integer petId : petIds) {
+			List<Visit> visits = visitsByPet.getOrDefault(petId, List.of());
+			boolean hasNext = visits.size() > pageSize;
+			pages.put(petId, new SliceImpl<>(hasNext ? visits.subList(0, pageSize) : visits, firstPage, hasNext));
+		}
+		return pages;
+	}
+
+	/**
+	 * Retrieve up to the given number of the newest visits of each of the given
+	 * {@link Pet}s, ordered by pet, newest first.
+	 */
+	@Transactional(readOnly = true)
+	@Query(nativeQuery = true, value = """
+			SELECT id, pet_id, visit_date, description, vet_id, start_time FROM (
+				SELECT id, pet_id, visit_date, description, vet_id, start_time,
+					ROW_NUMBER() OVER (PARTITION BY pet_id ORDER BY visit_date DESC, id DESC) AS recency
+				FROM visits WHERE pet_id IN (:petIds)) newest
+			WHERE recency <= :count
+			ORDER BY pet_id, visit_date DESC, id DESC""")
+	List<Visit> findNewestByPetIds(@Param("petIds") Collection<Integer> petIds, @Param("count") int count);
+
+	/**
+	 * Save a {@link Visit} to the data store.
+	 * @param visit the visit to save
+	 * @return the saved visit
+	 */
+	Visit save(Visit visit);
+
+	/**
+	 * Save a new {@link Visit}, update the visit summary of its {@link Pet} and increment
+	 * the version of the owner of the pet in the same transaction. A new visit does not
+	 * conflict with changes to the owner, so the increment is unconditional and
+	 * concurrent visits for pets of the same owner all succeed.
+	 * @param visit the visit to save, which must reference its pet
+	 * @return the saved visit
+	 */
+	@Transactional
+	default Visit addVisit(Visit visit) {
+		Visit saved = save(visit);
+		recordVisit(visit.getPet().getId(), visit.getDate());
+		incrementOwnerVersionUnconditionally(visit.getPet().getOwnerId());
+		return saved;
+	}
+
+	/**
+	 * Recompute the visit summary columns of the pets in the given id range from their
+	 * visits, both hot and archived. Archived visits are always older than the visits
+	 * left in the hot table, so the first visit date prefers the archive and the last
+	 * visit date prefers the hot table. Synchronized with {@link Pet}, so that only the
+	 * pets are evicted from the second-level cache.
+	 * @param fromId the first pet id to repair, inclusive
+	 * @param toId the last pet id to repair, inclusive
+	 * @return the number of repaired pets
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "pets"))
+	@Query(nativeQuery = true, value = """
+			UPDATE pets SET
+				visit_count = (SELECT COUNT(*) FROM visits WHERE visits.pet_id = pets.id)
+					+ (SELECT COUNT(*) FROM visits_archive WHERE visits_archive.pet_id = pets.id),
+				first_visit_date = COALESCE(
+					(SELECT MIN(visit_date) FROM visits_archive WHERE visits_archive.pet_id = pets.id),
+					(SELECT MIN(visit_date) FROM visits WHERE visits.pet_id = pets.id)),
+				last_visit_date = COALESCE(
+					(SELECT MAX(visit_date) FROM visits WHERE visits.pet_id = pets.id),
+					(SELECT MAX(visit_date) FROM visits_archive WHERE visits_archive.pet_id = pets.id))
+			WHERE id BETWEEN :fromId AND :toId""")
+	int repairVisitSummaries(@Param("fromId") int fromId, @Param("toId") int toId);
+
+	/**
+	 * Retrieve the highest pet id, which bounds the ranges passed to
+	 * {@link #repairVisitSummaries(int, int)}.
+	 * @return the highest pet id, or {@code null} if there are no pets
+	 */
+	@Transactional(readOnly = true)
+	@Query("SELECT MAX(pet.id) FROM Pet pet")
+	Integer findMaxPetId();
+
+	/**
+	 * Move one batch of the oldest visits dated before the cutoff to the archive table.
+	 * The copy and the delete run in one transaction, so a visit is never lost or seen
+	 * twice. Pet visit summaries are left unchanged, as they cover the full history, but
+	 * the owners of the pets get a new version, since their pages no longer list the
+	 * archived visits.
+	 * @param cutoff the date before which visits are archived
+	 * @param batchSize the maximum number of visits to move
+	 * @return the number of archived visits
+	 */
+	@Transactional
+	default int archiveVisitsBefore(LocalDate cutoff, int batchSize) {
+		List<Integer> ids = findIdsOfVisitsBefore(cutoff, Limit.of(batchSize));
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		copyToArchive(ids);
+		incrementOwnerVersionsUnconditionally(findOwnerIdsOfVisits(ids));
+		deleteByIds(ids);
+		return ids.size();
+	}
+
+	@Transactional(readOnly = true)
+	@Query("SELECT visit.id FROM Visit visit WHERE visit.date < :cutoff ORDER BY visit.date, visit.id")
+	List<Integer> findIdsOfVisitsBefore(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+	@Transactional(readOnly = true)
+	@Query("SELECT DISTINCT visit.pet.ownerId FROM Visit visit WHERE visit.id IN (:ids)")
+	List<Integer> findOwnerIdsOfVisits(@Param("ids") List<Integer> ids);
+
+	/**
+	 * Copy visits to the archive table, which no cached entity maps, so that nothing is
+	 * evicted from the second-level cache.
+	 */
+	@Transactional
+	@Modifying
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "visits_archive"))
+	@Query(nativeQuery = true, value = """
+			INSERT INTO visits_archive (id, pet_id, visit_date, description, vet_id, start_time)
+			SELECT id, pet_id, visit_date, description, vet_id, start_time FROM visits WHERE id IN (:ids)""")
+	int copyToArchive(@Param("ids") List<Integer> ids);
+
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("DELETE FROM Visit visit WHERE visit.id IN (:ids)")
+	int deleteByIds(@Param("ids") List<Integer> ids);
+
+}
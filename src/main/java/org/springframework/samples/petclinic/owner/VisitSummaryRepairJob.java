@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the denormalized visit summary of every {@link Pet} from the visits table,
+ * repairing any drift caused by visits written outside of
+ * {@link VisitRepository#addVisit(Visit)}. Pets are processed in id ranges, one
+ * transaction per range, so the job never holds locks on the whole table.
+ */
+@Component
+public class VisitSummaryRepairJob {
+
+	private static final Logger logger = LoggerFactory.getLogger(VisitSummaryRepairJob.class);
+
+	private final VisitRepository visits;
+
+	private final int batchSize;
+
+	public VisitSummaryRepairJob(VisitRepository visits,
+			@Value("${visits.summary-repair.batch-size:1000}") int batchSize) {
+		this.visits = visits;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Repair the visit summaries of all pets.
+	 * @return the number of repaired pets
+	 */
+	@Scheduled(cron = "${visits.summary-repair.cron:-}")
+	public int repairAll() {
+		Integer maxPetId = this.visits.findMaxPetId();
+		if (maxPetId == null) {
+			return 0;
+		}
+		int repaired = 0;
+		for (int fromId = 0; fromId <= maxPetId; fromId += this.batchSize) {
+			repaired += this.visits.repairVisitSummaries(fromId, fromId + this.batchSize - 1);
+		}
+		logger.info("Repaired visit summaries of {} pets", repaired);
+		return repaired;
+	}
+
+}
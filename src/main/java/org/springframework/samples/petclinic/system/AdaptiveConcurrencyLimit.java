@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted to the observed latency by additive increase and
+ * multiplicative decrease. Each request that completes within the latency target while at
+ * least half the limit is in use raises the limit by {@code 1 / limit}, about one per
+ * round of requests; a request slower than the target cuts it by a tenth. Only requests
+ * admitted after the last cut can cut it again, as the ones admitted before were already
+ * queued when it happened. The latency of admitted requests thus converges towards the
+ * target however slow the resources they wait for become, and the excess is rejected up
+ * front rather than queued.
+ */
+final class AdaptiveConcurrencyLimit {
+
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long maxLatencyNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile int limit;
+
+	// guarded by this
+	private double estimatedLimit;
+
+	// guarded by this
+	private long lastDecrease;
+
+	AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration maxLatency) {
+		if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max: " + minLimit + ", "
+					+ initialLimit + ", " + maxLimit);
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxLatencyNanos = maxLatency.toNanos();
+		this.estimatedLimit = initialLimit;
+		this.limit = initialLimit;
+		this.lastDecrease = System.nanoTime() - this.maxLatencyNanos;
+	}
+
+	/**
+	 * Admit a request if fewer than the limit are in flight.
+	 * @return whether the request was admitted, in which case {@link #release} must be
+	 * called once it completes
+	 */
+	boolean tryAcquire() {
+		int current;
+		do {
+			current = this.inFlight.get();
+			if (current >= this.limit) {
+				return false;
+			}
+		}
+		while (!this.inFlight.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Complete an admitted request and adjust the limit to its latency.
+	 * @param startNanos the {@link System#nanoTime()} when the request was admitted
+	 * @param endNanos the {@link System#nanoTime()} when it completed
+	 */
+	void release(long startNanos, long endNanos) {
+		int inFlight = this.inFlight.getAndDecrement();
+		synchronized (this) {
+			double estimated = this.estimatedLimit;
+			if (endNanos - startNanos > this.maxLatencyNanos) {
+				if (startNanos - this.lastDecrease > 0) {
+					estimated = Math.max(this.minLimit, estimated * BACKOFF_RATIO);
+					this.lastDecrease = endNanos;
+				}
+			}
+			else if (inFlight * 2 >= estimated) {
+				estimated = Math.min(this.maxLimit, estimated + 1 / estimated);
+			}
+			this.estimatedLimit = estimated;
+			this.limit = (int) estimated;
+		}
+	}
+
+	/**
+	 * Return whether as many requests as the limit are in flight.
+	 */
+	boolean isSaturated() {
+		return this.inFlight.get() >= this.limit;
+	}
+
+	int getLimit() {
+		return this.limit;
+	}
+
+	int getInFlight() {
+		return this.inFlight.get();
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link CaffeineCacheManager} whose caches hand every eviction to the
+ * {@link CacheInvalidationBus}, when there is one, so that it is applied on the other
+ * instances too. Evictions are broadcast even when the entry is not cached here, since
+ * another instance may have it. The bus applies the evictions it receives to the native
+ * Caffeine caches, which does not broadcast them again.
+ */
+class BroadcastingCaffeineCacheManager extends CaffeineCacheManager {
+
+	private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+	BroadcastingCaffeineCacheManager(ObjectProvider<CacheInvalidationBus> invalidationBus) {
+		this.invalidationBus = invalidationBus;
+	}
+
+	@Override
+	protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+		return new BroadcastingCaffeineCache(name, cache, isAllowNullValues());
+	}
+
+	private final class BroadcastingCaffeineCache extends CaffeineCache {
+
+		BroadcastingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+				boolean allowNullValues) {
+			super(name, cache, allowNullValues);
+		}
+
+		@Override
+		public void evict(Object key) {
+			super.evict(key);
+			broadcast(key);
+		}
+
+		@Override
+		public boolean evictIfPresent(Object key) {
+			boolean present = super.evictIfPresent(key);
+			broadcast(key);
+			return present;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			broadcast(null);
+		}
+
+		@Override
+		public boolean invalidate() {
+			boolean present = super.invalidate();
+			broadcast(null);
+			return present;
+		}
+
+		private void broadcast(@Nullable Object key) {
+			invalidationBus.ifAvailable(bus -> bus.evicted(getName(), key));
+		}
+
+	}
+
+}
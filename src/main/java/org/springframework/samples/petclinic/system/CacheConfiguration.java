@@ -16,38 +16,115 @@
 
 package org.springframework.samples.petclinic.system;
 
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-import javax.cache.configuration.MutableConfiguration;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
 
 /**
- * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * Cache configuration for the Caffeine cache manager. This configuration creates the
+ * caches used by the application, each with its own size bound and expiry taken from
+ * {@code application.properties}, and records statistics so that they are exported as
+ * Micrometer metrics. Their evictions are broadcast to the other instances when
+ * {@code cache.invalidation.enabled} is set, see {@link CacheInvalidationConfiguration}.
+ * <p>
+ * It also sets up the Hibernate second-level cache, in a JCache cache manager backed by
+ * Caffeine. Each region named in the {@code @Cache} annotations of the entities and their
+ * collections is bounded by {@code cache.entities.<region>.maximum-size} and exports its
+ * statistics as {@code cache.*} metrics tagged with the region name.
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
 class CacheConfiguration {
 
+	/**
+	 * Regions of the second-level cache and their default maximum number of entries.
+	 */
+	private static final Map<String, Long> ENTITY_REGIONS = Map.of("owners", 10_000L, "owners.pets", 10_000L, "pets",
+			20_000L, "pets.visits", 20_000L, "visits", 50_000L, "types", 100L, "specialties", 100L, "vets", 1_000L,
+			"vets.specialties", 1_000L);
+
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		return cm -> cm.createCache("vets", cacheConfiguration());
+	public CaffeineCacheManager cacheManager(ObjectProvider<CacheInvalidationBus> invalidationBus,
+			@Value("${cache.vets.maximum-size:1}") long vetsMaximumSize,
+			@Value("${cache.vets.expire-after-write:10m}") Duration vetsExpireAfterWrite,
+			@Value("${cache.vet-pages.maximum-size:100}") long vetPagesMaximumSize,
+			@Value("${cache.vet-pages.expire-after-write:10m}") Duration vetPagesExpireAfterWrite,
+			@Value("${cache.owner-pages.maximum-size:1000}") long ownerPagesMaximumSize,
+			@Value("${cache.owner-pages.expire-after-write:10m}") Duration ownerPagesExpireAfterWrite) {
+		CaffeineCacheManager cacheManager = new BroadcastingCaffeineCacheManager(invalidationBus);
+		cacheManager.registerCustomCache("vets", cacheConfiguration(vetsMaximumSize, vetsExpireAfterWrite).build());
+		cacheManager.registerCustomCache("vetPages",
+				cacheConfiguration(vetPagesMaximumSize, vetPagesExpireAfterWrite).build());
+		cacheManager.registerCustomCache("ownerPages",
+				cacheConfiguration(ownerPagesMaximumSize, ownerPagesExpireAfterWrite).build());
+		return cacheManager;
+	}
+
+	private Caffeine<Object, Object> cacheConfiguration(long maximumSize, Duration expireAfterWrite) {
+		return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats();
 	}
 
 	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
-	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
+	 * Create the regions of the second-level cache, in a cache manager of their own: the
+	 * default one of the caching provider is shared by every application in the JVM.
 	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	@Bean(destroyMethod = "close")
+	CacheManager entityCacheManager(Environment environment) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+			.getCacheManager(URI.create("petclinic-entities-" + UUID.randomUUID()), getClass().getClassLoader());
+		ENTITY_REGIONS.forEach((region, defaultMaximumSize) -> {
+			CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+			configuration.setMaximumSize(OptionalLong.of(environment
+				.getProperty("cache.entities." + region + ".maximum-size", Long.class, defaultMaximumSize)));
+			configuration.setStatisticsEnabled(true);
+			cacheManager.createCache(region, configuration);
+		});
+		return cacheManager;
+	}
+
+	/**
+	 * Enable the second-level cache. Collection caches are evicted when an element
+	 * changes its owner through the owning side, as when a visit is saved on its own.
+	 */
+	@Bean
+	HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager entityCacheManager) {
+		return properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+			properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+		};
+	}
+
+	@Bean
+	MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+		return registry -> ENTITY_REGIONS.keySet()
+			.forEach(region -> JCacheMetrics.monitor(registry, entityCacheManager.getCache(region),
+					Tags.of("cache.manager", "hibernate")));
 	}
 
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Eviction of an entry, or of all entries, of an application cache, broadcast to the
+ * other instances.
+ *
+ * @param origin the id of the instance that evicted it
+ * @param cacheName the name of the cache
+ * @param key the key of the evicted entry, or {@code null} if the cache was cleared
+ * @param createdAt the wall-clock time of the eviction, in milliseconds since the epoch
+ */
+record CacheInvalidation(String origin, String cacheName, @Nullable String key, long createdAt) {
+
+	boolean isClear() {
+		return this.key == null;
+	}
+
+}
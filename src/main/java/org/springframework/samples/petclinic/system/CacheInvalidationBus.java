@@ -0,0 +1,289 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps the application caches of all instances coherent by broadcasting evictions over a
+ * {@link CacheInvalidationTransport}. Evictions made through the caches of the
+ * {@link BroadcastingCaffeineCacheManager} are queued and delivered in batches every
+ * {@code cache.invalidation.flush-interval}, with repeated evictions coalesced and the
+ * ones of a cleared cache dropped. Keys travel as strings, so evicting an entry with any
+ * other type of key clears the cache on the other instances. With an
+ * {@link EntityCacheInvalidator}, the entities and collections of the Hibernate
+ * second-level cache are kept coherent too.
+ * <p>
+ * The time from an eviction to its application here is recorded as the
+ * {@code cache.invalidation.staleness} timer. Staleness is bounded: once nothing has been
+ * heard from the transport for {@code cache.invalidation.max-staleness}, the local caches
+ * are cleared on every flush, so they stop serving entries until it recovers.
+ */
+class CacheInvalidationBus implements CacheInvalidationTransport.Subscriber {
+
+	private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final CaffeineCacheManager cacheManager;
+
+	private final CacheInvalidationTransport transport;
+
+	private final long maxStalenessMillis;
+
+	private final LongSupplier clock;
+
+	private final Queue<CacheInvalidation> pending = new ConcurrentLinkedQueue<>();
+
+	private final Counter published;
+
+	private final Counter received;
+
+	private final Timer staleness;
+
+	private volatile EntityCacheInvalidator entityCaches;
+
+	private volatile long lastSynchronized;
+
+	private volatile boolean outOfSync;
+
+	CacheInvalidationBus(CaffeineCacheManager cacheManager, CacheInvalidationTransport transport, Duration maxStaleness,
+			MeterRegistry registry) {
+		this(cacheManager, transport, maxStaleness, registry, System::currentTimeMillis);
+	}
+
+	CacheInvalidationBus(CaffeineCacheManager cacheManager, CacheInvalidationTransport transport, Duration maxStaleness,
+			MeterRegistry registry, LongSupplier clock) {
+		this.cacheManager = cacheManager;
+		this.transport = transport;
+		this.maxStalenessMillis = maxStaleness.toMillis();
+		this.clock = clock;
+		this.lastSynchronized = clock.getAsLong();
+		this.published = Counter.builder("cache.invalidation.published")
+			.description("Cache evictions sent to the other instances")
+			.register(registry);
+		this.received = Counter.builder("cache.invalidation.received")
+			.description("Cache evictions received from the other instances")
+			.register(registry);
+		this.staleness = Timer.builder("cache.invalidation.staleness")
+			.description("Time from a cache eviction on another instance to its application on this one")
+			.serviceLevelObjectives(Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(1),
+					Duration.ofSeconds(5))
+			.register(registry);
+		Gauge.builder("cache.invalidation.pending", this.pending, Queue::size)
+			.description("Cache evictions waiting to be sent")
+			.register(registry);
+		Gauge.builder("cache.invalidation.sync.age", this, bus -> bus.synchronizationAge() / 1000.0)
+			.description("Time since the last invalidations were received, in seconds")
+			.baseUnit("seconds")
+			.register(registry);
+		transport.subscribe(this);
+	}
+
+	/**
+	 * Queue the broadcast of an eviction made on this instance.
+	 * @param cacheName the name of the cache
+	 * @param key the evicted key, or {@code null} if the cache was cleared
+	 */
+	void evicted(String cacheName, @Nullable Object key) {
+		invalidate(cacheName, (key instanceof String string) ? string : null);
+	}
+
+	/**
+	 * Queue the broadcast of an invalidation.
+	 * @param cacheName the name of the cache
+	 * @param key the key to evict, or {@code null} to clear the cache
+	 */
+	void invalidate(String cacheName, @Nullable String key) {
+		this.pending.add(new CacheInvalidation(this.origin, cacheName, key, this.clock.getAsLong()));
+	}
+
+	/**
+	 * Apply the invalidations of entities and collections to the second-level cache.
+	 */
+	void register(EntityCacheInvalidator entityCaches) {
+		this.entityCaches = entityCaches;
+	}
+
+	/**
+	 * Send the queued evictions, keeping them for the next flush if the transport fails,
+	 * and stop serving cached entries if the transport has been silent for too long.
+	 */
+	@Scheduled(fixedDelayString = "${cache.invalidation.flush-interval:100ms}")
+	void flush() {
+		List<CacheInvalidation> batch = coalesce(drain());
+		if (!batch.isEmpty()) {
+			try {
+				this.transport.publish(batch);
+				this.published.increment(batch.size());
+			}
+			catch (DataAccessException ex) {
+				logger.warn("Could not send {} cache invalidations, retrying: {}", batch.size(), ex.getMessage());
+				this.pending.addAll(batch);
+			}
+		}
+		if (synchronizationAge() > this.maxStalenessMillis) {
+			if (!this.outOfSync) {
+				logger.warn("No cache invalidations received for {} ms, bypassing the caches until they are",
+						synchronizationAge());
+				this.outOfSync = true;
+			}
+			clearLocalCaches();
+		}
+	}
+
+	@Override
+	public void receive(List<CacheInvalidation> invalidations) {
+		long now = this.clock.getAsLong();
+		for (CacheInvalidation invalidation : invalidations) {
+			if (this.origin.equals(invalidation.origin())) {
+				continue;
+			}
+			apply(invalidation);
+			this.received.increment();
+			this.staleness.record(Math.max(0, now - invalidation.createdAt()), TimeUnit.MILLISECONDS);
+		}
+		synchronizedAt(now);
+	}
+
+	@Override
+	public void resynchronize() {
+		clearLocalCaches();
+		synchronizedAt(this.clock.getAsLong());
+	}
+
+	String origin() {
+		return this.origin;
+	}
+
+	private void synchronizedAt(long now) {
+		this.lastSynchronized = now;
+		if (this.outOfSync) {
+			logger.info("Receiving cache invalidations again");
+			this.outOfSync = false;
+		}
+	}
+
+	private long synchronizationAge() {
+		return this.clock.getAsLong() - this.lastSynchronized;
+	}
+
+	private void apply(CacheInvalidation invalidation) {
+		EntityCacheInvalidator entityCaches = this.entityCaches;
+		if (entityCaches != null && entityCaches.apply(invalidation)) {
+			return;
+		}
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(invalidation.cacheName());
+		if (cache == null) {
+			return;
+		}
+		// applied below the caches, so entries put from data read before the eviction can
+		// still be cached after it: caches must tell stale entries apart by themselves,
+		// as
+		// the owner pages do with the version of the owner
+		if (invalidation.isClear()) {
+			cache.invalidateAll();
+		}
+		else {
+			cache.invalidate(invalidation.key());
+		}
+	}
+
+	private void clearLocalCaches() {
+		EntityCacheInvalidator entityCaches = this.entityCaches;
+		if (entityCaches != null) {
+			entityCaches.clear();
+		}
+		for (String name : this.cacheManager.getCacheNames()) {
+			com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(name);
+			if (cache != null) {
+				cache.invalidateAll();
+			}
+		}
+	}
+
+	/**
+	 * Return the Caffeine cache behind a cache of this instance, whose invalidation is
+	 * not broadcast again, or {@code null} if there is no such cache here.
+	 */
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+		if (!this.cacheManager.getCacheNames().contains(name)) {
+			return null;
+		}
+		Cache cache = this.cacheManager.getCache(name);
+		return (cache instanceof CaffeineCache caffeineCache) ? caffeineCache.getNativeCache() : null;
+	}
+
+	private List<CacheInvalidation> drain() {
+		List<CacheInvalidation> drained = new ArrayList<>();
+		CacheInvalidation invalidation;
+		while ((invalidation = this.pending.poll()) != null) {
+			drained.add(invalidation);
+		}
+		return drained;
+	}
+
+	/**
+	 * Keep the first eviction of each key, and a single clear, dated from the earliest
+	 * eviction it replaces, for each cleared cache.
+	 */
+	static List<CacheInvalidation> coalesce(List<CacheInvalidation> invalidations) {
+		Map<String, CacheInvalidation> clears = new LinkedHashMap<>();
+		for (CacheInvalidation invalidation : invalidations) {
+			if (invalidation.isClear()) {
+				clears.putIfAbsent(invalidation.cacheName(), invalidation);
+			}
+		}
+		Map<List<String>, CacheInvalidation> evictions = new LinkedHashMap<>();
+		for (CacheInvalidation invalidation : invalidations) {
+			CacheInvalidation clear = clears.get(invalidation.cacheName());
+			if (clear == null) {
+				evictions.putIfAbsent(List.of(invalidation.cacheName(), invalidation.key()), invalidation);
+			}
+			else if (invalidation.createdAt() < clear.createdAt()) {
+				clears.put(invalidation.cacheName(),
+						new CacheInvalidation(clear.origin(), clear.cacheName(), null, invalidation.createdAt()));
+			}
+		}
+		List<CacheInvalidation> coalesced = new ArrayList<>(clears.values());
+		coalesced.addAll(evictions.values());
+		return coalesced;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Broadcasts the evictions of the application caches to the other instances, enabled by
+ * setting {@code cache.invalidation.enabled}. They travel through PostgreSQL
+ * {@code LISTEN} and {@code NOTIFY} with {@code cache.invalidation.transport=notify}, as
+ * set by the {@code postgres} profile, and through the polled {@code cache_invalidations}
+ * table otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("cache.invalidation.enabled")
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+class CacheInvalidationConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "table", matchIfMissing = true)
+	JdbcCacheInvalidationTransport jdbcCacheInvalidationTransport(DataSource dataSource,
+			CacheInvalidationProperties properties) {
+		return new JdbcCacheInvalidationTransport(dataSource, properties.getBatchSize(), properties.getGapTimeout(),
+				properties.getRetention());
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "notify")
+	PostgresCacheInvalidationTransport postgresCacheInvalidationTransport(DataSource dataSource,
+			CacheInvalidationProperties properties) {
+		return new PostgresCacheInvalidationTransport(dataSource, properties.getPollInterval());
+	}
+
+	@Bean
+	CacheInvalidationBus cacheInvalidationBus(CaffeineCacheManager cacheManager, CacheInvalidationTransport transport,
+			CacheInvalidationProperties properties, MeterRegistry registry) {
+		return new CacheInvalidationBus(cacheManager, transport, properties.getMaxStaleness(), registry);
+	}
+
+	@Bean
+	EntityCacheInvalidator entityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+			CacheInvalidationBus cacheInvalidationBus) {
+		return new EntityCacheInvalidator(entityManagerFactory, cacheInvalidationBus);
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Broadcasting of the evictions of the application caches between instances, bound from
+ * the {@code cache.invalidation} properties.
+ *
+ * @see CacheInvalidationBus
+ */
+@ConfigurationProperties("cache.invalidation")
+public class CacheInvalidationProperties {
+
+	/**
+	 * Whether to broadcast cache evictions to the other instances.
+	 */
+	private boolean enabled;
+
+	/**
+	 * How evictions reach the other instances.
+	 */
+	private Transport transport = Transport.TABLE;
+
+	/**
+	 * Interval between deliveries of the evictions made on this instance.
+	 */
+	private Duration flushInterval = Duration.ofMillis(100);
+
+	/**
+	 * Interval between polls of the change-log table, or the longest wait for a
+	 * notification.
+	 */
+	private Duration pollInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Maximum number of change-log rows read at once.
+	 */
+	private int batchSize = 500;
+
+	/**
+	 * Longest time without hearing from the other instances before the local caches stop
+	 * serving entries, which bounds how stale they can be.
+	 */
+	private Duration maxStaleness = Duration.ofSeconds(30);
+
+	/**
+	 * Time change-log rows are kept. An instance that could not poll for longer clears
+	 * its caches.
+	 */
+	private Duration retention = Duration.ofMinutes(10);
+
+	/**
+	 * Time to wait for a change-log row whose id was skipped, such as one from a
+	 * transaction that has not committed yet.
+	 */
+	private Duration gapTimeout = Duration.ofSeconds(10);
+
+	/**
+	 * Interval between purges of the change-log rows older than the retention.
+	 */
+	private Duration purgeInterval = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Transport getTransport() {
+		return this.transport;
+	}
+
+	public void setTransport(Transport transport) {
+		this.transport = transport;
+	}
+
+	public Duration getFlushInterval() {
+		return this.flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public Duration getPollInterval() {
+		return this.pollInterval;
+	}
+
+	public void setPollInterval(Duration pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Duration getMaxStaleness() {
+		return this.maxStaleness;
+	}
+
+	public void setMaxStaleness(Duration maxStaleness) {
+		this.maxStaleness = maxStaleness;
+	}
+
+	public Duration getRetention() {
+		return this.retention;
+	}
+
+	public void setRetention(Duration retention) {
+		this.retention = retention;
+	}
+
+	public Duration getGapTimeout() {
+		return this.gapTimeout;
+	}
+
+	public void setGapTimeout(Duration gapTimeout) {
+		this.gapTimeout = gapTimeout;
+	}
+
+	public Duration getPurgeInterval() {
+		return this.purgeInterval;
+	}
+
+	public void setPurgeInterval(Duration purgeInterval) {
+		this.purgeInterval = purgeInterval;
+	}
+
+	/**
+	 * Channel through which evictions reach the other instances.
+	 */
+	public enum Transport {
+
+		/**
+		 * A change-log table in the application database, polled by every instance.
+		 */
+		TABLE,
+
+		/**
+		 * PostgreSQL {@code LISTEN} and {@code NOTIFY}.
+		 */
+		NOTIFY
+
+	}
+
+}
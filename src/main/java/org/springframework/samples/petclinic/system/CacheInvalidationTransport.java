@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+/**
+ * Channel carrying {@link CacheInvalidation cache invalidations} between the instances of
+ * the application. Every instance receives the invalidations published by all of them,
+ * including its own.
+ *
+ * @see CacheInvalidationBus
+ */
+interface CacheInvalidationTransport {
+
+	/**
+	 * Publish invalidations to all instances.
+	 * @param invalidations the invalidations, delivered together
+	 * @throws org.springframework.dao.DataAccessException if they could not be published
+	 */
+	void publish(List<CacheInvalidation> invalidations);
+
+	/**
+	 * Register the receiver of the invalidations published from now on.
+	 */
+	void subscribe(Subscriber subscriber);
+
+	/**
+	 * Receiver of the invalidations.
+	 */
+	interface Subscriber {
+
+		/**
+		 * Apply invalidations. Called on every poll or wait for invalidations, with an
+		 * empty list if there were none, so that the subscriber knows the channel works.
+		 * @param invalidations the invalidations received
+		 */
+		void receive(List<CacheInvalidation> invalidations);
+
+		/**
+		 * Drop all cached entries, as invalidations may have been missed, for example
+		 * while the channel was disconnected.
+		 */
+		void resynchronize();
+
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Sheds the requests in excess of an {@link AdaptiveConcurrencyLimit} with a 503 and a
+ * {@code Retry-After} header, before the handler runs and takes a database connection.
+ * Each {@link ConcurrencyLimitProperties.Group group} of routes has its own limit, so a
+ * slow group is throttled without starving the others, and a group is also shed while a
+ * group of higher priority is at its limit, so that low priority requests such as
+ * analytics back off first. A group may also have a hard cap of its own, for routes such
+ * as exports that hold a database connection for as long as they run. Groups that are not
+ * limited, such as health checks and static resources, are always served.
+ * <p>
+ * A request holds its place until it completes, including any asynchronous processing.
+ * The limit, the requests in flight and the shed requests of each group are exported as
+ * the {@code concurrency.limit}, {@code concurrency.in-flight} and
+ * {@code concurrency.shed} meters.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+	private final boolean enabled;
+
+	private final List<Group> groups;
+
+	public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, ObjectProvider<MeterRegistry> registry) {
+		this.enabled = properties.isEnabled();
+		MeterRegistry meters = registry.getIfAvailable();
+		this.groups = properties.getGroups().stream().map(group -> group(properties, group, meters)).toList();
+	}
+
+	private static Group group(ConcurrencyLimitProperties properties, ConcurrencyLimitProperties.Group group,
+			MeterRegistry registry) {
+		List<PathPattern> patterns = group.getPatterns()
+			.stream()
+			.map(pattern -> PathPatternParser.defaultInstance.parse(pattern.trim()))
+			.toList();
+		if (!group.isLimited()) {
+			return new Group(patterns, group.getPriority(), null, null);
+		}
+		Duration maxLatency = (group.getMaxLatency() != null) ? group.getMaxLatency() : properties.getMaxLatency();
+		int maxLimit = (group.getMaxLimit() != null) ? group.getMaxLimit() : properties.getMaxLimit();
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(Math.min(properties.getInitialLimit(), maxLimit),
+				Math.min(properties.getMinLimit(), maxLimit), maxLimit, maxLatency);
+		Counter shed = null;
+		if (registry != null) {
+			Gauge.builder("concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+				.description("Number of requests allowed in flight")
+				.tag("group", group.getName())
+				.register(registry);
+			Gauge.builder("concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+				.description("Number of requests in flight")
+				.tag("group", group.getName())
+				.register(registry);
+			shed = Counter.builder("concurrency.shed")
+				.description("Requests rejected for exceeding the concurrency limit")
+				.tag("group", group.getName())
+				.register(registry);
+		}
+		return new Group(patterns, group.getPriority(), limit, shed);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws Exception {
+		// already admitted when dispatched again to complete asynchronous processing
+		if (!this.enabled || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+			return true;
+		}
+		Group group = findGroup(request);
+		if (group == null || group.limit() == null) {
+			return true;
+		}
+		if (isPreempted(group) || !group.limit().tryAcquire()) {
+			if (group.shed() != null) {
+				group.shed().increment();
+			}
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.getWriter().write("{\"error\":\"Server is busy. Try again later.\"}");
+			return false;
+		}
+		request.setAttribute(PERMIT_ATTRIBUTE, new Permit(group.limit(), System.nanoTime()));
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+			request.removeAttribute(PERMIT_ATTRIBUTE);
+			permit.limit().release(permit.startNanos(), System.nanoTime());
+		}
+	}
+
+	private boolean isPreempted(Group group) {
+		for (Group other : this.groups) {
+			if (other.priority() < group.priority() && other.limit() != null && other.limit().isSaturated()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Group findGroup(HttpServletRequest request) {
+		if (this.groups.isEmpty()) {
+			return null;
+		}
+		PathContainer path = PathContainer
+			.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		for (Group group : this.groups) {
+			for (PathPattern pattern : group.patterns()) {
+				if (pattern.matches(path)) {
+					return group;
+				}
+			}
+		}
+		return null;
+	}
+
+	private record Group(List<PathPattern> patterns, int priority, AdaptiveConcurrencyLimit limit, Counter shed) {
+
+	}
+
+	private record Permit(AdaptiveConcurrencyLimit limit, long startNanos) {
+
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive concurrency limits, bound from the {@code concurrency-limit} properties. Each
+ * group of routes has its own limit, adjusted to the latency of its requests; the first
+ * group with a pattern matching a request applies. A group without its own latency target
+ * uses {@code concurrency-limit.max-latency}.
+ */
+@ConfigurationProperties("concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	/**
+	 * Whether to shed requests beyond the limits.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Number of requests of a group allowed in flight at startup.
+	 */
+	private int initialLimit = 20;
+
+	/**
+	 * Lowest limit of a group, however slow its requests.
+	 */
+	private int minLimit = 2;
+
+	/**
+	 * Highest limit of a group, however fast its requests.
+	 */
+	private int maxLimit = 200;
+
+	/**
+	 * Latency above which the limit of a group is lowered.
+	 */
+	private Duration maxLatency = Duration.ofMillis(500);
+
+	private final List<Group> groups = new ArrayList<>();
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getInitialLimit() {
+		return this.initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public Duration getMaxLatency() {
+		return this.maxLatency;
+	}
+
+	public void setMaxLatency(Duration maxLatency) {
+		this.maxLatency = maxLatency;
+	}
+
+	public List<Group> getGroups() {
+		return this.groups;
+	}
+
+	/**
+	 * Routes sharing a concurrency limit.
+	 */
+	public static class Group {
+
+		/**
+		 * Name of the group, used to tag its metrics.
+		 */
+		private String name;
+
+		/**
+		 * Path patterns of the routes in the group.
+		 */
+		private List<String> patterns = new ArrayList<>();
+
+		/**
+		 * Whether requests of the group are limited at all.
+		 */
+		private boolean limited = true;
+
+		/**
+		 * Priority of the group, lower values first. Requests of a group are also shed
+		 * while any group of a higher priority is at its limit.
+		 */
+		private int priority;
+
+		/**
+		 * Latency above which the limit of the group is lowered.
+		 */
+		private Duration maxLatency;
+
+		/**
+		 * Highest limit of the group, overriding {@code concurrency-limit.max-limit}. A
+		 * hard cap for groups whose requests hold a scarce resource, such as a database
+		 * connection, for long.
+		 */
+		private Integer maxLimit;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getPatterns() {
+			return this.patterns;
+		}
+
+		public void setPatterns(List<String> patterns) {
+			this.patterns = patterns;
+		}
+
+		public boolean isLimited() {
+			return this.limited;
+		}
+
+		public void setLimited(boolean limited) {
+			this.limited = limited;
+		}
+
+		public int getPriority() {
+			return this.priority;
+		}
+
+		public void setPriority(int priority) {
+			this.priority = priority;
+		}
+
+		public Duration getMaxLatency() {
+			return this.maxLatency;
+		}
+
+		public void setMaxLatency(Duration maxLatency) {
+			this.maxLatency = maxLatency;
+		}
+
+		public Integer getMaxLimit() {
+			return this.maxLimit;
+		}
+
+		public void setMaxLimit(Integer maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+	}
+
+}
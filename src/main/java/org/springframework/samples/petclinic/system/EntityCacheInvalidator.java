@@ -0,0 +1,266 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.internal.ForeignKeys;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.ManyToOneType;
+import org.hibernate.type.Type;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Extends the {@link CacheInvalidationBus} to the Hibernate second-level cache. Once a
+ * transaction commits, the cached entities and collections it wrote are evicted on the
+ * other instances, by id. Inserting or deleting an entity also evicts the entities it
+ * references with a many-to-one association and their cached inverse collections, such as
+ * the pet of a visit and its visits, since those may hold data derived from it.
+ * <p>
+ * Bulk and native updates are not seen here, so the entities they change stay cached on
+ * the other instances until evicted for another reason.
+ */
+class EntityCacheInvalidator
+		implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+		PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+	/**
+	 * Prefix of the names of the entities and collection roles in invalidations, to tell
+	 * them from the names of application caches.
+	 */
+	static final String PREFIX = "hibernate:";
+
+	private final SessionFactoryImplementor sessionFactory;
+
+	private final CacheInvalidationBus bus;
+
+	/**
+	 * Roles of the cached inverse collections, by owner entity and then element entity.
+	 */
+	private final Map<String, Map<String, List<String>>> inverseCollections = new HashMap<>();
+
+	EntityCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationBus bus) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		this.bus = bus;
+		metamodel().forEachCollectionDescriptor(collection -> {
+			if (collection.hasCache() && collection.isInverse()
+					&& collection.getElementType() instanceof EntityType element) {
+				this.inverseCollections
+					.computeIfAbsent(collection.getOwnerEntityPersister().getEntityName(), owner -> new HashMap<>())
+					.computeIfAbsent(element.getAssociatedEntityName(), name -> new ArrayList<>())
+					.add(collection.getRole());
+			}
+		});
+		EventListenerRegistry listeners = this.sessionFactory.getServiceRegistry()
+			.requireService(EventListenerRegistry.class);
+		listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+		listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+		bus.register(this);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return persister.canWriteToCache() || hasCachedParents(persister);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		evicted(event.getPersister(), event.getId());
+		evictParents(event.getPersister(), event.getState(), event.getSession());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		evicted(event.getPersister(), event.getId());
+		if (event.getOldState() != null) {
+			Type[] types = event.getPersister().getPropertyTypes();
+			for (int i = 0; i < types.length; i++) {
+				if (types[i] instanceof ManyToOneType && !Objects.equals(event.getOldState()[i], event.getState()[i])) {
+					evictParent(event.getPersister(), (ManyToOneType) types[i], event.getOldState()[i],
+							event.getSession());
+					evictParent(event.getPersister(), (ManyToOneType) types[i], event.getState()[i],
+							event.getSession());
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		evicted(event.getPersister(), event.getId());
+		evictParents(event.getPersister(), event.getDeletedState(), event.getSession());
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	@Override
+	public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+		collectionChanged(event);
+	}
+
+	@Override
+	public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+		collectionChanged(event);
+	}
+
+	@Override
+	public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+		collectionChanged(event);
+	}
+
+	/**
+	 * Evict an entity or collection, or all of them if the invalidation has no key.
+	 * @return whether the invalidation is for an entity or collection
+	 */
+	boolean apply(CacheInvalidation invalidation) {
+		if (!invalidation.cacheName().startsWith(PREFIX)) {
+			return false;
+		}
+		String name = invalidation.cacheName().substring(PREFIX.length());
+		EntityPersister entity = metamodel().findEntityDescriptor(name);
+		if (entity != null) {
+			if (invalidation.isClear()) {
+				this.sessionFactory.getCache().evictEntityData(name);
+			}
+			else {
+				this.sessionFactory.getCache()
+					.evictEntityData(name, entity.getIdentifierMapping().getJavaType().fromString(invalidation.key()));
+			}
+			return true;
+		}
+		CollectionPersister collection = metamodel().findCollectionDescriptor(name);
+		if (collection != null) {
+			if (invalidation.isClear()) {
+				this.sessionFactory.getCache().evictCollectionData(name);
+			}
+			else {
+				this.sessionFactory.getCache()
+					.evictCollectionData(name,
+							collection.getOwnerEntityPersister()
+								.getIdentifierMapping()
+								.getJavaType()
+								.fromString(invalidation.key()));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Evict all entities and collections.
+	 */
+	void clear() {
+		this.sessionFactory.getCache().evictAllRegions();
+	}
+
+	private void collectionChanged(AbstractCollectionEvent event) {
+		CollectionPersister collection = metamodel().getCollectionDescriptor(event.getCollection().getRole());
+		Object ownerId = event.getAffectedOwnerIdOrNull();
+		if (!collection.hasCache()) {
+			return;
+		}
+		// collection events come at flush time, before the transaction commits
+		event.getSession().getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, session) -> {
+			if (success) {
+				this.bus.invalidate(PREFIX + collection.getRole(), (ownerId != null) ? String.valueOf(ownerId) : null);
+			}
+		});
+	}
+
+	private void evicted(EntityPersister persister, Object id) {
+		if (persister.canWriteToCache()) {
+			this.bus.invalidate(PREFIX + persister.getRootEntityName(), String.valueOf(id));
+		}
+	}
+
+	private boolean hasCachedParents(EntityPersister persister) {
+		for (Type type : persister.getPropertyTypes()) {
+			if (type instanceof ManyToOneType parent
+					&& metamodel().getEntityDescriptor(parent.getAssociatedEntityName()).canWriteToCache()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void evictParents(EntityPersister persister, Object[] state, SharedSessionContractImplementor session) {
+		Type[] types = persister.getPropertyTypes();
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] instanceof ManyToOneType parent) {
+				evictParent(persister, parent, state[i], session);
+			}
+		}
+	}
+
+	private void evictParent(EntityPersister child, ManyToOneType type, Object parent,
+			SharedSessionContractImplementor session) {
+		if (parent == null) {
+			return;
+		}
+		EntityPersister persister = metamodel().getEntityDescriptor(type.getAssociatedEntityName());
+		Object id = ForeignKeys.getEntityIdentifierIfNotUnsaved(persister.getEntityName(), parent, session);
+		evicted(persister, id);
+		for (String role : this.inverseCollections.getOrDefault(persister.getEntityName(), Map.of())
+			.getOrDefault(child.getEntityName(), List.of())) {
+			this.bus.invalidate(PREFIX + role, String.valueOf(id));
+		}
+	}
+
+	private MappingMetamodel metamodel() {
+		return this.sessionFactory.getMappingMetamodel();
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.Set;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.processor.StandardXmlNsTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Thymeleaf dialect for the shared layout. It adds the {@code pc:cache} attribute, which
+ * marks an element whose rendered markup only depends on the locale and, optionally, on
+ * the value of its {@code pc:cache-vary} expression, such as the active menu:
+ *
+ * <pre class="code">
+ * &lt;nav pc:cache="navbar" pc:cache-vary="${menu}"&gt;...&lt;/nav&gt;
+ * </pre>
+ *
+ * The element is rendered once for each locale and value and then served as markup, see
+ * {@link FragmentCacheProcessor}. With {@code cache.fragments.enabled} unset, the
+ * attributes are dropped and the element is rendered every time.
+ * <p>
+ * The dialect also times the rendering of every template with the
+ * {@code thymeleaf.template.render} timer, tagged with the template name, see
+ * {@link TemplateRenderTimer}.
+ */
+@Component
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+	static final String PREFIX = "pc";
+
+	private final boolean enabled;
+
+	private final Cache<FragmentCacheProcessor.Key, String> fragments;
+
+	private final MeterRegistry registry;
+
+	public FragmentCacheDialect(@Value("${cache.fragments.enabled:true}") boolean enabled,
+			@Value("${cache.fragments.maximum-size:200}") long maximumSize, ObjectProvider<MeterRegistry> registry) {
+		super("Fragment Cache", PREFIX, StandardDialect.PROCESSOR_PRECEDENCE);
+		this.enabled = enabled;
+		this.fragments = Caffeine.newBuilder().maximumSize(maximumSize).build();
+		this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+	}
+
+	@Override
+	public Set<IProcessor> getProcessors(String dialectPrefix) {
+		return Set.of(new FragmentCacheProcessor(dialectPrefix, this.enabled, this.fragments, this.registry),
+				new TemplateRenderTimer(this.registry),
+				new StandardXmlNsTagProcessor(TemplateMode.HTML, dialectPrefix));
+	}
+
+	/**
+	 * Drop every cached fragment, for example after reloading messages.
+	 */
+	public void clear() {
+		this.fragments.invalidateAll();
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Processor of the {@code pc:cache} attribute. The value of the attribute names the
+ * fragment in metrics, and the optional {@code pc:cache-vary} attribute is an expression
+ * whose value is part of the cache key, along with the element's position in its template
+ * and the locale.
+ * <p>
+ * On a miss, the element and its body are rendered on their own, in the current context,
+ * and the resulting markup is cached. On a hit, the element is replaced with the cached
+ * markup, so none of its expressions, messages or links are evaluated. Requests whose
+ * links are rewritten, such as with a session id when cookies are disabled, are rendered
+ * as usual and never cached.
+ * <p>
+ * Lookups are counted by the {@code thymeleaf.fragment.cache.requests} counter, tagged
+ * with the fragment name and a {@code hit}, {@code miss} or {@code bypass} result. The
+ * counters of a fragment are registered on its first lookup and reused afterwards.
+ */
+final class FragmentCacheProcessor extends AbstractAttributeModelProcessor {
+
+	static final String ATTRIBUTE_NAME = "cache";
+
+	static final String VARY_ATTRIBUTE_NAME = "cache-vary";
+
+	/**
+	 * Run before the standard attributes, so that none of them is evaluated on a hit.
+	 */
+	private static final int PRECEDENCE = 10;
+
+	private final String varyAttributeName;
+
+	private final boolean enabled;
+
+	private final Cache<Key, String> fragments;
+
+	private final MeterRegistry registry;
+
+	private final ConcurrentMap<String, Requests> requests = new ConcurrentHashMap<>();
+
+	FragmentCacheProcessor(String dialectPrefix, boolean enabled, Cache<Key, String> fragments,
+			MeterRegistry registry) {
+		super(TemplateMode.HTML, dialectPrefix, null, false, ATTRIBUTE_NAME, true, PRECEDENCE, true);
+		this.varyAttributeName = dialectPrefix + ":" + VARY_ATTRIBUTE_NAME;
+		this.enabled = enabled;
+		this.fragments = fragments;
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName, String attributeValue,
+			IElementModelStructureHandler structureHandler) {
+		IModelFactory modelFactory = context.getModelFactory();
+		IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+		String vary = tag.getAttributeValue(this.varyAttributeName);
+		model.replace(0,
+				modelFactory.removeAttribute(modelFactory.removeAttribute(tag, attributeName), this.varyAttributeName));
+		if (!this.enabled) {
+			return;
+		}
+		String fragment = attributeValue.isBlank() ? tag.getElementCompleteName() : attributeValue.trim();
+		Requests requests = requests(fragment);
+		if (!isCacheable(context)) {
+			requests.bypass().increment();
+			return;
+		}
+		Key key = new Key(tag.getTemplateName(), tag.getLine(), tag.getCol(), evaluate(context, vary),
+				context.getLocale());
+		String markup = this.fragments.getIfPresent(key);
+		if (markup != null) {
+			requests.hit().increment();
+		}
+		else {
+			requests.miss().increment();
+			markup = render(context, model, tag);
+			this.fragments.put(key, markup);
+		}
+		model.reset();
+		model.add(modelFactory.createText(markup));
+	}
+
+	/**
+	 * Render the element on its own, in the given context, so that its local variables
+	 * and the fragments of its template are resolved as they would be in place.
+	 */
+	private static String render(ITemplateContext context, IModel model, IProcessableElementTag tag) {
+		StringWriter source = new StringWriter();
+		StringWriter markup = new StringWriter();
+		try {
+			model.write(source);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+		TemplateModel template = templateManager.parseString(context.getTemplateData(), source.toString(),
+				tag.getLine(), tag.getCol(), context.getTemplateMode(), false);
+		templateManager.process(template, context, markup);
+		return markup.toString();
+	}
+
+	private static String evaluate(ITemplateContext context, String expression) {
+		if (expression == null || expression.isBlank()) {
+			return "";
+		}
+		Object value = StandardExpressions.getExpressionParser(context.getConfiguration())
+			.parseExpression(context, expression)
+			.execute(context);
+		return String.valueOf(value);
+	}
+
+	/**
+	 * Return whether links rendered for this request can be served to any other, which is
+	 * not the case when the response rewrites them.
+	 */
+	private static boolean isCacheable(ITemplateContext context) {
+		if (context instanceof IWebContext webContext) {
+			return "/".equals(webContext.getExchange().transformURL("/"));
+		}
+		return true;
+	}
+
+	private Requests requests(String fragment) {
+		Requests requests = this.requests.get(fragment);
+		if (requests == null) {
+			requests = this.requests.computeIfAbsent(fragment,
+					name -> new Requests(counter(name, "hit"), counter(name, "miss"), counter(name, "bypass")));
+		}
+		return requests;
+	}
+
+	private Counter counter(String fragment, String result) {
+		return Counter.builder("thymeleaf.fragment.cache.requests")
+			.description("Lookups of layout fragments in the fragment cache")
+			.tag("fragment", fragment)
+			.tag("result", result)
+			.register(this.registry);
+	}
+
+	/**
+	 * Identity of a rendered fragment.
+	 *
+	 * @param template the name of the template the element is declared in
+	 * @param line the line of the element in its template
+	 * @param col the column of the element in its template
+	 * @param vary the value of the {@code pc:cache-vary} expression, empty if none
+	 * @param locale the locale the fragment is rendered in
+	 */
+	record Key(String template, int line, int col, String vary, Locale locale) {
+
+	}
+
+	private record Requests(Counter hit, Counter miss, Counter bypass) {
+
+	}
+
+}
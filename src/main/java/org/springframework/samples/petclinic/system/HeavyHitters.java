@@ -0,0 +1,297 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving sketch of the most frequent items in a stream, after Metwally, Agrawal and
+ * El Abbadi, in a fixed number of counters whatever the number of distinct items. An item
+ * without a counter takes over the smallest one, inheriting its count as the possible
+ * overestimate of its own, so that any item more frequent than {@code 1 / capacity} of
+ * the stream is always tracked. Counters are grouped in buckets of equal counts, kept in
+ * a list ordered by count, so that an update moves one counter to the next bucket in
+ * constant time, whatever the capacity.
+ * <p>
+ * Items are counted in stripes, each a sketch of its own picked by the adding thread, so
+ * that threads counting at the same time rarely wait for the same lock. {@link #top(int)}
+ * merges the stripes: the count of an item is the sum of its counts in the stripes
+ * tracking it, plus the smallest count of each full stripe not tracking it, which bounds
+ * the occurrences that stripe may have dropped, so counts are still never underestimated.
+ */
+final class HeavyHitters {
+
+	private final Sketch[] stripes;
+
+	HeavyHitters(int capacity) {
+		// the power of two at or above twice the number of processors
+		this(capacity, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1));
+	}
+
+	/**
+	 * Create a sketch.
+	 * @param capacity the number of counters of each stripe
+	 * @param stripes the number of stripes, a power of two
+	 */
+	HeavyHitters(int capacity, int stripes) {
+		if (Integer.bitCount(stripes) != 1) {
+			throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+		}
+		this.stripes = new Sketch[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.stripes[i] = new Sketch(capacity);
+		}
+	}
+
+	/**
+	 * Count one occurrence of an item.
+	 */
+	void add(String item) {
+		Sketch stripe = this.stripes[(int) Thread.currentThread().getId() & (this.stripes.length - 1)];
+		synchronized (stripe) {
+			stripe.add(item);
+		}
+	}
+
+	/**
+	 * Return the most frequent items, most frequent first.
+	 * @param limit the maximum number of items
+	 */
+	List<Entry> top(int limit) {
+		// counts and errors in excess of the sum of the smallest counts of the stripes
+		Map<String, long[]> merged = new HashMap<>();
+		long smallest = 0;
+		for (Sketch stripe : this.stripes) {
+			Entry[] entries;
+			long stripeSmallest;
+			synchronized (stripe) {
+				entries = stripe.entries();
+				stripeSmallest = stripe.smallestCount();
+			}
+			smallest += stripeSmallest;
+			for (Entry entry : entries) {
+				long[] excess = merged.computeIfAbsent(entry.item(), item -> new long[2]);
+				excess[0] += entry.count() - stripeSmallest;
+				excess[1] += entry.error() - stripeSmallest;
+			}
+		}
+		List<Entry> entries = new ArrayList<>(merged.size());
+		for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+			entries.add(new Entry(entry.getKey(), smallest + entry.getValue()[0], smallest + entry.getValue()[1]));
+		}
+		entries.sort(Comparator.comparingLong(Entry::count).reversed());
+		return List.copyOf(entries.subList(0, Math.min(limit, entries.size())));
+	}
+
+	/**
+	 * One stripe, guarded by its monitor.
+	 */
+	private static final class Sketch {
+
+		private final int capacity;
+
+		private final Map<String, Counter> counters;
+
+		/**
+		 * The bucket of the smallest count, first of the list of buckets.
+		 */
+		private Bucket smallest;
+
+		/**
+		 * An emptied bucket kept for the next count, as counts mostly move one bucket up.
+		 */
+		private Bucket spare;
+
+		private int size;
+
+		Sketch(int capacity) {
+			this.capacity = capacity;
+			this.counters = new HashMap<>(capacity * 2);
+		}
+
+		void add(String item) {
+			Counter counter = this.counters.get(item);
+			if (counter != null) {
+				increment(counter);
+			}
+			else if (this.size < this.capacity) {
+				counter = new Counter(item);
+				this.size++;
+				this.counters.put(item, counter);
+				if (this.smallest == null || this.smallest.count != 1) {
+					Bucket first = bucket(1);
+					first.next = this.smallest;
+					if (this.smallest != null) {
+						this.smallest.previous = first;
+					}
+					this.smallest = first;
+				}
+				this.smallest.add(counter);
+			}
+			else {
+				counter = this.smallest.first;
+				this.counters.remove(counter.item);
+				counter.item = item;
+				counter.error = counter.bucket.count;
+				this.counters.put(item, counter);
+				increment(counter);
+			}
+		}
+
+		private void increment(Counter counter) {
+			Bucket from = counter.bucket;
+			long count = from.count + 1;
+			Bucket to = from.next;
+			if (to == null || to.count != count) {
+				if (from.first == counter && counter.next == null) {
+					// alone in its bucket, which becomes the next one
+					from.count = count;
+					return;
+				}
+				to = bucket(count);
+				to.previous = from;
+				to.next = from.next;
+				if (from.next != null) {
+					from.next.previous = to;
+				}
+				from.next = to;
+			}
+			from.remove(counter);
+			to.add(counter);
+			if (from.first == null) {
+				unlink(from);
+			}
+		}
+
+		private Bucket bucket(long count) {
+			Bucket bucket = this.spare;
+			if (bucket == null) {
+				bucket = new Bucket();
+			}
+			this.spare = null;
+			bucket.count = count;
+			return bucket;
+		}
+
+		private void unlink(Bucket bucket) {
+			if (bucket.previous != null) {
+				bucket.previous.next = bucket.next;
+			}
+			else {
+				this.smallest = bucket.next;
+			}
+			if (bucket.next != null) {
+				bucket.next.previous = bucket.previous;
+			}
+			bucket.previous = null;
+			bucket.next = null;
+			this.spare = bucket;
+		}
+
+		Entry[] entries() {
+			Entry[] entries = new Entry[this.size];
+			int i = 0;
+			for (Bucket bucket = this.smallest; bucket != null; bucket = bucket.next) {
+				for (Counter counter = bucket.first; counter != null; counter = counter.next) {
+					entries[i++] = new Entry(counter.item, bucket.count, counter.error);
+				}
+			}
+			return entries;
+		}
+
+		/**
+		 * Return the most occurrences an item without a counter may have had, zero until
+		 * every counter is taken.
+		 */
+		long smallestCount() {
+			return (this.size < this.capacity) ? 0 : this.smallest.count;
+		}
+
+	}
+
+	/**
+	 * Counters of the same count, in a list of their own.
+	 */
+	private static final class Bucket {
+
+		private long count;
+
+		private Bucket previous;
+
+		private Bucket next;
+
+		private Counter first;
+
+		void add(Counter counter) {
+			counter.bucket = this;
+			counter.previous = null;
+			counter.next = this.first;
+			if (this.first != null) {
+				this.first.previous = counter;
+			}
+			this.first = counter;
+		}
+
+		void remove(Counter counter) {
+			if (counter.previous != null) {
+				counter.previous.next = counter.next;
+			}
+			else {
+				this.first = counter.next;
+			}
+			if (counter.next != null) {
+				counter.next.previous = counter.previous;
+			}
+		}
+
+	}
+
+	private static final class Counter {
+
+		private String item;
+
+		private long error;
+
+		private Bucket bucket;
+
+		private Counter previous;
+
+		private Counter next;
+
+		Counter(String item) {
+			this.item = item;
+		}
+
+	}
+
+	/**
+	 * Estimated frequency of an item.
+	 *
+	 * @param item the item
+	 * @param count the estimated number of occurrences, never less than the actual number
+	 * @param error the largest possible overestimate, so the item occurred at least
+	 * {@code count - error} times
+	 */
+	record Entry(String item, long count, long error) {
+
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * {@link CacheInvalidationTransport} through the {@code cache_invalidations} change-log
+ * table, which every instance appends to and polls every
+ * {@code cache.invalidation.poll-interval}, reading the rows after the last one it has
+ * seen in pages of {@code cache.invalidation.batch-size}.
+ * <p>
+ * Ids are generated in insert order but rows become visible in commit order, so a row can
+ * show up after rows with higher ids. Rows are therefore read from the highest id below
+ * which all rows have been seen, and a missing id is waited for up to
+ * {@code cache.invalidation.gap-timeout}, after which it is taken to belong to a rolled
+ * back insert.
+ * <p>
+ * Rows are purged once older than {@code cache.invalidation.retention}. An instance that
+ * could not poll for longer than that may have missed some, and clears its caches.
+ */
+class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcCacheInvalidationTransport.class);
+
+	private final JdbcTemplate jdbc;
+
+	private final int batchSize;
+
+	private final long gapTimeoutMillis;
+
+	private final long retentionMillis;
+
+	private final LongSupplier clock;
+
+	private volatile Subscriber subscriber;
+
+	/**
+	 * Highest id up to which all rows have been read or given up on, or -1 before the
+	 * first poll.
+	 */
+	private long watermark = -1;
+
+	/**
+	 * Ids of the rows read above the watermark, after a gap.
+	 */
+	private final NavigableSet<Long> seen = new TreeSet<>();
+
+	private long gapSince;
+
+	private long lastPolled;
+
+	JdbcCacheInvalidationTransport(DataSource dataSource, int batchSize, Duration gapTimeout, Duration retention) {
+		this(dataSource, batchSize, gapTimeout, retention, System::currentTimeMillis);
+	}
+
+	JdbcCacheInvalidationTransport(DataSource dataSource, int batchSize, Duration gapTimeout, Duration retention,
+			LongSupplier clock) {
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.jdbc.setMaxRows(batchSize);
+		this.batchSize = batchSize;
+		this.gapTimeoutMillis = gapTimeout.toMillis();
+		this.retentionMillis = retention.toMillis();
+		this.clock = clock;
+	}
+
+	@Override
+	public void publish(List<CacheInvalidation> invalidations) {
+		this.jdbc.batchUpdate(
+				"INSERT INTO cache_invalidations (origin, cache_name, cache_key, created_at) VALUES (?, ?, ?, ?)",
+				invalidations, invalidations.size(), (ps, invalidation) -> {
+					ps.setString(1, invalidation.origin());
+					ps.setString(2, invalidation.cacheName());
+					if (invalidation.isClear()) {
+						ps.setNull(3, Types.VARCHAR);
+					}
+					else {
+						ps.setString(3, invalidation.key());
+					}
+					ps.setLong(4, invalidation.createdAt());
+				});
+	}
+
+	@Override
+	public void subscribe(Subscriber subscriber) {
+		this.subscriber = subscriber;
+	}
+
+	/**
+	 * Read the rows added since the last poll and hand them to the subscriber.
+	 */
+	@Scheduled(fixedDelayString = "${cache.invalidation.poll-interval:1s}")
+	synchronized void poll() {
+		Subscriber subscriber = this.subscriber;
+		if (subscriber == null) {
+			return;
+		}
+		long now = this.clock.getAsLong();
+		try {
+			if (this.watermark < 0) {
+				// nothing is cached yet, so only rows added from now on matter
+				Long max = this.jdbc.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+				this.watermark = (max != null) ? max : 0;
+				this.lastPolled = now;
+				subscriber.receive(List.of());
+				return;
+			}
+			List<CacheInvalidation> received = new ArrayList<>();
+			long after = this.watermark;
+			List<Row> rows;
+			do {
+				rows = this.jdbc.query(
+						"SELECT id, origin, cache_name, cache_key, created_at FROM cache_invalidations WHERE id > ? ORDER BY id",
+						(rs, rowNum) -> new Row(rs.getLong(1), new CacheInvalidation(rs.getString(2), rs.getString(3),
+								rs.getString(4), rs.getLong(5))),
+						after);
+				for (Row row : rows) {
+					if (this.seen.add(row.id())) {
+						received.add(row.invalidation());
+					}
+					after = row.id();
+				}
+			}
+			while (rows.size() == this.batchSize);
+			advanceWatermark(now);
+			if (now - this.lastPolled > this.retentionMillis) {
+				subscriber.resynchronize();
+			}
+			this.lastPolled = now;
+			subscriber.receive(received);
+		}
+		catch (DataAccessException ex) {
+			logger.warn("Could not poll cache invalidations: {}", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Delete the rows older than the retention.
+	 */
+	@Scheduled(fixedDelayString = "${cache.invalidation.purge-interval:1m}",
+			initialDelayString = "${cache.invalidation.purge-interval:1m}")
+	void purge() {
+		try {
+			int purged = this.jdbc.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+					this.clock.getAsLong() - this.retentionMillis);
+			logger.debug("Purged {} cache invalidations", purged);
+		}
+		catch (DataAccessException ex) {
+			logger.warn("Could not purge cache invalidations: {}", ex.getMessage());
+		}
+	}
+
+	private void advanceWatermark(long now) {
+		while (!this.seen.isEmpty()) {
+			long next = this.seen.first();
+			if (next == this.watermark + 1) {
+				this.watermark = this.seen.pollFirst();
+				this.gapSince = 0;
+			}
+			else if (this.gapSince == 0) {
+				this.gapSince = now;
+				return;
+			}
+			else if (now - this.gapSince >= this.gapTimeoutMillis) {
+				this.watermark = next - 1;
+				this.gapSince = 0;
+			}
+			else {
+				return;
+			}
+		}
+	}
+
+	private record Row(long id, CacheInvalidation invalidation) {
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RateLimitStore} keeping the shared token buckets in the
+ * {@code rate_limit_buckets} table. A bucket is read and then updated only if it has not
+ * changed since, the same compare-and-set as {@link TokenBucketRateLimiter} but on a row,
+ * so no locks are held between statements. Times are wall-clock microseconds, since they
+ * are compared across instances.
+ * <p>
+ * Rows of buckets that have refilled completely are purged periodically, as a new full
+ * bucket is equivalent.
+ */
+@Component
+@ConditionalOnProperty("rate-limit.shared.enabled")
+class JdbcRateLimitStore implements RateLimitStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+	private static final int MAX_ATTEMPTS = 16;
+
+	private final JdbcTemplate jdbc;
+
+	private final LongSupplier clock;
+
+	@Autowired
+	JdbcRateLimitStore(JdbcTemplate jdbc) {
+		this(jdbc, () -> ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+	}
+
+	JdbcRateLimitStore(JdbcTemplate jdbc, LongSupplier clock) {
+		this.jdbc = jdbc;
+		this.clock = clock;
+	}
+
+	@Override
+	public Grant acquire(String key, TokenBucketRateLimiter.Limit limit, int tokens, int returned) {
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			long now = this.clock.getAsLong();
+			List<long[]> buckets = this.jdbc.query(
+					"SELECT tokens, refilled_at FROM rate_limit_buckets WHERE bucket_key = ?",
+					(rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, key);
+			if (buckets.isEmpty()) {
+				int granted = Math.min(tokens, limit.capacity());
+				try {
+					this.jdbc.update(
+							"INSERT INTO rate_limit_buckets (bucket_key, tokens, refilled_at, full_at) VALUES (?, ?, ?, ?)",
+							key, limit.capacity() - granted, now, now + granted * limit.microsPerToken());
+					return new Grant(granted, limit.capacity() - granted, 0, granted * limit.microsPerToken());
+				}
+				catch (DuplicateKeyException ex) {
+					// created by another instance in the meantime
+					continue;
+				}
+			}
+
+			long current = buckets.get(0)[0];
+			long available = current;
+			long refilled = buckets.get(0)[1];
+			long earned = returned + (now - refilled) / limit.microsPerToken();
+			if (earned > 0) {
+				if (available + earned >= limit.capacity()) {
+					available = limit.capacity();
+					refilled = now;
+				}
+				else {
+					available += earned;
+					refilled += (earned - returned) * limit.microsPerToken();
+				}
+			}
+			long reset = (limit.capacity() - available) * limit.microsPerToken() - (now - refilled);
+			if (available == 0) {
+				return new Grant(0, 0, refilled + limit.microsPerToken() - now, reset);
+			}
+			int granted = (int) Math.min(tokens, available);
+			long fullAt = refilled + (limit.capacity() - available + granted) * limit.microsPerToken();
+			int updated = this.jdbc.update(
+					"UPDATE rate_limit_buckets SET tokens = ?, refilled_at = ?, full_at = ? "
+							+ "WHERE bucket_key = ? AND tokens = ? AND refilled_at = ?",
+					available - granted, refilled, fullAt, key, current, buckets.get(0)[1]);
+			if (updated == 1) {
+				return new Grant(granted, (int) available - granted, 0, fullAt - now);
+			}
+		}
+		throw new OptimisticLockingFailureException(
+				"Rate limit bucket " + key + " kept changing for " + MAX_ATTEMPTS + " attempts");
+	}
+
+	/**
+	 * Delete the buckets that are full again.
+	 */
+	@Scheduled(fixedDelayString = "${rate-limit.shared.purge-interval:5m}",
+			initialDelayString = "${rate-limit.shared.purge-interval:5m}")
+	void purge() {
+		int purged = this.jdbc.update("DELETE FROM rate_limit_buckets WHERE full_at <= ?", this.clock.getAsLong());
+		logger.debug("Purged {} full rate limit buckets", purged);
+	}
+
+}
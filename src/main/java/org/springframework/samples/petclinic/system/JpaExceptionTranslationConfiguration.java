@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+
+/**
+ * Translates the JDBC exceptions raised through JPA with the error codes of the database,
+ * as {@link org.springframework.jdbc.core.JdbcTemplate} does, rather than from the type
+ * of the Hibernate exception alone. A violated unique constraint is then reported as a
+ * {@link org.springframework.dao.DuplicateKeyException}, which callers can tell apart
+ * from the other integrity violations, such as a value too long for its column.
+ */
+@Configuration(proxyBeanMethods = false)
+class JpaExceptionTranslationConfiguration {
+
+	@Bean
+	static BeanPostProcessor jdbcExceptionTranslatorPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof LocalContainerEntityManagerFactoryBean factory
+						&& factory.getJpaDialect() instanceof HibernateJpaDialect dialect) {
+					dialect.setJdbcExceptionTranslator(new SQLErrorCodeSQLExceptionTranslator(factory.getDataSource()));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link CacheInvalidationTransport} through PostgreSQL {@code LISTEN} and {@code NOTIFY}
+ * on the {@value #CHANNEL} channel. Invalidations are sent one per line, as many per
+ * notification as fit in its payload, and received on a connection held by a listener
+ * thread, which waits up to {@code cache.invalidation.poll-interval} for notifications
+ * and checks that the connection is still alive in between.
+ * <p>
+ * Notifications sent while the listener is not connected are lost, so the subscriber
+ * clears its caches every time the listener connects.
+ */
+class PostgresCacheInvalidationTransport implements CacheInvalidationTransport, SmartLifecycle {
+
+	static final String CHANNEL = "cache_invalidation";
+
+	/**
+	 * Maximum size of a notification payload, below the limit of 8000 bytes.
+	 */
+	static final int MAX_PAYLOAD_BYTES = 7900;
+
+	private static final Logger logger = LoggerFactory.getLogger(PostgresCacheInvalidationTransport.class);
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbc;
+
+	private final Duration pollInterval;
+
+	private volatile Subscriber subscriber;
+
+	private volatile boolean running;
+
+	private Thread listener;
+
+	PostgresCacheInvalidationTransport(DataSource dataSource, Duration pollInterval) {
+		this.dataSource = dataSource;
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.pollInterval = pollInterval;
+	}
+
+	@Override
+	public void publish(List<CacheInvalidation> invalidations) {
+		for (String payload : toPayloads(invalidations)) {
+			this.jdbc.query("SELECT pg_notify(?, ?)", rs -> {
+			}, CHANNEL, payload);
+		}
+	}
+
+	@Override
+	public void subscribe(Subscriber subscriber) {
+		this.subscriber = subscriber;
+	}
+
+	@Override
+	public synchronized void start() {
+		this.running = true;
+		this.listener = new Thread(this::listen, "cache-invalidation-listener");
+		this.listener.setDaemon(true);
+		this.listener.start();
+	}
+
+	@Override
+	public synchronized void stop() {
+		this.running = false;
+		if (this.listener == null) {
+			return;
+		}
+		try {
+			this.listener.join(this.pollInterval.multipliedBy(2).toMillis());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	private void listen() {
+		int waitMillis = (int) Math.max(1, this.pollInterval.toMillis());
+		while (this.running) {
+			try (Connection connection = this.dataSource.getConnection()) {
+				connection.setAutoCommit(true);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				PGConnection notifications = connection.unwrap(PGConnection.class);
+				logger.debug("Listening for cache invalidations");
+				this.subscriber.resynchronize();
+				while (this.running) {
+					List<CacheInvalidation> received = new ArrayList<>();
+					PGNotification[] batch = notifications.getNotifications(waitMillis);
+					if (batch != null) {
+						for (PGNotification notification : batch) {
+							received.addAll(fromPayload(notification.getParameter()));
+						}
+					}
+					if (!connection.isValid(waitMillis / 1000 + 1)) {
+						throw new SQLException("Connection closed");
+					}
+					this.subscriber.receive(received);
+				}
+			}
+			catch (SQLException | RuntimeException ex) {
+				if (this.running) {
+					logger.warn("Lost the cache invalidation channel, reconnecting: {}", ex.getMessage());
+					pause(waitMillis);
+				}
+			}
+		}
+	}
+
+	private void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			this.running = false;
+		}
+	}
+
+	/**
+	 * Encode invalidations as notification payloads, one invalidation per line with its
+	 * fields separated by spaces and URL-encoded, and a line without a key for a cleared
+	 * cache.
+	 */
+	static List<String> toPayloads(List<CacheInvalidation> invalidations) {
+		List<String> payloads = new ArrayList<>();
+		StringBuilder payload = new StringBuilder();
+		for (CacheInvalidation invalidation : invalidations) {
+			String line = encode(invalidation.origin()) + " " + invalidation.createdAt() + " "
+					+ encode(invalidation.cacheName())
+					+ (invalidation.isClear() ? "" : " " + encode(invalidation.key()));
+			if (line.length() > MAX_PAYLOAD_BYTES) {
+				// too long a key to send, so clear the whole cache instead
+				line = encode(invalidation.origin()) + " " + invalidation.createdAt() + " "
+						+ encode(invalidation.cacheName());
+			}
+			if (!payload.isEmpty() && payload.length() + 1 + line.length() > MAX_PAYLOAD_BYTES) {
+				payloads.add(payload.toString());
+				payload.setLength(0);
+			}
+			if (!payload.isEmpty()) {
+				payload.append('\n');
+			}
+			payload.append(line);
+		}
+		if (!payload.isEmpty()) {
+			payloads.add(payload.toString());
+		}
+		return payloads;
+	}
+
+	/**
+	 * Decode a notification payload, skipping malformed lines.
+	 */
+	static List<CacheInvalidation> fromPayload(String payload) {
+		List<CacheInvalidation> invalidations = new ArrayList<>();
+		for (String line : payload.split("\n")) {
+			String[] fields = line.split(" ", -1);
+			if (fields.length < 3 || fields.length > 4) {
+				logger.debug("Skipping malformed cache invalidation: {}", line);
+				continue;
+			}
+			try {
+				invalidations.add(new CacheInvalidation(decode(fields[0]), decode(fields[2]),
+						(fields.length == 4) ? decode(fields[3]) : null, Long.parseLong(fields[1])));
+			}
+			catch (IllegalArgumentException ex) {
+				logger.debug("Skipping malformed cache invalidation: {}", line);
+			}
+		}
+		return invalidations;
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	private static String decode(String value) {
+		return URLDecoder.decode(value, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint listing the clients rejected most often by the
+ * {@link RateLimitInterceptor}, at {@code /actuator/ratelimit}. Counts are estimates from
+ * a sketch and never lower than the actual counts; {@code error} bounds how much higher
+ * they may be.
+ */
+@Component
+@Endpoint(id = "ratelimit")
+public class RateLimitEndpoint {
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	private final RateLimitInterceptor interceptor;
+
+	public RateLimitEndpoint(RateLimitInterceptor interceptor) {
+		this.interceptor = interceptor;
+	}
+
+	@ReadOperation
+	public TopOffenders topOffenders(@Nullable Integer limit) {
+		List<Offender> offenders = this.interceptor.topRejectedClients((limit != null) ? limit : DEFAULT_LIMIT)
+			.stream()
+			.map(entry -> new Offender(entry.item(), entry.count(), entry.error()))
+			.toList();
+		return new TopOffenders(offenders);
+	}
+
+	/**
+	 * The clients rejected most often, most often first.
+	 */
+	public record TopOffenders(List<Offender> clients) {
+
+	}
+
+	/**
+	 * A client and the estimated number of its rejected requests.
+	 */
+	public record Offender(String client, long rejected, long error) {
+
+	}
+
+}
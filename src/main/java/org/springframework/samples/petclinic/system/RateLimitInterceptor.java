@@ -1,33 +1,108 @@
 package org.springframework.samples.petclinic.system;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * Simple rate limiting interceptor for POC purposes. Limits requests per IP address with
- * a sliding window approach.
+ * Rate limiting interceptor. Limits requests per IP address with a token bucket per
+ * client and policy, where each {@link RateLimitProperties.Policy policy} covers a path
+ * pattern and, optionally, a set of HTTP methods. Responses carry
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset} and
+ * {@code RateLimit-Policy} headers, and rejected requests also {@code Retry-After}.
+ * <p>
+ * Clients are identified by their address, taken from forwarded headers only when the
+ * request comes through a {@link TrustedProxies trusted proxy}. At most
+ * {@code rate-limit.max-tracked-keys} buckets are kept, exported as the
+ * {@code ratelimit.tracked.keys} gauge. When a {@link RateLimitStore} is available, the
+ * limits are shared by all instances of the application through a
+ * {@link SharedRateLimiter}.
+ * <p>
+ * Decisions are counted by {@link RateLimitMetrics}, which also tracks the clients
+ * rejected most often for the {@link RateLimitEndpoint}, and logged at trace level.
  */
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-	@Value("${rate-limit.max-requests:5}")
-	private int maxRequests;
-
-	@Value("${rate-limit.window-size-minutes:1}")
-	private int windowSizeMinutes;
-
-	@Value("${rate-limit.enabled:true}")
-	private boolean rateLimitEnabled;
+	private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+	private final int maxRequests;
+
+	private final int windowSizeMinutes;
+
+	private final boolean rateLimitEnabled;
+
+	private final List<Route> routes;
+
+	private final TrustedProxies trustedProxies;
+
+	private final RateLimiter limiter;
+
+	private final RateLimitMetrics metrics;
+
+	public RateLimitInterceptor(RateLimitProperties properties, @Value("${rate-limit.max-requests:5}") int maxRequests,
+			@Value("${rate-limit.window-size-minutes:1}") int windowSizeMinutes,
+			@Value("${rate-limit.enabled:true}") boolean rateLimitEnabled, ObjectProvider<RateLimitStore> store,
+			ObjectProvider<MeterRegistry> registry) {
+		this.maxRequests = maxRequests;
+		this.windowSizeMinutes = windowSizeMinutes;
+		this.rateLimitEnabled = rateLimitEnabled;
+		MeterRegistry meters = registry.getIfAvailable();
+		this.metrics = new RateLimitMetrics(meters, properties.getTrackedOffenders());
+		this.routes = properties.getPolicies().stream().map(this::route).toList();
+		this.trustedProxies = TrustedProxies.of(properties.getTrustedProxies());
+		// a bucket left alone for its window is full again, so it can be dropped
+		Duration idleTimeout = this.routes.stream()
+			.map(Route::window)
+			.max(Comparator.naturalOrder())
+			.orElse(Duration.ofMinutes(windowSizeMinutes));
+		TokenBucketRateLimiter local = new TokenBucketRateLimiter(properties.getMaxTrackedKeys(), idleTimeout);
+		RateLimitStore shared = store.getIfAvailable();
+		this.limiter = (shared != null) ? new SharedRateLimiter(shared, local, properties.getMaxTrackedKeys(),
+				idleTimeout, properties.getShared()) : local;
+		if (meters != null) {
+			Gauge.builder("ratelimit.tracked.keys", this.limiter, RateLimiter::size)
+				.description("Number of clients tracked by the rate limiter")
+				.register(meters);
+		}
+	}
 
-	// Simple in-memory storage (not production-ready)
-	private final ConcurrentHashMap<String, RequestTracker> requestCounts = new ConcurrentHashMap<>();
+	private Route route(RateLimitProperties.Policy policy) {
+		int limit = (policy.getMaxRequests() != null) ? policy.getMaxRequests() : this.maxRequests;
+		Duration window = (policy.getWindow() != null) ? policy.getWindow()
+				: Duration.ofMinutes(this.windowSizeMinutes);
+		Set<String> methods = policy.getMethods()
+			.stream()
+			.map(method -> method.trim().toUpperCase(Locale.ROOT))
+			.collect(Collectors.toUnmodifiableSet());
+		String id = (methods.isEmpty() ? "" : String.join(",", methods.stream().sorted().toList()) + " ")
+				+ policy.getPattern();
+		return new Route(id, PathPatternParser.defaultInstance.parse(policy.getPattern()), methods, window,
+				TokenBucketRateLimiter.Limit.of(limit, window), limit + ";w=" + window.toSeconds(),
+				this.metrics.policy(id));
+	}
 
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
@@ -37,72 +112,74 @@ public class RateLimitInterceptor implements HandlerInterceptor {
 			return true;
 		}
 
-		String requestURI = request.getRequestURI();
-
-		// Only apply rate limiting to /owners/find endpoint
-		if (!"/owners/find".equals(requestURI)) {
+		Route route = findRoute(request);
+		if (route == null) {
 			return true;
 		}
 
-		String clientIP = getClientIP(request);
-		String key = clientIP + ":" + requestURI;
-
-		RequestTracker tracker = requestCounts.compute(key, (k, v) -> {
-			if (v == null) {
-				return new RequestTracker();
-			}
-			return v;
-		});
+		String clientIP = this.trustedProxies.resolveClient(request);
+		TokenBucketRateLimiter.Decision decision = this.limiter.tryAcquire(clientIP + ":" + route.id(), route.limit());
+		route.metrics().record(handlerPattern(request), clientIP, decision, route.limit().capacity());
+		if (logger.isTraceEnabled()) {
+			logger.trace("{} {} from {} under policy {}: {}, {} remaining", request.getMethod(),
+					request.getRequestURI(), clientIP, route.id(), decision.allowed() ? "allowed" : "rejected",
+					decision.remaining());
+		}
 
-		if (isRateLimited(tracker)) {
-			response.setStatus(429); // Too Many Requests
-			response.setContentType("application/json");
+		response.setHeader("RateLimit-Limit", String.valueOf(route.limit().capacity()));
+		response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+		response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.resetMicros())));
+		response.setHeader("RateLimit-Policy", route.policyHeader());
+		if (!decision.allowed()) {
+			response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(decision.retryAfterMicros())));
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
 			response.getWriter()
 				.write(String.format(
-						"{\"error\":\"Rate limit exceeded. Try again later.\",\"maxRequests\":%d,\"windowSizeMinutes\":%d}",
-						maxRequests, windowSizeMinutes));
+						"{\"error\":\"Rate limit exceeded. Try again later.\",\"maxRequests\":%d,\"windowSeconds\":%d}",
+						route.limit().capacity(),
+						TimeUnit.MICROSECONDS.toSeconds(route.limit().microsPerToken() * route.limit().capacity())));
 			return false;
 		}
 
 		return true;
 	}
 
-	private boolean isRateLimited(RequestTracker tracker) {
-		long currentTime = System.currentTimeMillis();
-		long windowSizeMs = windowSizeMinutes * 60 * 1000L; // Convert minutes to
-															// milliseconds
-
-		// Reset counter if window has passed
-		if (currentTime - tracker.windowStart.get() > windowSizeMs) {
-			tracker.windowStart.set(currentTime);
-			tracker.requestCount.set(1);
-			return false;
-		}
-
-		// Check if we've exceeded the limit
-		return tracker.requestCount.incrementAndGet() > maxRequests;
-	}
-
-	private String getClientIP(HttpServletRequest request) {
-		String xForwardedFor = request.getHeader("X-Forwarded-For");
-		if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-			return xForwardedFor.split(",")[0].trim();
+	private Route findRoute(HttpServletRequest request) {
+		if (this.routes.isEmpty()) {
+			return null;
 		}
-
-		String xRealIP = request.getHeader("X-Real-IP");
-		if (xRealIP != null && !xRealIP.isEmpty()) {
-			return xRealIP;
+		PathContainer path = PathContainer
+			.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		for (Route route : this.routes) {
+			if ((route.methods().isEmpty() || route.methods().contains(request.getMethod()))
+					&& route.pattern().matches(path)) {
+				return route;
+			}
 		}
+		return null;
+	}
 
-		return request.getRemoteAddr();
+	/**
+	 * Return the clients rejected most often, most often first.
+	 * @param limit the maximum number of clients
+	 */
+	List<HeavyHitters.Entry> topRejectedClients(int limit) {
+		return this.metrics.topRejectedClients(limit);
 	}
 
-	private static class RequestTracker {
+	private static String handlerPattern(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return (pattern != null) ? pattern.toString() : RateLimitMetrics.UNKNOWN_ROUTE;
+	}
 
-		final AtomicInteger requestCount = new AtomicInteger(0);
+	private static long toSeconds(long micros) {
+		return (micros + 999_999) / 1_000_000;
+	}
 
-		final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+	private record Route(String id, PathPattern pattern, Set<String> methods, Duration window,
+			TokenBucketRateLimiter.Limit limit, String policyHeader, RateLimitMetrics.Policy metrics) {
 
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics of the decisions of the {@link RateLimitInterceptor}: the
+ * {@code ratelimit.requests} counters of allowed and rejected requests by policy and
+ * route, and the {@code ratelimit.bucket.fill} distribution of the fraction of the bucket
+ * left after a decision, by policy. The clients rejected most often are tracked in a
+ * {@link HeavyHitters} sketch.
+ * <p>
+ * Meters are looked up once per policy and route and then kept, so that recording a
+ * decision costs a map lookup and a counter increment. The fill distribution is sampled
+ * from one in {@value #FILL_SAMPLE_RATE} decisions, as recording to a distribution
+ * summary, which also tracks its maximum over time, costs several times more.
+ */
+final class RateLimitMetrics {
+
+	static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+	static final int FILL_SAMPLE_RATE = 16;
+
+	private static final double[] FILL_BUCKETS = { 0.1, 0.25, 0.5, 0.75 };
+
+	private final MeterRegistry registry;
+
+	private final HeavyHitters rejectedClients;
+
+	/**
+	 * Create the metrics.
+	 * @param registry the registry to publish to, or {@code null} to only track the
+	 * rejected clients
+	 * @param trackedClients the number of rejected clients to track
+	 */
+	RateLimitMetrics(MeterRegistry registry, int trackedClients) {
+		this.registry = registry;
+		this.rejectedClients = new HeavyHitters(trackedClients);
+	}
+
+	/**
+	 * Return the metrics of a policy.
+	 * @param name the name of the policy, used as the {@code policy} tag
+	 */
+	Policy policy(String name) {
+		return new Policy(name);
+	}
+
+	/**
+	 * Return the clients rejected most often, most often first.
+	 * @param limit the maximum number of clients
+	 */
+	List<HeavyHitters.Entry> topRejectedClients(int limit) {
+		return this.rejectedClients.top(limit);
+	}
+
+	/**
+	 * Metrics of the decisions of one policy.
+	 */
+	final class Policy {
+
+		private final String name;
+
+		private final DistributionSummary fill;
+
+		private final ConcurrentMap<String, Counter[]> routes = new ConcurrentHashMap<>();
+
+		private Policy(String name) {
+			this.name = name;
+			this.fill = (RateLimitMetrics.this.registry != null) ? DistributionSummary.builder("ratelimit.bucket.fill")
+				.description("Fraction of the bucket left after a sample of rate limit decisions")
+				.tag("policy", name)
+				.serviceLevelObjectives(FILL_BUCKETS)
+				.register(RateLimitMetrics.this.registry) : null;
+		}
+
+		/**
+		 * Record a decision.
+		 * @param route the pattern of the route handling the request
+		 * @param client the client that sent the request
+		 * @param decision the decision
+		 * @param capacity the capacity of the bucket
+		 */
+		void record(String route, String client, TokenBucketRateLimiter.Decision decision, int capacity) {
+			if (!decision.allowed()) {
+				RateLimitMetrics.this.rejectedClients.add(client);
+			}
+			if (this.fill == null) {
+				return;
+			}
+			if (ThreadLocalRandom.current().nextInt(FILL_SAMPLE_RATE) == 0) {
+				this.fill.record((double) decision.remaining() / capacity);
+			}
+			Counter[] counters = this.routes.get(route);
+			if (counters == null) {
+				counters = this.routes.computeIfAbsent(route, this::counters);
+			}
+			counters[decision.allowed() ? 0 : 1].increment();
+		}
+
+		private Counter[] counters(String route) {
+			return new Counter[] { counter(route, "allowed"), counter(route, "rejected") };
+		}
+
+		private Counter counter(String route, String outcome) {
+			return Counter.builder("ratelimit.requests")
+				.description("Requests subject to a rate limit")
+				.tag("policy", this.name)
+				.tag("route", route)
+				.tag("outcome", outcome)
+				.register(RateLimitMetrics.this.registry);
+		}
+
+	}
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Rate limiting policies, bound from the {@code rate-limit.policies} properties. Each
+ * policy applies to the requests matching a path pattern and, optionally, a set of HTTP
+ * methods; the first matching policy wins. A policy without its own limit or window uses
+ * {@code rate-limit.max-requests} and {@code rate-limit.window-size-minutes}.
+ * <p>
+ * The number of tracked clients is capped, and forwarded client addresses are only
+ * honored from the configured trusted proxies. With {@code rate-limit.shared.enabled},
+ * the limits apply across all instances rather than to each one.
+ */
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+
+	private final List<Policy> policies = new ArrayList<>();
+
+	/**
+	 * Maximum number of client and policy pairs to track. When exceeded, the ones seen
+	 * least often and least recently are forgotten and start again with a full bucket.
+	 */
+	private long maxTrackedKeys = 100_000;
+
+	/**
+	 * Addresses and CIDR ranges of the proxies whose {@code X-Forwarded-For} and
+	 * {@code X-Real-IP} headers are honored. Forwarded headers are ignored if empty.
+	 */
+	private List<String> trustedProxies = new ArrayList<>();
+
+	/**
+	 * Number of rejected clients tracked for the {@code ratelimit} actuator endpoint. Any
+	 * client with more than one in this many of all rejections is always listed.
+	 */
+	private int trackedOffenders = 100;
+
+	private final Shared shared = new Shared();
+
+	public List<Policy> getPolicies() {
+		return this.policies;
+	}
+
+	public long getMaxTrackedKeys() {
+		return this.maxTrackedKeys;
+	}
+
+	public void setMaxTrackedKeys(long maxTrackedKeys) {
+		this.maxTrackedKeys = maxTrackedKeys;
+	}
+
+	public List<String> getTrustedProxies() {
+		return this.trustedProxies;
+	}
+
+	public void setTrustedProxies(List<String> trustedProxies) {
+		this.trustedProxies = trustedProxies;
+	}
+
+	public int getTrackedOffenders() {
+		return this.trackedOffenders;
+	}
+
+	public void setTrackedOffenders(int trackedOffenders) {
+		this.trackedOffenders = trackedOffenders;
+	}
+
+	public Shared getShared() {
+		return this.shared;
+	}
+
+	/**
+	 * Rate limit for the requests matching a path pattern and HTTP methods.
+	 */
+	public static class Policy {
+
+		/**
+		 * Path pattern, such as {@code /owners/**}.
+		 */
+		private String pattern;
+
+		/**
+		 * HTTP methods the policy applies to, all methods if empty.
+		 */
+		private List<String> methods = new ArrayList<>();
+
+		/**
+		 * Number of requests allowed in a burst, refilled evenly over the window.
+		 */
+		private Integer maxRequests;
+
+		/**
+		 * Time over which the allowed requests are refilled.
+		 */
+		private Duration window;
+
+		public String getPattern() {
+			return this.pattern;
+		}
+
+		public void setPattern(String pattern) {
+			this.pattern = pattern;
+		}
+
+		public List<String> getMethods() {
+			return this.methods;
+		}
+
+		public void setMethods(List<String> methods) {
+			this.methods = methods;
+		}
+
+		public Integer getMaxRequests() {
+			return this.maxRequests;
+		}
+
+		public void setMaxRequests(Integer maxRequests) {
+			this.maxRequests = maxRequests;
+		}
+
+		public Duration getWindow() {
+			return this.window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+	}
+
+	/**
+	 * Limits shared by all instances through the {@code rate_limit_buckets} table.
+	 */
+	public static class Shared {
+
+		/**
+		 * Whether to enforce the limits across all instances.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Maximum number of tokens an instance leases at once. Leases are also capped at
+		 * what the bucket refills over a lease or a tenth of its capacity, whichever is
+		 * larger.
+		 */
+		private int batchSize = 10;
+
+		/**
+		 * Time after which a lease lapses, its unused tokens being given back to the
+		 * shared bucket.
+		 */
+		private Duration lease = Duration.ofSeconds(1);
+
+		/**
+		 * Time to limit requests per instance after the table could not be reached.
+		 */
+		private Duration retryInterval = Duration.ofSeconds(30);
+
+		/**
+		 * Interval between purges of the buckets that are full again.
+		 */
+		private Duration purgeInterval = Duration.ofMinutes(5);
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getLease() {
+			return this.lease;
+		}
+
+		public void setLease(Duration lease) {
+			this.lease = lease;
+		}
+
+		public Duration getRetryInterval() {
+			return this.retryInterval;
+		}
+
+		public void setRetryInterval(Duration retryInterval) {
+			this.retryInterval = retryInterval;
+		}
+
+		public Duration getPurgeInterval() {
+			return this.purgeInterval;
+		}
+
+		public void setPurgeInterval(Duration purgeInterval) {
+			this.purgeInterval = purgeInterval;
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+/**
+ * Token buckets shared by all instances of the application, from which a
+ * {@link SharedRateLimiter} leases tokens in batches.
+ *
+ * @see JdbcRateLimitStore
+ */
+interface RateLimitStore {
+
+	/**
+	 * Give back unused tokens to the shared bucket of a key, up to its capacity, and take
+	 * up to the given number of tokens from it, creating a full bucket for a new key.
+	 * @param key the key, for example a client address and a route
+	 * @param limit the capacity and refill rate of the bucket
+	 * @param tokens the number of tokens wanted
+	 * @param returned the number of tokens of a lapsed lease given back
+	 * @return the tokens granted, possibly none, and the state of the bucket
+	 * @throws org.springframework.dao.DataAccessException if the store cannot be reached
+	 */
+	Grant acquire(String key, TokenBucketRateLimiter.Limit limit, int tokens, int returned);
+
+	/**
+	 * Tokens taken from a shared bucket.
+	 *
+	 * @param tokens the number of tokens granted
+	 * @param remaining the number of tokens left in the shared bucket
+	 * @param retryAfterMicros the time until a token is available, zero if any were
+	 * granted
+	 * @param resetMicros the time until the shared bucket is full again
+	 */
+	record Grant(int tokens, int remaining, long retryAfterMicros, long resetMicros) {
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+/**
+ * Decides whether a request may proceed, given a key identifying the client and route and
+ * the limit that applies to it.
+ *
+ * @see TokenBucketRateLimiter
+ * @see SharedRateLimiter
+ */
+interface RateLimiter {
+
+	/**
+	 * Take a token from the bucket of the given key.
+	 * @param key the key, for example a client address and a route
+	 * @param limit the capacity and refill rate of the bucket
+	 * @return whether the token was taken, and the state of the bucket
+	 */
+	TokenBucketRateLimiter.Decision tryAcquire(String key, TokenBucketRateLimiter.Limit limit);
+
+	/**
+	 * Return the number of keys tracked in memory.
+	 */
+	long size();
+
+}
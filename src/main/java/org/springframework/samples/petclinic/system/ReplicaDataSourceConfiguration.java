@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.Map;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes read-only transactions to a replica database, enabled by setting
+ * {@code datasource.replica.url}. The application {@link javax.sql.DataSource} is a
+ * {@link LazyConnectionDataSourceProxy} that only fetches a physical connection once the
+ * transaction's read-only flag is known: read-write transactions use the primary pool
+ * configured with {@code spring.datasource.*}, read-only ones go through
+ * {@link ReplicaRoutingDataSource}. Both pools publish their HikariCP metrics, tagged
+ * with the pool name.
+ * <p>
+ * Reads routed to the replica may not see writes that have not been replicated yet, up to
+ * {@code datasource.replica.max-lag-seconds}. Entities they load are therefore kept out
+ * of the second-level cache, which read-write transactions also read from, and they do
+ * not read the cache either, so that a transaction served by the replica sees its data
+ * only, rather than a mix of replicated and newer cached entities.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("datasource.replica.url")
+class ReplicaDataSourceConfiguration {
+
+	private static final String RETRIEVE_MODE = "jakarta.persistence.cache.retrieveMode";
+
+	private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+	@Bean(defaultCandidate = false)
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry registry) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		dataSource.setMetricRegistry(registry);
+		return dataSource;
+	}
+
+	@Bean(defaultCandidate = false)
+	@ConfigurationProperties("datasource.replica.hikari")
+	HikariDataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+			@Value("${datasource.replica.username:#{null}}") String username,
+			@Value("${datasource.replica.password:#{null}}") String password, MeterRegistry registry) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+			.type(HikariDataSource.class)
+			.url(url)
+			.username(username)
+			.password(password)
+			.build();
+		dataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+		dataSource.setReadOnly(true);
+		dataSource.setMetricRegistry(registry);
+		return dataSource;
+	}
+
+	@Bean(defaultCandidate = false)
+	ReplicaRoutingDataSource readOnlyDataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+			@Qualifier("replicaDataSource") HikariDataSource replica,
+			@Value("${datasource.replica.lag-query:}") String lagQuery,
+			@Value("${datasource.replica.max-lag-seconds:5}") double maxLagSeconds, MeterRegistry registry,
+			ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagQuery, maxLagSeconds,
+				registry);
+		routing.setReplicaReadListener(
+				() -> entityManagerFactory.ifAvailable(ReplicaDataSourceConfiguration::bypassSecondLevelCache));
+		return routing;
+	}
+
+	/**
+	 * Bypass the second-level cache in read-only transactions from their start while the
+	 * replica is available, since it is read before any connection is obtained. The
+	 * routing data source also bypasses it when it hands out a replica connection, in
+	 * case the replica became available in between.
+	 */
+	@Bean
+	TransactionExecutionListener replicaCacheBypass(@Qualifier("readOnlyDataSource") ReplicaRoutingDataSource readOnly,
+			ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+		return new TransactionExecutionListener() {
+
+			@Override
+			public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+				if (beginFailure == null && transaction.isReadOnly() && readOnly.isReplicaAvailable()) {
+					entityManagerFactory.ifAvailable(ReplicaDataSourceConfiguration::bypassSecondLevelCache);
+				}
+			}
+
+		};
+	}
+
+	/**
+	 * Stop the session of the current transaction from using the second-level cache until
+	 * the transaction completes.
+	 */
+	private static void bypassSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive() || !(TransactionSynchronizationManager
+			.getResource(entityManagerFactory) instanceof EntityManagerHolder holder)) {
+			return;
+		}
+		// find() follows these properties rather than the cache mode of the session, and
+		// setting them also sets the cache mode used by queries
+		EntityManager entityManager = holder.getEntityManager();
+		Map<String, Object> properties = entityManager.getProperties();
+		Object retrieveMode = properties.getOrDefault(RETRIEVE_MODE, CacheRetrieveMode.USE);
+		Object storeMode = properties.getOrDefault(STORE_MODE, CacheStoreMode.USE);
+		if (retrieveMode == CacheRetrieveMode.BYPASS && storeMode == CacheStoreMode.BYPASS) {
+			return;
+		}
+		entityManager.setProperty(RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+		entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCompletion(int status) {
+				entityManager.setProperty(RETRIEVE_MODE, retrieveMode);
+				entityManager.setProperty(STORE_MODE, storeMode);
+			}
+
+		});
+	}
+
+	@Bean
+	@Primary
+	LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+			@Qualifier("readOnlyDataSource") ReplicaRoutingDataSource readOnly) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+		dataSource.setReadOnlyDataSource(readOnly);
+		return dataSource;
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link DataSource} for read-only transactions, which uses the replica while its
+ * replication lag is within bounds and falls back to the primary otherwise. The lag is
+ * measured periodically with a configurable query run against the replica; without a
+ * query the replica is only checked for being reachable.
+ * <p>
+ * A listener may be notified whenever a connection to the replica is obtained, while the
+ * transaction it serves is active, so that data read from the replica is kept apart from
+ * data read from the primary.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARY = "primary";
+
+	static final String REPLICA = "replica";
+
+	private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	private final JdbcTemplate replica;
+
+	private final String lagQuery;
+
+	private final double maxLagSeconds;
+
+	private final Counter primaryReads;
+
+	private final Counter replicaReads;
+
+	private volatile double lagSeconds = Double.NaN;
+
+	private volatile boolean replicaAvailable;
+
+	private Runnable replicaReadListener = () -> {
+	};
+
+	ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, double maxLagSeconds,
+			MeterRegistry registry) {
+		setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		this.replica = new JdbcTemplate(replica);
+		this.lagQuery = lagQuery;
+		this.maxLagSeconds = maxLagSeconds;
+		this.primaryReads = readCounter(registry, PRIMARY);
+		this.replicaReads = readCounter(registry, REPLICA);
+		Gauge.builder("datasource.replica.lag", this, routing -> routing.lagSeconds)
+			.description("Replication lag of the replica, in seconds")
+			.baseUnit("seconds")
+			.register(registry);
+		Gauge.builder("datasource.replica.available", this, routing -> routing.replicaAvailable ? 1 : 0)
+			.description("Whether read-only transactions are routed to the replica")
+			.register(registry);
+	}
+
+	private static Counter readCounter(MeterRegistry registry, String pool) {
+		return Counter.builder("datasource.read-only.connections")
+			.description("Connections obtained for read-only transactions")
+			.tag("pool", pool)
+			.register(registry);
+	}
+
+	/**
+	 * Measure the replication lag and decide whether the replica may serve reads. Any
+	 * failure to reach the replica routes reads to the primary until the next check.
+	 */
+	@Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-seconds:5}", timeUnit = TimeUnit.SECONDS)
+	synchronized void checkReplicaLag() {
+		boolean available;
+		try {
+			if (StringUtils.hasText(this.lagQuery)) {
+				Number lag = this.replica.queryForObject(this.lagQuery, Number.class);
+				this.lagSeconds = (lag != null) ? lag.doubleValue() : 0;
+			}
+			else {
+				this.replica.execute("SELECT 1");
+				this.lagSeconds = 0;
+			}
+			available = this.lagSeconds <= this.maxLagSeconds;
+		}
+		catch (RuntimeException ex) {
+			logger.debug("Replica lag check failed", ex);
+			this.lagSeconds = Double.NaN;
+			available = false;
+		}
+		if (available != this.replicaAvailable) {
+			logger.info(available ? "Routing read-only transactions to the replica (lag {}s)"
+					: "Routing read-only transactions to the primary (replica lag {}s)", this.lagSeconds);
+		}
+		this.replicaAvailable = available;
+	}
+
+	/**
+	 * Set the listener notified whenever a connection to the replica is obtained.
+	 */
+	void setReplicaReadListener(Runnable replicaReadListener) {
+		this.replicaReadListener = replicaReadListener;
+	}
+
+	boolean isReplicaAvailable() {
+		return this.replicaAvailable;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (this.replicaAvailable) {
+			this.replicaReads.increment();
+			this.replicaReadListener.run();
+			return REPLICA;
+		}
+		this.primaryReads.increment();
+		return PRIMARY;
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * {@link RateLimiter} enforcing each limit across all instances of the application, by
+ * taking tokens from the shared buckets of a {@link RateLimitStore}. Tokens are leased in
+ * batches and spent locally, so most requests do not reach the store. A lease lapses
+ * after {@code rate-limit.shared.lease}, and its unused tokens are given back to the
+ * shared bucket with the request for the next lease, so an instance only holds back the
+ * tokens it is about to spend.
+ * <p>
+ * Leases are sized from the local share of the traffic: a lease spent before it lapses is
+ * followed by one twice as large, and a lease that lapsed by the number of tokens it
+ * actually served. Leases hold at most {@code rate-limit.shared.batch-size} tokens, and
+ * at most what the bucket refills over a lease or a tenth of its capacity, whichever is
+ * larger, so that leases of small buckets still serve several requests when they refill
+ * quickly. Once the shared bucket is empty, requests are rejected locally until its next
+ * token is due.
+ * <p>
+ * When the store fails, requests are limited by a local {@link TokenBucketRateLimiter}
+ * instead, so each instance allows the full limit on its own, and the store is tried
+ * again after {@code rate-limit.shared.retry-interval}.
+ */
+final class SharedRateLimiter implements RateLimiter {
+
+	private static final Logger logger = LoggerFactory.getLogger(SharedRateLimiter.class);
+
+	private final RateLimitStore store;
+
+	private final TokenBucketRateLimiter fallback;
+
+	private final Cache<String, Lease> leases;
+
+	private final int batchSize;
+
+	private final long leaseMicros;
+
+	private final long retryMicros;
+
+	private final LongSupplier clock;
+
+	private volatile long storeRetryAt = Long.MIN_VALUE;
+
+	SharedRateLimiter(RateLimitStore store, TokenBucketRateLimiter fallback, long maximumKeys, Duration idleTimeout,
+			RateLimitProperties.Shared shared) {
+		this(store, fallback, maximumKeys, idleTimeout, shared, TokenBucketRateLimiter.monotonicMicros());
+	}
+
+	SharedRateLimiter(RateLimitStore store, TokenBucketRateLimiter fallback, long maximumKeys, Duration idleTimeout,
+			RateLimitProperties.Shared shared, LongSupplier clock) {
+		this.store = store;
+		this.fallback = fallback;
+		this.batchSize = shared.getBatchSize();
+		this.leaseMicros = TimeUnit.NANOSECONDS.toMicros(shared.getLease().toNanos());
+		this.retryMicros = TimeUnit.NANOSECONDS.toMicros(shared.getRetryInterval().toNanos());
+		this.clock = clock;
+		this.leases = Caffeine.newBuilder()
+			.maximumSize(maximumKeys)
+			.expireAfterAccess(idleTimeout)
+			.executor(Runnable::run)
+			.ticker(() -> TimeUnit.MICROSECONDS.toNanos(clock.getAsLong()))
+			.build();
+	}
+
+	@Override
+	public TokenBucketRateLimiter.Decision tryAcquire(String key, TokenBucketRateLimiter.Limit limit) {
+		long now = this.clock.getAsLong();
+		if (now < this.storeRetryAt) {
+			return this.fallback.tryAcquire(key, limit);
+		}
+		Lease lease = this.leases.get(key, k -> new Lease());
+		TokenBucketRateLimiter.Decision decision = lease.tryTake(now);
+		if (decision != null) {
+			return decision;
+		}
+		// one request per key and instance renews the lease, the others wait for it
+		synchronized (lease) {
+			decision = lease.tryTake(now);
+			if (decision != null) {
+				return decision;
+			}
+			if (now < lease.deniedUntil) {
+				return new TokenBucketRateLimiter.Decision(false, 0, lease.deniedUntil - now,
+						Math.max(0, lease.resetAt - now));
+			}
+			RateLimitStore.Grant grant;
+			int returned = lease.takeUnused();
+			try {
+				grant = this.store.acquire(key, limit, lease.nextSize(returned, maxLeaseSize(limit)), returned);
+			}
+			catch (ConcurrencyFailureException ex) {
+				logger.debug("Rate limit bucket {} is contended, rejecting the request", key, ex);
+				return new TokenBucketRateLimiter.Decision(false, 0, limit.microsPerToken(), 0);
+			}
+			catch (RuntimeException ex) {
+				logger.warn("Rate limit store failed, limiting requests per instance for the next {}",
+						Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(this.retryMicros)), ex);
+				this.storeRetryAt = now + this.retryMicros;
+				return this.fallback.tryAcquire(key, limit);
+			}
+			return lease.renew(grant, now, now + this.leaseMicros);
+		}
+	}
+
+	/**
+	 * Return the largest lease of a bucket: what it refills over a lease, or a tenth of
+	 * its capacity if larger, within the batch size and the capacity.
+	 */
+	private int maxLeaseSize(TokenBucketRateLimiter.Limit limit) {
+		long refilled = this.leaseMicros / limit.microsPerToken();
+		long size = Math.min(Math.max(refilled, limit.capacity() / 10), Math.min(this.batchSize, limit.capacity()));
+		return (int) Math.max(1, size);
+	}
+
+	@Override
+	public long size() {
+		this.leases.cleanUp();
+		return this.leases.estimatedSize() + this.fallback.size();
+	}
+
+	/**
+	 * Tokens leased from the shared bucket of one key. Tokens are taken without locking;
+	 * the lease is renewed while holding its monitor.
+	 */
+	private static final class Lease {
+
+		private final AtomicInteger tokens = new AtomicInteger();
+
+		/**
+		 * Tokens granted by the current lease, guarded by the monitor.
+		 */
+		private int granted;
+
+		private volatile long expiresAt = Long.MIN_VALUE;
+
+		private volatile int sharedRemaining;
+
+		private volatile long resetAt;
+
+		private volatile long deniedUntil = Long.MIN_VALUE;
+
+		/**
+		 * Take a leased token.
+		 * @return the decision, or {@code null} if the lease is spent or has lapsed
+		 */
+		TokenBucketRateLimiter.Decision tryTake(long now) {
+			if (now >= this.expiresAt) {
+				return null;
+			}
+			int left;
+			do {
+				left = this.tokens.get();
+				if (left == 0) {
+					return null;
+				}
+			}
+			while (!this.tokens.compareAndSet(left, left - 1));
+			return new TokenBucketRateLimiter.Decision(true, left - 1 + this.sharedRemaining, 0,
+					Math.max(0, this.resetAt - now));
+		}
+
+		/**
+		 * Take the tokens left of a lapsed lease, which no request can take anymore.
+		 */
+		int takeUnused() {
+			return this.tokens.getAndSet(0);
+		}
+
+		/**
+		 * Return the size of the next lease from the use of the current one.
+		 * @param unused the tokens left of the current lease
+		 * @param max the largest lease
+		 */
+		int nextSize(int unused, int max) {
+			if (this.granted == 0) {
+				return max;
+			}
+			int size = (unused == 0) ? 2 * this.granted : this.granted - unused;
+			return Math.max(1, Math.min(size, max));
+		}
+
+		TokenBucketRateLimiter.Decision renew(RateLimitStore.Grant grant, long now, long expiresAt) {
+			this.granted = grant.tokens();
+			this.sharedRemaining = grant.remaining();
+			this.resetAt = now + grant.resetMicros();
+			if (grant.tokens() == 0) {
+				this.deniedUntil = now + grant.retryAfterMicros();
+				return new TokenBucketRateLimiter.Decision(false, 0, grant.retryAfterMicros(), grant.resetMicros());
+			}
+			// publish the tokens before the expiry that makes them visible to tryTake
+			this.tokens.set(grant.tokens() - 1);
+			this.expiresAt = expiresAt;
+			return new TokenBucketRateLimiter.Decision(true, grant.tokens() - 1 + grant.remaining(), 0,
+					grant.resetMicros());
+		}
+
+	}
+
+}
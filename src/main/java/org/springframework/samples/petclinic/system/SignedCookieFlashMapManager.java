@@ -0,0 +1,226 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.AbstractFlashMapManager;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@link org.springframework.web.servlet.FlashMapManager FlashMapManager} keeping the
+ * flash attributes in a cookie rather than in the HTTP session, so that showing a message
+ * after a redirect neither creates a session nor depends on the redirected request being
+ * served by the same instance.
+ * <p>
+ * The cookie holds the pending flash maps as JSON, followed by an HMAC-SHA256 signature
+ * so that clients cannot forge messages; cookies with an invalid signature are ignored.
+ * The signed JSON also holds the time the cookie expires, the flash map timeout after it
+ * was written, so that a captured cookie cannot be replayed later on, whatever the client
+ * does with its {@code Max-Age}. Attribute values must be strings, numbers, booleans or
+ * collections of them. Flash maps that would not fit in a cookie are dropped with a
+ * warning.
+ * <p>
+ * As the flash maps travel with each request rather than being shared in a session, no
+ * lock is needed to update them.
+ */
+final class SignedCookieFlashMapManager extends AbstractFlashMapManager {
+
+	static final String COOKIE_NAME = "flash";
+
+	/**
+	 * Largest cookie value written, leaving room for the name and attributes of the
+	 * cookie within the 4096 bytes browsers keep.
+	 */
+	private static final int MAX_COOKIE_LENGTH = 3800;
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	SignedCookieFlashMapManager(byte[] secret) {
+		this.key = new SecretKeySpec(secret, ALGORITHM);
+	}
+
+	@Override
+	protected List<FlashMap> retrieveFlashMaps(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+		if (cookie == null || !StringUtils.hasLength(cookie.getValue())) {
+			return null;
+		}
+		String json = verify(cookie.getValue());
+		if (json == null) {
+			this.logger.debug("Ignoring flash attribute cookie with an invalid signature");
+			return null;
+		}
+		try {
+			StoredFlashMaps stored = this.objectMapper.readValue(json, StoredFlashMaps.class);
+			if (stored.expires() < System.currentTimeMillis() || stored.flashMaps() == null) {
+				this.logger.debug("Ignoring expired flash attribute cookie");
+				return null;
+			}
+			List<FlashMap> flashMaps = new ArrayList<>();
+			for (StoredFlashMap flashMap : stored.flashMaps()) {
+				flashMaps.add(flashMap.toFlashMap());
+			}
+			return flashMaps;
+		}
+		catch (JsonProcessingException ex) {
+			this.logger.debug("Ignoring unreadable flash attribute cookie", ex);
+			return null;
+		}
+	}
+
+	@Override
+	protected void updateFlashMaps(List<FlashMap> flashMaps, HttpServletRequest request, HttpServletResponse response) {
+		String value = "";
+		if (!flashMaps.isEmpty()) {
+			try {
+				StoredFlashMaps stored = new StoredFlashMaps(System.currentTimeMillis() + getFlashMapTimeout() * 1000L,
+						flashMaps.stream().map(StoredFlashMap::from).toList());
+				value = sign(this.objectMapper.writeValueAsString(stored));
+			}
+			catch (JsonProcessingException ex) {
+				throw new IllegalArgumentException("Flash attributes must be serializable as JSON", ex);
+			}
+			if (value.length() > MAX_COOKIE_LENGTH) {
+				this.logger.warn("Dropping flash attributes too large for a cookie: " + value.length() + " bytes");
+				value = "";
+			}
+		}
+		if (value.isEmpty() && WebUtils.getCookie(request, COOKIE_NAME) == null) {
+			return;
+		}
+		String path = StringUtils.hasLength(request.getContextPath()) ? request.getContextPath() : "/";
+		ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+			.path(path)
+			.maxAge(value.isEmpty() ? 0 : getFlashMapTimeout())
+			.httpOnly(true)
+			.secure(request.isSecure())
+			.sameSite("Lax")
+			.build();
+		response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+	}
+
+	/**
+	 * Return {@code null}, since the flash maps are not shared between concurrent
+	 * requests.
+	 */
+	@Override
+	protected Object getFlashMapsMutex(HttpServletRequest request) {
+		return null;
+	}
+
+	String sign(String json) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+		return encoder.encodeToString(payload) + "." + encoder.encodeToString(mac(payload));
+	}
+
+	/**
+	 * Return the JSON signed by the given cookie value, or {@code null} if the value is
+	 * malformed or its signature does not match.
+	 */
+	String verify(String value) {
+		int dot = value.indexOf('.');
+		if (dot < 0) {
+			return null;
+		}
+		try {
+			Base64.Decoder decoder = Base64.getUrlDecoder();
+			byte[] payload = decoder.decode(value.substring(0, dot));
+			byte[] signature = decoder.decode(value.substring(dot + 1));
+			return MessageDigest.isEqual(mac(payload), signature) ? new String(payload, StandardCharsets.UTF_8) : null;
+		}
+		catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private byte[] mac(byte[] payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(this.key);
+			return mac.doFinal(payload);
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ALGORITHM + " is not available", ex);
+		}
+	}
+
+	/**
+	 * Content of the cookie.
+	 *
+	 * @param expires the time the cookie expires, in milliseconds since the epoch
+	 * @param flashMaps the flash maps
+	 */
+	record StoredFlashMaps(long expires, List<StoredFlashMap> flashMaps) {
+
+	}
+
+	/**
+	 * Flash map as stored in the cookie.
+	 *
+	 * @param path the path of the target request, if any
+	 * @param params the parameters of the target request
+	 * @param expires the time the flash map expires, in milliseconds since the epoch
+	 * @param attributes the flash attributes
+	 */
+	record StoredFlashMap(String path, Map<String, List<String>> params, long expires, Map<String, Object> attributes) {
+
+		static StoredFlashMap from(FlashMap flashMap) {
+			return new StoredFlashMap(flashMap.getTargetRequestPath(), flashMap.getTargetRequestParams(),
+					flashMap.getExpirationTime(), flashMap);
+		}
+
+		FlashMap toFlashMap() {
+			FlashMap flashMap = new FlashMap();
+			flashMap.setTargetRequestPath(this.path);
+			if (this.params != null) {
+				flashMap.addTargetRequestParams(new LinkedMultiValueMap<>(this.params));
+			}
+			flashMap.setExpirationTime(this.expires);
+			if (this.attributes != null) {
+				flashMap.putAll(this.attributes);
+			}
+			return flashMap;
+		}
+
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Stateless mode, bound from the {@code web.stateless} properties. In stateless mode the
+ * language of the user and the flash messages shown after a redirect are kept in cookies
+ * rather than in the HTTP session, so that no session is ever created and any instance
+ * can serve any request.
+ */
+@ConfigurationProperties("web.stateless")
+public class StatelessWebProperties {
+
+	/**
+	 * Whether to keep the locale and flash attributes in cookies rather than in the
+	 * session.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Key used to sign the flash attribute cookie, the same on all instances. A random
+	 * key is generated if empty, which only suits a single instance.
+	 */
+	private String secret;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getSecret() {
+		return this.secret;
+	}
+
+	public void setSecret(String secret) {
+		this.secret = secret;
+	}
+
+}
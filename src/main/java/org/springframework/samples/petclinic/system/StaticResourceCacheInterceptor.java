@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Sets the caching headers of static resources. Links rendered by the templates carry a
+ * hash of the content of the resource in their file name, such as
+ * {@code /resources/css/petclinic-5f2a...c1.css}, so a fingerprinted URL always serves
+ * the same content and is cached as {@code immutable} for
+ * {@code web.resources.versioned-max-age}, one year by default. Any other resource URL
+ * may change on the next deployment and must be revalidated, which its
+ * {@code Last-Modified} header keeps cheap.
+ * <p>
+ * A URL only counts as fingerprinted if it is the one the resource chain would link to
+ * now, so that the hash of an older version of a resource is never cached for good.
+ */
+@Component
+public class StaticResourceCacheInterceptor implements HandlerInterceptor {
+
+	private static final Pattern CONTENT_HASH = Pattern.compile("-([0-9a-f]{32})(\\.[^/]*)?$");
+
+	private final CacheControl versioned;
+
+	private final CacheControl unversioned = CacheControl.noCache().cachePublic();
+
+	private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+	public StaticResourceCacheInterceptor(@Value("${web.resources.versioned-max-age:365d}") Duration versionedMaxAge,
+			ObjectProvider<ResourceUrlProvider> resourceUrlProvider) {
+		this.versioned = CacheControl.maxAge(versionedMaxAge).cachePublic().immutable();
+		this.resourceUrlProvider = resourceUrlProvider;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof ResourceHttpRequestHandler) {
+			String lookupPath = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+			CacheControl cacheControl = isFingerprinted(lookupPath) ? this.versioned : this.unversioned;
+			response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Return whether the path is the fingerprinted URL of the current version of a
+	 * resource.
+	 */
+	boolean isFingerprinted(String lookupPath) {
+		Matcher matcher = CONTENT_HASH.matcher(lookupPath);
+		if (!matcher.find()) {
+			return false;
+		}
+		String extension = (matcher.group(2) != null) ? matcher.group(2) : "";
+		String plain = lookupPath.substring(0, matcher.start()) + extension;
+		ResourceUrlProvider urlProvider = this.resourceUrlProvider.getIfAvailable();
+		return urlProvider != null && lookupPath.equals(urlProvider.getForLookupPath(plain));
+	}
+
+}
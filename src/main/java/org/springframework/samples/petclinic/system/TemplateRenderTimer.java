@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.model.ITemplateEnd;
+import org.thymeleaf.model.ITemplateStart;
+import org.thymeleaf.processor.templateboundaries.AbstractTemplateBoundariesProcessor;
+import org.thymeleaf.processor.templateboundaries.ITemplateBoundariesStructureHandler;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * Times the rendering of templates with the {@code thymeleaf.template.render} timer,
+ * tagged with the name of the template, such as {@code owners/ownerDetails}. Fragments
+ * inserted from other templates, like the layout, count towards the template they are
+ * inserted in. The timer of a template is registered on its first rendering and reused
+ * afterwards.
+ */
+final class TemplateRenderTimer extends AbstractTemplateBoundariesProcessor {
+
+	private static final String START_VARIABLE = TemplateRenderTimer.class.getName() + ".start";
+
+	private final MeterRegistry registry;
+
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+	TemplateRenderTimer(MeterRegistry registry) {
+		super(TemplateMode.HTML, 0);
+		this.registry = registry;
+	}
+
+	@Override
+	public void doProcessTemplateStart(ITemplateContext context, ITemplateStart templateStart,
+			ITemplateBoundariesStructureHandler structureHandler) {
+		if (isOutermost(context)) {
+			structureHandler.setLocalVariable(START_VARIABLE, System.nanoTime());
+		}
+	}
+
+	@Override
+	public void doProcessTemplateEnd(ITemplateContext context, ITemplateEnd templateEnd,
+			ITemplateBoundariesStructureHandler structureHandler) {
+		if (isOutermost(context) && context.getVariable(START_VARIABLE) instanceof Long start) {
+			timer(context.getTemplateData().getTemplate()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private Timer timer(String template) {
+		Timer timer = this.timers.get(template);
+		if (timer == null) {
+			timer = this.timers.computeIfAbsent(template,
+					name -> Timer.builder("thymeleaf.template.render")
+						.description("Time taken to render Thymeleaf templates")
+						.tag("template", name)
+						.register(this.registry));
+		}
+		return timer;
+	}
+
+	private static boolean isOutermost(ITemplateContext context) {
+		return context.getTemplateStack().size() == 1;
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Lock-free token buckets, one per key. The state of a bucket is packed into a single
+ * {@link AtomicLong}: the number of tokens in the low {@value #TOKEN_BITS} bits and,
+ * above them, the time of the last refill in microseconds since the limiter was created.
+ * Taking a token refills the bucket and decrements it in one compare-and-set, so
+ * concurrent requests can never take more tokens than the bucket holds.
+ * <p>
+ * Refill is lazy: whole tokens earned since the last refill are added and the refill time
+ * advances by exactly the time they took to earn, so the fraction of a token earned so
+ * far is carried over rather than lost.
+ * <p>
+ * Buckets are kept in a Caffeine cache bounded in size, so that clients forging a new
+ * address on every request cannot exhaust the heap, and expired once idle for longer than
+ * it takes to refill them, when a new full bucket is equivalent. Cache maintenance runs
+ * on the calling thread, so the bound holds even while the limiter is flooded.
+ */
+final class TokenBucketRateLimiter implements RateLimiter {
+
+	static final int TOKEN_BITS = 16;
+
+	static final int MAX_CAPACITY = (1 << TOKEN_BITS) - 1;
+
+	private static final long TOKEN_MASK = MAX_CAPACITY;
+
+	private final Cache<String, AtomicLong> buckets;
+
+	private final LongSupplier clock;
+
+	/**
+	 * Create a limiter.
+	 * @param maximumKeys the maximum number of buckets to keep
+	 * @param idleTimeout the time after which an unused bucket is dropped, at least the
+	 * time it takes to refill the slowest bucket
+	 */
+	TokenBucketRateLimiter(long maximumKeys, Duration idleTimeout) {
+		this(maximumKeys, idleTimeout, monotonicMicros());
+	}
+
+	/**
+	 * Create a limiter with the given clock.
+	 * @param maximumKeys the maximum number of buckets to keep
+	 * @param idleTimeout the time after which an unused bucket is dropped
+	 * @param clock the current time in microseconds, starting at zero or later and never
+	 * going backwards
+	 */
+	TokenBucketRateLimiter(long maximumKeys, Duration idleTimeout, LongSupplier clock) {
+		this.clock = clock;
+		this.buckets = Caffeine.newBuilder()
+			.maximumSize(maximumKeys)
+			.expireAfterAccess(idleTimeout)
+			.executor(Runnable::run)
+			.ticker(() -> TimeUnit.MICROSECONDS.toNanos(clock.getAsLong()))
+			.build();
+	}
+
+	/**
+	 * Take a token from the bucket of the given key, creating a full bucket for a new
+	 * key.
+	 * @param key the key, for example a client address and a route
+	 * @param limit the capacity and refill rate of the bucket
+	 * @return whether the token was taken, and the state of the bucket
+	 */
+	@Override
+	public Decision tryAcquire(String key, Limit limit) {
+		long now = this.clock.getAsLong();
+		AtomicLong bucket = this.buckets.getIfPresent(key);
+		if (bucket == null) {
+			bucket = this.buckets.get(key, k -> new AtomicLong(pack(limit.capacity(), now)));
+		}
+		while (true) {
+			long current = bucket.get();
+			long tokens = current & TOKEN_MASK;
+			long refilled = current >>> TOKEN_BITS;
+			long earned = (now - refilled) / limit.microsPerToken();
+			if (earned > 0) {
+				if (tokens + earned >= limit.capacity()) {
+					tokens = limit.capacity();
+					refilled = now;
+				}
+				else {
+					tokens += earned;
+					refilled += earned * limit.microsPerToken();
+				}
+			}
+			if (tokens == 0) {
+				long retryAfter = refilled + limit.microsPerToken() - now;
+				return new Decision(false, 0, retryAfter, resetMicros(limit, 0, refilled, now));
+			}
+			if (bucket.compareAndSet(current, pack(tokens - 1, refilled))) {
+				return new Decision(true, (int) tokens - 1, 0, resetMicros(limit, tokens - 1, refilled, now));
+			}
+		}
+	}
+
+	/**
+	 * Return the number of keys with a bucket, after dropping expired and excess ones.
+	 */
+	@Override
+	public long size() {
+		this.buckets.cleanUp();
+		return this.buckets.estimatedSize();
+	}
+
+	private static long resetMicros(Limit limit, long tokens, long refilled, long now) {
+		if (tokens >= limit.capacity()) {
+			return 0;
+		}
+		return (limit.capacity() - tokens) * limit.microsPerToken() - (now - refilled);
+	}
+
+	private static long pack(long tokens, long refilled) {
+		return (refilled << TOKEN_BITS) | tokens;
+	}
+
+	static LongSupplier monotonicMicros() {
+		long origin = System.nanoTime();
+		return () -> TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - origin);
+	}
+
+	/**
+	 * Capacity and refill rate of a token bucket.
+	 *
+	 * @param capacity the maximum number of tokens, which is also the burst size
+	 * @param microsPerToken the time it takes to earn one token
+	 */
+	record Limit(int capacity, long microsPerToken) {
+
+		Limit {
+			if (capacity < 1 || capacity > MAX_CAPACITY) {
+				throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+			}
+			if (microsPerToken < 1) {
+				throw new IllegalArgumentException("Refill rate must be at most one token per microsecond");
+			}
+		}
+
+		/**
+		 * Return the limit allowing a burst of the given number of requests, refilled
+		 * evenly over the given window.
+		 */
+		static Limit of(int maxRequests, Duration window) {
+			return new Limit(maxRequests, TimeUnit.NANOSECONDS.toMicros(window.toNanos()) / maxRequests);
+		}
+
+	}
+
+	/**
+	 * Outcome of taking a token.
+	 *
+	 * @param allowed whether a token was taken
+	 * @param remaining the number of tokens left
+	 * @param retryAfterMicros the time until a token is available, zero if one was taken
+	 * @param resetMicros the time until the bucket is full again
+	 */
+	record Decision(boolean allowed, int remaining, long retryAfterMicros, long resetMicros) {
+
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the address of the client behind a request, honoring the
+ * {@code X-Forwarded-For} and {@code X-Real-IP} headers only when the request comes from
+ * one of the configured trusted proxies. Addresses in {@code X-Forwarded-For} are read
+ * from the right, skipping trusted proxies, so that a client cannot choose its address by
+ * sending a forged header through a proxy that appends to it.
+ */
+final class TrustedProxies {
+
+	private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+	private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+	private final List<Range> ranges;
+
+	private TrustedProxies(List<Range> ranges) {
+		this.ranges = ranges;
+	}
+
+	/**
+	 * Create the trusted proxies from a list of addresses and CIDR ranges, such as
+	 * {@code 127.0.0.1} or {@code 10.0.0.0/8}.
+	 * @param proxies the addresses and ranges
+	 * @return the trusted proxies
+	 * @throws IllegalArgumentException if an entry is not an IP address or range
+	 */
+	static TrustedProxies of(List<String> proxies) {
+		List<Range> ranges = new ArrayList<>();
+		for (String proxy : proxies) {
+			String entry = proxy.trim();
+			if (entry.isEmpty()) {
+				continue;
+			}
+			int slash = entry.indexOf('/');
+			byte[] address = parse((slash < 0) ? entry : entry.substring(0, slash));
+			if (address == null) {
+				throw new IllegalArgumentException("Not an IP address or CIDR range: " + entry);
+			}
+			int prefixLength = (slash < 0) ? address.length * 8 : Integer.parseInt(entry.substring(slash + 1));
+			if (prefixLength < 0 || prefixLength > address.length * 8) {
+				throw new IllegalArgumentException("Invalid prefix length: " + entry);
+			}
+			ranges.add(new Range(address, prefixLength));
+		}
+		return new TrustedProxies(List.copyOf(ranges));
+	}
+
+	/**
+	 * Return the address of the client that sent the request.
+	 */
+	String resolveClient(HttpServletRequest request) {
+		String remoteAddress = request.getRemoteAddr();
+		if (!isTrusted(remoteAddress)) {
+			return remoteAddress;
+		}
+		String forwardedFor = request.getHeader("X-Forwarded-For");
+		if (forwardedFor != null && !forwardedFor.isBlank()) {
+			String[] hops = forwardedFor.split(",");
+			for (int i = hops.length - 1; i >= 0; i--) {
+				String hop = hops[i].trim();
+				if (!isTrusted(hop)) {
+					return hop.isEmpty() ? remoteAddress : hop;
+				}
+			}
+			return hops[0].trim();
+		}
+		String realIp = request.getHeader("X-Real-IP");
+		if (realIp != null && !realIp.isBlank()) {
+			return realIp.trim();
+		}
+		return remoteAddress;
+	}
+
+	boolean isTrusted(String address) {
+		if (this.ranges.isEmpty()) {
+			return false;
+		}
+		byte[] bytes = parse(address);
+		if (bytes == null) {
+			return false;
+		}
+		for (Range range : this.ranges) {
+			if (range.contains(bytes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parse an IP address literal, without ever resolving a host name, since addresses in
+	 * forwarded headers are chosen by clients.
+	 * @return the address bytes, or {@code null} if the string is not an IP address
+	 */
+	private static byte[] parse(String address) {
+		String literal = address.startsWith("[") && address.endsWith("]") ? address.substring(1, address.length() - 1)
+				: address;
+		if (!IPV4.matcher(literal).matches() && !IPV6.matcher(literal).matches()) {
+			return null;
+		}
+		try {
+			return InetAddress.getByName(literal).getAddress();
+		}
+		catch (UnknownHostException ex) {
+			return null;
+		}
+	}
+
+	private record Range(byte[] address, int prefixLength) {
+
+		boolean contains(byte[] candidate) {
+			if (candidate.length != this.address.length) {
+				return false;
+			}
+			int bits = this.prefixLength;
+			for (int i = 0; bits > 0; i++, bits -= 8) {
+				int mask = (bits >= 8) ? 0xFF : (0xFF << (8 - bits)) & 0xFF;
+				if ((candidate[i] & mask) != (this.address[i] & mask)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
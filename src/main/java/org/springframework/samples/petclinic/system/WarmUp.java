@@ -0,0 +1,310 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the application up before it reports that it is ready. Application runners run
+ * after the web server has started but before the readiness state changes to
+ * {@code ACCEPTING_TRAFFIC}, so {@code /readyz} fails until the warm-up is over and no
+ * traffic is routed to the instance while its caches, query plans and JIT are cold.
+ * <p>
+ * The warm-up first preloads the vets cache, the pet types and the first pages of owners
+ * with their pets, filling the second-level cache. It then requests the main pages from
+ * the local server in rounds, until the mean latency of the last
+ * {@link WarmUpProperties#getSteadyRounds() rounds} is within the tolerance or the time
+ * budget is spent. Pages limited by the rate limiter are left out.
+ * <p>
+ * The outcome is logged and exported as the {@code warmup.duration},
+ * {@code warmup.latency} (the mean latency of the last rounds) and {@code warmup.rounds}
+ * gauges, tagged with whether the latency got {@code steady} or the {@code budget} ran
+ * out.
+ */
+@Component
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUp implements ApplicationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+	/**
+	 * Page size of the owner list, as in the owner controller.
+	 */
+	private static final int OWNER_PAGE_SIZE = 5;
+
+	private final WarmUpProperties properties;
+
+	private final ObjectProvider<VetRepository> vets;
+
+	private final ObjectProvider<PetTypeRepository> types;
+
+	private final ObjectProvider<OwnerRepository> owners;
+
+	private final ApplicationContext context;
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	private volatile Result result;
+
+	public WarmUp(WarmUpProperties properties, ObjectProvider<VetRepository> vets,
+			ObjectProvider<PetTypeRepository> types, ObjectProvider<OwnerRepository> owners, ApplicationContext context,
+			ObjectProvider<MeterRegistry> registry) {
+		this.properties = properties;
+		this.vets = vets;
+		this.types = types;
+		this.owners = owners;
+		this.context = context;
+		this.registry = registry;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!this.properties.isEnabled()) {
+			return;
+		}
+		long start = System.nanoTime();
+		Result result;
+		try {
+			List<Integer> ownerIds = preload();
+			logger.info("Preloaded caches in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			URI baseUri = baseUri();
+			result = (baseUri != null) ? exercise(baseUri, paths(ownerIds), start)
+					: new Result("preloaded", 0, Double.NaN);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			result = new Result("interrupted", 0, Double.NaN);
+		}
+		catch (RuntimeException ex) {
+			// never keep the instance out of service because it could not be warmed up
+			logger.warn("Warm-up failed", ex);
+			result = new Result("failed", 0, Double.NaN);
+		}
+		Duration duration = Duration.ofNanos(System.nanoTime() - start);
+		this.result = result.withDuration(duration);
+		logger.info("Warm-up {} in {} ms after {} rounds, steady-state latency {} ms", result.outcome(),
+				duration.toMillis(), result.rounds(), String.format("%.2f", result.latencyMillis()));
+		registerMetrics();
+	}
+
+	/**
+	 * Return the outcome of the warm-up, or {@code null} if it has not run.
+	 */
+	Result result() {
+		return this.result;
+	}
+
+	private List<Integer> preload() {
+		this.vets.ifAvailable(VetRepository::findAll);
+		this.types.ifAvailable(PetTypeRepository::findPetTypes);
+		List<Integer> ownerIds = new ArrayList<>();
+		OwnerRepository owners = this.owners.getIfAvailable();
+		for (int page = 0; owners != null && page < this.properties.getOwnerPages(); page++) {
+			for (Owner owner : owners.findByLastNameStartingWith("", PageRequest.of(page, OWNER_PAGE_SIZE))) {
+				ownerIds.add(owner.getId());
+			}
+		}
+		return ownerIds;
+	}
+
+	private List<Page> paths(List<Integer> ownerIds) {
+		List<Page> pages = new ArrayList<>();
+		pages.add(new Page("/", MediaType.TEXT_HTML_VALUE));
+		pages.add(new Page("/vets.html", MediaType.TEXT_HTML_VALUE));
+		pages.add(new Page("/vets", MediaType.APPLICATION_JSON_VALUE));
+		for (int page = 1; page <= this.properties.getOwnerPages(); page++) {
+			pages.add(new Page("/owners?page=" + page, MediaType.TEXT_HTML_VALUE));
+		}
+		for (Integer id : ownerIds) {
+			pages.add(new Page("/owners/" + id, MediaType.TEXT_HTML_VALUE));
+		}
+		return pages;
+	}
+
+	private URI baseUri() {
+		if (!(this.context instanceof WebServerApplicationContext webContext)) {
+			return null;
+		}
+		WebServer server = webContext.getWebServer();
+		if (server == null || server.getPort() <= 0) {
+			return null;
+		}
+		if (this.context.getEnvironment().getProperty("server.ssl.enabled", Boolean.class, false)) {
+			logger.info("Not requesting pages to warm up over SSL");
+			return null;
+		}
+		String contextPath = this.context.getEnvironment().getProperty("server.servlet.context-path", "");
+		return URI.create("http://localhost:" + server.getPort() + contextPath);
+	}
+
+	private Result exercise(URI baseUri, List<Page> pages, long start) throws InterruptedException {
+		long deadline = start + this.properties.getTimeBudget().toNanos();
+		List<Double> roundLatencies = new ArrayList<>();
+		HttpClient client = HttpClient.newBuilder().connectTimeout(this.properties.getRequestTimeout()).build();
+		while (System.nanoTime() < deadline) {
+			long elapsed = 0;
+			int completed = 0;
+			for (Page page : pages) {
+				if (System.nanoTime() >= deadline) {
+					return budgetSpent(roundLatencies);
+				}
+				long requestStart = System.nanoTime();
+				if (request(client, baseUri, page)) {
+					elapsed += System.nanoTime() - requestStart;
+					completed++;
+				}
+			}
+			if (completed == 0) {
+				logger.warn("Could not request any page from {} to warm up", baseUri);
+				return new Result("failed", roundLatencies.size(), Double.NaN);
+			}
+			roundLatencies.add(elapsed / 1e6 / completed);
+			if (roundLatencies.size() >= this.properties.getMinRounds()
+					&& isSteady(roundLatencies, this.properties.getSteadyRounds(), this.properties.getTolerance())) {
+				return new Result("steady", roundLatencies.size(),
+						meanOfLast(roundLatencies, this.properties.getSteadyRounds()));
+			}
+		}
+		return budgetSpent(roundLatencies);
+	}
+
+	private Result budgetSpent(List<Double> roundLatencies) {
+		return new Result("budget", roundLatencies.size(),
+				meanOfLast(roundLatencies, this.properties.getSteadyRounds()));
+	}
+
+	private boolean request(HttpClient client, URI baseUri, Page page) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + page.path()))
+			.header(HttpHeaders.ACCEPT, page.accept())
+			.timeout(this.properties.getRequestTimeout())
+			.GET()
+			.build();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			if (response.statusCode() >= 400) {
+				logger.debug("Warm-up request for {} returned {}", page.path(), response.statusCode());
+			}
+			return true;
+		}
+		catch (IOException ex) {
+			logger.debug("Warm-up request for {} failed", page.path(), ex);
+			return false;
+		}
+	}
+
+	private void registerMetrics() {
+		MeterRegistry meters = this.registry.getIfAvailable();
+		Result result = this.result;
+		if (meters == null) {
+			return;
+		}
+		TimeGauge.builder("warmup.duration", result, TimeUnit.MILLISECONDS, r -> r.duration().toMillis())
+			.description("Time taken to warm up the application before it was ready")
+			.tag("outcome", result.outcome())
+			.register(meters);
+		TimeGauge.builder("warmup.latency", result, TimeUnit.MILLISECONDS, Result::latencyMillis)
+			.description("Mean latency of the warm-up requests once steady")
+			.tag("outcome", result.outcome())
+			.register(meters);
+		Gauge.builder("warmup.rounds", result, Result::rounds)
+			.description("Number of rounds of warm-up requests")
+			.tag("outcome", result.outcome())
+			.register(meters);
+	}
+
+	/**
+	 * Return whether the mean latencies of the given number of last rounds are all within
+	 * the given relative tolerance of the lowest of them.
+	 * @param roundLatencies the mean latency of each round so far, in order
+	 * @param steadyRounds the number of last rounds to compare
+	 * @param tolerance the maximum relative difference, for example {@code 0.1} for 10%
+	 */
+	static boolean isSteady(List<Double> roundLatencies, int steadyRounds, double tolerance) {
+		int size = roundLatencies.size();
+		if (size < Math.max(steadyRounds, 2)) {
+			return false;
+		}
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (double latency : roundLatencies.subList(size - Math.max(steadyRounds, 2), size)) {
+			min = Math.min(min, latency);
+			max = Math.max(max, latency);
+		}
+		return max - min <= min * tolerance;
+	}
+
+	private static double meanOfLast(List<Double> roundLatencies, int rounds) {
+		List<Double> last = roundLatencies.subList(Math.max(0, roundLatencies.size() - rounds), roundLatencies.size());
+		return last.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+	}
+
+	private record Page(String path, String accept) {
+
+	}
+
+	/**
+	 * Outcome of the warm-up.
+	 *
+	 * @param outcome how the warm-up ended: {@code steady}, {@code budget} if the time
+	 * budget ran out first, {@code preloaded} if there is no server to request pages
+	 * from, {@code failed} or {@code interrupted}
+	 * @param rounds the number of complete rounds of requests
+	 * @param latencyMillis the mean latency of the last rounds, in milliseconds
+	 * @param duration the time the whole warm-up took
+	 */
+	record Result(String outcome, int rounds, double latencyMillis, Duration duration) {
+
+		Result(String outcome, int rounds, double latencyMillis) {
+			this(outcome, rounds, latencyMillis, Duration.ZERO);
+		}
+
+		Result withDuration(Duration duration) {
+			return new Result(this.outcome, this.rounds, this.latencyMillis, duration);
+		}
+
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Startup warm-up, bound from the {@code warmup} properties. The warm-up preloads the
+ * caches and then requests the main pages in rounds until their latency is steady or the
+ * time budget is spent, before the application reports that it is ready.
+ */
+@ConfigurationProperties("warmup")
+public class WarmUpProperties {
+
+	/**
+	 * Whether to warm up the application before it reports that it is ready.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Maximum time spent requesting pages, after which the application is ready anyway.
+	 */
+	private Duration timeBudget = Duration.ofSeconds(30);
+
+	/**
+	 * Number of pages of the owner list to preload and request.
+	 */
+	private int ownerPages = 2;
+
+	/**
+	 * Minimum number of rounds of requests.
+	 */
+	private int minRounds = 5;
+
+	/**
+	 * Number of consecutive rounds whose mean latency must stay within the tolerance for
+	 * the latency to be steady.
+	 */
+	private int steadyRounds = 3;
+
+	/**
+	 * Maximum relative difference between the mean latency of the steady rounds.
+	 */
+	private double tolerance = 0.1;
+
+	/**
+	 * Time to wait for a single response.
+	 */
+	private Duration requestTimeout = Duration.ofSeconds(5);
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTimeBudget() {
+		return this.timeBudget;
+	}
+
+	public void setTimeBudget(Duration timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	public int getOwnerPages() {
+		return this.ownerPages;
+	}
+
+	public void setOwnerPages(int ownerPages) {
+		this.ownerPages = ownerPages;
+	}
+
+	public int getMinRounds() {
+		return this.minRounds;
+	}
+
+	public void setMinRounds(int minRounds) {
+		this.minRounds = minRounds;
+	}
+
+	public int getSteadyRounds() {
+		return this.steadyRounds;
+	}
+
+	public void setSteadyRounds(int steadyRounds) {
+		this.steadyRounds = steadyRounds;
+	}
+
+	public double getTolerance() {
+		return this.tolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	public Duration getRequestTimeout() {
+		return this.requestTimeout;
+	}
+
+	public void setRequestTimeout(Duration requestTimeout) {
+		this.requestTimeout = requestTimeout;
+	}
+
+}
@@ -1,13 +1,24 @@
 package org.springframework.samples.petclinic.system;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMapManager;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Locale;
 
 /**
@@ -17,31 +28,78 @@ import java.util.Locale;
  * Handles loading language-specific messages, tracking the user's language, and allowing
  * language changes via the URL parameter (e.g., <code>?lang=de</code>).
  * </p>
+ * <p>
+ * In {@link StatelessWebProperties stateless mode}, the default, the language and the
+ * flash messages shown after a redirect are kept in cookies, so that no HTTP session is
+ * created and instances need no sticky sessions.
+ * </p>
  *
  * @author Anuj Ashok Potdar
  */
 @Configuration
+@EnableConfigurationProperties({ RateLimitProperties.class, ConcurrencyLimitProperties.class,
+		StatelessWebProperties.class })
 @SuppressWarnings("unused")
 public class WebConfiguration implements WebMvcConfigurer {
 
+	private static final Logger logger = LoggerFactory.getLogger(WebConfiguration.class);
+
 	private final RateLimitInterceptor rateLimitInterceptor;
 
-	public WebConfiguration(RateLimitInterceptor rateLimitInterceptor) {
+	private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+	private final StaticResourceCacheInterceptor staticResourceCacheInterceptor;
+
+	public WebConfiguration(RateLimitInterceptor rateLimitInterceptor,
+			ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+			StaticResourceCacheInterceptor staticResourceCacheInterceptor) {
 		this.rateLimitInterceptor = rateLimitInterceptor;
+		this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+		this.staticResourceCacheInterceptor = staticResourceCacheInterceptor;
 	}
 
 	/**
-	 * Uses session storage to remember the user's language setting across requests.
-	 * Defaults to English if nothing is specified.
-	 * @return session-based {@link LocaleResolver}
+	 * Uses a cookie, or session storage when not stateless, to remember the user's
+	 * language setting across requests. Defaults to English if nothing is specified.
+	 * @param properties the stateless mode settings
+	 * @return cookie or session-based {@link LocaleResolver}
 	 */
 	@Bean
-	public LocaleResolver localeResolver() {
-		SessionLocaleResolver resolver = new SessionLocaleResolver();
+	public LocaleResolver localeResolver(StatelessWebProperties properties) {
+		if (!properties.isEnabled()) {
+			SessionLocaleResolver resolver = new SessionLocaleResolver();
+			resolver.setDefaultLocale(Locale.ENGLISH);
+			return resolver;
+		}
+		CookieLocaleResolver resolver = new CookieLocaleResolver("locale");
 		resolver.setDefaultLocale(Locale.ENGLISH);
+		resolver.setCookieMaxAge(Duration.ofDays(365));
+		resolver.setCookieHttpOnly(true);
 		return resolver;
 	}
 
+	/**
+	 * Keeps flash attributes in a signed cookie rather than in the session, in stateless
+	 * mode.
+	 * @param properties the stateless mode settings, with the signing key
+	 * @return cookie-based {@link FlashMapManager}
+	 */
+	@Bean(DispatcherServlet.FLASH_MAP_MANAGER_BEAN_NAME)
+	@ConditionalOnProperty(name = "web.stateless.enabled", matchIfMissing = true)
+	public FlashMapManager flashMapManager(StatelessWebProperties properties) {
+		byte[] secret;
+		if (StringUtils.hasText(properties.getSecret())) {
+			secret = properties.getSecret().getBytes(StandardCharsets.UTF_8);
+		}
+		else {
+			logger.warn("No web.stateless.secret set, flash messages are only shown if the redirect is served "
+					+ "by the same instance");
+			secret = new byte[32];
+			new SecureRandom().nextBytes(secret);
+		}
+		return new SignedCookieFlashMapManager(secret);
+	}
+
 	/**
 	 * Allows the app to switch languages using a URL parameter like
 	 * <code>?lang=es</code>.
@@ -55,13 +113,17 @@ public class WebConfiguration implements WebMvcConfigurer {
 	}
 
 	/**
-	 * Registers interceptors including locale change and rate limiting.
+	 * Registers interceptors including locale change, static resource caching, rate
+	 * limiting and concurrency limiting, the latter last so that rate limited requests
+	 * never take its place.
 	 * @param registry where interceptors are added
 	 */
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(localeChangeInterceptor());
+		registry.addInterceptor(staticResourceCacheInterceptor);
 		registry.addInterceptor(rateLimitInterceptor);
+		registry.addInterceptor(concurrencyLimitInterceptor);
 	}
 
 }
@@ -15,9 +15,12 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 
 /**
@@ -26,7 +29,9 @@ import jakarta.persistence.Table;
  * @author Juergen Hoeller
  */
 @Entity
+@EntityListeners(VetCacheEvictor.class)
 @Table(name = "specialties")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "specialties")
 public class Specialty extends NamedEntity {
 
 }
@@ -19,16 +19,19 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.samples.petclinic.model.NamedEntity;
 import org.springframework.samples.petclinic.model.Person;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
 import jakarta.xml.bind.annotation.XmlElement;
 
@@ -41,30 +44,62 @@ import jakarta.xml.bind.annotation.XmlElement;
  * @author Arjen Poutsma
  */
 @Entity
+@EntityListeners(VetCacheEvictor.class)
 @Table(name = "vets")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vets")
 public class Vet extends Person {
 
 	@ManyToMany(fetch = FetchType.EAGER)
 	@JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
 			inverseJoinColumns = @JoinColumn(name = "specialty_id"))
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vets.specialties")
 	private Set<Specialty> specialties;
 
+	/**
+	 * Specialties sorted by name, computed on first access after loading and dropped
+	 * whenever the specialties may change: on {@link #addSpecialty(Specialty)}, when the
+	 * modifiable set is handed out by {@link #getSpecialtiesInternal()}, and when the vet
+	 * is loaded or refreshed.
+	 */
+	private transient List<Specialty> sortedSpecialties;
+
+	/**
+	 * Return the modifiable set of specialties. The sorted view is dropped, since the
+	 * caller may change the set.
+	 */
 	protected Set<Specialty> getSpecialtiesInternal() {
+		this.sortedSpecialties = null;
+		return specialties();
+	}
+
+	private Set<Specialty> specialties() {
 		if (this.specialties == null) {
 			this.specialties = new HashSet<>();
 		}
 		return this.specialties;
 	}
 
+	@PostLoad
+	void dropSortedSpecialties() {
+		this.sortedSpecialties = null;
+	}
+
+	/**
+	 * Return the specialties sorted by name, as an unmodifiable list that is reused until
+	 * the specialties change.
+	 */
 	@XmlElement
 	public List<Specialty> getSpecialties() {
-		return getSpecialtiesInternal().stream()
-			.sorted(Comparator.comparing(NamedEntity::getName))
-			.collect(Collectors.toList());
+		List<Specialty> sorted = this.sortedSpecialties;
+		if (sorted == null) {
+			sorted = specialties().stream().sorted(Comparator.comparing(NamedEntity::getName)).toList();
+			this.sortedSpecialties = sorted;
+		}
+		return sorted;
 	}
 
 	public int getNrOfSpecialties() {
-		return getSpecialtiesInternal().size();
+		return specialties().size();
 	}
 
 	public void addSpecialty(Specialty specialty) {
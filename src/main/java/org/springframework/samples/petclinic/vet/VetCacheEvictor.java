@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that clears the vet caches whenever a {@link Vet} or a
+ * {@link Specialty} is written, whichever code path the write comes from. Inside a
+ * transaction the caches are only cleared once it commits, so entries cached before the
+ * commit are dropped. A read that loaded the old data before the commit may still put it
+ * after the clear; such an entry stays until the next write or its expiry.
+ *
+ * @see VetRepository
+ */
+class VetCacheEvictor {
+
+	static final String VETS_CACHE = "vets";
+
+	static final String VET_PAGES_CACHE = "vetPages";
+
+	private final ObjectProvider<CacheManager> cacheManager;
+
+	VetCacheEvictor(ObjectProvider<CacheManager> cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	void evict(Object entity) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					clearCaches();
+				}
+			});
+		}
+		else {
+			clearCaches();
+		}
+	}
+
+	private void clearCaches() {
+		CacheManager cacheManager = this.cacheManager.getIfAvailable();
+		if (cacheManager == null) {
+			return;
+		}
+		for (String name : new String[] { VETS_CACHE, VET_PAGES_CACHE }) {
+			Cache cache = cacheManager.getCache(name);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
+}
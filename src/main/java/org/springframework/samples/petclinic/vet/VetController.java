@@ -15,16 +15,33 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * @author Juergen Hoeller
@@ -35,19 +52,47 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @Controller
 class VetController {
 
+	private static final int PAGE_SIZE = 5;
+
+	private static final List<MediaType> RESOURCE_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_XML);
+
 	private final VetRepository vetRepository;
 
-	public VetController(VetRepository vetRepository) {
+	private final HttpMessageConverters messageConverters;
+
+	private final ContentNegotiationManager contentNegotiationManager;
+
+	private final Map<MediaType, SerializedVets> serializedVets = new ConcurrentHashMap<>();
+
+	private volatile VetSpecialtyIndex specialtyIndex;
+
+	public VetController(VetRepository vetRepository, HttpMessageConverters messageConverters,
+			ContentNegotiationManager contentNegotiationManager) {
 		this.vetRepository = vetRepository;
+		this.messageConverters = messageConverters;
+		this.contentNegotiationManager = contentNegotiationManager;
 	}
 
+	/**
+	 * Shows a page of vets, optionally only those with all (<code>match=all</code>) or
+	 * any (<code>match=any</code>, the default) of the given specialties.
+	 */
 	@GetMapping("/vets.html")
-	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
+	public String showVetList(@RequestParam(defaultValue = "1") int page,
+			@RequestParam(name = "specialty", required = false) List<String> specialties,
+			@RequestParam(defaultValue = "any") String match, Model model) {
+		VetSpecialtyIndex index = findSpecialtyIndex();
+		boolean matchAll = isMatchAll(match);
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for Object-Xml mapping
 		Vets vets = new Vets();
-		Page<Vet> paginated = findPaginated(page);
+		Page<Vet> paginated = (specialties == null || specialties.isEmpty()) ? findPaginated(page)
+				: paginate(index.findBySpecialties(specialties, matchAll), page);
 		vets.getVetList().addAll(paginated.toList());
+		model.addAttribute("allSpecialties", index.getSpecialtyNames());
+		model.addAttribute("selectedSpecialties", (specialties != null) ? specialties : List.of());
+		model.addAttribute("match", matchAll ? "all" : "any");
 		return addPaginationModel(page, paginated, model);
 	}
 
@@ -61,18 +106,129 @@ class VetController {
 	}
 
 	private Page<Vet> findPaginated(int page) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
 		return vetRepository.findAll(pageable);
 	}
 
-	@GetMapping({ "/vets" })
-	public @ResponseBody Vets showResourcesVetList() {
-		// Here we are returning an object of type 'Vets' rather than a collection of Vet
-		// objects so it is simpler for JSon/Object mapping
+	private Page<Vet> paginate(List<Vet> vets, int page) {
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
+		int from = (int) Math.min(pageable.getOffset(), vets.size());
+		int to = Math.min(from + PAGE_SIZE, vets.size());
+		return new PageImpl<>(vets.subList(from, to), pageable, vets.size());
+	}
+
+	/**
+	 * Returns the vets with all (<code>match=all</code>) or any (<code>match=any</code>,
+	 * the default) of the given specialties as JSON or XML.
+	 */
+	@GetMapping(value = "/vets", params = "specialty",
+			produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE })
+	public @ResponseBody Vets findVetsBySpecialty(@RequestParam("specialty") List<String> specialties,
+			@RequestParam(defaultValue = "any") String match) {
 		Vets vets = new Vets();
-		vets.getVetList().addAll(this.vetRepository.findAll());
+		vets.getVetList().addAll(findSpecialtyIndex().findBySpecialties(specialties, isMatchAll(match)));
 		return vets;
 	}
 
+	private static boolean isMatchAll(String match) {
+		return "all".equalsIgnoreCase(match);
+	}
+
+	/**
+	 * Returns the specialty index of the cached vet list, rebuilding it when the vets
+	 * cache hands out a new list.
+	 */
+	private VetSpecialtyIndex findSpecialtyIndex() {
+		Collection<Vet> vets = this.vetRepository.findAll();
+		VetSpecialtyIndex index = this.specialtyIndex;
+		if (index == null || !index.isBuiltFrom(vets)) {
+			index = VetSpecialtyIndex.of(vets);
+			this.specialtyIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Serves the vet list as JSON or XML from a serialized copy that is only rebuilt when
+	 * the cached vet list changes. The strong ETag lets clients revalidate with
+	 * <code>If-None-Match</code> and receive a 304 without a body.
+	 */
+	@GetMapping(value = "/vets", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE })
+	public ResponseEntity<byte[]> showResourcesVetList(NativeWebRequest request)
+			throws HttpMediaTypeNotAcceptableException, IOException {
+		SerializedVets vets = findSerializedVets(negotiateMediaType(request));
+		return ResponseEntity.ok()
+			.contentType(vets.contentType())
+			.eTag(vets.eTag())
+			.varyBy(HttpHeaders.ACCEPT)
+			.body(vets.body());
+	}
+
+	private MediaType negotiateMediaType(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		for (MediaType accepted : this.contentNegotiationManager.resolveMediaTypes(request)) {
+			for (MediaType mediaType : RESOURCE_MEDIA_TYPES) {
+				if (accepted.isCompatibleWith(mediaType)) {
+					return mediaType;
+				}
+			}
+		}
+		throw new HttpMediaTypeNotAcceptableException(RESOURCE_MEDIA_TYPES);
+	}
+
+	/**
+	 * Returns the serialized vet list for the media type. The serialized copy remembers
+	 * the collection it was built from: the vets cache hands out the same instance until
+	 * its entry is evicted or expires, so a different instance means the copy is stale.
+	 */
+	private SerializedVets findSerializedVets(MediaType mediaType) throws IOException {
+		Collection<Vet> source = this.vetRepository.findAll();
+		SerializedVets serialized = this.serializedVets.get(mediaType);
+		if (serialized == null || serialized.source() != source) {
+			serialized = serialize(source, mediaType);
+			this.serializedVets.put(mediaType, serialized);
+		}
+		return serialized;
+	}
+
+	@SuppressWarnings("unchecked")
+	private SerializedVets serialize(Collection<Vet> source, MediaType mediaType) throws IOException {
+		// Here we are serializing an object of type 'Vets' rather than a collection of
+		// Vet
+		// objects so it is simpler for JSon/Object mapping
+		Vets vets = new Vets();
+		vets.getVetList().addAll(source);
+		for (HttpMessageConverter<?> converter : this.messageConverters) {
+			if (converter.canWrite(Vets.class, mediaType)) {
+				BufferedOutputMessage message = new BufferedOutputMessage();
+				((HttpMessageConverter<Vets>) converter).write(vets, mediaType, message);
+				byte[] body = message.body.toByteArray();
+				MediaType contentType = message.getHeaders().getContentType();
+				return new SerializedVets(source, (contentType != null) ? contentType : mediaType, body,
+						"\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+			}
+		}
+		throw new IllegalStateException("No converter for " + mediaType);
+	}
+
+	private record SerializedVets(Collection<Vet> source, MediaType contentType, byte[] body, String eTag) {
+	}
+
+	private static class BufferedOutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+	}
+
 }
@@ -42,17 +42,27 @@ public interface VetRepository extends Repository<Vet, Integer> {
 	 * @return a <code>Collection</code> of <code>Vet</code>s
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable(VetCacheEvictor.VETS_CACHE)
 	Collection<Vet> findAll() throws DataAccessException;
 
 	/**
-	 * Retrieve all <code>Vet</code>s from data store in Pages
+	 * Retrieve all <code>Vet</code>s from data store in Pages. Unsorted pages are cached
+	 * by page number and size.
 	 * @param pageable
 	 * @return
 	 * @throws DataAccessException
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable(cacheNames = VetCacheEvictor.VET_PAGES_CACHE, key = "#pageable.pageNumber + ':' + #pageable.pageSize",
+			condition = "#pageable.sort.unsorted")
 	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
 
+	/**
+	 * Save a <code>Vet</code> to the data store. The vet caches are cleared by
+	 * {@link VetCacheEvictor} once the transaction commits.
+	 * @param vet the <code>Vet</code> to save
+	 * @return the saved <code>Vet</code>
+	 */
+	Vet save(Vet vet);
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable in-memory index from specialty to the vets that have it. Each vet is given
+ * the ordinal of its position in the indexed collection, and each specialty id maps to a
+ * {@link BitSet} of those ordinals, so that matching several specialties is a word-wise
+ * AND or OR of bit sets.
+ */
+final class VetSpecialtyIndex {
+
+	private final Collection<Vet> source;
+
+	private final Vet[] vets;
+
+	private final Map<Integer, BitSet> vetsBySpecialtyId = new HashMap<>();
+
+	private final Map<String, Integer> specialtyIdsByName = new HashMap<>();
+
+	private final List<String> specialtyNames;
+
+	private VetSpecialtyIndex(Collection<Vet> source) {
+		this.source = source;
+		this.vets = source.toArray(new Vet[0]);
+		TreeSet<String> names = new TreeSet<>();
+		for (int ordinal = 0; ordinal < this.vets.length; ordinal++) {
+			for (Specialty specialty : this.vets[ordinal].getSpecialties()) {
+				this.vetsBySpecialtyId.computeIfAbsent(specialty.getId(), id -> new BitSet(this.vets.length))
+					.set(ordinal);
+				if (specialty.getName() != null) {
+					this.specialtyIdsByName.put(normalize(specialty.getName()), specialty.getId());
+					names.add(specialty.getName());
+				}
+			}
+		}
+		this.specialtyNames = List.copyOf(names);
+	}
+
+	/**
+	 * Build the index of the given vets.
+	 * @param vets the vets to index, usually the cached list of all vets
+	 * @return the index
+	 */
+	static VetSpecialtyIndex of(Collection<Vet> vets) {
+		return new VetSpecialtyIndex(vets);
+	}
+
+	/**
+	 * Whether this index was built from the given collection instance, which is the case
+	 * until the vet cache hands out a new list.
+	 */
+	boolean isBuiltFrom(Collection<Vet> vets) {
+		return this.source == vets;
+	}
+
+	/**
+	 * Return the names of all specialties that at least one vet has, sorted.
+	 */
+	List<String> getSpecialtyNames() {
+		return this.specialtyNames;
+	}
+
+	/**
+	 * Find the vets that have all, or any, of the given specialties, in the order of the
+	 * indexed collection. Names are matched case-insensitively; an unknown name matches
+	 * no vet.
+	 * @param specialtyNames the names of the specialties to match
+	 * @param matchAll {@code true} for vets with all of the specialties, {@code false}
+	 * for vets with any of them
+	 * @return the matching vets
+	 */
+	List<Vet> findBySpecialties(Collection<String> specialtyNames, boolean matchAll) {
+		BitSet matches = null;
+		for (String name : specialtyNames) {
+			Integer id = this.specialtyIdsByName.get(normalize(name));
+			BitSet vets = (id != null) ? this.vetsBySpecialtyId.get(id) : null;
+			if (vets == null) {
+				if (matchAll) {
+					return List.of();
+				}
+				continue;
+			}
+			if (matches == null) {
+				matches = (BitSet) vets.clone();
+			}
+			else if (matchAll) {
+				matches.and(vets);
+			}
+			else {
+				matches.or(vets);
+			}
+		}
+		if (matches == null) {
+			return List.of();
+		}
+		List<Vet> result = new ArrayList<>(matches.cardinality());
+		for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+			result.add(this.vets[ordinal]);
+		}
+		return result;
+	}
+
+	private static String normalize(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
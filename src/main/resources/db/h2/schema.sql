@@ -1,7 +1,11 @@
+DROP TABLE cache_invalidations IF EXISTS;
+DROP TABLE rate_limit_buckets IF EXISTS;
+DROP TABLE vet_working_hours IF EXISTS;
 DROP TABLE vet_specialties IF EXISTS;
+DROP TABLE visits_archive IF EXISTS;
+DROP TABLE visits IF EXISTS;
 DROP TABLE vets IF EXISTS;
 DROP TABLE specialties IF EXISTS;
-DROP TABLE visits IF EXISTS;
 DROP TABLE pets IF EXISTS;
 DROP TABLE types IF EXISTS;
 DROP TABLE owners IF EXISTS;
@@ -27,6 +31,16 @@ CREATE TABLE vet_specialties (
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_specialties FOREIGN KEY (specialty_id) REFERENCES specialties (id);
 
+CREATE TABLE vet_working_hours (
+  id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  vet_id      INTEGER NOT NULL,
+  day_of_week INTEGER NOT NULL,
+  start_time  TIME NOT NULL,
+  end_time    TIME NOT NULL
+);
+ALTER TABLE vet_working_hours ADD CONSTRAINT fk_vet_working_hours_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
+CREATE INDEX vet_working_hours_vet_id ON vet_working_hours (vet_id);
+
 CREATE TABLE types (
   id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name VARCHAR(80)
@@ -39,7 +53,8 @@ CREATE TABLE owners (
   last_name  VARCHAR_IGNORECASE(30),
   address    VARCHAR(255),
   city       VARCHAR(80),
-  telephone  VARCHAR(20)
+  telephone  VARCHAR(20),
+  version    INTEGER DEFAULT 0 NOT NULL
 );
 CREATE INDEX owners_last_name ON owners (last_name);
 
@@ -48,7 +63,10 @@ CREATE TABLE pets (
   name       VARCHAR(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
-  owner_id   INTEGER
+  owner_id   INTEGER,
+  visit_count      INTEGER DEFAULT 0 NOT NULL,
+  first_visit_date DATE,
+  last_visit_date  DATE
 );
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
@@ -58,7 +76,40 @@ CREATE TABLE visits (
   id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   pet_id      INTEGER,
   visit_date  DATE,
-  description VARCHAR(255)
+  description VARCHAR(255),
+  vet_id      INTEGER,
+  start_time  TIME
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
+ALTER TABLE visits ADD CONSTRAINT fk_visits_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
 CREATE INDEX visits_pet_id ON visits (pet_id);
+CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date);
+CREATE INDEX visits_visit_date ON visits (visit_date);
+CREATE UNIQUE INDEX visits_vet_id_visit_date_start_time ON visits (vet_id, visit_date, start_time);
+
+CREATE TABLE visits_archive (
+  id          INTEGER NOT NULL PRIMARY KEY,
+  pet_id      INTEGER,
+  visit_date  DATE NOT NULL,
+  description VARCHAR(255),
+  vet_id      INTEGER,
+  start_time  TIME
+);
+CREATE INDEX visits_archive_pet_id_visit_date ON visits_archive (pet_id, visit_date);
+
+CREATE TABLE rate_limit_buckets (
+  bucket_key  VARCHAR(255) NOT NULL PRIMARY KEY,
+  tokens      INTEGER NOT NULL,
+  refilled_at BIGINT NOT NULL,
+  full_at     BIGINT NOT NULL
+);
+CREATE INDEX rate_limit_buckets_full_at ON rate_limit_buckets (full_at);
+
+CREATE TABLE cache_invalidations (
+  id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  origin     VARCHAR(36) NOT NULL,
+  cache_name VARCHAR(255) NOT NULL,
+  cache_key  VARCHAR(1024),
+  created_at BIGINT NOT NULL
+);
+CREATE INDEX cache_invalidations_created_at ON cache_invalidations (created_at);
@@ -19,6 +19,15 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
   UNIQUE (vet_id,specialty_id)
 ) engine=InnoDB;
 
+CREATE TABLE IF NOT EXISTS vet_working_hours (
+  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  vet_id INT(4) UNSIGNED NOT NULL,
+  day_of_week INT(1) UNSIGNED NOT NULL,
+  start_time TIME NOT NULL,
+  end_time TIME NOT NULL,
+  FOREIGN KEY (vet_id) REFERENCES vets(id)
+) engine=InnoDB;
+
 CREATE TABLE IF NOT EXISTS types (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(80),
@@ -32,8 +41,17 @@ CREATE TABLE IF NOT EXISTS owners (
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(last_name)
 ) engine=InnoDB;
+-- add the version to owners tables created before it existed
+SET @add_owners_version = (SELECT IF(COUNT(*) = 0,
+  'ALTER TABLE owners ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'owners' AND column_name = 'version');
+PREPARE add_owners_version FROM @add_owners_version;
+EXECUTE add_owners_version;
+DEALLOCATE PREPARE add_owners_version;
 
 CREATE TABLE IF NOT EXISTS pets (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
@@ -41,6 +59,9 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED,
+  visit_count INT(4) UNSIGNED NOT NULL DEFAULT 0,
+  first_visit_date DATE,
+  last_visit_date DATE,
   INDEX(name),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
@@ -51,5 +72,38 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED,
   visit_date DATE,
   description VARCHAR(255),
-  FOREIGN KEY (pet_id) REFERENCES pets(id)
+  vet_id INT(4) UNSIGNED,
+  start_time TIME,
+  INDEX(pet_id, visit_date),
+  INDEX(visit_date),
+  UNIQUE (vet_id, visit_date, start_time),
+  FOREIGN KEY (pet_id) REFERENCES pets(id),
+  FOREIGN KEY (vet_id) REFERENCES vets(id)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS visits_archive (
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  pet_id INT(4) UNSIGNED,
+  visit_date DATE NOT NULL,
+  description VARCHAR(255),
+  vet_id INT(4) UNSIGNED,
+  start_time TIME,
+  INDEX(pet_id, visit_date)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+  bucket_key VARCHAR(255) NOT NULL PRIMARY KEY,
+  tokens INT NOT NULL,
+  refilled_at BIGINT NOT NULL,
+  full_at BIGINT NOT NULL,
+  INDEX(full_at)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  origin VARCHAR(36) NOT NULL,
+  cache_name VARCHAR(255) NOT NULL,
+  cache_key VARCHAR(1024),
+  created_at BIGINT NOT NULL,
+  INDEX(created_at)
 ) engine=InnoDB;
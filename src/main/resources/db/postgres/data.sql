@@ -15,6 +15,38 @@ INSERT INTO vet_specialties VALUES (3, 3) ON CONFLICT (vet_id, specialty_id) DO
 INSERT INTO vet_specialties VALUES (4, 2) ON CONFLICT (vet_id, specialty_id) DO NOTHING;
 INSERT INTO vet_specialties VALUES (5, 1) ON CONFLICT (vet_id, specialty_id) DO NOTHING;
 
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 1, 1, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=1);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 1, 2, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=2);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 1, 3, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=3);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 1, 4, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=4);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 1, 5, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=5);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 2, 1, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=6);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 2, 2, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=7);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 2, 3, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=8);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 2, 4, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=9);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 2, 5, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=10);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 3, 1, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=11);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 3, 2, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=12);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 3, 3, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=13);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 3, 4, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=14);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 3, 5, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=15);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 4, 1, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=16);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 4, 2, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=17);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 4, 3, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=18);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 4, 4, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=19);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 4, 5, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=20);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 5, 1, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=21);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 5, 2, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=22);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 5, 3, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=23);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 5, 4, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=24);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 5, 5, '09:00:00', '17:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=25);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 1, '12:00:00', '20:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=26);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 2, '12:00:00', '20:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=27);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 3, '12:00:00', '20:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=28);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 4, '12:00:00', '20:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=29);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 5, '12:00:00', '20:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=30);
+INSERT INTO vet_working_hours (vet_id, day_of_week, start_time, end_time) SELECT 6, 6, '09:00:00', '13:00:00' WHERE NOT EXISTS (SELECT * FROM vet_working_hours WHERE id=31);
+
 INSERT INTO types (name) SELECT 'cat' WHERE NOT EXISTS (SELECT * FROM types WHERE name='cat');
 INSERT INTO types (name) SELECT 'dog' WHERE NOT EXISTS (SELECT * FROM types WHERE name='dog');
 INSERT INTO types (name) SELECT 'lizard' WHERE NOT EXISTS (SELECT * FROM types WHERE name='lizard');
@@ -39,8 +71,8 @@ INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Rosy', '2001-04-1
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Jewel', '2000-03-07', 2, 3 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=4);
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Iggy', '2000-11-30', 3, 4 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=5);
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'George', '2000-01-20', 4, 5 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=6);
-INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Samantha', '1995-09-04', 1, 6 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=7);
-INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Max', '1995-09-04', 1, 6 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=8);
+INSERT INTO pets (name, birth_date, type_id, owner_id, visit_count, first_visit_date, last_visit_date) SELECT 'Samantha', '1995-09-04', 1, 6, 2, '2008-09-04', '2010-03-04' WHERE NOT EXISTS (SELECT * FROM pets WHERE id=7);
+INSERT INTO pets (name, birth_date, type_id, owner_id, visit_count, first_visit_date, last_visit_date) SELECT 'Max', '1995-09-04', 1, 6, 2, '2009-06-04', '2011-03-04' WHERE NOT EXISTS (SELECT * FROM pets WHERE id=8);
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Lucky', '1999-08-06', 5, 7 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=9);
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Mulligan', '1997-02-24', 2, 8 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=10);
 INSERT INTO pets (name, birth_date, type_id, owner_id) SELECT 'Freddy', '2000-03-09', 5, 9 WHERE NOT EXISTS (SELECT * FROM pets WHERE id=11);
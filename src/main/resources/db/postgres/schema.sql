@@ -17,6 +17,15 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
   UNIQUE (vet_id, specialty_id)
 );
 
+CREATE TABLE IF NOT EXISTS vet_working_hours (
+  id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  vet_id      INT NOT NULL REFERENCES vets (id),
+  day_of_week INT NOT NULL,
+  start_time  TIME NOT NULL,
+  end_time    TIME NOT NULL
+);
+CREATE INDEX IF NOT EXISTS vet_working_hours_vet_id ON vet_working_hours (vet_id);
+
 CREATE TABLE IF NOT EXISTS types (
   id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name TEXT
@@ -32,6 +41,7 @@ CREATE TABLE IF NOT EXISTS owners (
   telephone  TEXT
 );
 CREATE INDEX ON owners (last_name);
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
 
 CREATE TABLE IF NOT EXISTS pets (
   id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -42,6 +52,9 @@ CREATE TABLE IF NOT EXISTS pets (
 );
 CREATE INDEX ON pets (name);
 CREATE INDEX ON pets (owner_id);
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS visit_count INT NOT NULL DEFAULT 0;
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS first_visit_date DATE;
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS last_visit_date DATE;
 
 CREATE TABLE IF NOT EXISTS visits (
   id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -50,3 +63,42 @@ CREATE TABLE IF NOT EXISTS visits (
   description TEXT
 );
 CREATE INDEX ON visits (pet_id);
+CREATE INDEX IF NOT EXISTS visits_pet_id_visit_date ON visits (pet_id, visit_date);
+CREATE INDEX IF NOT EXISTS visits_visit_date ON visits (visit_date);
+ALTER TABLE visits ADD COLUMN IF NOT EXISTS vet_id INT REFERENCES vets (id);
+ALTER TABLE visits ADD COLUMN IF NOT EXISTS start_time TIME;
+CREATE UNIQUE INDEX IF NOT EXISTS visits_vet_id_visit_date_start_time ON visits (vet_id, visit_date, start_time);
+
+-- Visits moved out of the hot table by the archival job, partitioned by visit date
+CREATE TABLE IF NOT EXISTS visits_archive (
+  id          INT NOT NULL,
+  pet_id      INT,
+  visit_date  DATE NOT NULL,
+  description TEXT,
+  PRIMARY KEY (id, visit_date)
+) PARTITION BY RANGE (visit_date);
+ALTER TABLE visits_archive ADD COLUMN IF NOT EXISTS vet_id INT;
+ALTER TABLE visits_archive ADD COLUMN IF NOT EXISTS start_time TIME;
+CREATE TABLE IF NOT EXISTS visits_archive_1990s PARTITION OF visits_archive FOR VALUES FROM ('1990-01-01') TO ('2000-01-01');
+CREATE TABLE IF NOT EXISTS visits_archive_2000s PARTITION OF visits_archive FOR VALUES FROM ('2000-01-01') TO ('2010-01-01');
+CREATE TABLE IF NOT EXISTS visits_archive_2010s PARTITION OF visits_archive FOR VALUES FROM ('2010-01-01') TO ('2020-01-01');
+CREATE TABLE IF NOT EXISTS visits_archive_2020s PARTITION OF visits_archive FOR VALUES FROM ('2020-01-01') TO ('2030-01-01');
+CREATE TABLE IF NOT EXISTS visits_archive_default PARTITION OF visits_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS visits_archive_pet_id_visit_date ON visits_archive (pet_id, visit_date);
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+  bucket_key  VARCHAR(255) NOT NULL PRIMARY KEY,
+  tokens      INTEGER NOT NULL,
+  refilled_at BIGINT NOT NULL,
+  full_at     BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS rate_limit_buckets_full_at ON rate_limit_buckets (full_at);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+  id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  origin     VARCHAR(36) NOT NULL,
+  cache_name VARCHAR(255) NOT NULL,
+  cache_key  VARCHAR(1024),
+  created_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS cache_invalidations_created_at ON cache_invalidations (created_at);
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+/**
+ * Microbenchmark for finding free slots with {@link AppointmentBook}, for vets working
+ * weekdays from 8:00 to 18:00 over the default eight week horizon, with a share of their
+ * slots booked at random. The {@code fullyBooked} specialty has no free slot left, so
+ * searching it scans every day of the horizon. Run with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentBookBenchmark {
+
+	private static final int HORIZON_DAYS = 56;
+
+	@Param({ "20", "200" })
+	private int vetCount;
+
+	@Param({ "0.9" })
+	private double bookedShare;
+
+	private AppointmentBook appointmentBook;
+
+	private LocalDateTime from;
+
+	@Setup
+	public void setup() {
+		Specialty surgery = specialty(1, "surgery");
+		Specialty fullyBooked = specialty(2, "fullyBooked");
+		List<Vet> vets = new ArrayList<>();
+		List<WorkingHours> workingHours = new ArrayList<>();
+		List<Appointment> appointments = new ArrayList<>();
+		Random random = new Random(42);
+		LocalDate today = LocalDate.now();
+		for (int id = 1; id <= this.vetCount; id++) {
+			Vet vet = new Vet();
+			vet.setId(id);
+			vet.setFirstName("Vet");
+			vet.setLastName(String.valueOf(id));
+			boolean full = id % 10 == 0;
+			vet.addSpecialty(full ? fullyBooked : surgery);
+			vets.add(vet);
+			for (DayOfWeek day : DayOfWeek.values()) {
+				if (day.getValue() <= 5) {
+					WorkingHours hours = new WorkingHours();
+					hours.setVetId(id);
+					hours.setDayOfWeek(day);
+					hours.setStartTime(LocalTime.of(8, 0));
+					hours.setEndTime(LocalTime.of(18, 0));
+					workingHours.add(hours);
+				}
+			}
+			for (int day = 0; day < HORIZON_DAYS; day++) {
+				for (LocalTime time = LocalTime.of(8, 0); time
+					.isBefore(LocalTime.of(18, 0)); time = time.plusMinutes(VetCalendar.SLOT_MINUTES)) {
+					if (full || random.nextDouble() < this.bookedShare) {
+						appointments.add(new Appointment(null, id, today.plusDays(day), time));
+					}
+				}
+			}
+		}
+		WorkingHoursRepository workingHoursRepository = mock(WorkingHoursRepository.class);
+		AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+		VetRepository vetRepository = mock(VetRepository.class);
+		given(workingHoursRepository.findAll()).willReturn(workingHours);
+		given(appointmentRepository.findAppointmentsFrom(today)).willReturn(appointments);
+		given(vetRepository.findAll()).willReturn(vets);
+		this.appointmentBook = new AppointmentBook(workingHoursRepository, appointmentRepository,
+				mock(VisitRepository.class), mock(OwnerRepository.class), vetRepository, HORIZON_DAYS);
+		this.appointmentBook.reload();
+		this.from = today.plusDays(1).atStartOfDay();
+	}
+
+	@Benchmark
+	public List<FreeSlot> earliestTenSlots() {
+		return this.appointmentBook.findFreeSlots("surgery", this.from, 10);
+	}
+
+	@Benchmark
+	public List<FreeSlot> fullyBookedHorizon() {
+		return this.appointmentBook.findFreeSlots("fullyBooked", this.from, 10);
+	}
+
+	private static Specialty specialty(int id, String name) {
+		Specialty specialty = new Specialty();
+		specialty.setId(id);
+		specialty.setName(name);
+		return specialty;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(AppointmentBookBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
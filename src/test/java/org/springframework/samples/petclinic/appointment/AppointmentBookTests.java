@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+/**
+ * Integration test for {@link AppointmentBook}, against the sample vets and their working
+ * hours, Monday to Friday from 9:00 to 17:00 for all vets but Sharon Jenkins.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:appointments;DB_CLOSE_DELAY=-1")
+class AppointmentBookTests {
+
+	@Autowired
+	private AppointmentBook appointmentBook;
+
+	@Autowired
+	private WorkingHoursRepository workingHours;
+
+	@Autowired
+	private AppointmentRepository appointments;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private VetRepository vets;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void deleteAppointments() {
+		this.jdbcTemplate.update("DELETE FROM visits WHERE vet_id IS NOT NULL");
+		this.visits.repairVisitSummaries(1, this.visits.findMaxPetId());
+		this.appointmentBook.reload();
+	}
+
+	@Test
+	void shouldFindEarliestFreeSlotsOfSpecialtyInTimeOrder() {
+		LocalDate monday = monday(1);
+
+		List<FreeSlot> slots = this.appointmentBook.findFreeSlots("Radiology", monday.minusDays(2).atTime(10, 0), 4);
+
+		assertThat(slots).extracting(FreeSlot::vetId).containsExactly(2, 5, 2, 5);
+		assertThat(slots).extracting(FreeSlot::date).containsOnly(monday);
+		assertThat(slots).extracting(FreeSlot::startTime)
+			.containsExactly(LocalTime.of(9, 0), LocalTime.of(9, 0), LocalTime.of(9, 15), LocalTime.of(9, 15));
+		assertThat(slots.get(0).vetName()).isEqualTo("Helen Leary");
+	}
+
+	@Test
+	void shouldStartSearchAtNextWholeSlot() {
+		LocalDate monday = monday(1);
+
+		List<FreeSlot> slots = this.appointmentBook.findFreeSlots(null, monday.atTime(16, 40), 7);
+
+		assertThat(slots).extracting(FreeSlot::startTime).startsWith(LocalTime.of(16, 45));
+		assertThat(slots).extracting(FreeSlot::vetId).containsExactly(1, 2, 3, 4, 5, 6, 6);
+		assertThat(slots.get(6).startTime()).isEqualTo(LocalTime.of(17, 0));
+	}
+
+	@Test
+	void shouldBookSlotAsVisitAndStopOfferingIt() {
+		LocalDate monday = monday(2);
+
+		Appointment appointment = this.appointmentBook.book(6, 7, 2, monday, LocalTime.of(9, 0), "check-up");
+
+		assertThat(appointment.visitId()).isNotNull();
+		assertThat(this.appointments.findAppointmentsFrom(monday)).containsExactly(appointment);
+		assertThat(this.owners.findById(6)).get().extracting(owner -> owner.getPet(7).getVisitCount()).isEqualTo(3);
+		assertThat(this.appointmentBook.findFreeSlots("radiology", monday.atStartOfDay(), 1))
+			.extracting(FreeSlot::vetId)
+			.containsExactly(5);
+		assertThatExceptionOfType(SlotUnavailableException.class)
+			.isThrownBy(() -> this.appointmentBook.book(6, 8, 2, monday, LocalTime.of(9, 0), "check-up"));
+	}
+
+	@Test
+	void shouldReleaseSlotWhenTheVisitCannotBeSaved() {
+		LocalDate monday = monday(2);
+
+		assertThatExceptionOfType(DataIntegrityViolationException.class)
+			.isThrownBy(() -> this.appointmentBook.book(6, 7, 2, monday, LocalTime.of(10, 0), "x".repeat(256)));
+
+		assertThat(this.appointmentBook.book(6, 7, 2, monday, LocalTime.of(10, 0), "check-up").visitId()).isNotNull();
+	}
+
+	@Test
+	void shouldRejectSlotsOutsideWorkingHoursOrBetweenSlots() {
+		LocalDate monday = monday(2);
+
+		assertThatExceptionOfType(SlotUnavailableException.class)
+			.isThrownBy(() -> this.appointmentBook.book(6, 7, 1, monday.plusDays(5), LocalTime.of(10, 0), "check-up"));
+		assertThatExceptionOfType(SlotUnavailableException.class)
+			.isThrownBy(() -> this.appointmentBook.book(6, 7, 1, monday, LocalTime.of(17, 0), "check-up"));
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.appointmentBook.book(6, 7, 1, monday, LocalTime.of(9, 10), "check-up"));
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.appointmentBook.book(6, 7, 1, monday.plusYears(1), LocalTime.of(9, 0), "check-up"));
+	}
+
+	@Test
+	void shouldBookEachSlotOnceUnderConcurrentRequests() throws Exception {
+		LocalDate monday = monday(3);
+		// half of the requests go through other instances, which do not share calendars
+		// with this one, so that only the unique index stops them
+		List<Callable<Appointment>> requests = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			AppointmentBook book = (i % 2 == 0) ? this.appointmentBook : new AppointmentBook(this.workingHours,
+					this.appointments, this.visits, this.owners, this.vets, 56);
+			requests.add(() -> book.book(6, 7, 3, monday, LocalTime.of(11, 30), "check-up"));
+		}
+
+		int booked = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+		try {
+			for (Future<Appointment> result : executor.invokeAll(requests)) {
+				try {
+					result.get();
+					booked++;
+				}
+				catch (ExecutionException ex) {
+					assertThat(ex.getCause()).isInstanceOf(SlotUnavailableException.class);
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertThat(booked).isEqualTo(1);
+		assertThat(this.appointments.findAppointmentsFrom(monday)).hasSize(1);
+	}
+
+	@Test
+	void shouldBookConcurrentlyForPetsOfTheSameOwner() throws Exception {
+		LocalDate monday = monday(4);
+		int version = this.owners.findVersionById(6).orElseThrow();
+		List<Callable<Appointment>> requests = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			int petId = 7 + i % 2;
+			LocalTime startTime = LocalTime.of(9, 0).plusMinutes(15L * i);
+			requests.add(() -> this.appointmentBook.book(6, petId, 4, monday, startTime, "check-up"));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+		try {
+			for (Future<Appointment> result : executor.invokeAll(requests)) {
+				assertThat(result.get().visitId()).isNotNull();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertThat(this.appointments.findAppointmentsFrom(monday)).hasSize(16);
+		assertThat(this.owners.findVersionById(6)).contains(version + 16);
+	}
+
+	private static LocalDate monday(int weeksAhead) {
+		return LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(weeksAhead);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Test class for {@link AppointmentController}
+ */
+@WebMvcTest(AppointmentController.class)
+@DisabledInNativeImage
+@DisabledInAotMode
+class AppointmentControllerTests {
+
+	private static final LocalDate DATE = LocalDate.of(2030, 1, 7);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private AppointmentBook appointmentBook;
+
+	@Test
+	void testFindFreeSlots() throws Exception {
+		given(this.appointmentBook.findFreeSlots("radiology", LocalDateTime.of(2030, 1, 7, 8, 0), 2))
+			.willReturn(List.of(new FreeSlot(2, "Helen Leary", DATE, LocalTime.of(9, 0)),
+					new FreeSlot(5, "Henry Stevens", DATE, LocalTime.of(9, 0))));
+
+		this.mockMvc
+			.perform(get("/appointments/free-slots").param("specialty", "radiology")
+				.param("from", "2030-01-07T08:00:00")
+				.param("count", "2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[0].vetName").value("Helen Leary"))
+			.andExpect(jsonPath("$[1].vetId").value(5))
+			.andExpect(jsonPath("$[1].date").value("2030-01-07"))
+			.andExpect(jsonPath("$[1].startTime").value("09:00:00"));
+	}
+
+	@Test
+	void testBookAppointment() throws Exception {
+		given(this.appointmentBook.book(6, 7, 2, DATE, LocalTime.of(9, 0), "check-up"))
+			.willReturn(new Appointment(42, 2, DATE, LocalTime.of(9, 0)));
+
+		this.mockMvc.perform(post("/appointments").contentType(MediaType.APPLICATION_JSON).content(request("check-up")))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.visitId").value(42));
+	}
+
+	@Test
+	void testBookBookedSlot() throws Exception {
+		given(this.appointmentBook.book(eq(6), eq(7), eq(2), eq(DATE), eq(LocalTime.of(9, 0)), any()))
+			.willThrow(new SlotUnavailableException("Vet 2 is not available"));
+
+		this.mockMvc.perform(post("/appointments").contentType(MediaType.APPLICATION_JSON).content(request("check-up")))
+			.andExpect(status().isConflict())
+			.andExpect(jsonPath("$.detail").value("Vet 2 is not available"));
+	}
+
+	@Test
+	void testBookWithoutDescription() throws Exception {
+		this.mockMvc.perform(post("/appointments").contentType(MediaType.APPLICATION_JSON).content(request("")))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testBookWithTooLongDescription() throws Exception {
+		this.mockMvc
+			.perform(post("/appointments").contentType(MediaType.APPLICATION_JSON).content(request("x".repeat(256))))
+			.andExpect(status().isBadRequest());
+		then(this.appointmentBook).shouldHaveNoInteractions();
+	}
+
+	private static String request(String description) {
+		return """
+				{"ownerId": 6, "petId": 7, "vetId": 2, "date": "2030-01-07", "startTime": "09:00", "description": "%s"}"""
+			.formatted(description);
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.appointment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link VetCalendar}
+ */
+class VetCalendarTests {
+
+	private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+	private final VetCalendar calendar = new VetCalendar();
+
+	@BeforeEach
+	void setup() {
+		this.calendar.addWorkingHours(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0));
+		this.calendar.addWorkingHours(DayOfWeek.TUESDAY, LocalTime.of(18, 10), LocalTime.of(23, 59));
+	}
+
+	@Test
+	void shouldBookOnlyWorkingSlotsOnce() {
+		int nine = VetCalendar.slotOf(LocalTime.of(9, 0));
+
+		assertThat(this.calendar.reserve(MONDAY, nine)).isTrue();
+		assertThat(this.calendar.reserve(MONDAY, nine)).isFalse();
+		assertThat(this.calendar.reserve(MONDAY, VetCalendar.slotOf(LocalTime.of(8, 45)))).isFalse();
+		assertThat(this.calendar.reserve(MONDAY, VetCalendar.slotOf(LocalTime.of(17, 0)))).isFalse();
+		assertThat(this.calendar.reserve(MONDAY.plusDays(2), nine)).isFalse();
+
+		this.calendar.release(MONDAY, nine);
+		assertThat(this.calendar.reserve(MONDAY, nine)).isTrue();
+	}
+
+	@Test
+	void shouldMaskBookedSlotsOutOfWorkingHours() {
+		long[] free = new long[VetCalendar.WORDS_PER_DAY];
+		this.calendar.markBooked(MONDAY, VetCalendar.slotOf(LocalTime.of(9, 0)));
+		this.calendar.markBooked(MONDAY, VetCalendar.slotOf(LocalTime.of(16, 45)));
+
+		assertThat(this.calendar.freeSlots(MONDAY, free)).isTrue();
+		assertThat(Long.bitCount(free[0]) + Long.bitCount(free[1])).isEqualTo(8 * 4 - 2);
+		assertThat(VetCalendar.startOf(VetCalendar.nextSetBit(free, 0))).isEqualTo(LocalTime.of(9, 15));
+		assertThat(VetCalendar.nextSetBit(free, VetCalendar.slotOf(LocalTime.of(16, 30)) + 1)).isEqualTo(-1);
+	}
+
+	@Test
+	void shouldOnlyCountWholeSlotsAcrossWords() {
+		long[] free = new long[VetCalendar.WORDS_PER_DAY];
+
+		assertThat(this.calendar.freeSlots(MONDAY.plusDays(1), free)).isTrue();
+		assertThat(VetCalendar.startOf(VetCalendar.nextSetBit(free, 0))).isEqualTo(LocalTime.of(18, 15));
+		assertThat(Long.bitCount(free[0]) + Long.bitCount(free[1])).isEqualTo(22);
+		assertThat(VetCalendar.nextSetBit(free, VetCalendar.SLOTS_PER_DAY)).isEqualTo(-1);
+		assertThat(this.calendar.freeSlots(MONDAY.minusDays(1), free)).isFalse();
+	}
+
+	@Test
+	void shouldRejectTimesBetweenSlots() {
+		assertThatIllegalArgumentException().isThrownBy(() -> VetCalendar.slotOf(LocalTime.of(9, 10)));
+		assertThat(VetCalendar.ceilSlot(LocalTime.of(9, 10))).isEqualTo(VetCalendar.slotOf(LocalTime.of(9, 15)));
+		assertThat(VetCalendar.ceilSlot(LocalTime.of(23, 50))).isEqualTo(VetCalendar.SLOTS_PER_DAY);
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CsvWriter}.
+ */
+class CsvWriterTests {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Test
+	void writesRecordsWithCrlf() throws IOException {
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		writer.record("id", "name");
+		writer.field(1);
+		writer.field("Leo");
+		writer.endRecord();
+		writer.flush();
+
+		assertThat(written()).isEqualTo("id,name\r\n1,Leo\r\n");
+	}
+
+	@Test
+	void quotesFieldsOnlyWhenNeeded() throws IOException {
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		writer.record("plain", "a,b", "say \"hi\"", "two\nlines", "cr\r");
+		writer.flush();
+
+		assertThat(written()).isEqualTo("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"cr\r\"\r\n");
+	}
+
+	@Test
+	void writesNullsAsEmptyFields() throws IOException {
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		writer.field((String) null);
+		writer.emptyField();
+		writer.field((LocalDate) null);
+		writer.field((LocalTime) null);
+		writer.endRecord();
+		writer.flush();
+
+		assertThat(written()).isEqualTo(",,,\r\n");
+	}
+
+	@Test
+	void formatsNumbersDatesAndTimes() throws IOException {
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		writer.field(0);
+		writer.field(-42);
+		writer.field(Long.MAX_VALUE);
+		writer.field(Long.MIN_VALUE);
+		writer.field(LocalDate.of(2013, 1, 4));
+		writer.field(LocalDate.of(12, 11, 30));
+		writer.field(LocalTime.of(9, 5, 7));
+		writer.endRecord();
+		writer.flush();
+
+		assertThat(written())
+			.isEqualTo("0,-42," + Long.MAX_VALUE + "," + Long.MIN_VALUE + ",2013-01-04,0012-11-30,09:05:07\r\n");
+	}
+
+	@Test
+	void encodesUtf8() throws IOException {
+		String value = "Jérôme, 東京 🐾";
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		writer.record(value, "\uD83Dx");
+		writer.flush();
+
+		assertThat(written()).isEqualTo("\"" + value + "\",?x\r\n");
+	}
+
+	@Test
+	void writesRecordsLongerThanTheBuffer() throws IOException {
+		String value = "é".repeat(100) + "x".repeat(100);
+		CsvWriter writer = new CsvWriter(this.out, 64);
+		for (int i = 0; i < 10; i++) {
+			writer.field(i);
+			writer.field(value);
+			writer.endRecord();
+		}
+		writer.flush();
+
+		assertThat(written()).isEqualTo(("%d," + value + "\r\n").repeat(10).formatted(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+	}
+
+	@Test
+	void rejectsTinyBuffers() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new CsvWriter(this.out, 16));
+	}
+
+	private String written() {
+		return this.out.toString(StandardCharsets.UTF_8);
+	}
+
+}
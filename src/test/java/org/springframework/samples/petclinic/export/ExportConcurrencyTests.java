@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Integration test checking that exports, which hold a database connection for as long as
+ * they stream, cannot take every connection of the pool from interactive pages.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = { "warmup.enabled=false", "spring.datasource.hikari.maximum-pool-size=3",
+				"spring.datasource.hikari.connection-timeout=2000", "export.buffer-size=64" })
+@AutoConfigureMockMvc
+@Import(ExportConcurrencyTests.SlowClientConfiguration.class)
+class ExportConcurrencyTests {
+
+	private static final CountDownLatch streaming = new CountDownLatch(2);
+
+	private static final CountDownLatch clientsReading = new CountDownLatch(1);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void interactivePagesGetConnectionsWhileExportsStream() throws Exception {
+		MvcResult first = this.mockMvc.perform(get("/api/export/visits.csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		MvcResult second = this.mockMvc.perform(get("/api/export/pets.csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		assertThat(streaming.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// both exports now hold a connection, stalled on a slow client
+		this.mockMvc.perform(get("/api/export/owners.csv")).andExpect(status().isServiceUnavailable());
+		this.mockMvc.perform(get("/owners").param("lastName", "Davis")).andExpect(status().isOk());
+
+		clientsReading.countDown();
+		this.mockMvc.perform(asyncDispatch(first)).andExpect(status().isOk());
+		this.mockMvc.perform(asyncDispatch(second)).andExpect(status().isOk());
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class SlowClientConfiguration {
+
+		/**
+		 * Exporter writing to clients that stall until the test lets them read, once the
+		 * export has started streaming rows from the database.
+		 */
+		@Bean
+		@Primary
+		CsvExporter slowClientExporter(DataSource dataSource, PlatformTransactionManager transactionManager) {
+			return new CsvExporter(dataSource, transactionManager, 10, 64) {
+
+				@Override
+				public long export(Dataset dataset, OutputStream out) throws IOException {
+					return super.export(dataset, new SlowClientStream(out));
+				}
+
+			};
+		}
+
+	}
+
+	private static final class SlowClientStream extends FilterOutputStream {
+
+		private boolean stalled;
+
+		SlowClientStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (!this.stalled) {
+				this.stalled = true;
+				streaming.countDown();
+				try {
+					if (!clientsReading.await(10, TimeUnit.SECONDS)) {
+						throw new InterruptedIOException("Client never read");
+					}
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			this.out.write(b, off, len);
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration test for the CSV exports, against the sample data.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, properties = "warmup.enabled=false")
+@AutoConfigureMockMvc
+class ExportControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void exportsOwners() throws Exception {
+		MvcResult started = this.mockMvc.perform(get("/api/export/owners.csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(TimeUnit.HOURS.toMillis(1));
+
+		String csv = export(started, "owners.csv");
+
+		assertThat(csv).startsWith("id,first_name,last_name,address,city,telephone\r\n"
+				+ "1,George,Franklin,110 W. Liberty St.,Madison,6085551023\r\n");
+		assertThat(csv.lines()).hasSizeGreaterThanOrEqualTo(11);
+	}
+
+	@Test
+	void exportsPetsWithTheirType() throws Exception {
+		String csv = export(this.mockMvc.perform(get("/api/export/pets.csv")).andReturn(), "pets.csv");
+
+		assertThat(csv).startsWith("id,name,birth_date,type,owner_id\r\n1,Leo,2010-09-07,cat,1\r\n");
+	}
+
+	@Test
+	void exportsVisitsAndArchivedVisits() throws Exception {
+		String csv = export(this.mockMvc.perform(get("/api/export/visits.csv")).andReturn(), "visits.csv");
+
+		assertThat(csv).startsWith("id,pet_id,vet_id,visit_date,start_time,description,archived\r\n")
+			.contains("\r\n1,7,,2013-01-01,,rabies shot,false\r\n");
+	}
+
+	@Test
+	void unknownDatasetIsNotFound() throws Exception {
+		this.mockMvc.perform(get("/api/export/vets.csv"))
+			.andExpect(request().asyncNotStarted())
+			.andExpect(status().isNotFound());
+	}
+
+	private String export(MvcResult started, String fileName) throws Exception {
+		return this.mockMvc.perform(asyncDispatch(started))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+			.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\""))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+			.andReturn()
+			.getResponse()
+			.getContentAsString(StandardCharsets.UTF_8);
+	}
+
+}
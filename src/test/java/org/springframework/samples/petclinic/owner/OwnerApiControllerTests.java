@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Integration test for the owners API, against the sample data.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, properties = "warmup.enabled=false")
+@AutoConfigureMockMvc
+class OwnerApiControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void showOwnerWithAllFields() throws Exception {
+		this.mockMvc.perform(get("/api/owners/6"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.id").value(6))
+			.andExpect(jsonPath("$.firstName").value("Jean"))
+			.andExpect(jsonPath("$.telephone").value("6085552654"))
+			.andExpect(jsonPath("$.pets[0].name").value("Max"))
+			.andExpect(jsonPath("$.pets[0].type").value("cat"))
+			.andExpect(jsonPath("$.pets[0].birthDate").value("2012-09-04"))
+			.andExpect(jsonPath("$.pets[1].name").value("Samantha"))
+			.andExpect(jsonPath("$.pets[1].visits[0].date").value("2013-01-01"))
+			.andExpect(jsonPath("$.pets[1].visits[0].description").value("rabies shot"))
+			.andExpect(jsonPath("$.pets[1].visits[0].vetId").value(nullValue()));
+	}
+
+	@Test
+	void showOwnerWithSelectedFields() throws Exception {
+		this.mockMvc.perform(get("/api/owners/3").param("fields", "id,lastName,pets.name"))
+			.andExpect(status().isOk())
+			.andExpect(content().json(
+					"{\"id\":3,\"lastName\":\"Rodriquez\",\"pets\":[{\"name\":\"Jewel\"},{\"name\":\"Rosy\"}]}", true));
+	}
+
+	@Test
+	void showOwnerWithoutPets() throws Exception {
+		this.mockMvc.perform(get("/api/owners/1").param("fields", "firstName"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"firstName\":\"George\"}", true));
+	}
+
+	@Test
+	void showOwnerWithVisitsOnly() throws Exception {
+		this.mockMvc.perform(get("/api/owners/6").param("fields", "pets.visits.description"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.pets[0].visits[*].description").value(contains("rabies shot", "neutered")))
+			.andExpect(jsonPath("$.pets[0].name").doesNotExist())
+			.andExpect(jsonPath("$.id").doesNotExist());
+	}
+
+	@Test
+	void listOwnersByPage() throws Exception {
+		String first = this.mockMvc.perform(get("/api/owners?fields=id&size=4"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"owners\":[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}]}"))
+			.andExpect(jsonPath("$.next").value(endsWith("/api/owners?fields=id&size=4&after=4")))
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+
+		this.mockMvc.perform(get(JsonPath.<String>read(first, "$.next")))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"owners\":[{\"id\":5},{\"id\":6},{\"id\":7},{\"id\":8}]}"));
+	}
+
+	@Test
+	void listOwnersByLastName() throws Exception {
+		this.mockMvc.perform(get("/api/owners").param("lastName", "Davis").param("fields", "id,pets.name"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"owners\":[{\"id\":2,\"pets\":[{\"name\":\"Basil\"}]},"
+					+ "{\"id\":4,\"pets\":[{\"name\":\"Iggy\"}]}],\"next\":null}", true));
+	}
+
+	@Test
+	void unchangedOwnerIsNotModified() throws Exception {
+		String etag = this.mockMvc.perform(get("/api/owners/1"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+
+		this.mockMvc.perform(get("/api/owners/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+		this.mockMvc.perform(get("/api/owners/1").param("fields", "id").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void unknownFieldIsRejected() throws Exception {
+		this.mockMvc.perform(get("/api/owners").param("fields", "id,pets.owner"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.detail").value("Unknown field: pets.owner"));
+	}
+
+	@Test
+	void unknownOwnerIsNotFound() throws Exception {
+		this.mockMvc.perform(get("/api/owners/9999")).andExpect(status().isNotFound());
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.cache.CacheManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Integration test for the second-level caching of owners, pets and visits, and its
+ * coherence with the changes made through {@link OwnerController}, {@link PetController}
+ * and {@link VisitController}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OwnerCachingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetTypeRepository types;
+
+	@Autowired
+	private CacheManager entityCacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private int ownerId;
+
+	private int petId;
+
+	@BeforeEach
+	void createOwner() {
+		Owner owner = new Owner();
+		owner.setFirstName("Grace");
+		owner.setLastName("Cachewell");
+		owner.setAddress("1 Region Road");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550199");
+		Pet pet = new Pet();
+		pet.setName("Lru");
+		pet.setBirthDate(LocalDate.of(2020, 1, 1));
+		pet.setType(this.types.findPetTypes().get(0));
+		owner.addPet(pet);
+		Owner saved = this.owners.save(owner);
+		this.ownerId = saved.getId();
+		this.petId = saved.getPets().get(0).getId();
+		this.entityManagerFactory.getCache().evictAll();
+	}
+
+	@AfterEach
+	void deleteOwner() {
+		query(em -> {
+			em.remove(em.find(Owner.class, this.ownerId));
+			return null;
+		});
+	}
+
+	@Test
+	void shouldCacheOwnerAndPets() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId)).andExpect(status().isOk());
+
+		assertThat(this.entityManagerFactory.getCache().contains(Owner.class, this.ownerId)).isTrue();
+		assertThat(this.entityManagerFactory.getCache().contains(Pet.class, this.petId)).isTrue();
+		assertThat(this.entityCacheManager.getCache("owners.pets").iterator().hasNext()).isTrue();
+	}
+
+	@Test
+	void shouldShowOwnerUpdatedThroughController() throws Exception {
+		showOwner();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", this.ownerId).param("firstName", "Grace")
+				.param("lastName", "Cachewell")
+				.param("address", "2 Region Road")
+				.param("city", "Madison")
+				.param("telephone", "6085550100"))
+			.andExpect(status().is3xxRedirection());
+
+		Owner owner = showOwner();
+		assertThat(owner.getAddress()).isEqualTo("2 Region Road");
+		assertThat(owner.getTelephone()).isEqualTo("6085550100");
+		assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Lru");
+	}
+
+	@Test
+	void shouldShowPetsAddedAndUpdatedThroughController() throws Exception {
+		showOwner();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/new", this.ownerId).param("name", "Arc")
+				.param("type", "dog")
+				.param("birthDate", "2021-06-01"))
+			.andExpect(status().is3xxRedirection());
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/edit", this.ownerId, this.petId)
+				.param("id", String.valueOf(this.petId))
+				.param("name", "Lfu")
+				.param("type", "cat")
+				.param("birthDate", "2020-01-01"))
+			.andExpect(status().is3xxRedirection());
+
+		Owner owner = showOwner();
+		assertThat(owner.getPets()).extracting(Pet::getName).containsExactlyInAnyOrder("Lfu", "Arc");
+		assertThat(owner.getPet(this.petId).getType().getName()).isEqualTo("cat");
+	}
+
+	@Test
+	void shouldShowVisitsAddedThroughController() throws Exception {
+		showOwner();
+		// cache the visits of the pet
+		assertThat(visitDescriptions()).isEmpty();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", this.ownerId, this.petId)
+				.param("date", LocalDate.now().toString())
+				.param("description", "checkup"))
+			.andExpect(status().is3xxRedirection());
+
+		assertThat(showOwner().getPet(this.petId).getVisitCount()).isEqualTo(1);
+		assertThat(visitDescriptions()).containsExactly("checkup");
+	}
+
+	@Test
+	void shouldEvictOnlyThePetOfAddedVisit() throws Exception {
+		showOwner();
+		this.mockMvc.perform(get("/owners/{ownerId}", 1)).andExpect(status().isOk());
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", this.ownerId, this.petId)
+				.param("date", LocalDate.now().toString())
+				.param("description", "checkup"))
+			.andExpect(status().is3xxRedirection());
+
+		assertThat(this.entityManagerFactory.getCache().contains(Pet.class, this.petId)).isFalse();
+		assertThat(this.entityManagerFactory.getCache().contains(Pet.class, 1)).isTrue();
+		assertThat(this.entityManagerFactory.getCache().contains(Owner.class, 1)).isTrue();
+	}
+
+	private Owner showOwner() throws Exception {
+		Object owner = this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId))
+			.andExpect(status().isOk())
+			.andReturn()
+			.getModelAndView()
+			.getModel()
+			.get("owner");
+		assertThat(owner).isInstanceOf(Owner.class);
+		return (Owner) owner;
+	}
+
+	private List<String> visitDescriptions() {
+		return query(em -> em.find(Pet.class, this.petId).getVisits().stream().map(Visit::getDescription).toList());
+	}
+
+	private <T> T query(Function<EntityManager, T> work) {
+		return new TransactionTemplate(this.transactionManager).execute(status -> work.apply(this.entityManager));
+	}
+
+}
@@ -23,7 +23,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -31,19 +34,25 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -68,6 +77,12 @@ class OwnerControllerTests {
 	@MockitoBean
 	private OwnerRepository owners;
 
+	@MockitoBean
+	private VisitRepository visits;
+
+	@MockitoBean
+	private ArchivedVisitRepository archivedVisits;
+
 	private Owner george() {
 		Owner george = new Owner();
 		george.setId(TEST_OWNER_ID);
@@ -76,6 +91,7 @@ class OwnerControllerTests {
 		george.setAddress("110 W. Liberty St.");
 		george.setCity("Madison");
 		george.setTelephone("6085551023");
+		george.setVersion(0);
 		Pet max = new Pet();
 		PetType dog = new PetType();
 		dog.setName("dog");
@@ -98,6 +114,9 @@ class OwnerControllerTests {
 		Visit visit = new Visit();
 		visit.setDate(LocalDate.now());
 		george.getPet("Max").getVisits().add(visit);
+		Slice<Visit> recentVisits = new SliceImpl<>(List.of(visit), PageRequest.of(0, 1), true);
+		given(this.visits.findFirstPageByPetIds(eq(List.of(1)), anyInt())).willReturn(Map.of(1, recentVisits));
+		given(this.visits.findByPetIdNewestFirst(eq(1), any(Pageable.class))).willReturn(recentVisits);
 
 	}
 
@@ -199,6 +218,16 @@ class OwnerControllerTests {
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
 	}
 
+	@Test
+	void testProcessUpdateOwnerFormWithoutVersion() throws Exception {
+		mockMvc.perform(post("/owners/{ownerId}/edit", TEST_OWNER_ID).param("version", ""))
+			.andExpect(status().isOk())
+			.andExpect(model().attributeHasErrors("owner"))
+			.andExpect(view().name("owners/createOrUpdateOwnerForm"));
+
+		then(this.owners).should(never()).save(any(Owner.class));
+	}
+
 	@Test
 	void testProcessUpdateOwnerFormHasErrors() throws Exception {
 		mockMvc
@@ -225,9 +254,31 @@ class OwnerControllerTests {
 			.andExpect(model().attribute("owner", hasProperty("pets", not(empty()))))
 			.andExpect(model().attribute("owner",
 					hasProperty("pets", hasItem(hasProperty("visits", hasSize(greaterThan(0)))))))
+			.andExpect(model().attribute("recentVisits", hasKey(1)))
+			.andExpect(content().string(containsString("/owners/1/pets/1/visits?page=2")))
 			.andExpect(view().name("owners/ownerDetails"));
 	}
 
+	@Test
+	void testShowVisits() throws Exception {
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", TEST_OWNER_ID, 1).param("page", "2"))
+			.andExpect(status().isOk())
+			.andExpect(model().attributeExists("visits"))
+			.andExpect(view().name("owners/ownerDetails :: visitRows"));
+	}
+
+	@Test
+	void testShowArchivedVisits() throws Exception {
+		given(this.archivedVisits.findByPetIdNewestFirst(eq(1), any(Pageable.class)))
+			.willReturn(new SliceImpl<>(List.of(), PageRequest.of(1, 5), false));
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/archive", TEST_OWNER_ID, 1).param("page", "2"))
+			.andExpect(status().isOk())
+			.andExpect(model().attributeExists("visits"))
+			.andExpect(content().string(containsString("/owners/1/pets/1/visits/archive?page=1")))
+			.andExpect(view().name("owners/archivedVisits"));
+		then(this.archivedVisits).should().findByPetIdNewestFirst(1, PageRequest.of(1, 5));
+	}
+
 	@Test
 	public void testProcessUpdateOwnerFormWithIdMismatch() throws Exception {
 		int pathOwnerId = 1;
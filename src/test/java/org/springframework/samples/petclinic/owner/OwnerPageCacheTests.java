@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Tests for {@link OwnerPageCache}.
+ */
+class OwnerPageCacheTests {
+
+	private static final int VERSION = 3;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final OwnerPageCache cache = new OwnerPageCache(new ConcurrentMapCache(OwnerPageCache.CACHE_NAME),
+			this.registry);
+
+	@Test
+	void pagesAreCachedByOwnerAndLocale() {
+		this.cache.put(1, Locale.ENGLISH, page("Owner"), this.cache.generation());
+		this.cache.put(1, Locale.GERMAN, page("Besitzer"), this.cache.generation());
+
+		assertThat(this.cache.get(1, Locale.ENGLISH, VERSION).body()).asString(StandardCharsets.UTF_8)
+			.isEqualTo("Owner");
+		assertThat(this.cache.get(1, Locale.GERMAN, VERSION).body()).asString(StandardCharsets.UTF_8)
+			.isEqualTo("Besitzer");
+		assertThat(this.cache.get(1, Locale.FRENCH, VERSION)).isNull();
+		assertThat(this.cache.get(2, Locale.ENGLISH, VERSION)).isNull();
+	}
+
+	@Test
+	void evictingAnOwnerEvictsItsPagesInAllLocales() {
+		this.cache.put(1, Locale.ENGLISH, page("Owner"), this.cache.generation());
+		this.cache.put(1, Locale.GERMAN, page("Besitzer"), this.cache.generation());
+		this.cache.put(2, Locale.ENGLISH, page("Other"), this.cache.generation());
+
+		this.cache.evict(1);
+
+		assertThat(this.cache.get(1, Locale.ENGLISH, VERSION)).isNull();
+		assertThat(this.cache.get(1, Locale.GERMAN, VERSION)).isNull();
+		assertThat(this.cache.get(2, Locale.ENGLISH, VERSION)).isNotNull();
+	}
+
+	@Test
+	void pagesRenderedBeforeAnEvictionAreNotCached() {
+		long generation = this.cache.generation();
+		this.cache.evict(1);
+
+		this.cache.put(1, Locale.ENGLISH, page("Stale"), generation);
+
+		assertThat(this.cache.get(1, Locale.ENGLISH, VERSION)).isNull();
+	}
+
+	@Test
+	void pagesAreOnlyServedForTheVersionTheyRender() {
+		this.cache.put(1, Locale.ENGLISH, page("Owner"), this.cache.generation());
+
+		assertThat(this.cache.get(1, Locale.ENGLISH, VERSION + 1)).isNull();
+		assertThat(this.cache.get(1, Locale.ENGLISH, null)).isNull();
+		assertThat(this.cache.get(1, Locale.ENGLISH, VERSION)).isNotNull();
+		assertThat(this.registry.get("owner.page.cache.requests").tag("result", "miss").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void hitsAndSavedRenderingTimeAreRecorded() {
+		this.cache.put(1, Locale.ENGLISH, new OwnerPageCache.Page(new byte[0], "text/html", VERSION, 2_000_000), 0);
+		this.cache.get(1, Locale.ENGLISH, VERSION);
+		this.cache.get(1, Locale.ENGLISH, VERSION);
+		this.cache.get(2, Locale.ENGLISH, VERSION);
+		this.cache.bypassed();
+
+		assertThat(this.registry.get("owner.page.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+		assertThat(this.registry.get("owner.page.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+		assertThat(this.registry.get("owner.page.cache.requests").tag("result", "bypass").counter().count())
+			.isEqualTo(1);
+		assertThat(this.registry.get("owner.page.cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 3);
+		assertThat(this.registry.get("owner.page.render.saved").functionCounter().count()).isEqualTo(0.004);
+		assertThat(this.registry.get("owner.page.render").timer().count()).isEqualTo(1);
+	}
+
+	private static OwnerPageCache.Page page(String html) {
+		return new OwnerPageCache.Page(html.getBytes(StandardCharsets.UTF_8), "text/html;charset=UTF-8", VERSION,
+				1_000_000);
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration test for the caching of rendered owner details pages by
+ * {@link OwnerPageCacheFilter}, and their eviction when the owner, its pets or their
+ * visits are written through the controllers.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OwnerPageCachingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetTypeRepository types;
+
+	private int ownerId;
+
+	private int petId;
+
+	@BeforeEach
+	void createOwner() {
+		Owner owner = new Owner();
+		owner.setFirstName("Page");
+		owner.setLastName("Renderwell");
+		owner.setAddress("1 Template Road");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550199");
+		Pet pet = new Pet();
+		pet.setName("Fragment");
+		pet.setBirthDate(LocalDate.of(2020, 1, 1));
+		pet.setType(this.types.findPetTypes().get(0));
+		owner.addPet(pet);
+		Owner saved = this.owners.save(owner);
+		this.ownerId = saved.getId();
+		this.petId = saved.getPets().get(0).getId();
+	}
+
+	@AfterEach
+	void deleteOwner() {
+		this.owners.deleteById(this.ownerId);
+	}
+
+	@Test
+	void shouldServeRepeatedRequestsFromTheCache() throws Exception {
+		MvcResult rendered = showOwner();
+		MvcResult cached = showOwner();
+
+		assertThat(rendered.getModelAndView()).isNotNull();
+		assertThat(cached.getModelAndView()).isNull();
+		assertThat(cached.getResponse().getContentAsString()).isEqualTo(rendered.getResponse().getContentAsString());
+		assertThat(cached.getResponse().getContentType()).isEqualTo(rendered.getResponse().getContentType());
+	}
+
+	@Test
+	void shouldCachePagesByLocale() throws Exception {
+		showOwner();
+
+		MvcResult german = this.mockMvc
+			.perform(get("/owners/{ownerId}", this.ownerId).cookie(new Cookie("locale", "de")))
+			.andExpect(status().isOk())
+			.andReturn();
+
+		assertThat(german.getModelAndView()).isNotNull();
+		assertThat(german.getResponse().getContentAsString()).contains("Besitzer");
+		assertThat(showOwner().getResponse().getContentAsString()).doesNotContain("Besitzer");
+	}
+
+	@Test
+	void shouldShowOwnerUpdatedThroughController() throws Exception {
+		showOwner();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", this.ownerId).param("id", String.valueOf(this.ownerId))
+				.param("firstName", "Page")
+				.param("lastName", "Renderwell")
+				.param("address", "2 Template Road")
+				.param("city", "Madison")
+				.param("telephone", "6085550199"))
+			.andExpect(status().is3xxRedirection());
+
+		assertThat(showOwner().getResponse().getContentAsString()).contains("2 Template Road");
+	}
+
+	@Test
+	void shouldShowPetsAddedAndUpdatedThroughController() throws Exception {
+		showOwner();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/new", this.ownerId).param("name", "Partial")
+				.param("type", "dog")
+				.param("birthDate", "2021-06-01"))
+			.andExpect(status().is3xxRedirection());
+		assertThat(showOwner().getResponse().getContentAsString()).contains("Partial");
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/edit", this.ownerId, this.petId)
+				.param("id", String.valueOf(this.petId))
+				.param("name", "Layout")
+				.param("type", "cat")
+				.param("birthDate", "2020-01-01"))
+			.andExpect(status().is3xxRedirection());
+		assertThat(showOwner().getResponse().getContentAsString()).contains("Layout").doesNotContain("Fragment");
+	}
+
+	@Test
+	void shouldShowVisitsAddedThroughController() throws Exception {
+		showOwner();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", this.ownerId, this.petId)
+				.param("date", LocalDate.now().toString())
+				.param("description", "cache checkup"))
+			.andExpect(status().is3xxRedirection());
+
+		assertThat(showOwner().getResponse().getContentAsString()).contains("cache checkup");
+	}
+
+	@Test
+	void shouldNotCachePagesWithFlashMessages() throws Exception {
+		MvcResult redirect = this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", this.ownerId).param("id", String.valueOf(this.ownerId))
+				.param("firstName", "Page")
+				.param("lastName", "Renderwell")
+				.param("address", "1 Template Road")
+				.param("city", "Madison")
+				.param("telephone", "6085550199"))
+			.andExpect(status().is3xxRedirection())
+			.andReturn();
+		Cookie flash = redirect.getResponse().getCookie("flash");
+		assertThat(flash).isNotNull();
+		showOwner();
+
+		MvcResult withMessage = this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId).cookie(flash))
+			.andExpect(status().isOk())
+			.andReturn();
+		assertThat(withMessage.getModelAndView()).isNotNull();
+		assertThat(withMessage.getResponse().getContentAsString()).contains("Owner Values Updated");
+
+		MvcResult cached = showOwner();
+		assertThat(cached.getModelAndView()).isNull();
+		assertThat(cached.getResponse().getContentAsString()).doesNotContain("Owner Values Updated");
+	}
+
+	private MvcResult showOwner() throws Exception {
+		return this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId)).andExpect(status().isOk()).andReturn();
+	}
+
+}
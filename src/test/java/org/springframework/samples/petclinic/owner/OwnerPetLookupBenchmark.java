@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Microbenchmark for the pet lookups of {@link Owner}, compared with the linear scan they
+ * replace. Run with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerPetLookupBenchmark {
+
+	@Param({ "10", "1000", "5000" })
+	private int petCount;
+
+	private Owner owner;
+
+	private int lastPetId;
+
+	private String lastPetName;
+
+	@Setup
+	public void setup() {
+		this.owner = new Owner();
+		for (int i = 1; i <= this.petCount; i++) {
+			Pet pet = new Pet();
+			pet.setName("Pet " + i);
+			this.owner.addPet(pet);
+			pet.setId(i);
+		}
+		this.lastPetId = this.petCount;
+		this.lastPetName = "PET " + this.petCount;
+	}
+
+	@Benchmark
+	public Pet indexedLookupById() {
+		return this.owner.getPet(this.lastPetId);
+	}
+
+	@Benchmark
+	public Pet indexedLookupByName() {
+		return this.owner.getPet(this.lastPetName, false);
+	}
+
+	@Benchmark
+	public Pet indexedDuplicateNameCheck() {
+		return this.owner.getPet("No such pet", true);
+	}
+
+	@Benchmark
+	public Pet linearScanById() {
+		for (Pet pet : this.owner.getPets()) {
+			if (!pet.isNew() && pet.getId().equals(this.lastPetId)) {
+				return pet;
+			}
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Pet linearScanByName() {
+		for (Pet pet : this.owner.getPets()) {
+			if (pet.getName() != null && pet.getName().equalsIgnoreCase(this.lastPetName)) {
+				return pet;
+			}
+		}
+		return null;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(OwnerPetLookupBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
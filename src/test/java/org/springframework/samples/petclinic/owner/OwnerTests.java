@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the pet lookups of {@link Owner}.
+ */
+class OwnerTests {
+
+	private Pet addPet(Owner owner, Integer id, String name) {
+		Pet pet = new Pet();
+		pet.setName(name);
+		owner.addPet(pet);
+		pet.setId(id);
+		return pet;
+	}
+
+	@Test
+	void shouldFindPetsByIdAndCaseInsensitiveName() {
+		Owner owner = new Owner();
+		Pet leo = addPet(owner, 1, "Leo");
+		Pet basil = addPet(owner, 2, "Basil");
+
+		assertThat(owner.getPet(1)).isSameAs(leo);
+		assertThat(owner.getPet(2)).isSameAs(basil);
+		assertThat(owner.getPet(3)).isNull();
+		assertThat(owner.getPet((Integer) null)).isNull();
+		assertThat(owner.getPet("LEO")).isSameAs(leo);
+		assertThat(owner.getPet("basil", true)).isSameAs(basil);
+		assertThat(owner.getPet("Max")).isNull();
+	}
+
+	@Test
+	void shouldSeePetsAddedAfterLookup() {
+		Owner owner = new Owner();
+		addPet(owner, 1, "Leo");
+		assertThat(owner.getPet("Rosy")).isNull();
+
+		Pet rosy = new Pet();
+		rosy.setName("Rosy");
+		owner.addPet(rosy);
+
+		assertThat(owner.getPet("rosy")).isSameAs(rosy);
+		assertThat(owner.getPet("rosy", true)).isNull();
+
+		// simulate the id being assigned on save
+		rosy.setId(7);
+		assertThat(owner.getPet(7)).isSameAs(rosy);
+		assertThat(owner.getPet("rosy", true)).isSameAs(rosy);
+	}
+
+	@Test
+	void shouldFollowRenames() {
+		Owner owner = new Owner();
+		Pet leo = addPet(owner, 1, "Leo");
+		assertThat(owner.getPet("Leo")).isSameAs(leo);
+
+		leo.setName("Leonardo");
+
+		assertThat(owner.getPet("Leo")).isNull();
+		assertThat(owner.getPet("leonardo")).isSameAs(leo);
+	}
+
+	@Test
+	void shouldReturnFirstPetInListOrderForDuplicateNames() {
+		Owner owner = new Owner();
+		Pet saved = addPet(owner, 1, "Leo");
+		Pet unsaved = new Pet();
+		unsaved.setName("leo");
+		owner.addPet(unsaved);
+
+		assertThat(owner.getPets()).containsExactly(saved, unsaved);
+		assertThat(owner.getPet("LEO", false)).isSameAs(saved);
+		assertThat(owner.getPet("LEO", true)).isSameAs(saved);
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.LocalDate;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Integration test for the version of owners: the ETags of the owner details page and of
+ * the owners API, and the rejection of updates made from an outdated form.
+ */
+@SpringBootTest(properties = "warmup.enabled=false")
+@AutoConfigureMockMvc
+class OwnerVersioningTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetTypeRepository types;
+
+	@Autowired
+	private VisitArchiveJob archiveJob;
+
+	private int ownerId;
+
+	private int petId;
+
+	@BeforeEach
+	void createOwner() {
+		Owner owner = new Owner();
+		owner.setFirstName("Vera");
+		owner.setLastName("Versioned");
+		owner.setAddress("1 Revision Road");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550142");
+		Pet pet = new Pet();
+		pet.setName("Etag");
+		pet.setBirthDate(LocalDate.of(2020, 1, 1));
+		pet.setType(this.types.findPetTypes().get(0));
+		owner.addPet(pet);
+		Owner saved = this.owners.save(owner);
+		this.ownerId = saved.getId();
+		this.petId = saved.getPets().get(0).getId();
+	}
+
+	@AfterEach
+	void deleteOwner() {
+		this.owners.deleteById(this.ownerId);
+	}
+
+	@Test
+	void ownerPageIsNotModifiedWhileTheVersionIsCurrent() throws Exception {
+		String etag = pageETag();
+		assertThat(etag).startsWith("W/\"" + version() + "-en-");
+
+		this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, etag))
+			.andExpect(content().string(""));
+		this.mockMvc
+			.perform(get("/owners/{ownerId}", this.ownerId).header(HttpHeaders.IF_NONE_MATCH, etag)
+				.cookie(new Cookie("locale", "de")))
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void versionCoversPetsAndVisits() throws Exception {
+		int created = version();
+		String etag = pageETag();
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/edit", this.ownerId, this.petId)
+				.param("id", String.valueOf(this.petId))
+				.param("name", "Revised")
+				.param("type", "cat")
+				.param("birthDate", "2020-01-02"))
+			.andExpect(status().is3xxRedirection());
+		int petEdited = version();
+		assertThat(petEdited).isGreaterThan(created);
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", this.ownerId, this.petId)
+				.param("date", LocalDate.now().toString())
+				.param("description", "version checkup"))
+			.andExpect(status().is3xxRedirection());
+		assertThat(version()).isGreaterThan(petEdited);
+
+		this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("version checkup")));
+
+		// the owner as cached after the increments can still be updated
+		this.mockMvc.perform(updateOwner("Current", version())).andExpect(status().is3xxRedirection());
+		assertThat(this.owners.findById(this.ownerId)).get().extracting(Owner::getFirstName).isEqualTo("Current");
+	}
+
+	@Test
+	void archivedVisitsLeaveTheCachedPage() throws Exception {
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", this.ownerId, this.petId)
+				.param("date", "2001-01-01")
+				.param("description", "ancient checkup"))
+			.andExpect(status().is3xxRedirection());
+		String etag = pageETag();
+		// served from the page cache
+		this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("ancient checkup")));
+
+		assertThat(this.archiveJob.archiveVisitsBefore(LocalDate.of(2002, 1, 1))).isPositive();
+
+		this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+			.andExpect(content().string(not(containsString("ancient checkup"))));
+	}
+
+	@Test
+	void updateFromOutdatedFormIsRejected() throws Exception {
+		int formVersion = version();
+		this.mockMvc.perform(updateOwner("First", formVersion)).andExpect(status().is3xxRedirection());
+
+		this.mockMvc.perform(updateOwner("Second", formVersion))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/createOrUpdateOwnerForm"))
+			.andExpect(model().attributeHasErrors("owner"))
+			.andExpect(content().string(containsString("changed by someone else")));
+
+		assertThat(this.owners.findById(this.ownerId)).get().extracting(Owner::getFirstName).isEqualTo("First");
+	}
+
+	@Test
+	void apiOwnerIsNotModifiedWhileTheVersionIsCurrent() throws Exception {
+		String etag = this.mockMvc.perform(get("/api/owners/{ownerId}", this.ownerId).param("fields", "firstName"))
+			.andExpect(status().isOk())
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("W/\"" + version() + "-");
+
+		this.mockMvc
+			.perform(get("/api/owners/{ownerId}", this.ownerId).param("fields", "firstName")
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+		this.mockMvc
+			.perform(get("/api/owners/{ownerId}", this.ownerId).param("fields", "lastName")
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk());
+
+		this.mockMvc.perform(updateOwner("Changed", version())).andExpect(status().is3xxRedirection());
+		this.mockMvc
+			.perform(get("/api/owners/{ownerId}", this.ownerId).param("fields", "firstName")
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"firstName\":\"Changed\"}", true));
+	}
+
+	@Test
+	void apiPageIsNotModifiedWhileTheVersionsAreCurrent() throws Exception {
+		String etag = this.mockMvc.perform(get("/api/owners").param("lastName", "Versioned").param("fields", "id"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+			.andExpect(content().json("{\"owners\":[{\"id\":" + this.ownerId + "}],\"next\":null}", true))
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+
+		this.mockMvc
+			.perform(get("/api/owners").param("lastName", "Versioned")
+				.param("fields", "id")
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+
+		// the page lists the same ids, but the owner changed
+		this.mockMvc.perform(updateOwner("Changed", version())).andExpect(status().is3xxRedirection());
+		this.mockMvc
+			.perform(get("/api/owners").param("lastName", "Versioned")
+				.param("fields", "id")
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+	}
+
+	private MockHttpServletRequestBuilder updateOwner(String firstName, int version) {
+		return post("/owners/{ownerId}/edit", this.ownerId).param("id", String.valueOf(this.ownerId))
+			.param("version", String.valueOf(version))
+			.param("firstName", firstName)
+			.param("lastName", "Versioned")
+			.param("address", "1 Revision Road")
+			.param("city", "Madison")
+			.param("telephone", "6085550142");
+	}
+
+	private String pageETag() throws Exception {
+		return this.mockMvc.perform(get("/owners/{ownerId}", this.ownerId))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+	}
+
+	private int version() {
+		return this.owners.findVersionById(this.ownerId).orElseThrow();
+	}
+
+}
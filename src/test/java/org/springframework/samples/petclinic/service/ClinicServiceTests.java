@@ -18,8 +18,11 @@ package org.springframework.samples.petclinic.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -28,13 +31,20 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.samples.petclinic.owner.ArchivedVisit;
+import org.springframework.samples.petclinic.owner.ArchivedVisitRepository;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
 import org.springframework.samples.petclinic.owner.PetTypeRepository;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.owner.PetType;
 import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitArchiveJob;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.owner.VisitSummaryRepairJob;
 import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.samples.petclinic.vet.VetRepository;
 import org.springframework.transaction.annotation.Transactional;
@@ -82,6 +92,12 @@ class ClinicServiceTests {
 	@Autowired
 	protected VetRepository vets;
 
+	@Autowired
+	protected VisitRepository visits;
+
+	@Autowired
+	protected ArchivedVisitRepository archivedVisits;
+
 	Pageable pageable;
 
 	@Test
@@ -248,4 +264,95 @@ class ClinicServiceTests {
 			.isNotNull();
 	}
 
+	@Test
+	void shouldFindVisitsByPetIdNewestFirstInPages() {
+		Slice<Visit> first = this.visits.findByPetIdNewestFirst(7, PageRequest.of(0, 1));
+		assertThat(first.getContent()).singleElement().extracting(Visit::getDate).isEqualTo(LocalDate.of(2013, 1, 4));
+		assertThat(first.hasNext()).isTrue();
+
+		Slice<Visit> second = this.visits.findByPetIdNewestFirst(7, first.nextPageable());
+		assertThat(second.getContent()).singleElement().extracting(Visit::getDate).isEqualTo(LocalDate.of(2013, 1, 1));
+		assertThat(second.hasNext()).isFalse();
+	}
+
+	@Test
+	void shouldFindFirstPageOfVisitsOfSeveralPetsAtOnce() {
+		Map<Integer, Slice<Visit>> pages = this.visits.findFirstPageByPetIds(List.of(1, 7, 8), 1);
+
+		assertThat(pages).containsOnlyKeys(1, 7, 8);
+		assertThat(pages.get(1).getContent()).isEmpty();
+		assertThat(pages.get(1).hasNext()).isFalse();
+		assertThat(pages.get(7).getContent()).singleElement()
+			.extracting(Visit::getDate)
+			.isEqualTo(LocalDate.of(2013, 1, 4));
+		assertThat(pages.get(7).hasNext()).isTrue();
+		assertThat(pages.get(8).getContent()).singleElement()
+			.extracting(Visit::getDate)
+			.isEqualTo(LocalDate.of(2013, 1, 3));
+		assertThat(pages.get(8).hasNext()).isTrue();
+	}
+
+	@Test
+	void shouldMaintainVisitSummaryWhenAddingVisit() {
+		Pet pet7 = this.owners.findById(6).get().getPet(7);
+		assertThat(pet7.getVisitCount()).isEqualTo(2);
+		assertThat(pet7.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+		assertThat(pet7.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+
+		Visit visit = new Visit();
+		visit.setDate(LocalDate.of(2020, 5, 1));
+		visit.setDescription("check-up");
+		pet7.addVisit(visit);
+		this.visits.addVisit(visit);
+
+		pet7 = this.owners.findById(6).get().getPet(7);
+		assertThat(pet7.getVisitCount()).isEqualTo(3);
+		assertThat(pet7.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+		assertThat(pet7.getLastVisitDate()).isEqualTo(LocalDate.of(2020, 5, 1));
+	}
+
+	@Test
+	void shouldRepairVisitSummaries() {
+		// Leo has no visits, so this summary has drifted from the visits table
+		this.visits.recordVisit(1, LocalDate.of(2020, 5, 1));
+		assertThat(this.owners.findById(1).get().getPet(1).getVisitCount()).isEqualTo(1);
+
+		int repaired = new VisitSummaryRepairJob(this.visits, 5).repairAll();
+
+		assertThat(repaired).isEqualTo(13);
+		Pet leo = this.owners.findById(1).get().getPet(1);
+		assertThat(leo.getVisitCount()).isZero();
+		assertThat(leo.getLastVisitDate()).isNull();
+		Pet pet7 = this.owners.findById(6).get().getPet(7);
+		assertThat(pet7.getVisitCount()).isEqualTo(2);
+		assertThat(pet7.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+		assertThat(pet7.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+	}
+
+	@Test
+	void shouldArchiveOldVisitsAndReadThemOnlyOnRequest() {
+		int version = this.owners.findVersionById(6).orElseThrow();
+		int otherVersion = this.owners.findVersionById(1).orElseThrow();
+
+		int archived = new VisitArchiveJob(this.visits, 5, 1, Duration.ZERO)
+			.archiveVisitsBefore(LocalDate.of(2013, 1, 3));
+
+		assertThat(archived).isEqualTo(2);
+		assertThat(this.visits.findByPetIdNewestFirst(7, PageRequest.of(0, 5)).getContent()).extracting(Visit::getDate)
+			.containsExactly(LocalDate.of(2013, 1, 4));
+		assertThat(this.archivedVisits.findByPetIdNewestFirst(7, PageRequest.of(0, 5)).getContent())
+			.extracting(ArchivedVisit::getDate)
+			.containsExactly(LocalDate.of(2013, 1, 1));
+		// the owner of the pets whose visits were archived has a new version
+		assertThat(this.owners.findVersionById(6).orElseThrow()).isGreaterThan(version);
+		assertThat(this.owners.findVersionById(1)).contains(otherVersion);
+
+		// the summary covers the full history, archived visits included
+		new VisitSummaryRepairJob(this.visits, 5).repairAll();
+		Pet pet7 = this.owners.findById(6).get().getPet(7);
+		assertThat(pet7.getVisitCount()).isEqualTo(2);
+		assertThat(pet7.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+		assertThat(pet7.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+	}
+
 }
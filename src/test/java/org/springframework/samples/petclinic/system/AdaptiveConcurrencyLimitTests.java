@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link AdaptiveConcurrencyLimit}
+ */
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, Duration.ofMillis(100));
+
+	@Test
+	void shouldRejectBeyondLimit() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(this.limit.tryAcquire()).isTrue();
+		}
+		assertThat(this.limit.tryAcquire()).isFalse();
+		assertThat(this.limit.isSaturated()).isTrue();
+
+		this.limit.release(0, 10 * MILLIS);
+
+		assertThat(this.limit.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void shouldRaiseLimitWhileBusyAndFast() {
+		long now = System.nanoTime();
+		for (int round = 0; round < 5; round++) {
+			int limit = this.limit.getLimit();
+			for (int i = 0; i < limit; i++) {
+				this.limit.tryAcquire();
+			}
+			for (int i = 0; i < limit; i++) {
+				this.limit.release(now, now + 10 * MILLIS);
+			}
+		}
+		int raised = this.limit.getLimit();
+		assertThat(raised).isGreaterThan(10);
+
+		// one request at a time is no evidence that more could be served
+		for (int i = 0; i < 100; i++) {
+			this.limit.tryAcquire();
+			this.limit.release(now, now + 10 * MILLIS);
+		}
+		assertThat(this.limit.getLimit()).isEqualTo(raised);
+	}
+
+	@Test
+	void shouldLowerLimitOncePerRoundOfSlowRequests() {
+		long now = System.nanoTime();
+		for (int i = 0; i < 10; i++) {
+			this.limit.tryAcquire();
+		}
+		// all admitted before the first one was found slow
+		for (int i = 0; i < 10; i++) {
+			this.limit.release(now, now + 500 * MILLIS);
+		}
+		assertThat(this.limit.getLimit()).isEqualTo(9);
+
+		for (int round = 1; round < 20; round++) {
+			this.limit.tryAcquire();
+			long start = now + round * 600 * MILLIS;
+			this.limit.release(start, start + 500 * MILLIS);
+		}
+		assertThat(this.limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldRejectInconsistentBounds() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(1, 2, 20, Duration.ZERO));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(30, 2, 20, Duration.ZERO));
+	}
+
+}
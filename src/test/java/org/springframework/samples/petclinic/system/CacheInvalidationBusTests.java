@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Test class for {@link CacheInvalidationBus}
+ */
+class CacheInvalidationBusTests {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000);
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final List<List<CacheInvalidation>> published = new ArrayList<>();
+
+	private RuntimeException publishFailure;
+
+	private CacheInvalidationTransport.Subscriber subscriber;
+
+	private BroadcastingCaffeineCacheManager cacheManager;
+
+	private CacheInvalidationBus bus;
+
+	@BeforeEach
+	void createBus() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		this.cacheManager = new BroadcastingCaffeineCacheManager(
+				beanFactory.getBeanProvider(CacheInvalidationBus.class));
+		this.cacheManager.registerCustomCache("vets", Caffeine.newBuilder().build());
+		this.cacheManager.registerCustomCache("vetPages", Caffeine.newBuilder().build());
+		this.bus = new CacheInvalidationBus(this.cacheManager, new CacheInvalidationTransport() {
+
+			@Override
+			public void publish(List<CacheInvalidation> invalidations) {
+				if (publishFailure != null) {
+					throw publishFailure;
+				}
+				published.add(invalidations);
+			}
+
+			@Override
+			public void subscribe(Subscriber subscriber) {
+				CacheInvalidationBusTests.this.subscriber = subscriber;
+			}
+
+		}, Duration.ofSeconds(30), this.registry, this.clock::get);
+		beanFactory.registerSingleton("cacheInvalidationBus", this.bus);
+	}
+
+	@Test
+	void shouldPublishCoalescedEvictionsOnFlush() {
+		cache("vetPages").evict("0:5");
+		cache("vetPages").evict("0:5");
+		cache("vetPages").evictIfPresent("1:5");
+		cache("vets").evict("a");
+		cache("vets").clear();
+		assertThat(this.published).isEmpty();
+
+		this.bus.flush();
+
+		assertThat(this.published).hasSize(1);
+		assertThat(this.published.get(0)).extracting(CacheInvalidation::cacheName, CacheInvalidation::key)
+			.containsExactly(tuple("vets", null), tuple("vetPages", "0:5"), tuple("vetPages", "1:5"));
+		this.bus.flush();
+		assertThat(this.published).hasSize(1);
+	}
+
+	@Test
+	void shouldClearWhenKeyIsNotAString() {
+		cache("vets").evict(SimpleKey.EMPTY);
+
+		this.bus.flush();
+
+		assertThat(this.published.get(0)).singleElement().satisfies(invalidation -> {
+			assertThat(invalidation.cacheName()).isEqualTo("vets");
+			assertThat(invalidation.isClear()).isTrue();
+		});
+	}
+
+	@Test
+	void shouldRetryAfterPublishFailure() {
+		cache("vetPages").evict("0:5");
+		this.publishFailure = new DataAccessResourceFailureException("down");
+
+		this.bus.flush();
+		this.publishFailure = null;
+		this.bus.flush();
+
+		assertThat(this.published).singleElement().satisfies(batch -> assertThat(batch).hasSize(1));
+	}
+
+	@Test
+	void shouldApplyEvictionsFromOtherInstancesWithoutPublishingThem() {
+		cache("vetPages").put("0:5", "page");
+		cache("vetPages").put("1:5", "page");
+		cache("vets").put(SimpleKey.EMPTY, "vets");
+
+		this.clock.addAndGet(250);
+		this.subscriber.receive(List.of(new CacheInvalidation("peer", "vetPages", "0:5", this.clock.get() - 250),
+				new CacheInvalidation("peer", "vets", null, this.clock.get() - 50),
+				new CacheInvalidation("peer", "unknown", null, this.clock.get())));
+		this.bus.flush();
+
+		assertThat(cache("vetPages").get("0:5")).isNull();
+		assertThat(cache("vetPages").get("1:5")).isNotNull();
+		assertThat(cache("vets").get(SimpleKey.EMPTY)).isNull();
+		assertThat(this.published).isEmpty();
+		assertThat(this.cacheManager.getCacheNames()).containsExactlyInAnyOrder("vets", "vetPages");
+		assertThat(this.registry.get("cache.invalidation.received").counter().count()).isEqualTo(3);
+		assertThat(this.registry.get("cache.invalidation.staleness").timer().max(TimeUnit.MILLISECONDS)).isEqualTo(250);
+	}
+
+	@Test
+	void shouldIgnoreOwnEvictions() {
+		cache("vetPages").put("0:5", "page");
+
+		this.subscriber.receive(List.of(new CacheInvalidation(this.bus.origin(), "vetPages", "0:5", this.clock.get())));
+
+		assertThat(cache("vetPages").get("0:5")).isNotNull();
+	}
+
+	@Test
+	void shouldBypassCachesWhileOutOfSync() {
+		cache("vetPages").put("0:5", "page");
+		this.clock.addAndGet(Duration.ofSeconds(20).toMillis());
+		this.bus.flush();
+		assertThat(cache("vetPages").get("0:5")).isNotNull();
+
+		this.clock.addAndGet(Duration.ofSeconds(20).toMillis());
+		this.bus.flush();
+		assertThat(cache("vetPages").get("0:5")).isNull();
+		assertThat(this.registry.get("cache.invalidation.sync.age").gauge().value()).isEqualTo(40);
+
+		this.subscriber.receive(List.of());
+		cache("vetPages").put("0:5", "page");
+		this.bus.flush();
+		assertThat(cache("vetPages").get("0:5")).isNotNull();
+	}
+
+	@Test
+	void shouldClearCachesOnResynchronize() {
+		cache("vetPages").put("0:5", "page");
+
+		this.subscriber.resynchronize();
+
+		assertThat(cache("vetPages").get("0:5")).isNull();
+		this.bus.flush();
+		assertThat(this.published).isEmpty();
+	}
+
+	private Cache cache(String name) {
+		return this.cacheManager.getCache(name);
+	}
+
+}
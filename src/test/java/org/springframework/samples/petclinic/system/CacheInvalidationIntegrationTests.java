@@ -0,0 +1,175 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test for {@link CacheInvalidationBus}, with two instances of the
+ * application sharing one database through the polled change-log table, for both the
+ * application caches and the second-level cache.
+ */
+class CacheInvalidationIntegrationTests {
+
+	private static ConfigurableApplicationContext first;
+
+	private static ConfigurableApplicationContext second;
+
+	@BeforeAll
+	static void startInstances() {
+		first = startInstance();
+		second = startInstance();
+	}
+
+	@AfterAll
+	static void stopInstances() {
+		second.close();
+		first.close();
+	}
+
+	private static ConfigurableApplicationContext startInstance() {
+		return new SpringApplicationBuilder(PetClinicApplication.class).run("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:cache-invalidation;DB_CLOSE_DELAY=-1",
+				"--cache.invalidation.enabled=true", "--cache.invalidation.flush-interval=20ms",
+				"--cache.invalidation.poll-interval=50ms", "--warmup.enabled=false");
+	}
+
+	@Test
+	void shouldApplyEvictionsOnOtherInstance() throws InterruptedException {
+		assertThat(vetsPage(second)).contains("James");
+		assertThat(second.getBean(CacheManager.class).getCache("vets").get(SimpleKey.EMPTY)).isNotNull();
+
+		renameVet(first, 1, "Jimmy");
+		try {
+			awaitTrue(() -> second.getBean(CacheManager.class).getCache("vets").get(SimpleKey.EMPTY) == null);
+			assertThat(vetsPage(second)).contains("Jimmy");
+			MeterRegistry registry = second.getBean(MeterRegistry.class);
+			assertThat(registry.get("cache.invalidation.received").counter().count()).isPositive();
+			assertThat(registry.get("cache.invalidation.staleness").timer().count()).isPositive();
+		}
+		finally {
+			renameVet(first, 1, "James");
+		}
+	}
+
+	@Test
+	void shouldEvictEntitiesOnOtherInstance() throws InterruptedException {
+		assertThat(page(second, "/owners/1")).contains("6085551023");
+		Cache entities = second.getBean(EntityManagerFactory.class).getCache();
+		assertThat(entities.contains(Owner.class, 1)).isTrue();
+		assertThat(entities.contains(Pet.class, 1)).isTrue();
+
+		OwnerRepository owners = first.getBean(OwnerRepository.class);
+		Owner owner = owners.findById(1).orElseThrow();
+		owner.setTelephone("6085550000");
+		owners.save(owner);
+		try {
+			awaitTrue(() -> !entities.contains(Owner.class, 1));
+			assertThat(page(second, "/owners/1")).contains("6085550000");
+
+			Visit visit = new Visit();
+			visit.setPet(owners.findById(1).orElseThrow().getPet(1));
+			visit.setDate(LocalDate.now());
+			visit.setDescription("rabies shot");
+			first.getBean(VisitRepository.class).addVisit(visit);
+			awaitTrue(() -> !entities.contains(Pet.class, 1));
+		}
+		finally {
+			owner = owners.findById(1).orElseThrow();
+			owner.setTelephone("6085551023");
+			owners.save(owner);
+		}
+	}
+
+	@Test
+	void shouldNotServeOwnerPageCachedAfterEvictionFromOtherInstance() throws InterruptedException {
+		assertThat(page(second, "/owners/2")).contains("Sun Prairie");
+		org.springframework.cache.Cache pages = second.getBean(CacheManager.class).getCache("ownerPages");
+		Object stalePages = pages.get("2").get();
+
+		OwnerRepository owners = first.getBean(OwnerRepository.class);
+		Owner owner = owners.findById(2).orElseThrow();
+		owner.setCity("Middleton");
+		owners.save(owner);
+		try {
+			awaitTrue(() -> pages.get("2") == null);
+			// a page rendered from the data read before the commit, cached once the
+			// eviction has been applied
+			pages.put("2", stalePages);
+
+			assertThat(page(second, "/owners/2")).contains("Middleton");
+		}
+		finally {
+			owner = owners.findById(2).orElseThrow();
+			owner.setCity("Sun Prairie");
+			owners.save(owner);
+		}
+	}
+
+	private static void renameVet(ConfigurableApplicationContext instance, int id, String firstName) {
+		EntityManagerFactory entityManagerFactory = instance.getBean(EntityManagerFactory.class);
+		new TransactionTemplate(instance.getBean(PlatformTransactionManager.class)).executeWithoutResult(
+				status -> EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+					.find(Vet.class, id)
+					.setFirstName(firstName));
+	}
+
+	private static String vetsPage(ConfigurableApplicationContext instance) {
+		return page(instance, "/vets.html");
+	}
+
+	private static String page(ConfigurableApplicationContext instance, String path) {
+		int port = ((WebServerApplicationContext) instance).getWebServer().getPort();
+		return RestClient.create("http://localhost:" + port).get().uri(path).retrieve().body(String.class);
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+			Thread.sleep(20);
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test class for {@link ConcurrencyLimitInterceptor}
+ */
+class ConcurrencyLimitInterceptorTests {
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final Object handler = new Object();
+
+	@Test
+	void shouldBoundLatencyWhenDatabaseIsSlow() throws Exception {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setMaxLatency(Duration.ofMillis(100));
+		properties.getGroups().add(group("default", "/**", 0));
+		ConcurrencyLimitInterceptor interceptor = interceptor(properties);
+		// 64 clients sharing 4 connections to a database taking 25 ms per query would
+		// wait 400 ms on the pool without the limit
+		Semaphore connections = new Semaphore(4, true);
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger shed = new AtomicInteger();
+		long warmedUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		long end = warmedUp + TimeUnit.SECONDS.toNanos(2);
+
+		ExecutorService executor = Executors.newFixedThreadPool(64);
+		try {
+			for (int i = 0; i < 64; i++) {
+				executor.execute(() -> {
+					while (System.nanoTime() < end) {
+						MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/1");
+						MockHttpServletResponse response = new MockHttpServletResponse();
+						long start = System.nanoTime();
+						try {
+							if (interceptor.preHandle(request, response, this.handler)) {
+								connections.acquire();
+								try {
+									Thread.sleep(25);
+								}
+								finally {
+									connections.release();
+								}
+								interceptor.afterCompletion(request, response, this.handler, null);
+								if (start > warmedUp) {
+									latencies.add(System.nanoTime() - start);
+								}
+							}
+							else {
+								assertThat(response.getStatus()).isEqualTo(503);
+								shed.incrementAndGet();
+								Thread.sleep(10);
+							}
+						}
+						catch (Exception ex) {
+							throw new IllegalStateException(ex);
+						}
+					}
+				});
+			}
+		}
+		finally {
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		}
+
+		assertThat(shed).hasPositiveValue();
+		assertThat(latencies).isNotEmpty();
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		long p90 = sorted.get(sorted.size() * 9 / 10);
+		assertThat(TimeUnit.NANOSECONDS.toMillis(p90)).isLessThan(250);
+	}
+
+	@Test
+	void shouldShedLowerPriorityGroupsFirst() throws Exception {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setInitialLimit(2);
+		properties.setMinLimit(1);
+		ConcurrencyLimitProperties.Group essential = group("essential", "/resources/**", 0);
+		essential.setLimited(false);
+		properties.getGroups().add(essential);
+		properties.getGroups().add(group("analytics", "/api/analytics", 1));
+		properties.getGroups().add(group("default", "/**", 0));
+		ConcurrencyLimitInterceptor interceptor = interceptor(properties);
+
+		MockHttpServletRequest first = new MockHttpServletRequest("GET", "/owners/1");
+		assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), this.handler)).isTrue();
+		assertThat(handle(interceptor, "/api/analytics").getStatus()).isEqualTo(200);
+		assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/owners/2"), new MockHttpServletResponse(),
+				this.handler))
+			.isTrue();
+
+		MockHttpServletResponse shed = handle(interceptor, "/api/analytics");
+		assertThat(shed.getStatus()).isEqualTo(503);
+		assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(handle(interceptor, "/owners/3").getStatus()).isEqualTo(503);
+		assertThat(handle(interceptor, "/resources/css/petclinic.css").getStatus()).isEqualTo(200);
+		assertThat(this.registry.get("concurrency.shed").tag("group", "analytics").counter().count()).isEqualTo(1);
+
+		interceptor.afterCompletion(first, new MockHttpServletResponse(), this.handler, null);
+		assertThat(handle(interceptor, "/api/analytics").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void shouldHoldOnePlaceThroughAsyncDispatch() throws Exception {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.getGroups().add(group("default", "/**", 0));
+		ConcurrencyLimitInterceptor interceptor = interceptor(properties);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analytics");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		interceptor.preHandle(request, response, this.handler);
+		interceptor.afterConcurrentHandlingStarted(request, response, this.handler);
+		assertThat(inFlight()).isEqualTo(1);
+		interceptor.preHandle(request, response, this.handler);
+		assertThat(inFlight()).isEqualTo(1);
+		interceptor.afterCompletion(request, response, this.handler, null);
+
+		assertThat(inFlight()).isZero();
+	}
+
+	private ConcurrencyLimitInterceptor interceptor(ConcurrencyLimitProperties properties) {
+		return new ConcurrencyLimitInterceptor(properties,
+				new StaticListableBeanFactory(Map.of("registry", this.registry)).getBeanProvider(MeterRegistry.class));
+	}
+
+	private MockHttpServletResponse handle(ConcurrencyLimitInterceptor interceptor, String uri) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		if (interceptor.preHandle(request, response, this.handler)) {
+			interceptor.afterCompletion(request, response, this.handler, null);
+		}
+		return response;
+	}
+
+	private double inFlight() {
+		return this.registry.get("concurrency.in-flight").tag("group", "default").gauge().value();
+	}
+
+	private static ConcurrencyLimitProperties.Group group(String name, String pattern, int priority) {
+		ConcurrencyLimitProperties.Group group = new ConcurrencyLimitProperties.Group();
+		group.setName(name);
+		group.setPatterns(List.of(pattern));
+		group.setPriority(priority);
+		return group;
+	}
+
+}
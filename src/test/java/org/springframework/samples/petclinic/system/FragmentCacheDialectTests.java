@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+/**
+ * Tests for {@link FragmentCacheDialect}.
+ */
+class FragmentCacheDialectTests {
+
+	private static final String TEMPLATE = """
+			<div xmlns:pc="https://spring.io/petclinic">\
+			<nav pc:cache="navbar" pc:cache-vary="${menu}" th:text="${menu} + ' ' + ${renders.incrementAndGet()}">\
+			</nav> <p th:text="${renders.get()}"></p></div>""";
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final AtomicInteger renders = new AtomicInteger();
+
+	@Test
+	void fragmentIsRenderedOncePerVaryValueAndLocale() {
+		SpringTemplateEngine engine = engine(true);
+
+		assertThat(render(engine, "home", Locale.ENGLISH)).isEqualTo("<div><nav>home 1</nav> <p>1</p></div>");
+		assertThat(render(engine, "home", Locale.ENGLISH)).isEqualTo("<div><nav>home 1</nav> <p>1</p></div>");
+		assertThat(render(engine, "vets", Locale.ENGLISH)).isEqualTo("<div><nav>vets 2</nav> <p>2</p></div>");
+		assertThat(render(engine, "home", Locale.GERMAN)).isEqualTo("<div><nav>home 3</nav> <p>3</p></div>");
+		assertThat(requests("hit")).isEqualTo(1);
+		assertThat(requests("miss")).isEqualTo(3);
+	}
+
+	@Test
+	void fragmentIsRenderedEveryTimeWhenDisabled() {
+		SpringTemplateEngine engine = engine(false);
+
+		assertThat(render(engine, "home", Locale.ENGLISH)).isEqualTo("<div><nav>home 1</nav> <p>1</p></div>");
+		assertThat(render(engine, "home", Locale.ENGLISH)).isEqualTo("<div><nav>home 2</nav> <p>2</p></div>");
+		assertThat(this.registry.find("thymeleaf.fragment.cache.requests").counters()).isEmpty();
+	}
+
+	@Test
+	void renderingIsTimedPerTemplate() {
+		SpringTemplateEngine engine = engine(true);
+
+		render(engine, "home", Locale.ENGLISH);
+		render(engine, "home", Locale.ENGLISH);
+
+		assertThat(this.registry.get("thymeleaf.template.render").tag("template", TEMPLATE).timer().count())
+			.isEqualTo(2);
+	}
+
+	private SpringTemplateEngine engine(boolean enabled) {
+		SpringTemplateEngine engine = new SpringTemplateEngine();
+		engine.setTemplateResolver(new StringTemplateResolver());
+		engine.addDialect(new FragmentCacheDialect(enabled, 10,
+				new StaticListableBeanFactory(Map.of("registry", this.registry)).getBeanProvider(MeterRegistry.class)));
+		return engine;
+	}
+
+	private String render(SpringTemplateEngine engine, String menu, Locale locale) {
+		Context context = new Context(locale);
+		context.setVariable("menu", menu);
+		context.setVariable("renders", this.renders);
+		return engine.process(TEMPLATE, context);
+	}
+
+	private double requests(String result) {
+		return this.registry.get("thymeleaf.fragment.cache.requests")
+			.tag("fragment", "navbar")
+			.tag("result", result)
+			.counter()
+			.count();
+	}
+
+}
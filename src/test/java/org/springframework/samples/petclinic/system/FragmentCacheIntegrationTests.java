@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration test for the cached fragments of the shared layout.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, properties = "warmup.enabled=false")
+@AutoConfigureMockMvc
+class FragmentCacheIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private FragmentCacheDialect dialect;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@BeforeEach
+	void clearFragments() {
+		this.dialect.clear();
+	}
+
+	@Test
+	void navigationBarIsCachedPerActiveMenu() throws Exception {
+		double hits = hits("navbar");
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc.perform(get("/vets.html"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<a class=\"nav-link active\" href=\"/vets.html\"")))
+				.andExpect(content().string(not(containsString("pc:"))));
+			this.mockMvc.perform(get("/owners/find"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<a class=\"nav-link active\" href=\"/owners/find\"")))
+				.andExpect(content().string(not(containsString("<a class=\"nav-link active\" href=\"/vets.html\""))));
+		}
+		assertThat(hits("navbar") - hits).isEqualTo(2);
+	}
+
+	@Test
+	void navigationBarIsCachedPerLocale() throws Exception {
+		this.mockMvc.perform(get("/vets.html").param("lang", "en"))
+			.andExpect(content().string(containsString("Veterinarians")));
+		this.mockMvc.perform(get("/vets.html").param("lang", "de"))
+			.andExpect(content().string(containsString("Tierärzte")));
+	}
+
+	@Test
+	void renderingIsTimedPerTemplate() throws Exception {
+		this.mockMvc.perform(get("/vets.html")).andExpect(status().isOk());
+
+		assertThat(this.registry.get("thymeleaf.template.render").tag("template", "vets/vetList").timer().count())
+			.isPositive();
+	}
+
+	private double hits(String fragment) {
+		var counter = this.registry.find("thymeleaf.fragment.cache.requests")
+			.tag("fragment", fragment)
+			.tag("result", "hit")
+			.counter();
+		return (counter != null) ? counter.count() : 0;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.system.HeavyHitters.Entry;
+
+/**
+ * Test class for {@link HeavyHitters}
+ */
+class HeavyHittersTests {
+
+	private final HeavyHitters sketch = new HeavyHitters(4);
+
+	@Test
+	void shouldCountExactlyWithinCapacity() {
+		add("a", 3);
+		add("b", 5);
+		add("c", 1);
+
+		assertThat(this.sketch.top(10)).containsExactly(new Entry("b", 5, 0), new Entry("a", 3, 0),
+				new Entry("c", 1, 0));
+		assertThat(this.sketch.top(1)).containsExactly(new Entry("b", 5, 0));
+	}
+
+	@Test
+	void shouldKeepHeavyHittersAmongManyDistinctItems() {
+		for (int i = 0; i < 10_000; i++) {
+			this.sketch.add("client-" + i);
+			if (i % 3 == 0) {
+				this.sketch.add("attacker");
+			}
+		}
+
+		Entry top = this.sketch.top(1).get(0);
+		assertThat(top.item()).isEqualTo("attacker");
+		assertThat(top.count()).isGreaterThanOrEqualTo(3334);
+		assertThat(top.count() - top.error()).isLessThanOrEqualTo(3334);
+		assertThat(this.sketch.top(10)).hasSize(4);
+	}
+
+	@Test
+	void shouldMergeCountsOfConcurrentThreads() throws InterruptedException {
+		HeavyHitters sketch = new HeavyHitters(4, 4);
+		runThreads(8, thread -> {
+			for (int i = 0; i < 1_000; i++) {
+				sketch.add("a");
+				if (i % 2 == 0) {
+					sketch.add("b");
+				}
+			}
+		});
+
+		assertThat(sketch.top(10)).containsExactly(new Entry("a", 8_000, 0), new Entry("b", 4_000, 0));
+	}
+
+	@Test
+	void shouldNotUnderestimateItemsDroppedByStripes() throws InterruptedException {
+		HeavyHitters sketch = new HeavyHitters(4, 4);
+		runThreads(4, thread -> {
+			for (int i = 0; i < 1_000; i++) {
+				sketch.add("client-" + thread + "-" + i);
+				if (i % 2 == 0) {
+					sketch.add("attacker");
+				}
+			}
+		});
+
+		Entry top = sketch.top(1).get(0);
+		assertThat(top.item()).isEqualTo("attacker");
+		assertThat(top.count()).isGreaterThanOrEqualTo(2_000);
+		assertThat(top.count() - top.error()).isLessThanOrEqualTo(2_000);
+	}
+
+	private static void runThreads(int count, IntConsumer work) throws InterruptedException {
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < count; t++) {
+			int thread = t;
+			threads.add(new Thread(() -> work.accept(thread)));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	private void add(String item, int times) {
+		for (int i = 0; i < times; i++) {
+			this.sketch.add(item);
+		}
+	}
+
+}
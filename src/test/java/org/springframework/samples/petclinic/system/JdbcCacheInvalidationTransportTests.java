@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Test class for {@link JdbcCacheInvalidationTransport}
+ */
+class JdbcCacheInvalidationTransportTests {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000);
+
+	private final List<CacheInvalidation> received = new ArrayList<>();
+
+	private final AtomicInteger resynchronizations = new AtomicInteger();
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbc;
+
+	private JdbcCacheInvalidationTransport transport;
+
+	@BeforeEach
+	void createTransport() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+			.setType(EmbeddedDatabaseType.H2)
+			.addScript("db/h2/schema.sql")
+			.build();
+		this.jdbc = new JdbcTemplate(this.database);
+		this.transport = new JdbcCacheInvalidationTransport(this.database, 2, Duration.ofSeconds(10),
+				Duration.ofMinutes(10), this.clock::get);
+		this.transport.subscribe(new CacheInvalidationTransport.Subscriber() {
+
+			@Override
+			public void receive(List<CacheInvalidation> invalidations) {
+				received.addAll(invalidations);
+			}
+
+			@Override
+			public void resynchronize() {
+				resynchronizations.incrementAndGet();
+			}
+
+		});
+	}
+
+	@AfterEach
+	void shutdown() {
+		this.database.shutdown();
+	}
+
+	@Test
+	void shouldDeliverInvalidationsPublishedAfterFirstPoll() {
+		this.transport.publish(List.of(invalidation("before")));
+		this.transport.poll();
+		assertThat(this.received).isEmpty();
+
+		this.transport.publish(List.of(invalidation("a"), invalidation("b"), invalidation("c")));
+		this.transport.publish(List.of(new CacheInvalidation("peer", "vets", null, this.clock.get())));
+		this.transport.poll();
+		this.transport.poll();
+
+		assertThat(this.received).extracting(CacheInvalidation::key).containsExactly("a", "b", "c", null);
+		assertThat(this.resynchronizations).hasValue(0);
+	}
+
+	@Test
+	void shouldDeliverRowsCommittedOutOfOrder() {
+		this.transport.poll();
+		insert(2, "second");
+		this.transport.poll();
+		insert(1, "first");
+		this.transport.poll();
+		insert(3, "third");
+		this.transport.poll();
+
+		assertThat(this.received).extracting(CacheInvalidation::key).containsExactly("second", "first", "third");
+	}
+
+	@Test
+	void shouldSkipMissingRowsAfterGapTimeout() {
+		this.transport.poll();
+		insert(2, "second");
+		this.transport.poll();
+		this.clock.addAndGet(Duration.ofSeconds(10).toMillis());
+		this.transport.poll();
+		// the watermark has moved past the missing row, which is no longer read
+		insert(1, "first");
+		insert(3, "third");
+		this.transport.poll();
+
+		assertThat(this.received).extracting(CacheInvalidation::key).containsExactly("second", "third");
+	}
+
+	@Test
+	void shouldResynchronizeAfterMissingRetention() {
+		this.transport.poll();
+		this.clock.addAndGet(Duration.ofMinutes(11).toMillis());
+
+		this.transport.poll();
+
+		assertThat(this.resynchronizations).hasValue(1);
+	}
+
+	@Test
+	void shouldPurgeOldRows() {
+		this.transport.publish(List.of(invalidation("old")));
+		this.clock.addAndGet(Duration.ofMinutes(11).toMillis());
+		this.transport.publish(List.of(invalidation("new")));
+
+		this.transport.purge();
+
+		assertThat(this.jdbc.queryForList("SELECT cache_key FROM cache_invalidations", String.class))
+			.containsExactly("new");
+	}
+
+	private CacheInvalidation invalidation(String key) {
+		return new CacheInvalidation("peer", "vetPages", key, this.clock.get());
+	}
+
+	private void insert(long id, String key) {
+		this.jdbc.update(
+				"INSERT INTO cache_invalidations (id, origin, cache_name, cache_key, created_at) VALUES (?, ?, ?, ?, ?)",
+				id, "peer", "vetPages", key, this.clock.get());
+	}
+
+}
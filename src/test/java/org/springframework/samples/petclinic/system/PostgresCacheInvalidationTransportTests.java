@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the notification payloads of {@link PostgresCacheInvalidationTransport}
+ */
+class PostgresCacheInvalidationTransportTests {
+
+	@Test
+	void shouldRoundTripInvalidations() {
+		List<CacheInvalidation> invalidations = List.of(new CacheInvalidation("peer", "vetPages", "0:5", 42),
+				new CacheInvalidation("peer", "vets", null, 43),
+				new CacheInvalidation("peer", "odd cache", "key with spaces\nand lines", 44),
+				new CacheInvalidation("peer", "vetPages", "", 45));
+
+		List<String> payloads = PostgresCacheInvalidationTransport.toPayloads(invalidations);
+
+		assertThat(payloads).hasSize(1);
+		assertThat(PostgresCacheInvalidationTransport.fromPayload(payloads.get(0))).isEqualTo(invalidations);
+	}
+
+	@Test
+	void shouldSplitPayloadsAtNotificationLimit() {
+		List<CacheInvalidation> invalidations = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			invalidations.add(new CacheInvalidation("peer", "vetPages", "page-" + i, i));
+		}
+
+		List<String> payloads = PostgresCacheInvalidationTransport.toPayloads(invalidations);
+
+		assertThat(payloads).hasSizeGreaterThan(1)
+			.allSatisfy(payload -> assertThat(payload)
+				.hasSizeLessThanOrEqualTo(PostgresCacheInvalidationTransport.MAX_PAYLOAD_BYTES));
+		assertThat(
+				payloads.stream().flatMap(payload -> PostgresCacheInvalidationTransport.fromPayload(payload).stream()))
+			.isEqualTo(invalidations);
+	}
+
+	@Test
+	void shouldClearCacheWhenKeyIsTooLong() {
+		List<String> payloads = PostgresCacheInvalidationTransport
+			.toPayloads(List.of(new CacheInvalidation("peer", "vetPages", "x".repeat(10_000), 42)));
+
+		assertThat(PostgresCacheInvalidationTransport.fromPayload(payloads.get(0)))
+			.containsExactly(new CacheInvalidation("peer", "vetPages", null, 42));
+	}
+
+	@Test
+	void shouldSkipMalformedLines() {
+		assertThat(PostgresCacheInvalidationTransport.fromPayload("garbage\npeer 42 vets\npeer notatime vets"))
+			.containsExactly(new CacheInvalidation("peer", "vets", null, 42));
+	}
+
+}
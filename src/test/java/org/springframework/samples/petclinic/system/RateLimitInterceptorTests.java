@@ -18,10 +18,21 @@ package org.springframework.samples.petclinic.system;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * Test for {@link RateLimitInterceptor} configuration.
@@ -55,4 +66,97 @@ class RateLimitInterceptorTests {
 		assertThat(windowSizeMinutes).isEqualTo(1);
 	}
 
-}
\ No newline at end of file
+	@Test
+	void testRejectsRequestsOverPolicyLimitWithHeaders() throws Exception {
+		for (int i = 4; i >= 0; i--) {
+			MockHttpServletResponse response = handle("GET", "/owners/find", "10.0.0.1");
+			assertThat(response.getStatus()).isEqualTo(200);
+			assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("5");
+			assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo(String.valueOf(i));
+			assertThat(response.getHeader("RateLimit-Policy")).isEqualTo("5;w=60");
+		}
+
+		MockHttpServletResponse rejected = handle("GET", "/owners/find", "10.0.0.1");
+		assertThat(rejected.getStatus()).isEqualTo(429);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("12");
+		assertThat(rejected.getHeader("RateLimit-Reset")).isEqualTo("60");
+		assertThat(handle("GET", "/owners/find", "10.0.0.2").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void testAppliesFirstPolicyMatchingPathAndMethod() throws Exception {
+		assertThat(handle("POST", "/owners/1/edit", "10.0.0.3").getHeader("RateLimit-Limit")).isEqualTo("30");
+		assertThat(handle("GET", "/api/analytics", "10.0.0.3").getHeader("RateLimit-Limit")).isEqualTo("60");
+		assertThat(handle("GET", "/owners/1/edit", "10.0.0.3").getHeader("RateLimit-Limit")).isNull();
+	}
+
+	@Test
+	void testTrackedClientsStayBoundedUnderSpoofedAddresses() throws Exception {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setMaxTrackedKeys(10_000);
+		properties.setTrustedProxies(List.of("127.0.0.1"));
+		RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+		policy.setPattern("/owners/find");
+		properties.getPolicies().add(policy);
+		MeterRegistry registry = new SimpleMeterRegistry();
+		StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registry", registry));
+		RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, 5, 1, true,
+				beans.getBeanProvider(RateLimitStore.class), beans.getBeanProvider(MeterRegistry.class));
+		long heapBefore = usedHeapAfterGc();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/find");
+		request.setRemoteAddr("127.0.0.1");
+		for (int i = 0; i < 1_000_000; i++) {
+			request.removeHeader("X-Forwarded-For");
+			request.addHeader("X-Forwarded-For", (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF) + ".1");
+			interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+		}
+
+		assertThat(registry.get("ratelimit.tracked.keys").gauge().value()).isLessThanOrEqualTo(10_000);
+		// a million tracked clients would take well over 100 MB
+		assertThat(usedHeapAfterGc() - heapBefore).isLessThan(32L * 1024 * 1024);
+		Reference.reachabilityFence(interceptor);
+	}
+
+	@Test
+	void testRecordsDecisionsAndRejectedClients() throws Exception {
+		RateLimitProperties properties = new RateLimitProperties();
+		RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+		policy.setPattern("/owners/find");
+		properties.getPolicies().add(policy);
+		MeterRegistry registry = new SimpleMeterRegistry();
+		StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registry", registry));
+		RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, 5, 1, true,
+				beans.getBeanProvider(RateLimitStore.class), beans.getBeanProvider(MeterRegistry.class));
+
+		for (int i = 0; i < 8; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/find");
+			request.setRemoteAddr("10.0.0.9");
+			request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/owners/find");
+			interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+		}
+
+		assertThat(registry.get("ratelimit.requests").tag("outcome", "allowed").counter().count()).isEqualTo(5);
+		assertThat(registry.get("ratelimit.requests")
+			.tags("policy", "/owners/find", "route", "/owners/find", "outcome", "rejected")
+			.counter()
+			.count()).isEqualTo(3);
+		assertThat(registry.get("ratelimit.bucket.fill").summary().count()).isLessThanOrEqualTo(8);
+		assertThat(new RateLimitEndpoint(interceptor).topOffenders(null).clients())
+			.containsExactly(new RateLimitEndpoint.Offender("10.0.0.9", 3, 0));
+	}
+
+	private static long usedHeapAfterGc() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private MockHttpServletResponse handle(String method, String uri, String clientIP) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setRemoteAddr(clientIP);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		rateLimitInterceptor.preHandle(request, response, new Object());
+		return response;
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Decision;
+
+/**
+ * Latency benchmark for {@link RateLimitMetrics}, the instrumentation added to each rate
+ * limited request, for allowed requests and for rejected requests from one of many
+ * clients. Should stay under 100 ns per request. Run with {@link #main(String[])}.
+ * <p>
+ * Four threads record at once, so that contention between request threads shows. The
+ * average time is per thread, so it only measures the cost of a request on a machine with
+ * at least four processors; with fewer, threads wait for each other's time slices, and
+ * the throughput mode ({@code -bm thrpt}) gives the cost per request instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimitMetricsBenchmark {
+
+	private static final Decision ALLOWED = new Decision(true, 3, 0, 1_000_000);
+
+	private static final Decision REJECTED = new Decision(false, 0, 1_000_000, 5_000_000);
+
+	private static final int CLIENTS = 1_000;
+
+	private final RateLimitMetrics.Policy policy = new RateLimitMetrics(new SimpleMeterRegistry(), 100)
+		.policy("/owners/find");
+
+	private final String[] clients = new String[CLIENTS];
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < CLIENTS; i++) {
+			this.clients[i] = "10.0." + (i / 256) + "." + (i % 256);
+		}
+	}
+
+	@Benchmark
+	public void allowed() {
+		this.policy.record("/owners/find", this.clients[0], ALLOWED, 5);
+	}
+
+	@Benchmark
+	public void rejected() {
+		this.policy.record("/owners/find", this.clients[ThreadLocalRandom.current().nextInt(CLIENTS)], REJECTED, 5);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RateLimitMetricsBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration test for read-only transaction routing, with a second in-memory H2 database
+ * standing in as the replica. The replica reports its lag from a table, so tests can
+ * simulate replication falling behind.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = { "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+				"datasource.replica.url=" + ReplicaDataSourceConfigurationTests.REPLICA_URL,
+				"datasource.replica.username=sa", "datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+				"datasource.replica.lag-check-interval-seconds=3600" })
+class ReplicaDataSourceConfigurationTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	@Qualifier("readOnlyDataSource")
+	private ReplicaRoutingDataSource routing;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void initReplica() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		new ResourceDatabasePopulator(new ClassPathResource("db/h2/schema.sql"),
+				new ClassPathResource("db/h2/data.sql"))
+			.execute(dataSource);
+		this.replica = new JdbcTemplate(dataSource);
+		this.replica.execute("DROP TABLE replica_lag IF EXISTS");
+		this.replica.execute("CREATE TABLE replica_lag (seconds INTEGER)");
+		this.replica.update("INSERT INTO replica_lag VALUES (0)");
+		// only the replica has this change, so reads show which database served them
+		this.replica.update("UPDATE owners SET first_name = 'Replica' WHERE id = 1");
+		this.routing.checkReplicaLag();
+	}
+
+	@Test
+	void shouldRouteReadOnlyTransactionsToReplica() {
+		double before = replicaReads();
+
+		assertThat(this.owners.findById(1)).get().extracting("firstName").isEqualTo("Replica");
+		Optional<Owner> written = new TransactionTemplate(this.transactionManager)
+			.execute(status -> this.owners.findById(1));
+		assertThat(written).get().extracting("firstName").isEqualTo("George");
+		assertThat(replicaReads()).isGreaterThan(before);
+	}
+
+	@Test
+	void shouldFallBackToPrimaryWhenReplicaLags() {
+		this.replica.update("UPDATE replica_lag SET seconds = 60");
+		this.routing.checkReplicaLag();
+
+		assertThat(this.routing.isReplicaAvailable()).isFalse();
+		assertThat(this.owners.findById(1)).get().extracting("firstName").isEqualTo("George");
+		assertThat(this.registry.get("datasource.replica.lag").gauge().value()).isEqualTo(60);
+	}
+
+	private double replicaReads() {
+		return this.registry.get("datasource.read-only.connections").tag("pool", "replica").counter().count();
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Integration test for {@link SharedRateLimiter}, with two instances of the application
+ * sharing one database.
+ */
+class SharedRateLimiterIntegrationTests {
+
+	private static ConfigurableApplicationContext first;
+
+	private static ConfigurableApplicationContext second;
+
+	@BeforeAll
+	static void startInstances() {
+		first = startInstance();
+		second = startInstance();
+	}
+
+	@AfterAll
+	static void stopInstances() {
+		second.close();
+		first.close();
+	}
+
+	private static ConfigurableApplicationContext startInstance() {
+		return new SpringApplicationBuilder(PetClinicApplication.class).run("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:shared-rate-limit;DB_CLOSE_DELAY=-1",
+				"--rate-limit.shared.enabled=true");
+	}
+
+	@Test
+	void shouldEnforceLimitAcrossInstances() {
+		List<Integer> statuses = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			statuses.add(findOwners(first, "203.0.113.1"));
+			statuses.add(findOwners(second, "203.0.113.1"));
+		}
+
+		assertThat(statuses).filteredOn(status -> status == 200).hasSize(5);
+		assertThat(statuses).filteredOn(status -> status == 429).hasSize(5);
+		assertThat(findOwners(first, "203.0.113.2")).isEqualTo(200);
+	}
+
+	@Test
+	void shouldEnforceLimitAcrossInstancesUnderConcurrentRequests() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<Integer>> requests = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				ConfigurableApplicationContext instance = (i % 2 == 0) ? first : second;
+				requests.add(() -> findOwners(instance, "203.0.113.3"));
+			}
+			List<Integer> statuses = new ArrayList<>();
+			for (Future<Integer> status : executor.invokeAll(requests)) {
+				statuses.add(status.get());
+			}
+
+			assertThat(statuses).filteredOn(status -> status == 200).hasSize(5);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private static int findOwners(ConfigurableApplicationContext instance, String client) {
+		int port = ((WebServerApplicationContext) instance).getWebServer().getPort();
+		return RestClient.create("http://localhost:" + port)
+			.get()
+			.uri("/owners/find")
+			.header("X-Forwarded-For", client)
+			.retrieve()
+			.onStatus(HttpStatusCode::isError, (request, response) -> {
+			})
+			.toBodilessEntity()
+			.getStatusCode()
+			.value();
+	}
+
+}
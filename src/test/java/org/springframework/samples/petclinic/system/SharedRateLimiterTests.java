@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.samples.petclinic.system.RateLimitStore.Grant;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Decision;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Limit;
+
+/**
+ * Test class for {@link SharedRateLimiter}
+ */
+class SharedRateLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final AtomicInteger storeCalls = new AtomicInteger();
+
+	private final AtomicInteger sharedTokens = new AtomicInteger(100);
+
+	private final Limit limit = Limit.of(100, Duration.ofMinutes(1));
+
+	@Test
+	void shouldLeaseTokensInBatches() {
+		SharedRateLimiter limiter = limiter(this::grant);
+
+		for (int i = 99; i >= 0; i--) {
+			assertThat(limiter.tryAcquire("client", this.limit)).extracting(Decision::allowed, Decision::remaining)
+				.containsExactly(true, i);
+		}
+		assertThat(this.storeCalls).hasValue(10);
+
+		Decision rejected = limiter.tryAcquire("client", this.limit);
+		assertThat(rejected.allowed()).isFalse();
+		assertThat(rejected.retryAfterMicros()).isEqualTo(TimeUnit.MILLISECONDS.toMicros(600));
+		// rejected locally until the shared bucket has a token again
+		this.clock.set(TimeUnit.MILLISECONDS.toMicros(500));
+		assertThat(limiter.tryAcquire("client", this.limit).retryAfterMicros())
+			.isEqualTo(TimeUnit.MILLISECONDS.toMicros(100));
+		assertThat(this.storeCalls).hasValue(11);
+	}
+
+	@Test
+	void shouldReturnUnusedTokensOfLapsedLease() {
+		SharedRateLimiter limiter = limiter(this::grant);
+		limiter.tryAcquire("client", this.limit);
+		assertThat(this.sharedTokens).hasValue(90);
+
+		this.clock.set(TimeUnit.SECONDS.toMicros(2));
+
+		assertThat(limiter.tryAcquire("client", this.limit).allowed()).isTrue();
+		// 9 unused tokens given back, and a lease of the one token used
+		assertThat(this.sharedTokens).hasValue(98);
+		assertThat(this.storeCalls).hasValue(2);
+	}
+
+	@Test
+	void shouldGrowLeasesSpentBeforeTheyLapse() {
+		SharedRateLimiter limiter = limiter(this::grant);
+		limiter.tryAcquire("client", this.limit);
+		this.clock.set(TimeUnit.SECONDS.toMicros(2));
+		limiter.tryAcquire("client", this.limit);
+		assertThat(this.sharedTokens).hasValue(98);
+
+		limiter.tryAcquire("client", this.limit);
+		assertThat(this.sharedTokens).hasValue(96);
+		limiter.tryAcquire("client", this.limit);
+		limiter.tryAcquire("client", this.limit);
+		assertThat(this.sharedTokens).hasValue(92);
+		assertThat(this.storeCalls).hasValue(4);
+	}
+
+	@Test
+	void shouldLeaseSeveralTokensOfSmallBucketsRefilledWithinALease() {
+		SharedRateLimiter limiter = limiter(this::grant);
+		Limit limit = Limit.of(5, Duration.ofSeconds(1));
+		this.sharedTokens.set(5);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(limiter.tryAcquire("client", limit).allowed()).isTrue();
+		}
+		assertThat(this.storeCalls).hasValue(1);
+	}
+
+	@Test
+	void shouldLeaseSingleTokensOfSmallBucketsRefilledSlowly() {
+		SharedRateLimiter limiter = limiter(this::grant);
+		Limit limit = Limit.of(5, Duration.ofMinutes(1));
+		this.sharedTokens.set(5);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(limiter.tryAcquire("client", limit).allowed()).isTrue();
+		}
+		assertThat(this.storeCalls).hasValue(5);
+		assertThat(this.sharedTokens).hasValue(0);
+	}
+
+	@Test
+	void shouldLimitLocallyWhileStoreFails() {
+		SharedRateLimiter limiter = limiter((key, limit, tokens, returned) -> {
+			this.storeCalls.incrementAndGet();
+			throw new DataAccessResourceFailureException("Connection refused");
+		});
+		Limit limit = Limit.of(5, Duration.ofMinutes(1));
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(limiter.tryAcquire("client", limit).allowed()).isTrue();
+		}
+		assertThat(limiter.tryAcquire("client", limit).allowed()).isFalse();
+		assertThat(this.storeCalls).hasValue(1);
+
+		this.clock.set(TimeUnit.SECONDS.toMicros(30));
+		limiter.tryAcquire("client", limit);
+		assertThat(this.storeCalls).hasValue(2);
+	}
+
+	private SharedRateLimiter limiter(RateLimitStore store) {
+		RateLimitProperties.Shared shared = new RateLimitProperties.Shared();
+		TokenBucketRateLimiter local = new TokenBucketRateLimiter(100, Duration.ofMinutes(1), this.clock::get);
+		return new SharedRateLimiter(store, local, 100, Duration.ofMinutes(1), shared, this.clock::get);
+	}
+
+	private Grant grant(String key, Limit limit, int tokens, int returned) {
+		this.storeCalls.incrementAndGet();
+		this.sharedTokens.updateAndGet(shared -> Math.min(limit.capacity(), shared + returned));
+		int granted = Math.min(tokens, this.sharedTokens.get());
+		int remaining = this.sharedTokens.addAndGet(-granted);
+		long retryAfter = (granted == 0) ? limit.microsPerToken() - this.clock.get() : 0;
+		return new Grant(granted, remaining, retryAfter, (limit.capacity() - remaining) * limit.microsPerToken());
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.FlashMap;
+
+/**
+ * Tests for {@link SignedCookieFlashMapManager}.
+ */
+class SignedCookieFlashMapManagerTests {
+
+	private final SignedCookieFlashMapManager manager = new SignedCookieFlashMapManager(
+			"test-secret".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	void flashAttributesSurviveTheRedirectInACookie() {
+		Cookie cookie = saveMessage("/owners/1", "Owner Values Updated");
+
+		MockHttpServletRequest redirected = new MockHttpServletRequest("GET", "/owners/1");
+		redirected.setCookies(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, Object> flashMap = this.manager.retrieveAndUpdate(redirected, response);
+
+		assertThat(flashMap).containsEntry("message", "Owner Values Updated");
+		assertThat(response.getCookie(SignedCookieFlashMapManager.COOKIE_NAME).getMaxAge()).isZero();
+		assertThat(redirected.getSession(false)).isNull();
+	}
+
+	@Test
+	void flashAttributesAreOnlyForTheTargetPath() {
+		Cookie cookie = saveMessage("/owners/1", "Owner Values Updated");
+
+		MockHttpServletRequest other = new MockHttpServletRequest("GET", "/owners/2");
+		other.setCookies(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, Object> flashMap = this.manager.retrieveAndUpdate(other, response);
+
+		assertThat(flashMap).isNull();
+		assertThat(response.getCookie(SignedCookieFlashMapManager.COOKIE_NAME)).isNull();
+	}
+
+	@Test
+	void forgedFlashAttributesAreIgnored() {
+		Cookie cookie = saveMessage("/owners/1", "Owner Values Updated");
+		String signature = cookie.getValue().substring(cookie.getValue().indexOf('.'));
+		String forged = this.manager.sign(flashMaps(Long.MAX_VALUE, "x"));
+		forged = forged.substring(0, forged.indexOf('.')) + signature;
+
+		MockHttpServletRequest redirected = new MockHttpServletRequest("GET", "/owners/1");
+		redirected.setCookies(new Cookie(SignedCookieFlashMapManager.COOKIE_NAME, forged));
+
+		Map<String, Object> flashMap = this.manager.retrieveAndUpdate(redirected, new MockHttpServletResponse());
+
+		assertThat(flashMap).isNull();
+	}
+
+	@Test
+	void expiredCookiesAreIgnored() {
+		String expired = this.manager.sign(flashMaps(System.currentTimeMillis() - 1, "Owner Values Updated"));
+
+		MockHttpServletRequest redirected = new MockHttpServletRequest("GET", "/owners/1");
+		redirected.setCookies(new Cookie(SignedCookieFlashMapManager.COOKIE_NAME, expired));
+
+		Map<String, Object> flashMap = this.manager.retrieveAndUpdate(redirected, new MockHttpServletResponse());
+
+		assertThat(flashMap).isNull();
+	}
+
+	@Test
+	void flashMapsAreNotLocked() {
+		assertThat(this.manager.getFlashMapsMutex(new MockHttpServletRequest())).isNull();
+	}
+
+	@Test
+	void cookiesSignedWithAnotherKeyAreIgnored() {
+		Cookie cookie = saveMessage("/owners/1", "Owner Values Updated");
+		SignedCookieFlashMapManager other = new SignedCookieFlashMapManager(
+				"other-secret".getBytes(StandardCharsets.UTF_8));
+
+		MockHttpServletRequest redirected = new MockHttpServletRequest("GET", "/owners/1");
+		redirected.setCookies(cookie);
+
+		Map<String, Object> flashMap = other.retrieveAndUpdate(redirected, new MockHttpServletResponse());
+
+		assertThat(flashMap).isNull();
+	}
+
+	private static String flashMaps(long expires, String message) {
+		return "{\"expires\":" + expires + ",\"flashMaps\":[{\"path\":\"/owners/1\",\"expires\":-1,"
+				+ "\"attributes\":{\"message\":\"" + message + "\"}}]}";
+	}
+
+	private Cookie saveMessage(String targetPath, String message) {
+		FlashMap flashMap = new FlashMap();
+		flashMap.put("message", message);
+		flashMap.setTargetRequestPath(targetPath);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", targetPath + "/edit");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.manager.saveOutputFlashMap(flashMap, request, response);
+		Cookie cookie = response.getCookie(SignedCookieFlashMapManager.COOKIE_NAME);
+		assertThat(cookie).isNotNull();
+		assertThat(cookie.isHttpOnly()).isTrue();
+		assertThat(request.getSession(false)).isNull();
+		return cookie;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration test for the stateless mode, where the language and flash messages are kept
+ * in cookies and no HTTP session is created.
+ */
+@SpringBootTest(classes = PetClinicApplication.class)
+@AutoConfigureMockMvc
+class StatelessWebTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void languageIsRememberedInACookie() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/vets.html").param("lang", "de"))
+			.andExpect(status().isOk())
+			.andExpect(cookie().value("locale", "de"))
+			.andReturn();
+		assertThat(result.getRequest().getSession(false)).isNull();
+
+		result = this.mockMvc.perform(get("/vets.html").cookie(result.getResponse().getCookie("locale")))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("Tierärzte")))
+			.andReturn();
+		assertThat(result.getRequest().getSession(false)).isNull();
+	}
+
+	@Test
+	void flashMessageIsShownAfterTheRedirectWithoutASession() throws Exception {
+		MvcResult result = this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", 1).param("id", "1")
+				.param("firstName", "George")
+				.param("lastName", "Franklin")
+				.param("address", "110 W. Liberty St.")
+				.param("city", "Madison")
+				.param("telephone", "6085551023"))
+			.andExpect(status().is3xxRedirection())
+			.andReturn();
+		assertThat(result.getRequest().getSession(false)).isNull();
+		Cookie flash = result.getResponse().getCookie(SignedCookieFlashMapManager.COOKIE_NAME);
+		assertThat(flash).isNotNull();
+
+		result = this.mockMvc.perform(get("/owners/{ownerId}", 1).cookie(flash))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("Owner Values Updated")))
+			.andExpect(cookie().maxAge(SignedCookieFlashMapManager.COOKIE_NAME, 0))
+			.andReturn();
+		assertThat(result.getRequest().getSession(false)).isNull();
+	}
+
+}
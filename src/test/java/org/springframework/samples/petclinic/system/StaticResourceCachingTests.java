@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration test for the fingerprinted, immutable and precompressed static resources.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, properties = "warmup.enabled=false")
+@AutoConfigureMockMvc
+class StaticResourceCachingTests {
+
+	private static final Pattern STYLESHEET = Pattern.compile("/resources/css/petclinic-([0-9a-f]{32})\\.css");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StaticResourceCacheInterceptor interceptor;
+
+	@Test
+	void layoutLinksToFingerprintedResources() throws Exception {
+		String page = this.mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+
+		assertThat(page).containsPattern(STYLESHEET)
+			.containsPattern("/webjars/font-awesome/4\\.7\\.0/css/font-awesome\\.min-[0-9a-f]{32}\\.css")
+			.containsPattern("/webjars/bootstrap/[^\"]*/bootstrap\\.bundle\\.min-[0-9a-f]{32}\\.js")
+			.doesNotContain("/resources/css/petclinic.css");
+	}
+
+	@Test
+	void fingerprintedResourceIsImmutable() throws Exception {
+		this.mockMvc.perform(get(stylesheet()))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+	}
+
+	@Test
+	void resourceWithoutFingerprintIsRevalidated() throws Exception {
+		this.mockMvc.perform(get("/resources/css/petclinic.css"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+			.andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+	}
+
+	@Test
+	void outdatedFingerprintIsNotCached() throws Exception {
+		String outdated = "/resources/css/petclinic-0123456789abcdef0123456789abcdef.css";
+
+		assertThat(this.interceptor.isFingerprinted(stylesheet())).isTrue();
+		assertThat(this.interceptor.isFingerprinted(outdated)).isFalse();
+		assertThat(this.interceptor.isFingerprinted("/webjars/font-awesome/4.7.0/css/font-awesome.min.css")).isFalse();
+		this.mockMvc.perform(get(outdated)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void precompressedVariantIsServed() throws Exception {
+		String stylesheet = stylesheet();
+		int length = this.mockMvc.perform(get(stylesheet)).andReturn().getResponse().getContentAsByteArray().length;
+
+		for (String encoding : new String[] { "br", "gzip" }) {
+			byte[] body = this.mockMvc.perform(get(stylesheet).header(HttpHeaders.ACCEPT_ENCODING, encoding))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, encoding))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+				.andReturn()
+				.getResponse()
+				.getContentAsByteArray();
+			assertThat(body.length).isLessThan(length / 4);
+		}
+	}
+
+	private String stylesheet() throws Exception {
+		String page = this.mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+		Matcher matcher = STYLESHEET.matcher(page);
+		assertThat(matcher.find()).isTrue();
+		return matcher.group();
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Decision;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Limit;
+
+/**
+ * Throughput benchmark for {@link TokenBucketRateLimiter}, with all threads taking tokens
+ * from one hot bucket, and with each request from one of many client buckets. The hot
+ * bucket refills at a million tokens per second, so that threads keep racing to take the
+ * tokens it earns. Run with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TokenBucketRateLimiterBenchmark {
+
+	private static final Limit HOT = new Limit(TokenBucketRateLimiter.MAX_CAPACITY, 1);
+
+	private static final Limit CLIENT = Limit.of(60, Duration.ofMinutes(1));
+
+	private static final int CLIENTS = 10_000;
+
+	private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100_000, Duration.ofMinutes(1));
+
+	private final String[] clients = new String[CLIENTS];
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < CLIENTS; i++) {
+			this.clients[i] = "10.0." + (i / 256) + "." + (i % 256) + ":/owners/find";
+		}
+	}
+
+	@Benchmark
+	public Decision hotKey() {
+		return this.limiter.tryAcquire("hot", HOT);
+	}
+
+	@Benchmark
+	public Decision manyClients() {
+		return this.limiter.tryAcquire(this.clients[ThreadLocalRandom.current().nextInt(CLIENTS)], CLIENT);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TokenBucketRateLimiterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Decision;
+import org.springframework.samples.petclinic.system.TokenBucketRateLimiter.Limit;
+
+/**
+ * Test class for {@link TokenBucketRateLimiter}
+ */
+class TokenBucketRateLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, Duration.ofMinutes(1),
+			this.clock::get);
+
+	@Test
+	void shouldAllowBurstThenRefillOneTokenAtATime() {
+		Limit limit = Limit.of(5, Duration.ofMinutes(1));
+
+		for (int i = 4; i >= 0; i--) {
+			assertThat(this.limiter.tryAcquire("client", limit)).extracting(Decision::allowed, Decision::remaining)
+				.containsExactly(true, i);
+		}
+		Decision rejected = this.limiter.tryAcquire("client", limit);
+		assertThat(rejected.allowed()).isFalse();
+		assertThat(rejected.retryAfterMicros()).isEqualTo(TimeUnit.SECONDS.toMicros(12));
+		assertThat(rejected.resetMicros()).isEqualTo(TimeUnit.SECONDS.toMicros(60));
+
+		this.clock.set(TimeUnit.SECONDS.toMicros(11));
+		assertThat(this.limiter.tryAcquire("client", limit).retryAfterMicros()).isEqualTo(TimeUnit.SECONDS.toMicros(1));
+		this.clock.set(TimeUnit.SECONDS.toMicros(30));
+		assertThat(this.limiter.tryAcquire("client", limit)).extracting(Decision::allowed, Decision::remaining)
+			.containsExactly(true, 1);
+		// the 6 seconds earned towards the third token are kept
+		this.clock.set(TimeUnit.SECONDS.toMicros(36));
+		assertThat(this.limiter.tryAcquire("client", limit)).extracting(Decision::allowed, Decision::remaining)
+			.containsExactly(true, 1);
+	}
+
+	@Test
+	void shouldNotRefillBeyondCapacity() {
+		Limit limit = Limit.of(3, Duration.ofSeconds(3));
+		this.limiter.tryAcquire("client", limit);
+
+		this.clock.set(TimeUnit.HOURS.toMicros(1));
+
+		assertThat(this.limiter.tryAcquire("client", limit).remaining()).isEqualTo(2);
+		assertThat(this.limiter.tryAcquire("other", limit).remaining()).isEqualTo(2);
+		assertThat(this.limiter.size()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldForgetIdleAndExcessKeys() {
+		Limit limit = Limit.of(3, Duration.ofSeconds(3));
+		this.limiter.tryAcquire("idle", limit);
+
+		this.clock.set(TimeUnit.MINUTES.toMicros(2));
+		assertThat(this.limiter.size()).isZero();
+
+		for (int i = 0; i < 1000; i++) {
+			this.limiter.tryAcquire("client-" + i, limit);
+		}
+		assertThat(this.limiter.size()).isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	void shouldNeverAllowMoreThanCapacityUnderContention() throws Exception {
+		Limit limit = Limit.of(1000, Duration.ofHours(1));
+		int threads = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			tasks.add(() -> {
+				start.await();
+				int allowed = 0;
+				for (int i = 0; i < 500; i++) {
+					if (this.limiter.tryAcquire("client", limit).allowed()) {
+						allowed++;
+					}
+					this.clock.addAndGet(1);
+				}
+				return allowed;
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (Callable<Integer> task : tasks) {
+				results.add(executor.submit(task));
+			}
+			start.countDown();
+			int allowed = 0;
+			for (Future<Integer> result : results) {
+				allowed += result.get();
+			}
+			// 8000 microseconds pass in total, far less than the 3.6 seconds per token
+			assertThat(allowed).isEqualTo(1000);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void shouldRejectLimitsThatCannotBePacked() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new Limit(TokenBucketRateLimiter.MAX_CAPACITY + 1, 1));
+		assertThatIllegalArgumentException().isThrownBy(() -> Limit.of(1000, Duration.ofNanos(999)));
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Test class for {@link TrustedProxies}
+ */
+class TrustedProxiesTests {
+
+	private final TrustedProxies proxies = TrustedProxies.of(List.of("127.0.0.1", "10.0.0.0/8", "fd00::/8"));
+
+	@Test
+	void shouldIgnoreForwardedHeadersFromUntrustedClients() {
+		assertThat(this.proxies.resolveClient(request("203.0.113.7", "198.51.100.1", "198.51.100.2")))
+			.isEqualTo("203.0.113.7");
+		assertThat(TrustedProxies.of(List.of()).resolveClient(request("127.0.0.1", "198.51.100.1", null)))
+			.isEqualTo("127.0.0.1");
+	}
+
+	@Test
+	void shouldTakeRightmostUntrustedForwardedAddress() {
+		// the client forged the first entry, the proxies appended the rest
+		assertThat(this.proxies.resolveClient(request("10.1.2.3", "198.51.100.1, 203.0.113.7, 10.9.9.9", null)))
+			.isEqualTo("203.0.113.7");
+		assertThat(this.proxies.resolveClient(request("10.1.2.3", "10.2.2.2, 10.9.9.9", null))).isEqualTo("10.2.2.2");
+		assertThat(this.proxies.resolveClient(request("127.0.0.1", null, "203.0.113.7"))).isEqualTo("203.0.113.7");
+	}
+
+	@Test
+	void shouldMatchAddressesAndRanges() {
+		assertThat(this.proxies.isTrusted("10.255.0.1")).isTrue();
+		assertThat(this.proxies.isTrusted("11.0.0.1")).isFalse();
+		assertThat(this.proxies.isTrusted("fd12::1")).isTrue();
+		assertThat(this.proxies.isTrusted("[fd12::1]")).isTrue();
+		assertThat(this.proxies.isTrusted("fe80::1")).isFalse();
+		assertThat(this.proxies.isTrusted("localhost")).isFalse();
+		assertThat(this.proxies.isTrusted("10.0.0.1.example.com")).isFalse();
+		assertThatIllegalArgumentException().isThrownBy(() -> TrustedProxies.of(List.of("proxy.example.com")));
+		assertThatIllegalArgumentException().isThrownBy(() -> TrustedProxies.of(List.of("10.0.0.0/33")));
+	}
+
+	private static MockHttpServletRequest request(String remoteAddress, String forwardedFor, String realIp) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(remoteAddress);
+		if (forwardedFor != null) {
+			request.addHeader("X-Forwarded-For", forwardedFor);
+		}
+		if (realIp != null) {
+			request.addHeader("X-Real-IP", realIp);
+		}
+		return request;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.samples.petclinic.PetClinicApplication;
+
+/**
+ * Tests for {@link WarmUp}.
+ */
+class WarmUpTests {
+
+	@Test
+	void latencyIsSteadyWhenTheLastRoundsAreWithinTheTolerance() {
+		assertThat(WarmUp.isSteady(List.of(40.0, 12.0, 10.0, 10.5, 10.9), 3, 0.1)).isTrue();
+	}
+
+	@Test
+	void latencyIsNotSteadyWhileStillFalling() {
+		assertThat(WarmUp.isSteady(List.of(40.0, 20.0, 12.0, 10.5, 10.0), 3, 0.1)).isFalse();
+	}
+
+	@Test
+	void latencyIsNotSteadyWithFewerRoundsThanRequired() {
+		assertThat(WarmUp.isSteady(List.of(10.0, 10.0), 3, 0.1)).isFalse();
+	}
+
+	@Test
+	void warmsUpBeforeAcceptingTraffic() {
+		AtomicReference<WarmUp.Result> resultWhenReady = new AtomicReference<>();
+		ApplicationListener<AvailabilityChangeEvent<?>> listener = event -> {
+			if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+				ApplicationContext context = (ApplicationContext) event.getSource();
+				resultWhenReady.set(context.getBean(WarmUp.class).result());
+			}
+		};
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PetClinicApplication.class)
+			.listeners(listener)
+			.run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:warm-up;DB_CLOSE_DELAY=-1",
+					"--warmup.time-budget=20s", "--warmup.min-rounds=2")) {
+			WarmUp.Result result = resultWhenReady.get();
+			assertThat(result).isNotNull();
+			assertThat(result.outcome()).isIn("steady", "budget");
+			assertThat(result.rounds()).isGreaterThanOrEqualTo(2);
+			assertThat(result.latencyMillis()).isPositive();
+			assertThat(context.getBean(CacheManager.class).getCache("vets").get(SimpleKey.EMPTY)).isNotNull();
+			MeterRegistry registry = context.getBean(MeterRegistry.class);
+			assertThat(registry.get("warmup.duration").tag("outcome", result.outcome()).timeGauge().value())
+				.isPositive();
+			assertThat(registry.get("warmup.rounds").gauge().value()).isEqualTo(result.rounds());
+		}
+	}
+
+}
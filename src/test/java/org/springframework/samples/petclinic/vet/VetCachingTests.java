@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Integration test for the caching of {@link VetRepository} and the eviction of its
+ * caches on writes.
+ */
+@SpringBootTest
+class VetCachingTests {
+
+	@Autowired
+	private VetRepository vets;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void clearCaches() {
+		cache("vets").clear();
+		cache("vetPages").clear();
+	}
+
+	@Test
+	void shouldCacheFullListAndPagesSeparately() {
+		this.vets.findAll();
+		this.vets.findAll(PageRequest.of(1, 5));
+		this.vets.findAll(PageRequest.of(0, 5, Sort.by("lastName")));
+
+		assertThat(cache("vets").get(SimpleKey.EMPTY)).isNotNull();
+		assertThat(cache("vetPages").get("1:5")).isNotNull();
+		assertThat(cache("vetPages").get("0:5")).isNull();
+	}
+
+	@Test
+	void shouldEvictOnVetWrite() {
+		this.vets.findAll();
+		this.vets.findAll(PageRequest.of(0, 5));
+
+		inTransaction(em -> em.find(Vet.class, 1).setFirstName("Jim"));
+		try {
+			assertThat(cache("vets").get(SimpleKey.EMPTY)).isNull();
+			assertThat(cache("vetPages").get("0:5")).isNull();
+			assertThat(this.vets.findAll()).extracting(Vet::getFirstName).contains("Jim");
+		}
+		finally {
+			inTransaction(em -> em.find(Vet.class, 1).setFirstName("James"));
+		}
+	}
+
+	@Test
+	void shouldEvictOnSpecialtyWrite() {
+		this.vets.findAll();
+
+		inTransaction(em -> em.find(Specialty.class, 1).setName("cardiology"));
+		try {
+			assertThat(cache("vets").get(SimpleKey.EMPTY)).isNull();
+		}
+		finally {
+			inTransaction(em -> em.find(Specialty.class, 1).setName("radiology"));
+		}
+	}
+
+	@Test
+	void shouldExportCacheStatistics() {
+		this.vets.findAll();
+		this.vets.findAll();
+
+		assertThat(this.registry.get("cache.gets")
+			.tag("cache", "vets")
+			.tag("cache.manager", "cacheManager")
+			.tag("result", "hit")
+			.functionCounter()
+			.count()).isPositive();
+	}
+
+	private Cache cache(String name) {
+		Cache cache = this.cacheManager.getCache(name);
+		assertThat(cache).isNotNull();
+		return cache;
+	}
+
+	private void inTransaction(Consumer<EntityManager> work) {
+		new TransactionTemplate(this.transactionManager)
+			.executeWithoutResult(status -> work.accept(this.entityManager));
+	}
+
+}
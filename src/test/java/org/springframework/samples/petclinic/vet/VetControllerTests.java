@@ -24,6 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -31,6 +32,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -89,6 +93,30 @@ class VetControllerTests {
 
 	}
 
+	@Test
+	void testShowVetListHtmlFilteredBySpecialty() throws Exception {
+		mockMvc.perform(get("/vets.html").param("specialty", "radiology").param("match", "all"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("listVets", hasSize(1)))
+			.andExpect(model().attribute("allSpecialties", contains("radiology")))
+			.andExpect(model().attribute("match", "all"))
+			.andExpect(view().name("vets/vetList"));
+	}
+
+	@Test
+	void testFindVetsBySpecialty() throws Exception {
+		mockMvc.perform(get("/vets").param("specialty", "radiology", "surgery").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.vetList.length()").value(1))
+			.andExpect(jsonPath("$.vetList[0].lastName").value("Leary"));
+		mockMvc
+			.perform(get("/vets").param("specialty", "radiology", "surgery")
+				.param("match", "all")
+				.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.vetList").isEmpty());
+	}
+
 	@Test
 	void testShowResourcesVetList() throws Exception {
 		ResultActions actions = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
@@ -97,4 +125,33 @@ class VetControllerTests {
 			.andExpect(jsonPath("$.vetList[0].id").value(1));
 	}
 
+	@Test
+	void testShowResourcesVetListAsXml() throws Exception {
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_XML))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML))
+			.andExpect(header().exists(HttpHeaders.ETAG))
+			.andExpect(xpath("/vets/vetList[2]/lastName").string("Leary"));
+	}
+
+	@Test
+	void testShowResourcesVetListNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+
+		// a new vet list, as after a cache eviction, changes the representation
+		given(this.vets.findAll()).willReturn(Lists.newArrayList(james()));
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+			.andExpect(jsonPath("$.vetList.length()").value(1));
+	}
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.vet;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Microbenchmark for filtering vets by two specialties with {@link VetSpecialtyIndex},
+ * compared with joining {@code vet_specialties} in an in-memory H2 database holding the
+ * same vets. Run with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VetSpecialtyIndexBenchmark {
+
+	private static final String[] SPECIALTIES = { "radiology", "surgery", "dentistry", "cardiology", "dermatology",
+			"oncology", "neurology", "ophthalmology", "anesthesiology", "nutrition" };
+
+	private static final List<String> QUERY = List.of("radiology", "surgery");
+
+	@Param({ "1000", "5000" })
+	private int vetCount;
+
+	private VetSpecialtyIndex index;
+
+	private Connection connection;
+
+	private PreparedStatement matchAll;
+
+	private PreparedStatement matchAny;
+
+	@Setup
+	public void setup() throws SQLException {
+		this.connection = DriverManager.getConnection("jdbc:h2:mem:vet-specialty-benchmark", "sa", "");
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("CREATE TABLE vets (id INTEGER PRIMARY KEY, first_name VARCHAR(30))");
+			statement.execute("CREATE TABLE specialties (id INTEGER PRIMARY KEY, name VARCHAR(80))");
+			statement.execute("CREATE INDEX specialties_name ON specialties (name)");
+			statement.execute("CREATE TABLE vet_specialties (vet_id INTEGER NOT NULL, specialty_id INTEGER NOT NULL, "
+					+ "PRIMARY KEY (vet_id, specialty_id))");
+			statement.execute("CREATE INDEX vet_specialties_specialty_id ON vet_specialties (specialty_id)");
+		}
+		List<Specialty> specialties = new ArrayList<>();
+		try (PreparedStatement insert = this.connection.prepareStatement("INSERT INTO specialties VALUES (?, ?)")) {
+			for (int i = 0; i < SPECIALTIES.length; i++) {
+				Specialty specialty = new Specialty();
+				specialty.setId(i + 1);
+				specialty.setName(SPECIALTIES[i]);
+				specialties.add(specialty);
+				insert.setInt(1, i + 1);
+				insert.setString(2, SPECIALTIES[i]);
+				insert.executeUpdate();
+			}
+		}
+		Random random = new Random(42);
+		List<Vet> vets = new ArrayList<>();
+		try (PreparedStatement insertVet = this.connection.prepareStatement("INSERT INTO vets VALUES (?, ?)");
+				PreparedStatement insertSpecialty = this.connection
+					.prepareStatement("MERGE INTO vet_specialties VALUES (?, ?)")) {
+			for (int id = 1; id <= this.vetCount; id++) {
+				Vet vet = new Vet();
+				vet.setId(id);
+				vet.setFirstName("Vet " + id);
+				insertVet.setInt(1, id);
+				insertVet.setString(2, vet.getFirstName());
+				insertVet.executeUpdate();
+				for (int i = random.nextInt(4); i > 0; i--) {
+					Specialty specialty = specialties.get(random.nextInt(specialties.size()));
+					vet.addSpecialty(specialty);
+					insertSpecialty.setInt(1, id);
+					insertSpecialty.setInt(2, specialty.getId());
+					insertSpecialty.executeUpdate();
+				}
+				vets.add(vet);
+			}
+		}
+		this.index = VetSpecialtyIndex.of(vets);
+		String join = "SELECT vs.vet_id FROM vet_specialties vs JOIN specialties s ON s.id = vs.specialty_id "
+				+ "WHERE s.name IN (?, ?) ";
+		this.matchAll = this.connection.prepareStatement(join + "GROUP BY vs.vet_id HAVING COUNT(*) = 2");
+		this.matchAny = this.connection.prepareStatement(join + "GROUP BY vs.vet_id");
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("SHUTDOWN");
+		}
+	}
+
+	@Benchmark
+	public List<Vet> indexMatchAll() {
+		return this.index.findBySpecialties(QUERY, true);
+	}
+
+	@Benchmark
+	public List<Vet> indexMatchAny() {
+		return this.index.findBySpecialties(QUERY, false);
+	}
+
+	@Benchmark
+	public List<Integer> sqlJoinMatchAll() throws SQLException {
+		return query(this.matchAll);
+	}
+
+	@Benchmark
+	public List<Integer> sqlJoinMatchAny() throws SQLException {
+		return query(this.matchAny);
+	}
+
+	private List<Integer> query(PreparedStatement statement) throws SQLException {
+		statement.setString(1, QUERY.get(0));
+		statement.setString(2, QUERY.get(1));
+		List<Integer> ids = new ArrayList<>();
+		try (ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				ids.add(resultSet.getInt(1));
+			}
+		}
+		return ids;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VetSpecialtyIndexBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
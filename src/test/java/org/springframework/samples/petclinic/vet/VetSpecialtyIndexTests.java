@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link VetSpecialtyIndex}.
+ */
+class VetSpecialtyIndexTests {
+
+	private final Specialty radiology = specialty(1, "radiology");
+
+	private final Specialty surgery = specialty(2, "surgery");
+
+	private final Specialty dentistry = specialty(3, "dentistry");
+
+	private final Vet james = vet(1, "James");
+
+	private final Vet helen = vet(2, "Helen", this.radiology);
+
+	private final Vet linda = vet(3, "Linda", this.surgery, this.dentistry);
+
+	private final Vet rafael = vet(4, "Rafael", this.surgery, this.radiology);
+
+	private final List<Vet> vets = List.of(this.james, this.helen, this.linda, this.rafael);
+
+	private final VetSpecialtyIndex index = VetSpecialtyIndex.of(this.vets);
+
+	@Test
+	void shouldMatchAnySpecialty() {
+		assertThat(this.index.findBySpecialties(List.of("radiology", "dentistry"), false)).containsExactly(this.helen,
+				this.linda, this.rafael);
+	}
+
+	@Test
+	void shouldMatchAllSpecialties() {
+		assertThat(this.index.findBySpecialties(List.of("Surgery", "RADIOLOGY"), true)).containsExactly(this.rafael);
+		assertThat(this.index.findBySpecialties(List.of("surgery", "radiology", "dentistry"), true)).isEmpty();
+	}
+
+	@Test
+	void shouldTreatUnknownSpecialtiesAsMatchingNoVet() {
+		assertThat(this.index.findBySpecialties(List.of("surgery", "cardiology"), false)).containsExactly(this.linda,
+				this.rafael);
+		assertThat(this.index.findBySpecialties(List.of("surgery", "cardiology"), true)).isEmpty();
+		assertThat(this.index.findBySpecialties(List.of("cardiology"), false)).isEmpty();
+	}
+
+	@Test
+	void shouldListSpecialtyNamesAndTrackItsSource() {
+		assertThat(this.index.getSpecialtyNames()).containsExactly("dentistry", "radiology", "surgery");
+		assertThat(this.index.isBuiltFrom(this.vets)).isTrue();
+		assertThat(this.index.isBuiltFrom(new ArrayList<>(this.vets))).isFalse();
+	}
+
+	private static Specialty specialty(int id, String name) {
+		Specialty specialty = new Specialty();
+		specialty.setId(id);
+		specialty.setName(name);
+		return specialty;
+	}
+
+	private static Vet vet(int id, String firstName, Specialty... specialties) {
+		Vet vet = new Vet();
+		vet.setId(id);
+		vet.setFirstName(firstName);
+		for (Specialty specialty : specialties) {
+			vet.addSpecialty(specialty);
+		}
+		return vet;
+	}
+
+}
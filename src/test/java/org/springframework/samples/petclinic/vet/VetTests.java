@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.util.SerializationUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Dave Syer
@@ -38,4 +39,39 @@ class VetTests {
 		assertThat(other.getId()).isEqualTo(vet.getId());
 	}
 
+	@Test
+	void testSpecialtiesAreSortedOnceUntilChanged() {
+		Vet vet = new Vet();
+		vet.addSpecialty(specialty("surgery"));
+		vet.addSpecialty(specialty("dentistry"));
+
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+		assertThat(vet.getSpecialties()).isSameAs(vet.getSpecialties());
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+			.isThrownBy(() -> vet.getSpecialties().add(specialty("radiology")));
+
+		vet.addSpecialty(specialty("anesthesiology"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName)
+			.containsExactly("anesthesiology", "dentistry", "surgery");
+	}
+
+	@Test
+	void testSpecialtiesAreSortedAgainAfterChangesToTheInternalSet() {
+		Vet vet = new Vet();
+		vet.addSpecialty(specialty("surgery"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("surgery");
+
+		vet.getSpecialtiesInternal().add(specialty("dentistry"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+
+		vet.getSpecialtiesInternal().removeIf(specialty -> specialty.getName().equals("surgery"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry");
+	}
+
+	private Specialty specialty(String name) {
+		Specialty specialty = new Specialty();
+		specialty.setName(name);
+		return specialty;
+	}
+
 }